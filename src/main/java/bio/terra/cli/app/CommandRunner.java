@@ -1,16 +1,32 @@
 package bio.terra.cli.app;
 
+import bio.terra.cli.app.utils.AppDefaultCredentialUtils;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
-import bio.terra.cli.businessobject.Workspace;
+import bio.terra.cli.businessobject.ToolEnvironment;
 import bio.terra.cli.businessobject.resource.DataCollection;
 import bio.terra.cli.exception.PassthroughException;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.CommandTimings;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cli.utils.UserIO;
 import com.google.common.annotations.VisibleForTesting;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +40,13 @@ public abstract class CommandRunner {
   // Only tests set this.
   @VisibleForTesting public static final String IS_TEST = "IS_TEST";
   private static final Logger logger = LoggerFactory.getLogger(CommandRunner.class);
+  // fetch up to this many data collection workspaces at the same time
+  private static final int MAX_DATA_COLLECTION_FETCHES_IN_FLIGHT = 8;
+  // give up on a data collection that takes longer than this to fetch
+  private static final Duration DATA_COLLECTION_FETCH_TIMEOUT = Duration.ofSeconds(60);
+
+  // environment variables for the tool command being run, null before the command starts
+  @Nullable private ToolEnvironment toolEnvironment;
 
   /**
    * Utility method for concatenating a command and its arguments.
@@ -82,11 +105,88 @@ public abstract class CommandRunner {
     for (String commandToken : command) {
       logger.debug("tokenized command string: {}", commandToken);
     }
+    addTerraEnvVars(envVars);
 
-    // add Terra global and workspace context information as environment variables
-    Map<String, String> terraEnvVars = buildMapOfTerraReferences();
-    terraEnvVars.put("GOOGLE_SERVICE_ACCOUNT_EMAIL", Context.requireUser().getPetSaEmail());
-    terraEnvVars.put("GOOGLE_CLOUD_PROJECT", Context.requireWorkspace().getGoogleProjectId());
+    // call the sub-class implementation of running a tool command
+    int exitCode = runToolCommandImpl(wrapCommandInSetupCleanup(command), envVars, true);
+
+    // if the command is not successful, then pass the exit code out to the CLI caller
+    if (exitCode != 0) {
+      throw new PassthroughException(exitCode);
+    }
+  }
+
+  /**
+   * Run several tool commands at the same time (e.g. clone many git repos). The environment
+   * variables are prepared once and shared by all the commands, and each command runs in its own
+   * process or container.
+   *
+   * <p>The commands aren't wrapped in the usual setup/cleanup, which changes the gcloud
+   * configuration and so would race between concurrent commands. Instead, gcloud is pointed at the
+   * workspace project with the CLOUDSDK_CORE_PROJECT environment variable.
+   *
+   * @param commands the commands and arguments to execute
+   * @param maxConcurrent maximum number of commands to run at the same time
+   * @param onFinished called with each command and its exit code as soon as it finishes, from the
+   *     thread that ran it. a command that couldn't be run at all has exit code 1
+   * @return the exit code of each command, in the same order as the commands
+   */
+  public List<Integer> runToolCommandsConcurrently(
+      List<List<String>> commands,
+      int maxConcurrent,
+      BiConsumer<List<String>, Integer> onFinished) {
+    Map<String, String> envVars = new HashMap<>();
+    addTerraEnvVars(envVars);
+    envVars.put("CLOUDSDK_CORE_PROJECT", Context.requireWorkspace().getGoogleProjectId());
+
+    ExecutorService executor =
+        ThreadPools.newFixedDaemonPool("tool-command", Math.max(1, maxConcurrent));
+    try {
+      List<Future<Integer>> runs = new ArrayList<>();
+      for (List<String> command : commands) {
+        runs.add(
+            executor.submit(
+                () -> {
+                  int exitCode;
+                  try {
+                    // each command gets its own copy, because the sub-classes add to it. none of
+                    // them get the CLI's stdin, which they would otherwise have to share
+                    exitCode =
+                        runToolCommandImpl(
+                            buildFullCommand(command), new HashMap<>(envVars), false);
+                  } catch (RuntimeException rtEx) {
+                    logger.error("Error running tool command: {}", command, rtEx);
+                    exitCode = 1;
+                  }
+                  onFinished.accept(command, exitCode);
+                  return exitCode;
+                }));
+      }
+      List<Integer> exitCodes = new ArrayList<>();
+      for (Future<Integer> run : runs) {
+        exitCodes.add(waitForToolCommand(run));
+      }
+      return exitCodes;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Add Terra global and workspace context information to the environment variables for a tool
+   * command, and write any context changes to disk before the tool is launched.
+   *
+   * @param envVars a mapping of environment variable names to values, added to in place
+   * @throws SystemException if a Terra environment variable overlaps or conflicts with one already
+   *     in the map
+   */
+  private void addTerraEnvVars(Map<String, String> envVars) {
+    // add Terra global and workspace context information as environment variables. these are
+    // reused from the last tool command in this workspace if its resources haven't changed
+    toolEnvironment =
+        CommandTimings.timePhase(
+            "env preparation", () -> ToolEnvironment.get(this::buildMapOfTerraEnvVars));
+    Map<String, String> terraEnvVars = toolEnvironment.getEnvVars();
     for (Map.Entry<String, String> workspaceReferenceEnvVar : terraEnvVars.entrySet()) {
       if (envVars.get(workspaceReferenceEnvVar.getKey()) != null) {
         throw new SystemException(
@@ -96,12 +196,23 @@ public abstract class CommandRunner {
     }
     envVars.putAll(terraEnvVars);
 
-    // call the sub-class implementation of running a tool command
-    int exitCode = runToolCommandImpl(wrapCommandInSetupCleanup(command), envVars);
+    // the tool may read the context directory (e.g. it's mounted into the Docker container, or the
+    // tool calls terra itself), so write any changes before launching it
+    Context.flushToDisk();
+  }
 
-    // if the command is not successful, then pass the exit code out to the CLI caller
-    if (exitCode != 0) {
-      throw new PassthroughException(exitCode);
+  /** Wait for a tool command that's running on another thread, and return its exit code. */
+  private static int waitForToolCommand(Future<Integer> run) {
+    try {
+      return run.get();
+    } catch (ExecutionException exEx) {
+      if (exEx.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exEx.getCause();
+      }
+      throw new SystemException("Error running tool command.", exEx.getCause());
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while running tool command.", intEx);
     }
   }
 
@@ -118,9 +229,42 @@ public abstract class CommandRunner {
    *
    * @param command the full string of command and arguments to execute
    * @param envVars a mapping of environment variable names to values
+   * @param connectStdIn true to pass the CLI's standard in on to the command, false to give it an
+   *     empty standard in (e.g. for one of several commands running at the same time)
    * @return process exit code
    */
-  protected abstract int runToolCommandImpl(String command, Map<String, String> envVars);
+  protected abstract int runToolCommandImpl(
+      String command, Map<String, String> envVars, boolean connectStdIn);
+
+  /**
+   * Throw an exception if the application default credentials don't match the user or their pet SA.
+   * A successful check is remembered in the tool environment snapshot, and isn't repeated until the
+   * credentials change. Concurrent tool commands wait for the first one to check.
+   */
+  protected synchronized void throwIfADCDontMatchContext() {
+    String adcFingerprint = AppDefaultCredentialUtils.getADCFingerprint();
+    if (toolEnvironment != null && toolEnvironment.isAdcChecked(adcFingerprint)) {
+      logger.debug("Application default credentials were already checked: {}", adcFingerprint);
+      return;
+    }
+    AppDefaultCredentialUtils.throwIfADCDontMatchContext();
+    if (toolEnvironment != null) {
+      toolEnvironment.setAdcChecked(adcFingerprint);
+    }
+  }
+
+  /**
+   * Build the map of environment variables to set when running tool commands: the Terra references
+   * (see {@link #buildMapOfTerraReferences()}), the pet SA email and the workspace project.
+   *
+   * @return a map of environment variable names to values
+   */
+  private Map<String, String> buildMapOfTerraEnvVars() {
+    Map<String, String> terraEnvVars = buildMapOfTerraReferences();
+    terraEnvVars.put("GOOGLE_SERVICE_ACCOUNT_EMAIL", Context.requireUser().getPetSaEmail());
+    terraEnvVars.put("GOOGLE_CLOUD_PROJECT", Context.requireWorkspace().getGoogleProjectId());
+    return terraEnvVars;
+  }
 
   /**
    * Build a map of Terra references to use in setting environment variables when running commands.
@@ -133,40 +277,127 @@ public abstract class CommandRunner {
    * @return a map of Terra references (name -> cloud id)
    */
   private Map<String, String> buildMapOfTerraReferences() {
-    // build a map of reference string -> resolved value
-    Map<String, String> terraReferences = new HashMap<>();
-    Context.requireWorkspace()
-        .getResources()
-        .forEach(
-            resource -> {
-              if (Resource.Type.DATA_COLLECTION != resource.getResourceType()) {
-                String envVariable = convertToEnvironmentVariable(resource.getName());
-                terraReferences.put(envVariable, resource.resolve());
-              } else {
-                Workspace dataCollectionWorkspace = null;
-                try {
-                  dataCollectionWorkspace =
-                      ((DataCollection) resource).getDataCollectionWorkspace();
-                } catch (SystemException e) {
-                  logger.warn(
-                      String.format("Failed to get the data collection %s", resource.getName()), e);
-                }
-                if (dataCollectionWorkspace != null) {
-                  dataCollectionWorkspace.getResources().stream()
-                      .filter(
-                          // This should NEVER happen but check here to prevent endless resolve.
-                          r -> Resource.Type.DATA_COLLECTION != r.getResourceType())
-                      .forEach(
-                          r -> {
-                            String envVariable =
-                                convertToEnvironmentVariable(
-                                    resource.getName() + "_" + r.getName());
-                            terraReferences.put(envVariable, r.resolve());
-                          });
-                }
-              }
-            });
-
-    return terraReferences;
+    return buildMapOfTerraReferences(
+        Context.requireWorkspace().getResources(),
+        dataCollection -> dataCollection.getDataCollectionWorkspace().getResources(),
+        DATA_COLLECTION_FETCH_TIMEOUT);
+  }
+
+  /**
+   * Build a map of Terra references from a list of resources (see {@link
+   * #buildMapOfTerraReferences()}).
+   *
+   * <p>The resources in any data collections are fetched concurrently. The references are still
+   * added in the order of the list, so the map doesn't depend on which fetch finishes first. A data
+   * collection that can't be fetched, or that isn't fetched before the timeout, is skipped with a
+   * warning, so the command still runs without the references into it.
+   *
+   * @param resources resources to add references for, in order
+   * @param fetchDataCollectionResources function to fetch the resources in a data collection
+   * @param fetchTimeout how long to wait for all the data collections to be fetched
+   * @return a map of Terra references (name -> cloud id)
+   */
+  @VisibleForTesting
+  public static Map<String, String> buildMapOfTerraReferences(
+      List<Resource> resources,
+      Function<DataCollection, List<Resource>> fetchDataCollectionResources,
+      Duration fetchTimeout) {
+    List<DataCollection> dataCollections =
+        resources.stream()
+            .filter(resource -> Resource.Type.DATA_COLLECTION == resource.getResourceType())
+            .map(resource -> (DataCollection) resource)
+            .collect(Collectors.toList());
+    Map<DataCollection, Future<List<Resource>>> dataCollectionResources = new HashMap<>();
+    ExecutorService executor =
+        dataCollections.isEmpty()
+            ? null
+            : ThreadPools.newFixedDaemonPool(
+                "data-collection-fetch",
+                Math.min(dataCollections.size(), MAX_DATA_COLLECTION_FETCHES_IN_FLIGHT));
+    try {
+      for (DataCollection dataCollection : dataCollections) {
+        dataCollectionResources.put(
+            dataCollection,
+            executor.submit(() -> fetchDataCollectionResources.apply(dataCollection)));
+      }
+      // one deadline for all the fetches, since they run at the same time
+      long deadlineNanos = System.nanoTime() + fetchTimeout.toNanos();
+
+      // build a map of reference string -> resolved value
+      Map<String, String> terraReferences = new HashMap<>();
+      for (Resource resource : resources) {
+        if (Resource.Type.DATA_COLLECTION != resource.getResourceType()) {
+          String envVariable = convertToEnvironmentVariable(resource.getName());
+          terraReferences.put(envVariable, resource.resolve());
+          continue;
+        }
+        waitForDataCollectionResources(
+                resource, dataCollectionResources.get(resource), fetchTimeout, deadlineNanos)
+            .stream()
+            .filter(
+                // This should NEVER happen but check here to prevent endless resolve.
+                r -> Resource.Type.DATA_COLLECTION != r.getResourceType())
+            .forEach(
+                r -> {
+                  String envVariable =
+                      convertToEnvironmentVariable(resource.getName() + "_" + r.getName());
+                  terraReferences.put(envVariable, r.resolve());
+                });
+      }
+      return terraReferences;
+    } finally {
+      if (executor != null) {
+        // a fetch that's still running is left to finish in the background. it doesn't hold any
+        // lock that the tool command needs
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  /**
+   * Wait for the resources in a data collection, until the deadline. If they can't be fetched in
+   * time, warn and skip the data collection, so the command still runs, just without the references
+   * into it.
+   *
+   * @return the resources in the data collection, or an empty list if they couldn't be fetched
+   */
+  private static List<Resource> waitForDataCollectionResources(
+      Resource dataCollection,
+      Future<List<Resource>> fetch,
+      Duration fetchTimeout,
+      long deadlineNanos) {
+    try {
+      return fetch.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+    } catch (ExecutionException exEx) {
+      if (exEx.getCause() instanceof SystemException) {
+        logger.warn(
+            String.format("Failed to get the data collection %s", dataCollection.getName()),
+            exEx.getCause());
+        UserIO.getErr()
+            .printf(
+                "Skipping data collection %s: it couldn't be fetched, check that you have access"
+                    + " to it.%n",
+                dataCollection.getName());
+        return Collections.emptyList();
+      }
+      if (exEx.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exEx.getCause();
+      }
+      throw new SystemException("Error getting the data collection.", exEx.getCause());
+    } catch (TimeoutException timeoutEx) {
+      fetch.cancel(true);
+      logger.warn(
+          "Timed out after {} getting the data collection {}",
+          fetchTimeout,
+          dataCollection.getName());
+      UserIO.getErr()
+          .printf(
+              "Skipping data collection %s: it took longer than %d seconds to fetch.%n",
+              dataCollection.getName(), fetchTimeout.toSeconds());
+      return Collections.emptyList();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while getting the data collection.", intEx);
+    }
   }
 }
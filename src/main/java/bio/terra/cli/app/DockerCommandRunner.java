@@ -4,7 +4,12 @@ import bio.terra.cli.app.utils.AppDefaultCredentialUtils;
 import bio.terra.cli.app.utils.DockerClientWrapper;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.PassthroughException;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.InvocationEnvironment;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,7 +31,21 @@ public class DockerCommandRunner extends CommandRunner {
   // name of the ADC file mounted on the container
   private static final String APPLICATION_DEFAULT_CREDENTIALS_FILE_NAME =
       "application_default_credentials.json";
-  private final DockerClientWrapper dockerClientWrapper = new DockerClientWrapper();
+  // written in a long-lived container once terra_init.sh has finished
+  private static final String WARM_CONTAINER_READY_FILE = "/tmp/terra-ready";
+  // command run in a long-lived container before each tool command: wait up to 2 minutes for the
+  // process that started the container to finish running terra_init.sh in it
+  private static final String WAIT_FOR_WARM_CONTAINER_SCRIPT =
+      "for i in $(seq 1200); do [ -e "
+          + WARM_CONTAINER_READY_FILE
+          + " ] && break; sleep 0.1; done; "
+          + "[ -e "
+          + WARM_CONTAINER_READY_FILE
+          + " ] || { echo 'Timed out waiting for the Docker container to start.' >&2; exit 1; }; ";
+  // the wrapper keeps the state of the container it started, so concurrent tool commands each need
+  // their own
+  private final ThreadLocal<DockerClientWrapper> dockerClientWrapperPerThread =
+      ThreadLocal.withInitial(DockerClientWrapper::new);
 
   /**
    * Get the global context directory on the container.
@@ -51,6 +70,10 @@ public class DockerCommandRunner extends CommandRunner {
    * @return the full string of commands and arguments to execute
    */
   protected String wrapCommandInSetupCleanup(List<String> command) {
+    if (isContainerReuseEnabled()) {
+      // a reused container runs terra_init.sh once, when it's started
+      return buildFullCommand(command);
+    }
     // the terra_init script is already copied into the Docker image
     return "terra_init.sh && " + buildFullCommand(command);
   }
@@ -61,18 +84,25 @@ public class DockerCommandRunner extends CommandRunner {
    * <p>The terra_init.sh script that was copied into the Docker image will be run before the given
    * command.
    *
+   * <p>The container isn't attached to the CLI's standard in, so the command always has an empty
+   * standard in.
+   *
    * @param command the full string of command and arguments to execute
    * @param envVars a mapping of environment variable names to values
+   * @param connectStdIn ignored, the command never reads the CLI's standard in
    * @return process exit code
    */
-  protected int runToolCommandImpl(String command, Map<String, String> envVars)
+  protected int runToolCommandImpl(
+      String command, Map<String, String> envVars, boolean connectStdIn)
       throws PassthroughException {
+    DockerClientWrapper dockerClientWrapper = dockerClientWrapperPerThread.get();
+
     // mount the global context directory and the current working directory to the container
     //  e.g. global context dir (host) $HOME/.terra -> (container) CONTAINER_HOME_DIR/.terra
     //       current working dir (host) /Users/mm/workspace123 -> (container) CONTAINER_WORKING_DIR
     Map<Path, Path> bindMounts = new HashMap<>();
     bindMounts.put(getGlobalContextDirOnContainer(), Context.getContextDir());
-    bindMounts.put(Path.of(CONTAINER_WORKING_DIR), Path.of(System.getProperty("user.dir")));
+    bindMounts.put(Path.of(CONTAINER_WORKING_DIR), InvocationEnvironment.getWorkingDir());
 
     // mount the gcloud config directory to the container
     // e.g. gcloud config dir (host) $HOME/.config/gcloud -> (container)
@@ -90,7 +120,7 @@ public class DockerCommandRunner extends CommandRunner {
       envVars.put("CLOUDSDK_AUTH_ACCESS_TOKEN", getTestPetSaAccessToken().get());
     } else { // this is normal operation
       // check that the ADC match the user or their pet SA
-      AppDefaultCredentialUtils.throwIfADCDontMatchContext();
+      throwIfADCDontMatchContext();
 
       // if the ADC are set by a file, then make sure that file is mounted to the container and the
       // env var points to it if needed
@@ -98,12 +128,17 @@ public class DockerCommandRunner extends CommandRunner {
       if (adcCredentialsFile.isPresent()
           && adcCredentialsFile.get().equals(AppDefaultCredentialUtils.getDefaultGcloudADCFile())) {
         logger.info(
-            "ADC backing file is in the default location and is already mounted in the gcloud config directory");
+            "ADC backing file is in the default location and is already mounted in the gcloud"
+                + " config directory");
       } else {
         logger.info("ADC set by metadata server.");
       }
     }
 
+    if (isContainerReuseEnabled()) {
+      return runInWarmContainer(command, envVars, bindMounts);
+    }
+
     // create and start the docker container
     dockerClientWrapper.startContainer(
         Context.getConfig().getDockerImageId(),
@@ -112,8 +147,8 @@ public class DockerCommandRunner extends CommandRunner {
         envVars,
         bindMounts);
 
-    // read the container logs, which contains the command output, and write them to stdout
-    dockerClientWrapper.streamLogsForContainer();
+    // block until the command output, which is streamed to stdout and stderr as it arrives, ends
+    dockerClientWrapper.waitForOutputToFinish();
 
     // block until the container exits
     Integer statusCode = dockerClientWrapper.waitForContainerToExit();
@@ -128,4 +163,108 @@ public class DockerCommandRunner extends CommandRunner {
 
     return exitCode.intValue();
   }
+
+  /** True if tool commands run in a long-lived container (`terra config set docker-reuse`). */
+  private static boolean isContainerReuseEnabled() {
+    return Context.getConfig().getDockerReuseIdleMinutes() > 0;
+  }
+
+  /**
+   * Run a tool command with `docker exec` in the long-lived container for this workspace, user and
+   * bind mounts, starting the container first if it isn't running or no longer matches the image.
+   *
+   * @param command the full string of command and arguments to execute
+   * @param envVars a mapping of environment variable names to values
+   * @param bindMounts a mapping of container mount point to the local directory being mounted
+   * @return process exit code
+   */
+  private int runInWarmContainer(
+      String command, Map<String, String> envVars, Map<Path, Path> bindMounts) {
+    DockerClientWrapper dockerClientWrapper = dockerClientWrapperPerThread.get();
+    // other tool commands, for other workspaces, can change the project in the shared gcloud
+    // configuration, so point gcloud at this workspace's project for each command
+    envVars.put("CLOUDSDK_CORE_PROJECT", Context.requireWorkspace().getGoogleProjectId());
+
+    // the container may stop on its own (e.g. it was idle for too long) between finding it and
+    // running the command, or be removed because terra_init.sh failed in it, so try once more with
+    // a new container
+    for (int attempt = 1; attempt <= 2; attempt++) {
+      String warmContainerId = getOrStartWarmContainer(envVars, bindMounts);
+      Optional<String> execId =
+          dockerClientWrapper.createExecInWarmContainer(
+              warmContainerId,
+              WAIT_FOR_WARM_CONTAINER_SCRIPT + command,
+              CONTAINER_WORKING_DIR,
+              envVars);
+      if (execId.isEmpty()) {
+        continue;
+      }
+      Optional<Integer> exitCode = dockerClientWrapper.startExec(execId.get());
+      if (exitCode.isPresent()) {
+        return exitCode.get();
+      }
+    }
+    throw new SystemException("The Docker container stopped before the command could run.");
+  }
+
+  /**
+   * Get the id of the long-lived container for the current image, workspace, user and bind mounts,
+   * starting it if needed. A new container runs the terra_init.sh script before any other command,
+   * and then writes the ready file that the other commands wait for.
+   */
+  private String getOrStartWarmContainer(Map<String, String> envVars, Map<Path, Path> bindMounts) {
+    DockerClientWrapper dockerClientWrapper = dockerClientWrapperPerThread.get();
+    String imageId = Context.getConfig().getDockerImageId();
+    String containerName = getWarmContainerName(bindMounts);
+    Optional<String> existingContainerId =
+        dockerClientWrapper.findWarmContainer(containerName, imageId);
+    if (existingContainerId.isPresent()) {
+      return existingContainerId.get();
+    }
+
+    Duration idleTimeout = Duration.ofMinutes(Context.getConfig().getDockerReuseIdleMinutes());
+    Optional<String> newContainerId =
+        dockerClientWrapper.createWarmContainer(containerName, imageId, bindMounts, idleTimeout);
+    if (newContainerId.isEmpty()) {
+      // another process started the container at the same time. it may still be running
+      // terra_init.sh, so the command waits for the ready file
+      return dockerClientWrapper
+          .findWarmContainer(containerName, imageId)
+          .orElseThrow(
+              () -> new SystemException("Error starting Docker container " + containerName));
+    }
+
+    Optional<String> initExecId =
+        dockerClientWrapper.createExecInWarmContainer(
+            newContainerId.get(),
+            "terra_init.sh && touch " + WARM_CONTAINER_READY_FILE,
+            CONTAINER_WORKING_DIR,
+            envVars);
+    int initExitCode = initExecId.flatMap(dockerClientWrapper::startExec).orElse(1);
+    if (initExitCode != 0) {
+      // commands waiting for the ready file stop with the container, and try again
+      dockerClientWrapper.removeContainerIfExists(newContainerId.get());
+      throw new PassthroughException(initExitCode);
+    }
+    return newContainerId.get();
+  }
+
+  /**
+   * Get the name of the long-lived container for this context directory, workspace, user and bind
+   * mounts. Commands run from different working directories get different containers, so one never
+   * replaces a container that another is still running in. The image isn't part of the name, so
+   * that a container left over from a different image is found and replaced.
+   */
+  private static String getWarmContainerName(Map<Path, Path> bindMounts) {
+    String key =
+        Context.getContextDir().toAbsolutePath()
+            + ";"
+            + Context.requireWorkspace().getUuid()
+            + ";"
+            + Context.requireUser().getEmail()
+            + ";"
+            + DockerClientWrapper.hashBindMounts(bindMounts);
+    return "terra-cli-"
+        + Hashing.sha256().hashString(key, StandardCharsets.UTF_8).toString().substring(0, 16);
+  }
 }
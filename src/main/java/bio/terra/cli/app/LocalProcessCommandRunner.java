@@ -52,9 +52,11 @@ public class LocalProcessCommandRunner extends CommandRunner {
    *
    * @param command the full string of command and arguments to execute
    * @param envVars a mapping of environment variable names to values
+   * @param connectStdIn true to pass the CLI's standard in on to the child process
    * @return process exit code
    */
-  protected int runToolCommandImpl(String command, Map<String, String> envVars)
+  protected int runToolCommandImpl(
+      String command, Map<String, String> envVars, boolean connectStdIn)
       throws PassthroughException {
     if ("true".equals(System.getProperty(CommandRunner.IS_TEST))) {
       // For unit tests, set CLOUDSDK_AUTH_ACCESS_TOKEN. This is how to programmatically
@@ -66,7 +68,7 @@ public class LocalProcessCommandRunner extends CommandRunner {
       // key file, which we don't want for security reasons.)
 
       // check that the ADC match the user or their pet SA
-      AppDefaultCredentialUtils.throwIfADCDontMatchContext();
+      throwIfADCDontMatchContext();
 
       // if the ADC are set by a file, then make sure the env var points to it if needed
       Optional<Path> adcCredentialsFile = AppDefaultCredentialUtils.getADCBackingFile();
@@ -83,12 +85,9 @@ public class LocalProcessCommandRunner extends CommandRunner {
     processCommand.add("-ce");
     processCommand.add(command);
 
-    // launch the child process
+    // launch the child process, connected to stdout/err, and to stdin if requested
     LocalProcessLauncher localProcessLauncher = new LocalProcessLauncher();
-    localProcessLauncher.launchProcess(processCommand, envVars);
-
-    // stream the output to stdout/err
-    localProcessLauncher.streamOutputForProcess();
+    localProcessLauncher.launchProcessWithUserIO(processCommand, envVars, connectStdIn);
 
     // block until the child process exits
     int exitCode = localProcessLauncher.waitForTerminate();
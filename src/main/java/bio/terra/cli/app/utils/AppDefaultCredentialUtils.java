@@ -5,6 +5,7 @@ import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.GoogleOauth;
 import bio.terra.cli.service.utils.TerraCredentials;
+import bio.terra.cli.utils.InvocationEnvironment;
 import com.google.auth.oauth2.ComputeEngineCredentials;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.auth.oauth2.IdToken;
@@ -14,7 +15,10 @@ import com.google.auth.oauth2.ImpersonatedCredentials;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.auth.oauth2.UserCredentials;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -23,6 +27,8 @@ import org.slf4j.LoggerFactory;
 /** Utilities for working with Google application default credentials. */
 public class AppDefaultCredentialUtils {
   private static final Logger logger = LoggerFactory.getLogger(AppDefaultCredentialUtils.class);
+  // env var that points to the application default credentials file, if set
+  private static final String CREDENTIALS_ENV_VAR = "GOOGLE_APPLICATION_CREDENTIALS";
 
   /** Return the absolute path to file backing the current application default credentials. */
   public static Optional<Path> getADCBackingFile() {
@@ -40,6 +46,37 @@ public class AppDefaultCredentialUtils {
     return Optional.empty();
   }
 
+  /**
+   * Return a string that changes whenever the application default credentials might have changed:
+   * the path, size and modified time of the file they're read from, or a constant if they come from
+   * the metadata server.
+   */
+  public static String getADCFingerprint() {
+    Path credentialsFile = getCredentialsEnvVarFile().orElse(getDefaultGcloudADCFile());
+    try {
+      BasicFileAttributes attributes =
+          Files.readAttributes(credentialsFile, BasicFileAttributes.class);
+      return credentialsFile
+          + ":"
+          + attributes.size()
+          + ":"
+          + attributes.lastModifiedTime().toMillis();
+    } catch (IOException ioEx) {
+      return "metadata-server";
+    }
+  }
+
+  /**
+   * Return the absolute path to the file that the GOOGLE_APPLICATION_CREDENTIALS env var of the
+   * invoking process points to, if it's set.
+   */
+  private static Optional<Path> getCredentialsEnvVarFile() {
+    String credentialsEnvVar = InvocationEnvironment.getEnvVar(CREDENTIALS_ENV_VAR);
+    return credentialsEnvVar == null || credentialsEnvVar.isEmpty()
+        ? Optional.empty()
+        : Optional.of(InvocationEnvironment.resolvePath(Path.of(credentialsEnvVar)));
+  }
+
   /**
    * Return the absolute path to the default Gcloud location for storing end-user (i.e. not SA)
    * application default credentials.
@@ -85,9 +122,21 @@ public class AppDefaultCredentialUtils {
     return email != null && email.equalsIgnoreCase(Context.requireUser().getPetSaEmail());
   }
 
-  /** Get the application default credentials. Throw an exception if they are not defined. */
+  /**
+   * Get the application default credentials. Throw an exception if they are not defined.
+   *
+   * <p>The Google client library only looks at this JVM's environment, which is the daemon's
+   * instead of the invoking process' when running in the daemon. So read the file the invoking
+   * process' env var points to here, and only fall back to the library's lookup if it's not set.
+   */
   private static GoogleCredentials getApplicationDefaultCredentials() {
     try {
+      Optional<Path> credentialsFile = getCredentialsEnvVarFile();
+      if (credentialsFile.isPresent()) {
+        try (InputStream credentialsStream = Files.newInputStream(credentialsFile.get())) {
+          return GoogleCredentials.fromStream(credentialsStream);
+        }
+      }
       return GoogleCredentials.getApplicationDefault();
     } catch (IOException ioEx) {
       throw new UserActionableException(
@@ -8,26 +8,34 @@ import com.github.dockerjava.api.async.ResultCallback;
 import com.github.dockerjava.api.command.CreateContainerCmd;
 import com.github.dockerjava.api.command.InspectContainerResponse;
 import com.github.dockerjava.api.command.WaitContainerResultCallback;
+import com.github.dockerjava.api.exception.ConflictException;
 import com.github.dockerjava.api.exception.NotFoundException;
 import com.github.dockerjava.api.model.AccessMode;
 import com.github.dockerjava.api.model.Bind;
 import com.github.dockerjava.api.model.Frame;
 import com.github.dockerjava.api.model.HostConfig;
 import com.github.dockerjava.api.model.SELContext;
+import com.github.dockerjava.api.model.StreamType;
 import com.github.dockerjava.api.model.Volume;
 import com.github.dockerjava.core.DefaultDockerClientConfig;
 import com.github.dockerjava.core.DockerClientConfig;
 import com.github.dockerjava.core.DockerClientImpl;
 import com.github.dockerjava.httpclient5.ApacheDockerHttpClient;
 import com.github.dockerjava.transport.DockerHttpClient;
+import com.google.common.hash.Hashing;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,8 +43,29 @@ import org.slf4j.LoggerFactory;
 public class DockerClientWrapper {
   private static final Logger logger = LoggerFactory.getLogger(DockerClientWrapper.class);
 
+  // label on a long-lived container, to check that it still uses the configured image
+  private static final String IMAGE_LABEL = "bio.terra.cli.image";
+  // each command run in a long-lived container touches the last used file, and holds a busy file
+  // named with its pid while it runs
+  private static final String MARK_BUSY_SCRIPT =
+      "touch /tmp/terra-last-used /tmp/terra-busy.$$; "
+          + "trap 'rm -f /tmp/terra-busy.$$; touch /tmp/terra-last-used' EXIT; ";
+  // main process of a long-lived container: exit once no command is running and none has run for
+  // the idle timeout (in seconds)
+  private static final String IDLE_REAPER_SCRIPT =
+      "touch /tmp/terra-last-used; "
+          + "while true; do "
+          + "sleep 10; busy=0; "
+          + "for f in /tmp/terra-busy.*; do "
+          + "if [ -e \"$f\" ] && kill -0 \"${f##*.}\" 2>/dev/null; then busy=1; fi; "
+          + "done; "
+          + "idle=$(( $(date +%%s) - $(stat -c %%Y /tmp/terra-last-used) )); "
+          + "if [ $busy = 0 ] && [ $idle -ge %d ]; then exit 0; fi; "
+          + "done";
+
   private final DockerClient dockerClient;
   private String containerId;
+  private OutputStreamingCallback outputCallback;
 
   public DockerClientWrapper() {
     this.dockerClient = DockerClientWrapper.buildDockerClient();
@@ -89,36 +118,13 @@ public class DockerClientWrapper {
       String workingDir,
       Map<String, String> envVars,
       Map<Path, Path> bindMounts) {
-    // flatten the environment variables from a map, into a list of key=val strings
-    List<String> envVarsStr = new ArrayList<>();
-    for (Map.Entry<String, String> envVar : envVars.entrySet()) {
-      envVarsStr.add(envVar.getKey() + "=" + envVar.getValue());
-    }
-
-    // create Bind objects for each specified mount
-    List<Bind> bindMountsObj = new ArrayList<>();
-    for (Map.Entry<Path, Path> bindMount : bindMounts.entrySet()) {
-      File localFileOrDirectory = bindMount.getValue().toFile();
-      if (!localFileOrDirectory.exists()) {
-        throw new SystemException(
-            "Bind mount does not specify a local file or directory: "
-                + localFileOrDirectory.getAbsolutePath());
-      }
-      bindMountsObj.add(
-          new Bind(
-              localFileOrDirectory.getAbsolutePath(),
-              new Volume(bindMount.getKey().toString()),
-              AccessMode.rw,
-              SELContext.shared));
-    }
-
     // create the container and start it
     CreateContainerCmd createContainerCmd =
         dockerClient
             .createContainerCmd(imageId)
             .withCmd("bash", "-c", command)
-            .withEnv(envVarsStr)
-            .withHostConfig(HostConfig.newHostConfig().withBinds(bindMountsObj))
+            .withEnv(toEnvList(envVars))
+            .withHostConfig(HostConfig.newHostConfig().withBinds(toBinds(bindMounts)))
             .withAttachStdout(true)
             .withAttachStderr(true);
     if (workingDir != null) {
@@ -127,9 +133,167 @@ public class DockerClientWrapper {
     try {
       containerId = createContainerCmd.exec().getId();
 
+      // attach to the output before starting the container, so that none of it is missed
+      outputCallback =
+          dockerClient
+              .attachContainerCmd(containerId)
+              .withStdOut(true)
+              .withStdErr(true)
+              .withFollowStream(true)
+              .exec(new OutputStreamingCallback());
+      outputCallback.awaitStarted();
+
       dockerClient.startContainerCmd(containerId).exec();
 
       logger.debug("container id: {}", containerId);
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while starting the container.", intEx);
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+  }
+
+  /**
+   * Find a long-lived container started by {@link #createWarmContainer}, if it's still running and
+   * was started with the same image. A container left over from a different image is removed. The
+   * bind mounts aren't checked here, callers put {@link #hashBindMounts} in the container name.
+   *
+   * @param containerName name of the container
+   * @param imageId the id of the docker image the container must use
+   * @return the container id, or empty if there is no matching container
+   */
+  public Optional<String> findWarmContainer(String containerName, String imageId) {
+    InspectContainerResponse container;
+    try {
+      container = dockerClient.inspectContainerCmd(containerName).exec();
+    } catch (NotFoundException nfEx) {
+      return Optional.empty();
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+
+    Map<String, String> labels = container.getConfig().getLabels();
+    InspectContainerResponse.ContainerState state = container.getState();
+    String staleReason = null;
+    if (!Boolean.TRUE.equals(state.getRunning()) || Boolean.TRUE.equals(state.getRestarting())) {
+      staleReason = "not running";
+    } else if (labels == null || !imageId.equals(labels.get(IMAGE_LABEL))) {
+      staleReason = "image changed";
+    }
+    if (staleReason != null) {
+      logger.info("Replacing container {}: {}", containerName, staleReason);
+      removeContainerIfExists(container.getId());
+      return Optional.empty();
+    }
+    logger.debug("Reusing container {} ({})", containerName, container.getId());
+    return Optional.of(container.getId());
+  }
+
+  /**
+   * Start a long-lived container that runs commands sent with {@link #createExecInWarmContainer}.
+   * The container stops and removes itself once no command has run in it for the idle timeout.
+   *
+   * @param containerName name of the container, so that later CLI processes can find it
+   * @param imageId the id of the docker image to use for the container
+   * @param bindMounts a mapping of container mount point to the local directory being mounted
+   * @param idleTimeout how long to keep the container after the last command finishes
+   * @return the container id, or empty if another process started a container with this name first
+   */
+  public Optional<String> createWarmContainer(
+      String containerName, String imageId, Map<Path, Path> bindMounts, Duration idleTimeout) {
+    Map<String, String> labels = new HashMap<>();
+    labels.put(IMAGE_LABEL, imageId);
+    try {
+      String warmContainerId =
+          dockerClient
+              .createContainerCmd(imageId)
+              .withName(containerName)
+              .withLabels(labels)
+              .withCmd("bash", "-c", String.format(IDLE_REAPER_SCRIPT, idleTimeout.toSeconds()))
+              .withHostConfig(
+                  HostConfig.newHostConfig().withBinds(toBinds(bindMounts)).withAutoRemove(true))
+              .exec()
+              .getId();
+      dockerClient.startContainerCmd(warmContainerId).exec();
+      logger.debug("Started container {} ({})", containerName, warmContainerId);
+      return Optional.of(warmContainerId);
+    } catch (ConflictException confEx) {
+      logger.debug("Another process already created container {}", containerName);
+      return Optional.empty();
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+  }
+
+  /**
+   * Prepare to run a command in a container started by {@link #createWarmContainer}. This marks the
+   * container as busy, so it isn't stopped while the command runs.
+   *
+   * @param warmContainerId the container id
+   * @param command the full string command to execute in a bash shell (bash -c ..cmd..)
+   * @param workingDir the directory where the command will be executed
+   * @param envVars a mapping of environment variable names to values
+   * @return the exec id to pass to {@link #startExec(String)}, or empty if the container has
+   *     stopped (e.g. it was idle for too long)
+   */
+  public Optional<String> createExecInWarmContainer(
+      String warmContainerId, String command, String workingDir, Map<String, String> envVars) {
+    try {
+      return Optional.of(
+          dockerClient
+              .execCreateCmd(warmContainerId)
+              .withCmd("bash", "-c", MARK_BUSY_SCRIPT + command)
+              .withEnv(toEnvList(envVars))
+              .withWorkingDir(workingDir)
+              .withAttachStdout(true)
+              .withAttachStderr(true)
+              .exec()
+              .getId());
+    } catch (NotFoundException | ConflictException ex) {
+      logger.debug("Container {} stopped: {}", warmContainerId, ex.getMessage());
+      return Optional.empty();
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+  }
+
+  /**
+   * Run a command prepared with {@link #createExecInWarmContainer}, writing its output to standard
+   * out, and block until it finishes.
+   *
+   * @param execId the exec id
+   * @return the command's exit code, or empty if the container stopped or was removed before the
+   *     command could run (e.g. it was idle for too long between preparing and running the command)
+   */
+  public Optional<Integer> startExec(String execId) {
+    try {
+      dockerClient.execStartCmd(execId).exec(new OutputStreamingCallback()).awaitCompletion();
+      Long exitCode = dockerClient.inspectExecCmd(execId).exec().getExitCodeLong();
+      logger.debug("docker exec exit code: {}", exitCode);
+      return Optional.of(exitCode == null ? 1 : exitCode.intValue());
+    } catch (NotFoundException | ConflictException ex) {
+      logger.debug("Container stopped before exec {} ran: {}", execId, ex.getMessage());
+      return Optional.empty();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while running the command in the container.", intEx);
+    } catch (RuntimeException rtEx) {
+      throw wrapExceptionIfDockerConnectionFailed(rtEx);
+    }
+  }
+
+  /**
+   * Stop and remove a container, if it still exists.
+   *
+   * @param containerIdOrName the container id or name
+   */
+  public void removeContainerIfExists(String containerIdOrName) {
+    try {
+      dockerClient.removeContainerCmd(containerIdOrName).withForce(true).exec();
+    } catch (NotFoundException | ConflictException ex) {
+      // the container already stopped and is removing itself
+      logger.debug("Container {} is already gone: {}", containerIdOrName, ex.getMessage());
     } catch (RuntimeException rtEx) {
       throw wrapExceptionIfDockerConnectionFailed(rtEx);
     }
@@ -162,21 +326,67 @@ public class DockerClientWrapper {
     return container.getState().getExitCodeLong();
   }
 
-  /** Read the Docker container logs and write them to standard out. */
-  public void streamLogsForContainer() {
+  /**
+   * Block until all of the Docker container's output has been written to standard out and standard
+   * err. The output is streamed as it arrives, from the time the container starts.
+   */
+  public void waitForOutputToFinish() {
     try {
-      dockerClient
-          .logContainerCmd(containerId)
-          .withStdOut(true)
-          .withStdErr(true)
-          .withFollowStream(true)
-          .withTailAll()
-          .exec(new LogContainerCommandCallback());
+      outputCallback.awaitCompletion();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while reading the container output.", intEx);
     } catch (RuntimeException rtEx) {
       throw wrapExceptionIfDockerConnectionFailed(rtEx);
     }
   }
 
+  /** Flatten the environment variables from a map, into a list of key=val strings. */
+  private static List<String> toEnvList(Map<String, String> envVars) {
+    List<String> envVarsStr = new ArrayList<>();
+    for (Map.Entry<String, String> envVar : envVars.entrySet()) {
+      envVarsStr.add(envVar.getKey() + "=" + envVar.getValue());
+    }
+    return envVarsStr;
+  }
+
+  /**
+   * Create Bind objects for each specified mount.
+   *
+   * @throws SystemException if the local directory does not exist or is not a directory
+   */
+  private static List<Bind> toBinds(Map<Path, Path> bindMounts) {
+    List<Bind> bindMountsObj = new ArrayList<>();
+    for (Map.Entry<Path, Path> bindMount : bindMounts.entrySet()) {
+      File localFileOrDirectory = bindMount.getValue().toFile();
+      if (!localFileOrDirectory.exists()) {
+        throw new SystemException(
+            "Bind mount does not specify a local file or directory: "
+                + localFileOrDirectory.getAbsolutePath());
+      }
+      bindMountsObj.add(
+          new Bind(
+              localFileOrDirectory.getAbsolutePath(),
+              new Volume(bindMount.getKey().toString()),
+              AccessMode.rw,
+              SELContext.shared));
+    }
+    return bindMountsObj;
+  }
+
+  /**
+   * Hash the bind mounts, so that a long-lived container is only shared by commands that need the
+   * same mounts (e.g. run from the same working directory).
+   */
+  public static String hashBindMounts(Map<Path, Path> bindMounts) {
+    String sortedMounts =
+        new TreeMap<>(bindMounts)
+            .entrySet().stream()
+                .map(bindMount -> bindMount.getKey() + "=" + bindMount.getValue().toAbsolutePath())
+                .collect(Collectors.joining(";"));
+    return Hashing.sha256().hashString(sortedMounts, StandardCharsets.UTF_8).toString();
+  }
+
   /**
    * Check if the given exception indicates that connecting to the Docker daemon failed. This
    * usually means that Docker is either not installed or not running.
@@ -208,50 +418,23 @@ public class DockerClientWrapper {
     }
   }
 
-  /** Helper class for reading Docker container logs into a string. */
-  private static class LogContainerCommandCallback extends ResultCallback.Adapter<Frame> {
-
-    protected final StringBuffer log = new StringBuffer();
-    List<Frame> framesList = new ArrayList<>();
-
-    // these two boolean flags are useful for debugging
-    // buildSingleStringOutput = concatenate the output into a single String (be careful of very
-    // long outputs)
-    boolean buildSingleStringOutput;
-    // buildFramesList = keep a list of all the output lines (frames) as they come back
-    boolean buildFramesList;
-
-    public LogContainerCommandCallback() {
-      this(false, false);
-    }
-
-    public LogContainerCommandCallback(boolean buildSingleStringOutput, boolean buildFramesList) {
-      this.buildSingleStringOutput = buildSingleStringOutput;
-      this.buildFramesList = buildFramesList;
-    }
+  /**
+   * Writes the output of a container or a command run in one to standard out and standard err as it
+   * arrives, by stream type. Each frame is written and flushed before the next one is read, so a
+   * slow reader of the CLI's output slows down reading from Docker, instead of the output piling up
+   * in memory. The bytes are written unchanged, so binary output (e.g. `terra gsutil cat`) can be
+   * piped through.
+   */
+  private static class OutputStreamingCallback extends ResultCallback.Adapter<Frame> {
+    private final PrintStream out = UserIO.getOut();
+    private final PrintStream err = UserIO.getErr();
 
     @Override
     public void onNext(Frame frame) {
-      String logStr = new String(frame.getPayload(), StandardCharsets.UTF_8);
-      PrintStream out = UserIO.getOut();
-      out.print(logStr);
-      out.flush();
-
-      if (buildSingleStringOutput) {
-        log.append(logStr);
-      }
-      if (buildFramesList) {
-        framesList.add(frame);
-      }
-    }
-
-    @Override
-    public String toString() {
-      return log.toString();
-    }
-
-    public List<Frame> getFramesList() {
-      return framesList;
+      PrintStream stream = frame.getStreamType() == StreamType.STDERR ? err : out;
+      byte[] payload = frame.getPayload();
+      stream.write(payload, 0, payload.length);
+      stream.flush();
     }
   }
 }
@@ -1,48 +1,85 @@
 package bio.terra.cli.app.utils;
 
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.InvocationEnvironment;
 import bio.terra.cli.utils.UserIO;
-import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.PrintStream;
+import java.io.OutputStream;
+import java.lang.ProcessBuilder.Redirect;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /** This class provides utility methods for launching local child processes. */
 public class LocalProcessLauncher {
+  private static final Logger logger = LoggerFactory.getLogger(LocalProcessLauncher.class);
+
+  // size of the buffer for copying bytes to and from the child process
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+  // standard in of a child process that isn't connected to the CLI's
+  private static final File NULL_FILE = new File("/dev/null");
+
   private Process process;
-  private Thread stdOutThread;
-  private Thread stdErrThread;
+  // threads copying the child process' output, which must finish before the command returns
+  private final List<Thread> outputThreads = new ArrayList<>();
 
   public LocalProcessLauncher() {}
 
+  /**
+   * Helper method to copy bytes from one stream to another, unchanged, until the end of the input.
+   * Each chunk is flushed as soon as it's read, so interactive output isn't held back.
+   *
+   * @param fromStream stream to read from
+   * @param toStream stream to write to
+   */
+  private static void copyBytes(InputStream fromStream, OutputStream toStream) throws IOException {
+    byte[] buffer = new byte[COPY_BUFFER_SIZE];
+    int numBytes;
+    while ((numBytes = fromStream.read(buffer)) != -1) {
+      toStream.write(buffer, 0, numBytes);
+      toStream.flush();
+    }
+  }
+
   /**
    * Helper method to stream the child process' output to the CLI console.
    *
    * @param fromStream stream reading from the child process output
    * @param toStream stream writing to the CLI console
    */
-  private static void streamOutput(InputStream fromStream, PrintStream toStream) {
-    try (BufferedReader bufferedReader =
-        new BufferedReader(new InputStreamReader(fromStream, StandardCharsets.UTF_8))) {
-
-      String line;
-      while ((line = bufferedReader.readLine()) != null) {
-        toStream.println(line);
-        toStream.flush();
-      }
+  private static void streamOutput(InputStream fromStream, OutputStream toStream) {
+    try (fromStream) {
+      copyBytes(fromStream, toStream);
     } catch (IOException ioEx) {
       throw new SystemException("Error streaming output of child process", ioEx);
     }
   }
 
+  /**
+   * Helper method to forward the CLI's input to the child process, and close the child process'
+   * input at the end, so that e.g. `terra gsutil cp - gs://...` works with pipes.
+   *
+   * @param fromStream stream reading from the CLI input
+   * @param toStream stream writing to the child process input
+   */
+  private static void forwardInput(InputStream fromStream, OutputStream toStream) {
+    try (toStream) {
+      copyBytes(fromStream, toStream);
+    } catch (IOException ioEx) {
+      // expected if the child process exits without reading all of its input
+      logger.debug("Stopped forwarding input to child process", ioEx);
+    }
+  }
+
   /**
    * Executes a command in a separate process from the current working directory (i.e. the same
-   * place as this Java process is running).
+   * place as this Java process is running). The child process' output is not shown to the user.
    *
    * @param command the command and arguments to execute
    * @param envVars the environment variables to set or overwrite if already defined
@@ -53,7 +90,7 @@ public class LocalProcessLauncher {
 
   /**
    * Executes a command in a separate process from the given working directory, with the given
-   * environment variables set beforehand.
+   * environment variables set beforehand. The child process' output is not shown to the user.
    *
    * @param command the command and arguments to execute
    * @param envVars the environment variables to set or overwrite if already defined
@@ -61,16 +98,79 @@ public class LocalProcessLauncher {
    */
   public void launchProcess(
       List<String> command, Map<String, String> envVars, Path workingDirectory) {
+    start(buildProcess(command, envVars, workingDirectory));
+  }
+
+  /**
+   * Executes a command in a separate process from the current working directory, connected to the
+   * CLI's standard out and err, and optionally its standard in. A child process that isn't
+   * connected to standard in reads from /dev/null instead.
+   *
+   * <p>If those are the real standard streams of this process, the child process inherits them
+   * directly, so its input and output don't pass through the CLI at all. Otherwise (e.g. in tests,
+   * or when running in the daemon), the bytes are copied to and from the CLI's streams unchanged.
+   * The daemon only copies standard in if the client's is a pipe or a file, so that a child process
+   * doesn't wait on, or take the input meant for, the client's terminal.
+   *
+   * @param command the command and arguments to execute
+   * @param envVars the environment variables to set or overwrite if already defined
+   * @param connectStdIn true to connect the child process to the CLI's standard in. This should
+   *     only be set for a single command run in the foreground, never for concurrent ones
+   */
+  public void launchProcessWithUserIO(
+      List<String> command, Map<String, String> envVars, boolean connectStdIn) {
+    ProcessBuilder procBuilder = buildProcess(command, envVars, null);
+    if (UserIO.isProcessStdio()) {
+      logger.debug("Child process inherits standard out and err, connect stdin: {}", connectStdIn);
+      procBuilder.redirectOutput(Redirect.INHERIT).redirectError(Redirect.INHERIT);
+      procBuilder.redirectInput(connectStdIn ? Redirect.INHERIT : Redirect.from(NULL_FILE));
+      start(procBuilder);
+      return;
+    }
+
+    boolean copyStdIn =
+        connectStdIn
+            && UserIO.getIn() != null
+            && (!InvocationEnvironment.isOverridden() || InvocationEnvironment.isStdInPipeOrFile());
+    logger.debug("Copying standard out and err from the child process, copy stdin: {}", copyStdIn);
+    if (!copyStdIn) {
+      procBuilder.redirectInput(Redirect.from(NULL_FILE));
+    }
+    start(procBuilder);
+    streamOutputForProcess();
+    if (copyStdIn) {
+      Thread stdInThread =
+          new Thread(() -> forwardInput(UserIO.getIn(), process.getOutputStream()), "child-stdin");
+      // don't wait for input that may never come
+      stdInThread.setDaemon(true);
+      stdInThread.start();
+    }
+  }
+
+  /** Build the process, from the given or the client's working directory and environment. */
+  private static ProcessBuilder buildProcess(
+      List<String> command, Map<String, String> envVars, Path workingDirectory) {
     // build and run process from the specified working directory
     ProcessBuilder procBuilder = new ProcessBuilder(command);
     if (workingDirectory != null) {
       procBuilder.directory(workingDirectory.toFile());
+    } else if (InvocationEnvironment.isOverridden()) {
+      // when running in the daemon, launch from the client's working directory, not the daemon's
+      procBuilder.directory(InvocationEnvironment.getWorkingDir().toFile());
+    }
+    Map<String, String> procEnvVars = procBuilder.environment();
+    if (InvocationEnvironment.isOverridden()) {
+      // when running in the daemon, the child process should see the client's environment
+      procEnvVars.clear();
+      procEnvVars.putAll(InvocationEnvironment.getEnvVars());
     }
     if (envVars != null) {
-      Map<String, String> procEnvVars = procBuilder.environment();
       procEnvVars.putAll(envVars);
     }
+    return procBuilder;
+  }
 
+  private void start(ProcessBuilder procBuilder) {
     try {
       process = procBuilder.start();
     } catch (IOException ioEx) {
@@ -82,18 +182,47 @@ public class LocalProcessLauncher {
   public void streamOutputForProcess() {
     // getInputStream() is confusingly named; it returns process stdout (what we want).
     Runnable streamStdOut = () -> streamOutput(process.getInputStream(), UserIO.getOut());
-    stdOutThread = new Thread(streamStdOut);
+    Thread stdOutThread = new Thread(streamStdOut, "child-stdout");
     stdOutThread.start();
+    outputThreads.add(stdOutThread);
 
     Runnable streamStdErr = () -> streamOutput(process.getErrorStream(), UserIO.getErr());
-    stdErrThread = new Thread(streamStdErr);
+    Thread stdErrThread = new Thread(streamStdErr, "child-stderr");
     stdErrThread.start();
+    outputThreads.add(stdErrThread);
   }
 
-  /** Block until the child process terminates, then return its exit code. */
+  /**
+   * Read everything the child process writes to standard out, instead of streaming it to the CLI
+   * console. Anything it writes to standard err is discarded.
+   *
+   * @return the output, decoded as UTF-8
+   */
+  public String readOutput() {
+    Thread stdErrThread =
+        new Thread(
+            () -> streamOutput(process.getErrorStream(), OutputStream.nullOutputStream()),
+            "child-stderr");
+    stdErrThread.start();
+    outputThreads.add(stdErrThread);
+    try (InputStream stdOut = process.getInputStream()) {
+      return new String(stdOut.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading output of child process", ioEx);
+    }
+  }
+
+  /**
+   * Block until the child process terminates and all of its output has been streamed, then return
+   * its exit code.
+   */
   public int waitForTerminate() {
     try {
-      return process.waitFor();
+      int exitCode = process.waitFor();
+      for (Thread outputThread : outputThreads) {
+        outputThread.join();
+      }
+      return exitCode;
     } catch (InterruptedException intEx) {
       throw new SystemException("Error waiting for child process to terminate", intEx);
     }
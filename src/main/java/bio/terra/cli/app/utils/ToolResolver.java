@@ -0,0 +1,159 @@
+package bio.terra.cli.app.utils;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.PDResolvedTool;
+import bio.terra.cli.serialization.persisted.PDResolvedTools;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.InvocationEnvironment;
+import bio.terra.cli.utils.JacksonMapper;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utilities for finding the executables of tools run in the LOCAL_PROCESS app launch mode.
+ *
+ * <p>Checking that a tool works means running it with a no-op argument (e.g. `gcloud version`),
+ * which can take over a second. So the result is kept in a file in the context directory, keyed by
+ * the executable name, and reused as long as the first match for that name on the PATH is the same
+ * file, with the same modified time. Checking that only takes a few file system lookups.
+ */
+public class ToolResolver {
+  private static final Logger logger = LoggerFactory.getLogger(ToolResolver.class);
+
+  private static final String RESOLVED_TOOLS_FILENAME = "tools.json";
+
+  private ToolResolver() {}
+
+  /**
+   * Find a tool's executable on the PATH, and check that it runs.
+   *
+   * @param executableName name used to invoke the tool in the shell (e.g. gcloud)
+   * @param versionArgument a no-op argument to check that the tool runs (e.g. version)
+   * @return absolute path to the executable, or empty if it's not installed or doesn't run
+   */
+  public static Optional<Path> resolve(String executableName, String versionArgument) {
+    Optional<Path> executable = findOnPath(executableName);
+    if (executable.isEmpty()) {
+      logger.debug("{} not found on the PATH", executableName);
+      return Optional.empty();
+    }
+    Path absolutePath = executable.get();
+    long lastModifiedMillis;
+    try {
+      lastModifiedMillis = Files.getLastModifiedTime(absolutePath).toMillis();
+    } catch (IOException ioEx) {
+      logger.debug("Error reading the modified time of {}", absolutePath, ioEx);
+      return Optional.empty();
+    }
+
+    Map<String, PDResolvedTool> resolvedTools = readResolvedTools();
+    PDResolvedTool cached = resolvedTools.get(executableName);
+    if (cached != null
+        && absolutePath.toString().equals(cached.absolutePath)
+        && absolutePath.getParent().toString().equals(cached.pathEntry)
+        && lastModifiedMillis == cached.lastModifiedMillis) {
+      logger.debug("Using cached {} {} at {}", executableName, cached.version, absolutePath);
+      return executable;
+    }
+
+    // run the no-op command. don't use the full CommandRunner, because we don't want to set
+    // environment variables or clean up
+    LocalProcessLauncher localProcessLauncher = new LocalProcessLauncher();
+    String version;
+    try {
+      localProcessLauncher.launchProcess(
+          List.of(absolutePath.toString(), versionArgument), new HashMap<>());
+      // output should not show to the screen
+      version = firstLine(localProcessLauncher.readOutput());
+      int exitCode = localProcessLauncher.waitForTerminate();
+      if (exitCode != 0) {
+        logger.debug("Checking the version of {} failed: exit code {}", absolutePath, exitCode);
+        return Optional.empty();
+      }
+    } catch (SystemException sysEx) {
+      logger.debug("Failed to launch local process to check tool version for {}", absolutePath);
+      return Optional.empty();
+    }
+
+    logger.debug("Found {} {} at {}", executableName, version, absolutePath);
+    resolvedTools.put(
+        executableName,
+        new PDResolvedTool(
+            absolutePath.getParent().toString(),
+            absolutePath.toString(),
+            lastModifiedMillis,
+            version));
+    writeResolvedTools(resolvedTools);
+    return executable;
+  }
+
+  /**
+   * Find the first executable file with this name on the PATH of the invoking process, the same way
+   * a shell would.
+   */
+  private static Optional<Path> findOnPath(String executableName) {
+    String pathEnvVar = InvocationEnvironment.getEnvVar("PATH");
+    if (pathEnvVar == null) {
+      return Optional.empty();
+    }
+    for (String pathEntry : pathEnvVar.split(File.pathSeparator)) {
+      if (pathEntry.isEmpty()) {
+        continue;
+      }
+      try {
+        Path candidate = Path.of(pathEntry).toAbsolutePath().resolve(executableName);
+        if (Files.isRegularFile(candidate) && Files.isExecutable(candidate)) {
+          return Optional.of(candidate);
+        }
+      } catch (InvalidPathException ipEx) {
+        logger.debug("Skipping invalid PATH entry: {}", pathEntry);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private static String firstLine(String output) {
+    return output.lines().map(String::trim).filter(line -> !line.isEmpty()).findFirst().orElse("");
+  }
+
+  private static Map<String, PDResolvedTool> readResolvedTools() {
+    try {
+      PDResolvedTools fromDisk =
+          JacksonMapper.readFileIntoJavaObject(
+              getResolvedToolsFile().toFile(), PDResolvedTools.class);
+      return fromDisk.tools == null ? new HashMap<>() : new HashMap<>(fromDisk.tools);
+    } catch (FileNotFoundException fnfEx) {
+      return new HashMap<>();
+    } catch (IOException ioEx) {
+      // it's only a cache, so check the tools again
+      logger.warn("Error reading resolved tools file", ioEx);
+      return new HashMap<>();
+    }
+  }
+
+  private static void writeResolvedTools(Map<String, PDResolvedTool> resolvedTools) {
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getResolvedToolsFile().toFile(),
+          JacksonMapper.getMapper().writeValueAsString(new PDResolvedTools(resolvedTools)));
+    } catch (IOException ioEx) {
+      // the next command will check the tool again
+      logger.warn("Error writing resolved tools file", ioEx);
+    }
+  }
+
+  private static Path getResolvedToolsFile() {
+    return Context.getContextDir().resolve(RESOLVED_TOOLS_FILENAME);
+  }
+}
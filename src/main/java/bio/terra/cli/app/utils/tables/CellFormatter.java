@@ -0,0 +1,49 @@
+package bio.terra.cli.app.utils.tables;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.EMPTY_FIELD_PLACEHOLDER;
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.TRUNCATION_MARK;
+
+import com.google.api.client.util.Strings;
+
+/**
+ * Pads and truncates the values of one table column to its width. This does the same as a {@code
+ * %-20.20s} format string, without parsing a format string for every cell.
+ */
+class CellFormatter {
+  private final int width;
+  private final ColumnDefinition.Alignment alignment;
+
+  CellFormatter(int width, ColumnDefinition.Alignment alignment) {
+    this.width = width;
+    this.alignment = alignment;
+  }
+
+  /** Append the column label, cut to the column width and left-aligned. */
+  void appendLabel(StringBuilder row, String label) {
+    appendPadded(row, label.length() <= width ? label : label.substring(0, width), true);
+  }
+
+  /** Append a cell value, truncated to the column width with a mark, and padded. */
+  void appendCell(StringBuilder row, String rawText) {
+    String field = Strings.isNullOrEmpty(rawText) ? EMPTY_FIELD_PLACEHOLDER : rawText;
+    if (field.length() > width) {
+      field =
+          field.length() < TRUNCATION_MARK.length() || width < TRUNCATION_MARK.length()
+              ? field.substring(0, width)
+              : field.substring(0, width - TRUNCATION_MARK.length()) + TRUNCATION_MARK;
+    }
+    appendPadded(row, field, alignment == ColumnDefinition.Alignment.LEFT);
+  }
+
+  private void appendPadded(StringBuilder row, String text, boolean leftAligned) {
+    if (leftAligned) {
+      row.append(text);
+    }
+    for (int i = text.length(); i < width; i++) {
+      row.append(' ');
+    }
+    if (!leftAligned) {
+      row.append(text);
+    }
+  }
+}
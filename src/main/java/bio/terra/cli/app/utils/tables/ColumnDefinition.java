@@ -1,6 +1,5 @@
 package bio.terra.cli.app.utils.tables;
 
-import com.google.api.client.util.Strings;
 import java.util.function.Function;
 
 /**
@@ -26,25 +25,17 @@ public interface ColumnDefinition<UF_TYPE> {
 
   /** Apply formatting to the column label. */
   default String formatLabel() {
-    String format = "%" + Alignment.LEFT.getFormat() + getWidth() + "." + getWidth() + "s";
-    return String.format(format, getLabel());
+    StringBuilder label = new StringBuilder(getWidth());
+    new CellFormatter(getWidth(), getAlignment()).appendLabel(label, getLabel());
+    return label.toString();
   }
 
   /** Apply padding and alignment to a cell's string value. */
   default String formatCell(UF_TYPE rowObject) {
-    String rawText = getValueExtractor().apply(rowObject);
-    String field = Strings.isNullOrEmpty(rawText) ? EMPTY_FIELD_PLACEHOLDER : rawText;
-    String format = "%" + getAlignment().getFormat() + getWidth() + "." + getWidth() + "s";
-    return String.format(format, truncate(field));
-  }
-
-  private String truncate(String original) {
-
-    if (original.length() <= getWidth() || original.length() < TRUNCATION_MARK.length()) {
-      // no need to truncate, or can't without completely erasing it
-      return original;
-    }
-    return original.substring(0, getWidth() - TRUNCATION_MARK.length()) + TRUNCATION_MARK;
+    StringBuilder cell = new StringBuilder(getWidth());
+    new CellFormatter(getWidth(), getAlignment())
+        .appendCell(cell, getValueExtractor().apply(rowObject));
+    return cell.toString();
   }
 
   enum Alignment {
@@ -0,0 +1,117 @@
+package bio.terra.cli.app.utils.tables;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Writes a table as comma- or tab-separated values, one line at a time as the rows are produced.
+ * The columns are the same as for the text table, but the values are written in full, without
+ * padding, truncation or a placeholder for empty values.
+ *
+ * @param <UF_TYPE> User-facing type to be tabularized
+ */
+public class DelimitedTableWriter<UF_TYPE> {
+  private final ColumnDefinition<UF_TYPE>[] columns;
+  private final Delimiter delimiter;
+
+  DelimitedTableWriter(ColumnDefinition<UF_TYPE>[] columns, Delimiter delimiter) {
+    this.columns = columns;
+    this.delimiter = delimiter;
+  }
+
+  /**
+   * Write the header row of column labels, and then one line per row as the iterator returns them.
+   *
+   * @param rowObjects user-facing objects to print to rows of the table
+   * @param lineWriter function to write each line, without a line separator
+   */
+  public void write(Iterator<UF_TYPE> rowObjects, Consumer<String> lineWriter) {
+    StringBuilder row = new StringBuilder();
+    for (int i = 0; i < columns.length; i++) {
+      appendField(row, i, columns[i].getLabel());
+    }
+    lineWriter.accept(row.toString());
+    while (rowObjects.hasNext()) {
+      UF_TYPE rowObject = rowObjects.next();
+      row.setLength(0);
+      for (int i = 0; i < columns.length; i++) {
+        appendField(row, i, columns[i].getValueExtractor().apply(rowObject));
+      }
+      lineWriter.accept(row.toString());
+    }
+  }
+
+  private void appendField(StringBuilder row, int columnIndex, String value) {
+    if (columnIndex > 0) {
+      row.append(delimiter.separator);
+    }
+    if (value != null) {
+      delimiter.appendEscaped(row, value);
+    }
+  }
+
+  /** Field separator, and the escaping of values that contain it or a line break. */
+  public enum Delimiter {
+    /**
+     * Comma-separated values (RFC 4180): values that contain a comma, a double quote or a line
+     * break are wrapped in double quotes, and double quotes in them are doubled.
+     */
+    CSV(',') {
+      @Override
+      void appendEscaped(StringBuilder row, String value) {
+        if (value.indexOf(',') < 0
+            && value.indexOf('"') < 0
+            && value.indexOf('\n') < 0
+            && value.indexOf('\r') < 0) {
+          row.append(value);
+          return;
+        }
+        row.append('"');
+        for (int i = 0; i < value.length(); i++) {
+          char c = value.charAt(i);
+          if (c == '"') {
+            row.append('"');
+          }
+          row.append(c);
+        }
+        row.append('"');
+      }
+    },
+    /**
+     * Tab-separated values: tabs, line breaks and backslashes in values are written as the escape
+     * sequences \t, \n, \r and \\, so that each row stays on one line.
+     */
+    TSV('\t') {
+      @Override
+      void appendEscaped(StringBuilder row, String value) {
+        for (int i = 0; i < value.length(); i++) {
+          char c = value.charAt(i);
+          switch (c) {
+            case '\t':
+              row.append("\\t");
+              break;
+            case '\n':
+              row.append("\\n");
+              break;
+            case '\r':
+              row.append("\\r");
+              break;
+            case '\\':
+              row.append("\\\\");
+              break;
+            default:
+              row.append(c);
+          }
+        }
+      }
+    };
+
+    private final char separator;
+
+    Delimiter(char separator) {
+      this.separator = separator;
+    }
+
+    abstract void appendEscaped(StringBuilder row, String value);
+  }
+}
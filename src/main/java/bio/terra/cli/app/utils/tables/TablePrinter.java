@@ -1,9 +1,8 @@
 package bio.terra.cli.app.utils.tables;
 
-import java.util.Arrays;
 import java.util.List;
+import java.util.StringJoiner;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 /**
@@ -48,43 +47,22 @@ public interface TablePrinter<UF_TYPE> {
    * @return table string suitable for printing to console
    */
   default String print(List<UF_TYPE> rowObjects, @Nullable Predicate<UF_TYPE> isHighlighted) {
-    boolean includeHighlightColumn = null != isHighlighted;
-    String header = (includeHighlightColumn ? "   " : "") + printHeaderRow();
-    return header
-        + ROW_DELIMITER
-        + rowObjects.stream()
-            .map(r -> printRow(r, isHighlighted))
-            .collect(Collectors.joining(ROW_DELIMITER));
-  }
-
-  /** Fetch the column labels for each column and join them into a header row. */
-  private String printHeaderRow() {
-    return Arrays.stream(getColumnEnumValues())
-        .map(ColumnDefinition::formatLabel)
-        .collect(Collectors.joining(FIELD_DELIMITER));
+    StringJoiner table = new StringJoiner(ROW_DELIMITER);
+    int numRows = writer().highlight(isHighlighted).write(rowObjects.iterator(), table::add);
+    // an empty table is the header row followed by an empty line
+    return numRows == 0 ? table + ROW_DELIMITER : table.toString();
   }
 
   /**
-   * Convert an object into a row based on its corresponding TablePrintable column objects.
-   *
-   * @param rowObject - object corresponding to this row
-   * @param isHighlighted - boolean-valued function to tell if a row should be highlighted
-   *     (starred). null if this table type does not highlight any rows
-   * @return string for single row of the table
+   * Get a writer that prints the table one line at a time, as the rows are produced. Use this
+   * instead of {@link #print} for tables that can be long.
    */
-  private String printRow(UF_TYPE rowObject, @Nullable Predicate<UF_TYPE> isHighlighted) {
-    final String highlightColumn;
-    if (null == isHighlighted) {
-      highlightColumn = "";
-    } else if (isHighlighted.test(rowObject)) {
-      highlightColumn = " ✓ ";
-    } else {
-      highlightColumn = "   ";
-    }
+  default TableWriter<UF_TYPE> writer() {
+    return new TableWriter<>(getColumnEnumValues());
+  }
 
-    return highlightColumn
-        + Arrays.stream(getColumnEnumValues())
-            .map(c -> c.formatCell(rowObject))
-            .collect(Collectors.joining(FIELD_DELIMITER));
+  /** Get a writer that prints the table as comma- or tab-separated values. */
+  default DelimitedTableWriter<UF_TYPE> delimitedWriter(DelimitedTableWriter.Delimiter delimiter) {
+    return new DelimitedTableWriter<>(getColumnEnumValues(), delimiter);
   }
 }
@@ -0,0 +1,147 @@
+package bio.terra.cli.app.utils.tables;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import javax.annotation.Nullable;
+
+/**
+ * Writes a table one line at a time, as the rows are produced, instead of building the whole table
+ * first. The formatting of each column is worked out once, and each row is built in one reused
+ * buffer.
+ *
+ * <p>By default, the columns have the fixed widths of their {@link ColumnDefinition}s. With {@link
+ * #autoWidth}, the first rows are read ahead and each column is sized to fit its label and its
+ * longest value in those rows instead. Values in later rows that don't fit are truncated.
+ *
+ * @param <UF_TYPE> User-facing type to be tabularized
+ */
+public class TableWriter<UF_TYPE> {
+  /** Default number of rows to read ahead to size the columns with {@link #autoWidth}. */
+  public static final int DEFAULT_AUTO_WIDTH_SAMPLE_SIZE = 100;
+  // don't size a column wider than this, however long its values are
+  private static final int MAX_AUTO_WIDTH = 120;
+
+  private final ColumnDefinition<UF_TYPE>[] columns;
+  private @Nullable Predicate<UF_TYPE> isHighlighted;
+  // number of rows to size the columns to, 0 to use the fixed widths
+  private int autoWidthSampleSize;
+
+  TableWriter(ColumnDefinition<UF_TYPE>[] columns) {
+    this.columns = columns;
+  }
+
+  /**
+   * Add a column at the start of the table that stars the highlighted rows.
+   *
+   * @param isHighlighted boolean-valued function to tell if a row should be highlighted, null for
+   *     no highlight column
+   */
+  public TableWriter<UF_TYPE> highlight(@Nullable Predicate<UF_TYPE> isHighlighted) {
+    this.isHighlighted = isHighlighted;
+    return this;
+  }
+
+  /**
+   * Size the columns to fit the first rows, instead of using their fixed widths.
+   *
+   * @param sampleSize number of rows to size the columns to, 0 to use the fixed widths
+   */
+  public TableWriter<UF_TYPE> autoWidth(int sampleSize) {
+    this.autoWidthSampleSize = sampleSize;
+    return this;
+  }
+
+  /**
+   * Write the header row, and then one line per row as the iterator returns them.
+   *
+   * @param rowObjects user-facing objects to print to rows of the table
+   * @param lineWriter function to write each line, without a line separator
+   * @return number of rows written, not counting the header row
+   */
+  public int write(Iterator<UF_TYPE> rowObjects, Consumer<String> lineWriter) {
+    // read ahead the rows to size the columns to, keeping the values that were extracted
+    List<UF_TYPE> sampleRows = new ArrayList<>();
+    List<String[]> sampleValues = new ArrayList<>();
+    while (sampleRows.size() < autoWidthSampleSize && rowObjects.hasNext()) {
+      UF_TYPE rowObject = rowObjects.next();
+      sampleRows.add(rowObject);
+      sampleValues.add(extractValues(rowObject));
+    }
+    CellFormatter[] cellFormatters = getCellFormatters(sampleValues);
+
+    StringBuilder row = new StringBuilder();
+    appendHeader(row, cellFormatters);
+    lineWriter.accept(row.toString());
+    for (int i = 0; i < sampleRows.size(); i++) {
+      row.setLength(0);
+      appendRow(row, cellFormatters, sampleRows.get(i), sampleValues.get(i));
+      lineWriter.accept(row.toString());
+    }
+    int numRows = sampleRows.size();
+    while (rowObjects.hasNext()) {
+      UF_TYPE rowObject = rowObjects.next();
+      row.setLength(0);
+      appendRow(row, cellFormatters, rowObject, extractValues(rowObject));
+      lineWriter.accept(row.toString());
+      numRows++;
+    }
+    return numRows;
+  }
+
+  private String[] extractValues(UF_TYPE rowObject) {
+    String[] values = new String[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = columns[i].getValueExtractor().apply(rowObject);
+    }
+    return values;
+  }
+
+  /** Get the formatter for each column, sized to the sample values if using auto width. */
+  private CellFormatter[] getCellFormatters(List<String[]> sampleValues) {
+    CellFormatter[] cellFormatters = new CellFormatter[columns.length];
+    for (int i = 0; i < columns.length; i++) {
+      int width = columns[i].getWidth();
+      if (autoWidthSampleSize > 0) {
+        width = columns[i].getLabel().length();
+        for (String[] values : sampleValues) {
+          int valueLength =
+              values[i] == null || values[i].isEmpty()
+                  ? ColumnDefinition.EMPTY_FIELD_PLACEHOLDER.length()
+                  : values[i].length();
+          width = Math.max(width, valueLength);
+        }
+        width = Math.min(width, MAX_AUTO_WIDTH);
+      }
+      cellFormatters[i] = new CellFormatter(width, columns[i].getAlignment());
+    }
+    return cellFormatters;
+  }
+
+  private void appendHeader(StringBuilder row, CellFormatter[] cellFormatters) {
+    if (isHighlighted != null) {
+      row.append("   ");
+    }
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        row.append(TablePrinter.FIELD_DELIMITER);
+      }
+      cellFormatters[i].appendLabel(row, columns[i].getLabel());
+    }
+  }
+
+  private void appendRow(
+      StringBuilder row, CellFormatter[] cellFormatters, UF_TYPE rowObject, String[] values) {
+    if (isHighlighted != null) {
+      row.append(isHighlighted.test(rowObject) ? " ✓ " : "   ");
+    }
+    for (int i = 0; i < columns.length; i++) {
+      if (i > 0) {
+        row.append(TablePrinter.FIELD_DELIMITER);
+      }
+      cellFormatters[i].appendCell(row, values[i]);
+    }
+  }
+}
@@ -16,15 +16,22 @@ import org.slf4j.LoggerFactory;
  */
 public class Config {
   public static final int DEFAULT_RESOURCES_CACHE_SIZE = 1000;
+  public static final int DEFAULT_DATA_COLLECTION_CACHE_TTL_MINUTES = 60;
+  public static final int DEFAULT_DOCKER_REUSE_IDLE_MINUTES = 0;
   private static final org.slf4j.Logger logger = LoggerFactory.getLogger(Config.class);
   // launch a browser automatically or not
   private BrowserLaunchOption browserLaunchOption = BrowserLaunchOption.AUTO;
   // how to launch tools: docker image id or tag
   private CommandRunnerOption commandRunnerOption = CommandRunnerOption.DOCKER_CONTAINER;
   private String dockerImageId;
-  // maximum number of resources to cache on disk for a single workspace before throwing an error
-  // (corresponds to ~1MB cache size on disk)
+  // maximum number of resources to keep in memory for a single workspace. the rest are read from
+  // the resource cache on disk when they're used
   private int resourcesCacheSize = DEFAULT_RESOURCES_CACHE_SIZE;
+  // how long to use a cached data collection workspace before checking with WSM whether it changed
+  private int dataCollectionCacheTtlMinutes = DEFAULT_DATA_COLLECTION_CACHE_TTL_MINUTES;
+  // how long to keep an idle Docker container running for the next tool command. 0 means start a
+  // new container for each command
+  private int dockerReuseIdleMinutes = DEFAULT_DOCKER_REUSE_IDLE_MINUTES;
   // log levels for file and stdout
   private Logger.LogLevel consoleLoggingLevel = Logger.LogLevel.OFF;
   private Logger.LogLevel fileLoggingLevel = Logger.LogLevel.INFO;
@@ -37,6 +44,15 @@ public class Config {
     this.commandRunnerOption = configFromDisk.commandRunnerOption;
     this.dockerImageId = configFromDisk.dockerImageId;
     this.resourcesCacheSize = configFromDisk.resourcesCacheSize;
+    // context files written by older versions of the CLI don't have this property
+    this.dataCollectionCacheTtlMinutes =
+        configFromDisk.dataCollectionCacheTtlMinutes == null
+            ? DEFAULT_DATA_COLLECTION_CACHE_TTL_MINUTES
+            : configFromDisk.dataCollectionCacheTtlMinutes;
+    this.dockerReuseIdleMinutes =
+        configFromDisk.dockerReuseIdleMinutes == null
+            ? DEFAULT_DOCKER_REUSE_IDLE_MINUTES
+            : configFromDisk.dockerReuseIdleMinutes;
     this.fileLoggingLevel = configFromDisk.fileLoggingLevel;
     this.consoleLoggingLevel = configFromDisk.consoleLoggingLevel;
     this.format = configFromDisk.format;
@@ -71,7 +87,7 @@ public class Config {
 
   public void setBrowserLaunchOption(BrowserLaunchOption browserLaunchOption) {
     this.browserLaunchOption = browserLaunchOption;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public CommandRunnerOption getCommandRunnerOption() {
@@ -80,7 +96,7 @@ public class Config {
 
   public void setCommandRunnerOption(CommandRunnerOption commandRunnerOption) {
     this.commandRunnerOption = commandRunnerOption;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public String getDockerImageId() {
@@ -92,7 +108,7 @@ public class Config {
     if (!new DockerClientWrapper().checkImageExists(dockerImageId)) {
       logger.warn("image not found: {}", dockerImageId);
     }
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public int getResourcesCacheSize() {
@@ -101,7 +117,25 @@ public class Config {
 
   public void setResourcesCacheSize(int resourcesCacheSize) {
     this.resourcesCacheSize = resourcesCacheSize;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
+  }
+
+  public int getDataCollectionCacheTtlMinutes() {
+    return dataCollectionCacheTtlMinutes;
+  }
+
+  public void setDataCollectionCacheTtlMinutes(int dataCollectionCacheTtlMinutes) {
+    this.dataCollectionCacheTtlMinutes = dataCollectionCacheTtlMinutes;
+    Context.markDirty(Context.Section.CONFIG);
+  }
+
+  public int getDockerReuseIdleMinutes() {
+    return dockerReuseIdleMinutes;
+  }
+
+  public void setDockerReuseIdleMinutes(int dockerReuseIdleMinutes) {
+    this.dockerReuseIdleMinutes = dockerReuseIdleMinutes;
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public Logger.LogLevel getConsoleLoggingLevel() {
@@ -110,7 +144,7 @@ public class Config {
 
   public void setConsoleLoggingLevel(Logger.LogLevel consoleLoggingLevel) {
     this.consoleLoggingLevel = consoleLoggingLevel;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public Logger.LogLevel getFileLoggingLevel() {
@@ -119,7 +153,7 @@ public class Config {
 
   public void setFileLoggingLevel(Logger.LogLevel fileLoggingLevel) {
     this.fileLoggingLevel = fileLoggingLevel;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   public Format.FormatOptions getFormat() {
@@ -128,7 +162,7 @@ public class Config {
 
   public void setFormat(Format.FormatOptions format) {
     this.format = format;
-    Context.synchronizeToDisk();
+    Context.markDirty(Context.Section.CONFIG);
   }
 
   /** Options for handling the browser during the OAuth process. */
@@ -4,12 +4,16 @@ import bio.terra.cli.app.CommandRunner;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.serialization.persisted.PDContext;
-import bio.terra.cli.utils.JacksonMapper;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.EnumSet;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +31,8 @@ public class Context {
   // file paths related to persisting the context on disk
   private static final String CONTEXT_DIRNAME = ".terra";
   private static final String CONTEXT_FILENAME = "context.json";
+  private static final String CONTEXT_LOCK_FILENAME = "context.lock";
+  private static final String WORKSPACES_DIRNAME = "workspaces";
   private static final String LOG_FILENAME = "terra.log";
   // singleton objects that define the current context or state
   private static Config currentConfig;
@@ -39,6 +45,20 @@ public class Context {
   private static Workspace overrideWorkspace;
   // true if the current command is using an override workspace
   private static boolean useOverrideWorkspace;
+  // when true, initializeFromDisk keeps the in-memory context if the context file has not changed
+  // since it was last read or written. only the daemon turns this on, because it serves many
+  // commands from the same JVM
+  private static boolean reuseUnchangedContext;
+  // modification time and size of the context file when it was last read or written, or null if
+  // the in-memory context must be re-read
+  @Nullable private static ContextFileState loadedContextFileState;
+  // same for the resources file of the current workspace
+  @Nullable private static ContextFileState loadedResourcesFileState;
+  // version of the context file when it was last read or written (see ContextFile)
+  private static long loadedContextVersion;
+  // parts of the context that have changed since they were last read or written. they're written
+  // to disk once at the end of the command (see flushToDisk)
+  private static final Set<Section> dirtySections = EnumSet.noneOf(Section.class);
 
   /**
    * Reads the context file from disk and initializes the singleton internal state classes (Config,
@@ -49,29 +69,58 @@ public class Context {
    * this function.
    */
   public static void initializeFromDisk() {
+    overrideWorkspace = null;
+    useOverrideWorkspace = false;
+    if (reuseUnchangedContext
+        && loadedContextFileState != null
+        && loadedContextFileState.equals(ContextFileState.read(getContextFile()))
+        && Objects.equals(loadedResourcesFileState, readCurrentResourcesFileState())) {
+      return;
+    }
+    dirtySections.clear();
     try {
-      // try to read in an instance of the context file
-      PDContext diskContext =
-          JacksonMapper.readFileIntoJavaObject(getContextFile().toFile(), PDContext.class);
-      currentConfig = new Config(diskContext.config);
-      currentServer = new Server(diskContext.server);
-      currentUser = diskContext.user == null ? null : new User(diskContext.user);
-      currentWorkspace =
-          diskContext.workspace == null ? null : new Workspace(diskContext.workspace);
-      currentVersionCheck =
-          diskContext.versionCheck == null ? null : new VersionCheck(diskContext.versionCheck);
-
-    } catch (FileNotFoundException fnfEx) {
-      // file not found is a common error here (e.g. first time running the CLI, there will be no
-      // pre-existing context file). we handle this by returning an object populated with
-      // default values below. so, no need to log or throw the exception returned here.
-      logger.debug("Context file not found. Re-initializing with default values");
-      initializeDefaults();
+      // try to read in an instance of the context file. this doesn't wait for other processes that
+      // are writing it. the resources of the current workspace are only read from their own file if
+      // a command uses them
+      Optional<PDContext> diskContextOpt = getContextFileHandle().read();
+      if (diskContextOpt.isEmpty()) {
+        // file not found is a common case here (e.g. first time running the CLI, there will be no
+        // pre-existing context file). we handle this by returning an object populated with
+        // default values.
+        logger.debug("Context file not found. Re-initializing with default values");
+        initializeDefaults();
+      } else {
+        PDContext diskContext = diskContextOpt.get();
+        currentConfig = new Config(diskContext.config);
+        currentServer = new Server(diskContext.server);
+        currentUser = diskContext.user == null ? null : new User(diskContext.user);
+        currentWorkspace =
+            diskContext.workspace == null ? null : new Workspace(diskContext.workspace);
+        currentVersionCheck =
+            diskContext.versionCheck == null ? null : new VersionCheck(diskContext.versionCheck);
+        loadedContextVersion = diskContext.version;
+      }
     } catch (IOException ioEx) {
       throw new SystemException("Error reading context file from disk.", ioEx);
     }
-    overrideWorkspace = null;
-    useOverrideWorkspace = false;
+    loadedContextFileState = ContextFileState.read(getContextFile());
+    loadedResourcesFileState = readCurrentResourcesFileState();
+  }
+
+  /**
+   * Keep the in-memory context between commands in the same JVM, and only re-read the context file
+   * when it changes on disk. This is used by the daemon.
+   */
+  public static void setReuseUnchangedContext(boolean reuse) {
+    reuseUnchangedContext = reuse;
+    loadedContextFileState = null;
+    loadedResourcesFileState = null;
+  }
+
+  /** Re-read the context file on the next call to {@link #initializeFromDisk()}. */
+  public static void forceReloadFromDisk() {
+    loadedContextFileState = null;
+    loadedResourcesFileState = null;
   }
 
   private static void initializeDefaults() {
@@ -80,29 +129,92 @@ public class Context {
     currentUser = null;
     currentWorkspace = null;
     currentVersionCheck = null;
+    loadedContextVersion = 0;
+  }
+
+  /**
+   * Writes any changes to the current internal state to disk. This is called once at the end of
+   * each command, including commands that fail, so that the setters below don't each need to write
+   * the context file. Call it earlier only when something outside this process needs to see the
+   * changes before the command ends (e.g. before launching a tool that mounts or reads the context
+   * directory).
+   */
+  public static void flushToDisk() {
+    if (currentConfig == null) {
+      // the context was never read (e.g. the command failed to parse)
+      return;
+    }
+    Set<Section> changedSections = EnumSet.copyOf(dirtySections);
+    if (currentWorkspace != null && currentWorkspace.hasUnsavedResources()) {
+      changedSections.add(Section.WORKSPACE);
+    }
+    if (!changedSections.isEmpty()) {
+      writeToDisk(changedSections);
+    }
   }
 
   /**
-   * Writes the current internal state (Config, Server, User, Workspace) to the context file on
-   * disk.
+   * Writes the current internal state (Config, Server, User, Workspace) to disk, whether or not it
+   * has been marked as changed. Most code should use {@link #flushToDisk()} instead.
    */
   public static void synchronizeToDisk() {
+    writeToDisk(EnumSet.allOf(Section.class));
+  }
+
+  /**
+   * Write the given sections of the current internal state to disk. Other processes may share the
+   * context directory, so the sections are merged into the context file (see {@link ContextFile}).
+   * The current workspace's resources file is written if the list of resources changed. Each file
+   * is replaced atomically.
+   */
+  private static void writeToDisk(Set<Section> changedSections) {
     try {
-      PDContext diskContext =
+      if (currentWorkspace != null && currentWorkspace.hasUnsavedResources()) {
+        currentWorkspace.saveResources();
+      }
+
+      PDContext changes =
           new PDContext(
               currentConfig, currentServer, currentUser, currentWorkspace, currentVersionCheck);
-      JacksonMapper.writeJavaObjectToFile(getContextFile().toFile(), diskContext);
-      logger.debug("Wrote context to disk: \n{}", diskContext);
+      ContextFile.UpdateResult result =
+          getContextFileHandle().update(changes, changedSections, loadedContextVersion);
+      loadedContextVersion = result.context.version;
+      dirtySections.clear();
+
+      if (result.changedByOthers) {
+        // the file now includes changes from other processes that aren't in memory, so make sure
+        // the daemon re-reads it for the next command
+        forceReloadFromDisk();
+      } else {
+        loadedContextFileState = ContextFileState.read(getContextFile());
+        loadedResourcesFileState = readCurrentResourcesFileState();
+      }
     } catch (IOException ioEx) {
       logger.error("Error persisting context to disk.", ioEx);
     }
   }
 
+  /**
+   * State of the resources index file for the current workspace, or null if there's no workspace.
+   */
+  @Nullable
+  private static ContextFileState readCurrentResourcesFileState() {
+    return currentWorkspace == null
+        ? null
+        : ContextFileState.read(WorkspaceResourceStore.getIndexFile(currentWorkspace.getUuid()));
+  }
+
   // ====================================================
   // Directory and file names for persisting on disk
   //   - context directory parent: $HOME/ or $TERRA_CONTEXT_PARENT_DIR/
   //       - context directory: .terra/
   //           - persisted context file: context.json
+  //           - lock file for writing the context file: context.lock
+  //           - sub-directory for workspace caches: workspaces/
+  //               - sub-directory per workspace: [workspace uuid]/
+  //                   - sub-directory for cached resources: resources/
+  //                       - index of the cached resources: index.json
+  //                       - one file per resource: [resource id].json
   //           - sub-directory for log files: logs/
   //               -*.terra.log
   //           - sub-directory for Java library dependencies: lib/
@@ -146,6 +258,21 @@ public class Context {
     return getContextDir().resolve(CONTEXT_FILENAME);
   }
 
+  /** Get the handle for reading and writing the context file, shared with other processes. */
+  private static ContextFile getContextFileHandle() {
+    return new ContextFile(getContextFile(), getContextDir().resolve(CONTEXT_LOCK_FILENAME));
+  }
+
+  /**
+   * Get the directory for files cached for a workspace.
+   *
+   * @param workspaceUuid workspace id
+   * @return absolute path to the workspace directory
+   */
+  public static Path getWorkspaceDir(UUID workspaceUuid) {
+    return getContextDir().resolve(WORKSPACES_DIRNAME).resolve(workspaceUuid.toString());
+  }
+
   /**
    * Get the log file name.
    *
@@ -173,7 +300,7 @@ public class Context {
 
   public static void setServer(Server server) {
     currentServer = server;
-    synchronizeToDisk();
+    markDirty(Section.SERVER);
   }
 
   public static Optional<User> getUser() {
@@ -182,7 +309,7 @@ public class Context {
 
   public static void setUser(User user) {
     currentUser = user;
-    synchronizeToDisk();
+    markDirty(Section.USER);
   }
 
   public static User requireUser() {
@@ -202,7 +329,7 @@ public class Context {
       overrideWorkspace = workspace;
     } else {
       currentWorkspace = workspace;
-      synchronizeToDisk();
+      markDirty(Section.WORKSPACE);
     }
   }
 
@@ -216,7 +343,15 @@ public class Context {
 
   public static void setVersionCheck(VersionCheck versionCheck) {
     currentVersionCheck = versionCheck;
-    synchronizeToDisk();
+    markDirty(Section.VERSION_CHECK);
+  }
+
+  /**
+   * Record that part of the current context has changed, so that it's written to disk at the end of
+   * the command.
+   */
+  static void markDirty(Section section) {
+    dirtySections.add(section);
   }
 
   public static void useOverrideWorkspace(String userFacingId) {
@@ -229,4 +364,51 @@ public class Context {
     useOverrideWorkspace = true;
     Workspace.load(userFacingId);
   }
+
+  /** Parts of the current context that are tracked separately for writing to disk. */
+  public enum Section {
+    CONFIG,
+    SERVER,
+    USER,
+    WORKSPACE,
+    VERSION_CHECK
+  }
+
+  /**
+   * Modification time and size of the context file, used to detect when another process has changed
+   * it. A missing file has a distinct state, so that deleting the file also counts as a change.
+   */
+  private static class ContextFileState {
+    private final long lastModifiedMillis;
+    private final long size;
+
+    private ContextFileState(long lastModifiedMillis, long size) {
+      this.lastModifiedMillis = lastModifiedMillis;
+      this.size = size;
+    }
+
+    static ContextFileState read(Path contextFile) {
+      try {
+        BasicFileAttributes attributes =
+            Files.readAttributes(contextFile, BasicFileAttributes.class);
+        return new ContextFileState(attributes.lastModifiedTime().toMillis(), attributes.size());
+      } catch (IOException ioEx) {
+        return new ContextFileState(-1, -1);
+      }
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof ContextFileState)) {
+        return false;
+      }
+      ContextFileState otherState = (ContextFileState) other;
+      return lastModifiedMillis == otherState.lastModifiedMillis && size == otherState.size;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(lastModifiedMillis, size);
+    }
+  }
 }
@@ -0,0 +1,130 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.serialization.persisted.PDContext;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads and writes the context file so that many CLI processes can share one context directory
+ * (e.g. parallel commands in a shell script or workflow).
+ *
+ * <p>Readers don't take any lock. The file is always replaced in one step (write to a temporary
+ * file and rename), so a reader sees either the old or the new version, never a partial one.
+ *
+ * <p>Writers hold an exclusive lock on a separate lock file while they re-read the context file,
+ * merge in only the sections they changed, and write the result. So two processes that change
+ * different sections (e.g. one refreshes the user, the other the version check) don't overwrite
+ * each other's changes. If they change the same section, the last writer wins. Each write
+ * increments the version number in the file.
+ */
+public class ContextFile {
+  private static final Logger logger = LoggerFactory.getLogger(ContextFile.class);
+
+  private final Path contextFile;
+  private final Path lockFile;
+
+  public ContextFile(Path contextFile, Path lockFile) {
+    this.contextFile = contextFile;
+    this.lockFile = lockFile;
+  }
+
+  /**
+   * Read the context file, without waiting for any writers.
+   *
+   * @return the context on disk, or empty if there is no context file
+   */
+  public Optional<PDContext> read() throws IOException {
+    try {
+      return Optional.of(parse(Files.readString(contextFile)));
+    } catch (NoSuchFileException nsfEx) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Write the given sections of the context, keeping the current contents of the other sections on
+   * disk. If this wouldn't change the file, it isn't written.
+   *
+   * @param changes context with the new values of the changed sections
+   * @param changedSections sections to take from the changes
+   * @param lastReadVersion version of the context file that this process last read or wrote
+   * @return the merged context, as it is now on disk
+   */
+  public UpdateResult update(
+      PDContext changes, Set<Context.Section> changedSections, long lastReadVersion)
+      throws IOException {
+    return FileUtils.callWithFileLock(
+        lockFile,
+        () -> {
+          // re-read the file now that we hold the lock, in case another process changed it
+          @Nullable PDContext onDisk = read().orElse(null);
+          long diskVersion = onDisk == null ? 0 : onDisk.version;
+          boolean changedByOthers = diskVersion != lastReadVersion;
+
+          PDContext merged = merge(onDisk, changes, changedSections, diskVersion);
+          if (onDisk != null && serialize(merged).equals(serialize(onDisk))) {
+            logger.debug("Context on disk is already up to date (version {})", diskVersion);
+            return new UpdateResult(onDisk, changedByOthers);
+          }
+
+          merged = merge(onDisk, changes, changedSections, diskVersion + 1);
+          FileUtils.writeStringToFileAtomically(contextFile.toFile(), serialize(merged));
+          logger.debug(
+              "Wrote context sections {} to disk (version {})", changedSections, merged.version);
+          return new UpdateResult(merged, changedByOthers);
+        });
+  }
+
+  /** Result of updating the context file. */
+  public static class UpdateResult {
+    // the merged context, as it is now on disk
+    public final PDContext context;
+    // true if another process wrote the file since this process last read or wrote it
+    public final boolean changedByOthers;
+
+    UpdateResult(PDContext context, boolean changedByOthers) {
+      this.context = context;
+      this.changedByOthers = changedByOthers;
+    }
+  }
+
+  /** Take the changed sections from the changes, and the rest from the context on disk. */
+  private static PDContext merge(
+      @Nullable PDContext onDisk,
+      PDContext changes,
+      Set<Context.Section> changedSections,
+      long version) {
+    PDContext base = onDisk == null ? changes : onDisk;
+    return new PDContext.Builder()
+        .config(changedSections.contains(Context.Section.CONFIG) ? changes.config : base.config)
+        .server(changedSections.contains(Context.Section.SERVER) ? changes.server : base.server)
+        .user(changedSections.contains(Context.Section.USER) ? changes.user : base.user)
+        .workspace(
+            changedSections.contains(Context.Section.WORKSPACE)
+                ? changes.workspace
+                : base.workspace)
+        .versionCheck(
+            changedSections.contains(Context.Section.VERSION_CHECK)
+                ? changes.versionCheck
+                : base.versionCheck)
+        .version(version)
+        .build();
+  }
+
+  private static PDContext parse(String contextJson) throws IOException {
+    return JacksonMapper.getMapper().readValue(contextJson, PDContext.class);
+  }
+
+  private static String serialize(PDContext context) throws IOException {
+    return JacksonMapper.getMapper().writerWithDefaultPrettyPrinter().writeValueAsString(context);
+  }
+}
@@ -0,0 +1,148 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.PDDataCollectionWorkspace;
+import bio.terra.cli.service.WorkspaceManagerService;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.workspace.model.WorkspaceDescription;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the workspaces behind data collections, kept on disk under the context directory and
+ * keyed by workspace id.
+ *
+ * <p>Data collections are read-only snapshots that change rarely, but commands like `terra resolve`
+ * and every tool passthrough need their resources. So a cached data collection workspace is used
+ * as-is for a while (see {@link Config#getDataCollectionCacheTtlMinutes()}). After that, the CLI
+ * fetches just the workspace from WSM and compares its last updated date to the cached one. Only if
+ * it changed are all its resources fetched again.
+ *
+ * <p>When several threads ask for the same data collection workspace at the same time, only one of
+ * them fetches it and the others wait for that result.
+ */
+public class DataCollectionWorkspaceCache {
+  private static final Logger logger = LoggerFactory.getLogger(DataCollectionWorkspaceCache.class);
+
+  private static final String DATA_COLLECTION_WORKSPACE_FILENAME = "data-collection.json";
+
+  // fetches in progress, by workspace id
+  private static final Map<UUID, CompletableFuture<Workspace>> fetchesInProgress =
+      new ConcurrentHashMap<>();
+
+  private DataCollectionWorkspaceCache() {}
+
+  /**
+   * Get a data collection workspace, with its resources, from the cache or from WSM.
+   *
+   * @param workspaceUuid id of the data collection workspace
+   * @return the workspace
+   */
+  public static Workspace get(UUID workspaceUuid) {
+    CompletableFuture<Workspace> fetch = new CompletableFuture<>();
+    CompletableFuture<Workspace> fetchInProgress =
+        fetchesInProgress.putIfAbsent(workspaceUuid, fetch);
+    if (fetchInProgress != null) {
+      logger.debug("Waiting for another thread to get data collection workspace {}", workspaceUuid);
+      try {
+        return fetchInProgress.join();
+      } catch (CompletionException compEx) {
+        if (compEx.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) compEx.getCause();
+        }
+        throw new SystemException("Error getting data collection workspace.", compEx.getCause());
+      }
+    }
+
+    try {
+      Workspace workspace = getOrFetch(workspaceUuid);
+      fetch.complete(workspace);
+      return workspace;
+    } catch (RuntimeException ex) {
+      fetch.completeExceptionally(ex);
+      throw ex;
+    } finally {
+      fetchesInProgress.remove(workspaceUuid, fetch);
+    }
+  }
+
+  /** Use the cached workspace if it's recent enough or hasn't changed, otherwise fetch it. */
+  private static Workspace getOrFetch(UUID workspaceUuid) {
+    Optional<PDDataCollectionWorkspace> cached = read(workspaceUuid);
+    Duration ttl = Duration.ofMinutes(Context.getConfig().getDataCollectionCacheTtlMinutes());
+    if (cached.isPresent()
+        && cached.get().lastCheckedDate.plus(ttl).isAfter(OffsetDateTime.now())) {
+      logger.debug("Using cached data collection workspace {}", workspaceUuid);
+      return new Workspace(cached.get().workspace);
+    }
+
+    WorkspaceDescription loadedWorkspace =
+        WorkspaceManagerService.fromContext()
+            .getWorkspace(workspaceUuid, /*isDataCollectionWorkspace=*/ true);
+    Workspace workspace = new Workspace(loadedWorkspace);
+    if (cached.isPresent()
+        && Objects.equals(
+            cached.get().workspace.lastUpdatedDate, loadedWorkspace.getLastUpdatedDate())
+        && workspace.hasSyncedResources()) {
+      logger.debug("Data collection workspace {} hasn't changed", workspaceUuid);
+    } else {
+      logger.info("Loaded data collection workspace: {}", loadedWorkspace);
+      workspace.populateResources();
+    }
+    write(workspace);
+    return workspace;
+  }
+
+  /**
+   * Read a cached data collection workspace from disk. Workspaces cached for a different user or
+   * server are ignored, because they may not be able to read it.
+   */
+  private static Optional<PDDataCollectionWorkspace> read(UUID workspaceUuid) {
+    try {
+      PDDataCollectionWorkspace cached =
+          JacksonMapper.readFileIntoJavaObject(
+              getCacheFile(workspaceUuid).toFile(), PDDataCollectionWorkspace.class);
+      if (!Context.getServer().getName().equals(cached.workspace.serverName)
+          || !Context.requireUser().getEmail().equals(cached.workspace.userEmail)) {
+        logger.debug("Data collection workspace {} was cached for another user", workspaceUuid);
+        return Optional.empty();
+      }
+      return Optional.of(cached);
+    } catch (FileNotFoundException fnfEx) {
+      return Optional.empty();
+    } catch (IOException ioEx) {
+      // it's only a cache, so fetch the workspace again
+      logger.warn("Error reading cached data collection workspace {}", workspaceUuid, ioEx);
+      return Optional.empty();
+    }
+  }
+
+  private static void write(Workspace workspace) {
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getCacheFile(workspace.getUuid()).toFile(),
+          JacksonMapper.getMapper()
+              .writeValueAsString(new PDDataCollectionWorkspace(workspace, OffsetDateTime.now())));
+    } catch (IOException ioEx) {
+      // the next command will fetch the workspace again
+      logger.warn("Error caching data collection workspace {}", workspace.getUuid(), ioEx);
+    }
+  }
+
+  private static Path getCacheFile(UUID workspaceUuid) {
+    return Context.getWorkspaceDir(workspaceUuid).resolve(DATA_COLLECTION_WORKSPACE_FILENAME);
+  }
+}
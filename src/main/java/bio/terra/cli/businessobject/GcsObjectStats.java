@@ -0,0 +1,416 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.serialization.persisted.PDGcsObjectStats;
+import bio.terra.cli.serialization.persisted.PDGcsObjectStatsCache;
+import bio.terra.cli.serialization.userfacing.UFGcsObjectStats;
+import bio.terra.cli.service.GoogleCloudStorage;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cli.utils.UserIO;
+import bio.terra.cloudres.google.storage.BlobCow;
+import bio.terra.cloudres.google.storage.BucketCow;
+import com.google.api.gax.paging.Page;
+import com.google.cloud.storage.BlobInfo;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exact object count and total size of the objects in a bucket, or under a prefix in a bucket.
+ *
+ * <p>A single listing of a bucket with millions of objects takes a long time, because GCS returns
+ * at most 1000 objects per page and each page depends on the one before it. So the key space is
+ * split into shards first: the top levels of the "/" hierarchy are listed with a delimiter, which
+ * returns the objects at that level plus one entry per sub-prefix. Each sub-prefix is then listed
+ * in full, on its own thread. Running totals are printed to stderr while this runs.
+ *
+ * <p>The listing can be stopped after a maximum duration, in which case the numbers are lower
+ * bounds. Complete results are cached in the workspace directory, and reused for up to {@link
+ * #STATS_CACHE_TTL} unless the caller asks for a refresh. Cached results are marked as such, so the
+ * output can say how old they are.
+ */
+public class GcsObjectStats {
+  private static final Logger logger = LoggerFactory.getLogger(GcsObjectStats.class);
+
+  private static final String STATS_CACHE_FILENAME = "gcs-stats.json";
+  // reuse cached stats that are at most this old
+  private static final Duration STATS_CACHE_TTL = Duration.ofHours(1);
+  // list up to this many shards at the same time
+  private static final int MAX_SHARDS_IN_FLIGHT = 16;
+  // number of levels of the "/" hierarchy to split into shards
+  private static final int MAX_SHARD_DEPTH = 2;
+  // print the running totals this often
+  private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(2);
+
+  private final String bucketName;
+  private final String prefix;
+  private final long numObjects;
+  private final long totalBytes;
+  // latest update time of any of the objects, null if there are none
+  private final @Nullable OffsetDateTime lastUpdated;
+  private final boolean complete;
+  private final OffsetDateTime computedDate;
+  // true if these stats were read from the cache instead of listing the objects
+  private final boolean fromCache;
+
+  private GcsObjectStats(
+      String bucketName,
+      String prefix,
+      long numObjects,
+      long totalBytes,
+      @Nullable OffsetDateTime lastUpdated,
+      boolean complete,
+      OffsetDateTime computedDate,
+      boolean fromCache) {
+    this.bucketName = bucketName;
+    this.prefix = prefix;
+    this.numObjects = numObjects;
+    this.totalBytes = totalBytes;
+    this.lastUpdated = lastUpdated;
+    this.complete = complete;
+    this.computedDate = computedDate;
+    this.fromCache = fromCache;
+  }
+
+  private GcsObjectStats(PDGcsObjectStats configFromDisk) {
+    this(
+        configFromDisk.bucketName,
+        configFromDisk.prefix,
+        configFromDisk.numObjects,
+        configFromDisk.totalBytes,
+        configFromDisk.lastUpdated,
+        true,
+        configFromDisk.computedDate,
+        true);
+  }
+
+  /**
+   * Get the object count and total size for a bucket or prefix, from the cache or by listing the
+   * objects.
+   *
+   * @param bucketName name of the bucket
+   * @param prefix only count objects whose names start with this, empty for the whole bucket
+   * @param maxDuration stop listing after this long, null to list until the end
+   * @param printProgress true to print the running totals to stderr while listing
+   * @param refresh true to list the objects even if there are cached stats
+   * @return the stats, with {@link #isComplete()} false if the listing was stopped early
+   */
+  public static GcsObjectStats get(
+      String bucketName,
+      String prefix,
+      @Nullable Duration maxDuration,
+      boolean printProgress,
+      boolean refresh) {
+    Optional<GcsObjectStats> cached = refresh ? Optional.empty() : readCached(bucketName, prefix);
+    if (cached.isPresent()) {
+      logger.debug("Using cached stats for {}", toUrl(bucketName, prefix));
+      return cached.get();
+    }
+    GcsObjectStats stats = new Listing(bucketName, prefix, maxDuration, printProgress).run();
+    if (stats.complete) {
+      writeCached(stats);
+    }
+    return stats;
+  }
+
+  /**
+   * Get the object count and total size for a single object.
+   *
+   * @param bucketName name of the bucket
+   * @param objectName full name of the object
+   * @return the stats, with a count of zero if the object doesn't exist
+   */
+  public static GcsObjectStats getForObject(String bucketName, String objectName) {
+    Optional<BlobCow> blob =
+        GoogleCloudStorage.fromContextForPetSa().getBlob(bucketName, objectName);
+    long size = blob.map(blobCow -> sizeOf(blobCow.getBlobInfo())).orElse(0L);
+    OffsetDateTime lastUpdated =
+        blob.map(blobCow -> blobCow.getBlobInfo().getUpdateTime())
+            .map(GcsObjectStats::toDateTime)
+            .orElse(null);
+    return new GcsObjectStats(
+        bucketName,
+        objectName,
+        blob.isPresent() ? 1 : 0,
+        size,
+        lastUpdated,
+        true,
+        OffsetDateTime.now(),
+        false);
+  }
+
+  /** Serialize the internal representation of the stats to the format for command output. */
+  public UFGcsObjectStats serializeToCommand() {
+    return new UFGcsObjectStats(this);
+  }
+
+  private static long sizeOf(BlobInfo blobInfo) {
+    return blobInfo.getSize() == null ? 0 : blobInfo.getSize();
+  }
+
+  private static OffsetDateTime toDateTime(long epochMillis) {
+    return OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneOffset.UTC);
+  }
+
+  private static String toUrl(String bucketName, String prefix) {
+    return "gs://" + bucketName + "/" + prefix;
+  }
+
+  /**
+   * Read cached stats from disk. Stats cached by a different user, or too long ago, are ignored.
+   */
+  private static Optional<GcsObjectStats> readCached(String bucketName, String prefix) {
+    PDGcsObjectStats cached = readCache().get(toUrl(bucketName, prefix));
+    if (cached == null
+        || !Context.requireUser().getEmail().equals(cached.userEmail)
+        || cached.computedDate.plus(STATS_CACHE_TTL).isBefore(OffsetDateTime.now())) {
+      return Optional.empty();
+    }
+    return Optional.of(new GcsObjectStats(cached));
+  }
+
+  // synchronized because several buckets can be listed at the same time (e.g. `workspace usage`)
+  private static synchronized void writeCached(GcsObjectStats stats) {
+    Map<String, PDGcsObjectStats> cache = readCache();
+    cache.put(
+        toUrl(stats.bucketName, stats.prefix),
+        new PDGcsObjectStats(stats, Context.requireUser().getEmail()));
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getCacheFile().toFile(),
+          JacksonMapper.getMapper().writeValueAsString(new PDGcsObjectStatsCache(cache)));
+    } catch (IOException ioEx) {
+      // the next command will list the objects again
+      logger.warn("Error caching bucket stats", ioEx);
+    }
+  }
+
+  private static Map<String, PDGcsObjectStats> readCache() {
+    try {
+      PDGcsObjectStatsCache fromDisk =
+          JacksonMapper.readFileIntoJavaObject(
+              getCacheFile().toFile(), PDGcsObjectStatsCache.class);
+      return fromDisk.stats == null ? new HashMap<>() : new HashMap<>(fromDisk.stats);
+    } catch (FileNotFoundException fnfEx) {
+      return new HashMap<>();
+    } catch (IOException ioEx) {
+      // it's only a cache, so list the objects again
+      logger.warn("Error reading cached bucket stats", ioEx);
+      return new HashMap<>();
+    }
+  }
+
+  private static Path getCacheFile() {
+    return Context.getWorkspaceDir(Context.requireWorkspace().getUuid())
+        .resolve(STATS_CACHE_FILENAME);
+  }
+
+  /** One run of listing the objects in shards and adding up their sizes. */
+  private static class Listing {
+    private final String bucketName;
+    private final String prefix;
+    private final @Nullable Instant deadline;
+    private final boolean printProgress;
+    private final GoogleCloudStorage storage = GoogleCloudStorage.fromContextForPetSa();
+    private final ExecutorService executor =
+        ThreadPools.newFixedDaemonPool("gcs-stats", MAX_SHARDS_IN_FLIGHT);
+
+    private final AtomicLong numObjects = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+    // latest object update time seen so far, in epoch millis, 0 if none
+    private final AtomicLong lastUpdatedMillis = new AtomicLong();
+    private final AtomicInteger shardsStarted = new AtomicInteger();
+    private final AtomicInteger shardsDone = new AtomicInteger();
+    // set to false if any shard stopped at the deadline
+    private final AtomicBoolean complete = new AtomicBoolean(true);
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    // counts down when the last shard is done
+    private final CountDownLatch allShardsDone = new CountDownLatch(1);
+    private BucketCow bucket;
+
+    Listing(
+        String bucketName, String prefix, @Nullable Duration maxDuration, boolean printProgress) {
+      this.bucketName = bucketName;
+      this.prefix = prefix;
+      this.deadline = maxDuration == null ? null : Instant.now().plus(maxDuration);
+      this.printProgress = printProgress;
+    }
+
+    GcsObjectStats run() {
+      bucket =
+          storage
+              .getBucket(bucketName)
+              .orElseThrow(
+                  () ->
+                      new UserActionableException(
+                          "Bucket "
+                              + bucketName
+                              + " not found, or you don't have permission to list its objects."));
+      try {
+        submitShard(prefix, 0);
+        waitForShards();
+      } finally {
+        executor.shutdownNow();
+      }
+      if (failure.get() != null) {
+        throw failure.get();
+      }
+      printProgress();
+      return new GcsObjectStats(
+          bucketName,
+          prefix,
+          numObjects.get(),
+          totalBytes.get(),
+          lastUpdatedMillis.get() == 0 ? null : toDateTime(lastUpdatedMillis.get()),
+          complete.get(),
+          OffsetDateTime.now(),
+          false);
+    }
+
+    /** Wait for all the shards, printing the running totals, until they finish or time's up. */
+    private void waitForShards() {
+      try {
+        while (!allShardsDone.await(PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+          if (isPastDeadline()) {
+            // shards stop between pages, so give the current pages a moment to finish
+            if (!allShardsDone.await(PROGRESS_INTERVAL.toMillis(), TimeUnit.MILLISECONDS)) {
+              complete.set(false);
+            }
+            return;
+          }
+          printProgress();
+        }
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        throw new SystemException("Interrupted while listing objects in bucket.", intEx);
+      }
+    }
+
+    private void printProgress() {
+      if (!printProgress) {
+        return;
+      }
+      UserIO.getErr()
+          .printf(
+              "Listed %,d objects (%,d bytes) so far, %d of %d prefixes done%n",
+              numObjects.get(), totalBytes.get(), shardsDone.get(), shardsStarted.get());
+    }
+
+    /**
+     * List a shard on another thread. Shards above {@link #MAX_SHARD_DEPTH} are listed one level at
+     * a time, and each sub-prefix becomes its own shard. Deeper shards are listed in full.
+     */
+    private void submitShard(String shardPrefix, int depth) {
+      shardsStarted.incrementAndGet();
+      executor.execute(
+          () -> {
+            try {
+              listShard(shardPrefix, depth);
+            } catch (RuntimeException rtEx) {
+              logger.error("Error listing objects under {}", toUrl(bucketName, shardPrefix), rtEx);
+              failure.compareAndSet(null, rtEx);
+            } finally {
+              // the sub-shards of this shard have all been submitted by now, so if this was the
+              // last one to finish, then the whole listing is done
+              if (shardsDone.incrementAndGet() == shardsStarted.get()) {
+                allShardsDone.countDown();
+              }
+            }
+          });
+    }
+
+    /**
+     * List the objects in a shard, one page at a time. The deadline is checked before each page, so
+     * a shard that's started after the deadline doesn't list anything, and one that has more pages
+     * left when the deadline passes marks the listing incomplete.
+     */
+    private void listShard(String shardPrefix, int depth) {
+      boolean splitIntoSubShards = depth < MAX_SHARD_DEPTH;
+      Page<BlobCow> page = null;
+      do {
+        if (failure.get() != null) {
+          return;
+        }
+        if (isPastDeadline()) {
+          complete.set(false);
+          return;
+        }
+        page =
+            page == null
+                ? storage.listObjects(bucket, shardPrefix, splitIntoSubShards)
+                : storage.getNextPage(page);
+        for (BlobCow blob : page.getValues()) {
+          BlobInfo blobInfo = blob.getBlobInfo();
+          if (blobInfo.isDirectory()) {
+            submitShard(blobInfo.getName(), depth + 1);
+          } else {
+            numObjects.incrementAndGet();
+            totalBytes.addAndGet(sizeOf(blobInfo));
+            if (blobInfo.getUpdateTime() != null) {
+              lastUpdatedMillis.accumulateAndGet(blobInfo.getUpdateTime(), Math::max);
+            }
+          }
+        }
+      } while (page.hasNextPage());
+    }
+
+    private boolean isPastDeadline() {
+      return deadline != null && Instant.now().isAfter(deadline);
+    }
+  }
+
+  // ====================================================
+  // Property getters.
+
+  public String getBucketName() {
+    return bucketName;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public long getNumObjects() {
+    return numObjects;
+  }
+
+  public long getTotalBytes() {
+    return totalBytes;
+  }
+
+  public @Nullable OffsetDateTime getLastUpdated() {
+    return lastUpdated;
+  }
+
+  public boolean isComplete() {
+    return complete;
+  }
+
+  public OffsetDateTime getComputedDate() {
+    return computedDate;
+  }
+
+  public boolean isFromCache() {
+    return fromCache;
+  }
+}
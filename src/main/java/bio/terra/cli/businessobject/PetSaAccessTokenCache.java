@@ -0,0 +1,240 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.serialization.persisted.PDPetSaAccessToken;
+import bio.terra.cli.service.GoogleOauth;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import com.google.auth.oauth2.AccessToken;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of pet SA access tokens, keyed by (user, Google project, scopes).
+ *
+ * <p>SAM returns pet SA access tokens as bare strings, so the expiry of each new token is looked up
+ * once and kept with it. Tokens are persisted to an owner-only file in the context directory, so
+ * that they're shared across CLI processes, and are refreshed shortly before they expire.
+ *
+ * <p>Concurrent requests for the same key share a single refresh (i.e. single-flight), so parallel
+ * callers only make one SAM request between them.
+ */
+public class PetSaAccessTokenCache {
+  private static final Logger logger = LoggerFactory.getLogger(PetSaAccessTokenCache.class);
+
+  private static final String CACHE_FILENAME = "pet-sa-tokens.json";
+  private static final String CACHE_LOCK_FILENAME = "pet-sa-tokens.lock";
+  // refresh tokens this long before they expire. this needs to be longer than the margin the
+  // Google client libraries use to decide that a token needs refreshing (currently 5-6 minutes)
+  private static final Duration REFRESH_BEFORE_EXPIRY = Duration.ofMinutes(10);
+  // how long to reuse a token whose expiry could not be looked up. these tokens are only kept in
+  // memory, not persisted
+  private static final Duration UNKNOWN_EXPIRY_REUSE = Duration.ofMinutes(1);
+
+  private static final Map<String, PDPetSaAccessToken> tokens = new ConcurrentHashMap<>();
+  private static final Map<String, CompletableFuture<AccessToken>> refreshesInFlight =
+      new ConcurrentHashMap<>();
+  // cache file that the in-memory tokens were loaded from. the context directory can change
+  // between commands in the same JVM (e.g. in tests)
+  private static Path loadedCacheFile;
+
+  private PetSaAccessTokenCache() {}
+
+  /**
+   * Get a pet SA access token, from the cache if there is one that isn't about to expire, or by
+   * calling the given function otherwise.
+   *
+   * @param userEmail email of the user that owns the pet SA
+   * @param googleProjectId project the pet SA belongs to
+   * @param scopes scopes requested for the token
+   * @param fetchToken function that asks SAM for a new token
+   * @return access token, with its expiration time set if it's known
+   */
+  public static AccessToken getAccessToken(
+      String userEmail, String googleProjectId, List<String> scopes, Supplier<String> fetchToken) {
+    String key = buildKey(userEmail, googleProjectId, scopes);
+    Optional<AccessToken> cachedToken = getUnexpired(key);
+    if (cachedToken.isPresent()) {
+      return cachedToken.get();
+    }
+
+    CompletableFuture<AccessToken> newRefresh = new CompletableFuture<>();
+    CompletableFuture<AccessToken> existingRefresh = refreshesInFlight.putIfAbsent(key, newRefresh);
+    if (existingRefresh != null) {
+      // another thread is already fetching this token, wait for it instead of calling SAM again
+      return waitForRefresh(existingRefresh);
+    }
+    try {
+      // check again, in case another thread finished refreshing this token just before we
+      // registered our refresh
+      AccessToken accessToken =
+          getUnexpired(key)
+              .orElseGet(() -> fetchAndCache(key, userEmail, googleProjectId, scopes, fetchToken));
+      newRefresh.complete(accessToken);
+      return accessToken;
+    } catch (RuntimeException rtEx) {
+      newRefresh.completeExceptionally(rtEx);
+      throw rtEx;
+    } finally {
+      refreshesInFlight.remove(key, newRefresh);
+    }
+  }
+
+  /** Delete all cached tokens, in memory and on disk (e.g. on logout). */
+  public static synchronized void clear() {
+    tokens.clear();
+    try {
+      // take the lock, so that a concurrent write doesn't bring back the deleted tokens
+      FileUtils.callWithFileLock(
+          Context.getContextDir().resolve(CACHE_LOCK_FILENAME),
+          () -> Files.deleteIfExists(getCacheFile()));
+    } catch (IOException ioEx) {
+      logger.error("Error deleting pet SA token cache file.", ioEx);
+    }
+  }
+
+  /** Get the token for this key if it's cached and not about to expire. */
+  private static Optional<AccessToken> getUnexpired(String key) {
+    loadFromDiskIfNeeded();
+    PDPetSaAccessToken cachedToken = tokens.get(key);
+    if (cachedToken == null || expiresSoon(cachedToken.expirationTime)) {
+      return Optional.empty();
+    }
+    logger.debug("Using cached pet SA access token, expires at {}", cachedToken.expirationTime);
+    return Optional.of(new AccessToken(cachedToken.tokenValue, cachedToken.expirationTime));
+  }
+
+  /** Fetch a new token, look up its expiry and add it to the cache. */
+  private static AccessToken fetchAndCache(
+      String key,
+      String userEmail,
+      String googleProjectId,
+      List<String> scopes,
+      Supplier<String> fetchToken) {
+    String tokenValue = fetchToken.get();
+    Optional<Date> expirationTime = GoogleOauth.getAccessTokenExpiration(tokenValue);
+    PDPetSaAccessToken newToken =
+        new PDPetSaAccessToken.Builder()
+            .userEmail(userEmail)
+            .googleProjectId(googleProjectId)
+            .scopes(scopes)
+            .tokenValue(tokenValue)
+            .expirationTime(
+                expirationTime.orElseGet(
+                    () ->
+                        new Date(
+                            System.currentTimeMillis()
+                                + REFRESH_BEFORE_EXPIRY.plus(UNKNOWN_EXPIRY_REUSE).toMillis())))
+            .build();
+    tokens.put(key, newToken);
+
+    if (expirationTime.isPresent()) {
+      writeToDisk(key, newToken);
+      return new AccessToken(tokenValue, expirationTime.get());
+    }
+    // with no expiration time set, the Google client libraries will use the token as-is until it
+    // fails, which is the same behavior as before this cache existed
+    return new AccessToken(tokenValue, null);
+  }
+
+  private static AccessToken waitForRefresh(CompletableFuture<AccessToken> refresh) {
+    try {
+      return refresh.join();
+    } catch (CompletionException cEx) {
+      if (cEx.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) cEx.getCause();
+      }
+      throw cEx;
+    }
+  }
+
+  private static boolean expiresSoon(Date expirationTime) {
+    return expirationTime == null
+        || expirationTime.getTime() - System.currentTimeMillis() < REFRESH_BEFORE_EXPIRY.toMillis();
+  }
+
+  private static String buildKey(String userEmail, String googleProjectId, List<String> scopes) {
+    String[] sortedScopes = scopes.toArray(new String[0]);
+    Arrays.sort(sortedScopes);
+    return userEmail + "|" + googleProjectId + "|" + String.join(" ", sortedScopes);
+  }
+
+  // ====================================================
+  // Persisting on disk
+
+  private static Path getCacheFile() {
+    return Context.getContextDir().resolve(CACHE_FILENAME);
+  }
+
+  /** Load the tokens persisted by other processes, the first time the cache is used. */
+  private static synchronized void loadFromDiskIfNeeded() {
+    Path cacheFile = getCacheFile();
+    if (cacheFile.equals(loadedCacheFile)) {
+      return;
+    }
+    tokens.clear();
+    tokens.putAll(readFromDisk());
+    loadedCacheFile = cacheFile;
+  }
+
+  /** Read the unexpired tokens from the cache file. */
+  private static Map<String, PDPetSaAccessToken> readFromDisk() {
+    Map<String, PDPetSaAccessToken> diskTokens = new HashMap<>();
+    File cacheFile = getCacheFile().toFile();
+    if (!cacheFile.exists()) {
+      return diskTokens;
+    }
+    try {
+      PDPetSaAccessToken[] cachedTokens =
+          JacksonMapper.readFileIntoJavaObject(cacheFile, PDPetSaAccessToken[].class);
+      for (PDPetSaAccessToken cachedToken : cachedTokens) {
+        if (!expiresSoon(cachedToken.expirationTime)) {
+          diskTokens.put(
+              buildKey(cachedToken.userEmail, cachedToken.googleProjectId, cachedToken.scopes),
+              cachedToken);
+        }
+      }
+    } catch (IOException ioEx) {
+      // a corrupt cache file just means fetching new tokens
+      logger.warn("Error reading pet SA token cache file, ignoring it.", ioEx);
+    }
+    return diskTokens;
+  }
+
+  /**
+   * Add a token to the cache file. Re-read the file first, so that tokens written by other
+   * processes since this one loaded the cache aren't lost. The lock file is held from reading the
+   * file to writing it, so that concurrent processes don't drop each other's tokens. Readers don't
+   * take the lock, because the file is replaced in one step.
+   */
+  private static void writeToDisk(String key, PDPetSaAccessToken newToken) {
+    try {
+      FileUtils.callWithFileLock(
+          Context.getContextDir().resolve(CACHE_LOCK_FILENAME),
+          () -> {
+            Map<String, PDPetSaAccessToken> diskTokens = readFromDisk();
+            diskTokens.put(key, newToken);
+            JacksonMapper.writeJavaObjectToPrivateFile(
+                getCacheFile().toFile(), diskTokens.values().toArray(new PDPetSaAccessToken[0]));
+            return null;
+          });
+    } catch (IOException ioEx) {
+      // the token is still cached in memory for this process, so just log the error
+      logger.error("Error writing pet SA token cache file.", ioEx);
+    }
+  }
+}
@@ -120,9 +120,18 @@ public abstract class Resource {
   }
 
   /**
-   * Serialize the internal representation of the resource to the format for command input/output.
+   * Serialize the internal representation of the resource to the format for command input/output,
+   * looking up the cloud metadata for just this resource.
    */
-  public abstract UFResource serializeToCommand();
+  public UFResource serializeToCommand() {
+    return serializeToCommand(ResourceEnrichment.fetch(this));
+  }
+
+  /**
+   * Serialize the internal representation of the resource to the format for command input/output,
+   * using cloud metadata that has already been looked up for a group of resources.
+   */
+  public abstract UFResource serializeToCommand(ResourceEnrichment enrichment);
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
   public abstract PDResource serializeToDisk();
@@ -131,7 +140,7 @@ public abstract class Resource {
   protected void updatePropertiesAndSync(UpdateResourceParams updateParams) {
     this.name = updateParams.name == null ? name : updateParams.name;
     this.description = updateParams.description == null ? description : updateParams.description;
-    Context.requireWorkspace().listResourcesAndSync();
+    Context.requireWorkspace().putResourceAndSync(this);
   }
 
   /** Delete an existing resource in the workspace. */
@@ -146,7 +155,7 @@ public abstract class Resource {
       default:
         throw new IllegalArgumentException("Unknown stewardship type: " + stewardshipType);
     }
-    Context.requireWorkspace().listResourcesAndSync();
+    Context.requireWorkspace().removeResourceAndSync(this);
   }
 
   /** Call WSM to delete a referenced resource. */
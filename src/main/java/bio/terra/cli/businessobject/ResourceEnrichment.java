@@ -0,0 +1,242 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.businessobject.resource.BqDataset;
+import bio.terra.cli.businessobject.resource.BqTable;
+import bio.terra.cli.businessobject.resource.DataCollection;
+import bio.terra.cli.businessobject.resource.GcpNotebook;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.serialization.userfacing.resource.UFGcsBucket;
+import bio.terra.cli.service.GoogleBigQuery;
+import bio.terra.cli.service.GoogleCloudStorage;
+import bio.terra.cli.service.GoogleNotebooks;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cloudres.google.storage.BucketCow;
+import com.google.api.services.bigquery.model.Dataset;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cloud metadata for workspace resources that WSM doesn't store (e.g. the location of a bucket, the
+ * number of tables in a dataset), looked up to show in the user-facing output.
+ *
+ * <p>The lookups for all the resources being serialized are issued at the same time, at most {@link
+ * #MAX_LOOKUPS_IN_FLIGHT} at once, and share one client per cloud service. A lookup that fails or
+ * doesn't finish within {@link #LOOKUP_DEADLINE} of the lookups being issued is shown as unknown,
+ * instead of holding up the command output. The deadline is shared by all the lookups, so the
+ * output waits at most that long in total, however many resources there are.
+ *
+ * <p>The resources in data collections are looked up along with the resources that are passed in,
+ * so that a data collection is shown with the same metadata, and deadline, as the other resources.
+ */
+public class ResourceEnrichment {
+  private static final Logger logger = LoggerFactory.getLogger(ResourceEnrichment.class);
+  // look up the metadata for up to this many resources at the same time
+  private static final int MAX_LOOKUPS_IN_FLIGHT = 8;
+  // stop waiting for the metadata this long after the lookups are issued
+  private static final Duration LOOKUP_DEADLINE = Duration.ofSeconds(20);
+
+  // resource id -> lookup, only for resources that have metadata to look up
+  private final Map<UUID, Future<?>> lookups;
+  // how long after the lookups are issued to wait for them
+  private final Duration lookupDeadline;
+  // System.nanoTime() after which the lookups that haven't finished are shown as unknown
+  private final long deadlineNanos;
+
+  private ResourceEnrichment(
+      Map<UUID, Future<?>> lookups, Duration lookupDeadline, long deadlineNanos) {
+    this.lookups = lookups;
+    this.lookupDeadline = lookupDeadline;
+    this.deadlineNanos = deadlineNanos;
+  }
+
+  /** No cloud metadata, e.g. for `--no-enrich`. All the enriched fields are shown as unknown. */
+  public static ResourceEnrichment none() {
+    return new ResourceEnrichment(Map.of(), Duration.ZERO, System.nanoTime());
+  }
+
+  /** Start looking up the cloud metadata for one resource. */
+  public static ResourceEnrichment fetch(Resource resource) {
+    return fetch(List.of(resource));
+  }
+
+  /**
+   * Start looking up the cloud metadata for the given resources, and for the resources in any data
+   * collections among them. This returns without waiting for the lookups to finish.
+   */
+  public static ResourceEnrichment fetch(List<? extends Resource> resources) {
+    List<Resource> resourcesToLookUp = new ArrayList<>(resources);
+    for (Resource resource : resources) {
+      if (resource.getResourceType() == Resource.Type.DATA_COLLECTION) {
+        resourcesToLookUp.addAll(
+            ((DataCollection) resource).getDataCollectionWorkspace().getResources());
+      }
+    }
+    Clients clients = new Clients();
+    return fetch(resourcesToLookUp, resource -> getLookup(resource, clients), LOOKUP_DEADLINE);
+  }
+
+  /**
+   * Start looking up the cloud metadata for the given resources with the given lookups. This
+   * returns without waiting for the lookups to finish.
+   *
+   * @param resources resources to look up the metadata for
+   * @param getLookup get the lookup for a resource, or null if it has no metadata to look up
+   * @param lookupDeadline how long after the lookups are issued to wait for them
+   */
+  @VisibleForTesting
+  public static ResourceEnrichment fetch(
+      List<? extends Resource> resources,
+      Function<Resource, Callable<?>> getLookup,
+      Duration lookupDeadline) {
+    Map<UUID, Callable<?>> lookupsToRun = new HashMap<>();
+    for (Resource resource : resources) {
+      Callable<?> lookup = getLookup.apply(resource);
+      if (lookup != null) {
+        lookupsToRun.put(resource.getId(), lookup);
+      }
+    }
+    if (lookupsToRun.isEmpty()) {
+      return none();
+    }
+
+    ExecutorService executor =
+        ThreadPools.newFixedDaemonPool(
+            "resource-enrichment", Math.min(lookupsToRun.size(), MAX_LOOKUPS_IN_FLIGHT));
+    long deadlineNanos = System.nanoTime() + lookupDeadline.toNanos();
+    Map<UUID, Future<?>> lookups = new HashMap<>();
+    lookupsToRun.forEach((resourceId, lookup) -> lookups.put(resourceId, executor.submit(lookup)));
+    // the submitted lookups still run, and the daemon threads exit once the queue is empty
+    executor.shutdown();
+    return new ResourceEnrichment(lookups, lookupDeadline, deadlineNanos);
+  }
+
+  /**
+   * Get the cloud metadata for a resource, waiting for the lookup if it's still running and the
+   * deadline hasn't passed.
+   *
+   * @param resource resource to get the metadata for
+   * @param metadataType type of the metadata for this resource type
+   * @return the metadata, or empty if it wasn't looked up, or the lookup failed or timed out
+   */
+  public <T> Optional<T> get(Resource resource, Class<T> metadataType) {
+    Future<?> lookup = lookups.get(resource.getId());
+    if (lookup == null) {
+      return Optional.empty();
+    }
+    // wait only for what's left of the deadline. a lookup that already finished is returned even
+    // after the deadline
+    long remainingNanos = Math.max(0, deadlineNanos - System.nanoTime());
+    try {
+      return Optional.ofNullable(
+          metadataType.cast(lookup.get(remainingNanos, TimeUnit.NANOSECONDS)));
+    } catch (ExecutionException exEx) {
+      logger.warn("Error looking up cloud metadata for resource {}", resource.getName(), exEx);
+      return Optional.empty();
+    } catch (TimeoutException timeoutEx) {
+      lookup.cancel(true);
+      logger.warn(
+          "Timed out after {} looking up cloud metadata for resource {}",
+          lookupDeadline,
+          resource.getName());
+      return Optional.empty();
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Get the function that looks up the cloud metadata for a resource.
+   *
+   * @return the lookup, or null if this resource type doesn't show any cloud metadata
+   */
+  private static @Nullable Callable<?> getLookup(Resource resource, Clients clients) {
+    switch (resource.getResourceType()) {
+      case GCS_BUCKET:
+        return () -> lookUpBucket((GcsBucket) resource, clients.storage.get());
+      case BQ_DATASET:
+        return () -> lookUpDataset((BqDataset) resource, clients.bigQuery.get());
+      case BQ_TABLE:
+        BqTable table = (BqTable) resource;
+        return () ->
+            clients
+                .bigQuery
+                .get()
+                .getDataTable(table.getProjectId(), table.getDatasetId(), table.getDataTableId())
+                .orElse(null);
+      case AI_NOTEBOOK:
+        return () -> ((GcpNotebook) resource).getInstance(clients.notebooks.get()).orElse(null);
+      default:
+        return null;
+    }
+  }
+
+  private static GcsBucketMetadata lookUpBucket(GcsBucket bucket, GoogleCloudStorage storage) {
+    Optional<BucketCow> bucketCow = storage.getBucket(bucket.getBucketName());
+    return new GcsBucketMetadata(
+        bucketCow.map(cow -> cow.getBucketInfo().getLocation()).orElse(null),
+        bucketCow
+            .map(cow -> storage.getNumObjects(cow, UFGcsBucket.MAX_NUM_OBJECTS + 1))
+            .orElse(null));
+  }
+
+  private static BqDatasetMetadata lookUpDataset(BqDataset dataset, GoogleBigQuery bigQuery) {
+    return new BqDatasetMetadata(
+        bigQuery
+            .getDataset(dataset.getProjectId(), dataset.getDatasetId())
+            .map(Dataset::getLocation)
+            .orElse(null),
+        bigQuery.getNumTables(dataset.getProjectId(), dataset.getDatasetId()).orElse(null));
+  }
+
+  /** Clients for the cloud services, created the first time a lookup needs one. */
+  private static class Clients {
+    final Supplier<GoogleCloudStorage> storage =
+        Suppliers.memoize(GoogleCloudStorage::fromContextForPetSa);
+    final Supplier<GoogleBigQuery> bigQuery =
+        Suppliers.memoize(GoogleBigQuery::fromContextForPetSa);
+    final Supplier<GoogleNotebooks> notebooks =
+        Suppliers.memoize(() -> new GoogleNotebooks(Context.requireUser().getPetSACredentials()));
+  }
+
+  /** Cloud metadata for a GCS bucket. */
+  public static class GcsBucketMetadata {
+    public final @Nullable String location;
+    // number of objects, up to one more than the number shown
+    public final @Nullable Integer numObjects;
+
+    GcsBucketMetadata(@Nullable String location, @Nullable Integer numObjects) {
+      this.location = location;
+      this.numObjects = numObjects;
+    }
+  }
+
+  /** Cloud metadata for a BigQuery dataset. */
+  public static class BqDatasetMetadata {
+    public final @Nullable String location;
+    public final @Nullable Integer numTables;
+
+    BqDatasetMetadata(@Nullable String location, @Nullable Integer numTables) {
+      this.location = location;
+      this.numTables = numTables;
+    }
+  }
+}
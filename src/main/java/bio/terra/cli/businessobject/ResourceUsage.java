@@ -0,0 +1,136 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.serialization.persisted.PDResourceUsage;
+import bio.terra.cli.serialization.userfacing.UFResourceUsage;
+import java.time.OffsetDateTime;
+import javax.annotation.Nullable;
+
+/**
+ * Storage used by one bucket, dataset or table in a workspace, as part of a {@link WorkspaceUsage}
+ * report. The numbers are null if the resource couldn't be scanned.
+ */
+public class ResourceUsage {
+  // name of the data collection this resource is in, null if it's in the workspace itself
+  private final @Nullable String dataCollectionName;
+  private final String resourceName;
+  private final Resource.Type resourceType;
+  // cloud identifier the resource resolved to when it was scanned
+  private final String cloudId;
+  private final @Nullable Long numBytes;
+  // number of objects in a bucket, or rows in a dataset or table
+  private final @Nullable Long numItems;
+  private final @Nullable OffsetDateTime lastModified;
+  private final OffsetDateTime scannedDate;
+  // true if these numbers were copied from the last snapshot instead of scanned this time
+  private final boolean fromLastSnapshot;
+
+  ResourceUsage(
+      @Nullable String dataCollectionName,
+      Resource resource,
+      @Nullable Long numBytes,
+      @Nullable Long numItems,
+      @Nullable OffsetDateTime lastModified,
+      OffsetDateTime scannedDate) {
+    this.dataCollectionName = dataCollectionName;
+    this.resourceName = resource.getName();
+    this.resourceType = resource.getResourceType();
+    this.cloudId = resource.resolve();
+    this.numBytes = numBytes;
+    this.numItems = numItems;
+    this.lastModified = lastModified;
+    this.scannedDate = scannedDate;
+    this.fromLastSnapshot = false;
+  }
+
+  /** Deserialize an instance of the disk format to the internal object. */
+  ResourceUsage(PDResourceUsage configFromDisk) {
+    this.dataCollectionName = configFromDisk.dataCollectionName;
+    this.resourceName = configFromDisk.resourceName;
+    this.resourceType = configFromDisk.resourceType;
+    this.cloudId = configFromDisk.cloudId;
+    this.numBytes = configFromDisk.numBytes;
+    this.numItems = configFromDisk.numItems;
+    this.lastModified = configFromDisk.lastModified;
+    this.scannedDate = configFromDisk.scannedDate;
+    this.fromLastSnapshot = true;
+  }
+
+  /** Usage for a resource that couldn't be scanned. */
+  static ResourceUsage failed(@Nullable String dataCollectionName, Resource resource) {
+    return new ResourceUsage(dataCollectionName, resource, null, null, null, OffsetDateTime.now());
+  }
+
+  /**
+   * Name of a resource, prefixed with the data collection name for resources inside a data
+   * collection. This is the same syntax as `terra resolve` takes.
+   */
+  static String toQualifiedName(@Nullable String dataCollectionName, String resourceName) {
+    return dataCollectionName == null ? resourceName : dataCollectionName + "/" + resourceName;
+  }
+
+  public String getQualifiedName() {
+    return toQualifiedName(dataCollectionName, resourceName);
+  }
+
+  /** True if the resource was scanned, or copied from the last snapshot, without an error. */
+  public boolean isScanned() {
+    return numBytes != null;
+  }
+
+  /**
+   * True if this usage can stand in for scanning the resource again, i.e. the resource still has
+   * the same type and still resolves to the same cloud identifier.
+   */
+  boolean matches(Resource resource) {
+    return resourceType == resource.getResourceType() && cloudId.equals(resource.resolve());
+  }
+
+  /** Serialize the internal representation of the usage to the format for command output. */
+  public UFResourceUsage serializeToCommand() {
+    return new UFResourceUsage(this);
+  }
+
+  /** Serialize the internal representation of the usage to the format for writing to disk. */
+  public PDResourceUsage serializeToDisk() {
+    return new PDResourceUsage(this);
+  }
+
+  // ====================================================
+  // Property getters.
+
+  public @Nullable String getDataCollectionName() {
+    return dataCollectionName;
+  }
+
+  public String getResourceName() {
+    return resourceName;
+  }
+
+  public Resource.Type getResourceType() {
+    return resourceType;
+  }
+
+  public String getCloudId() {
+    return cloudId;
+  }
+
+  public @Nullable Long getNumBytes() {
+    return numBytes;
+  }
+
+  public @Nullable Long getNumItems() {
+    return numItems;
+  }
+
+  public @Nullable OffsetDateTime getLastModified() {
+    return lastModified;
+  }
+
+  public OffsetDateTime getScannedDate() {
+    return scannedDate;
+  }
+
+  public boolean isFromLastSnapshot() {
+    return fromLastSnapshot;
+  }
+}
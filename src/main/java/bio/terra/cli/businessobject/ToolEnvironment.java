@@ -0,0 +1,197 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.serialization.persisted.PDToolEnvironment;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Snapshot of the environment variables passed to tool commands (e.g. `terra gsutil`) in a
+ * workspace: the resolved resource references, the Google project and the pet SA email.
+ *
+ * <p>Building these means reading and resolving every resource in the workspace, so the result is
+ * kept on disk under the workspace directory, and the next tool command loads it with a single file
+ * read. The snapshot records the version of the workspace's resource cache it was built from (see
+ * {@link WorkspaceResourceStore}), and is ignored once the cache has changed since, or if it was
+ * built for a different user or server. If it includes any data collections, it also expires after
+ * the data collection cache TTL (see {@link Config#getDataCollectionCacheTtlMinutes()}).
+ *
+ * <p>The snapshot also remembers which application default credentials were last checked against
+ * the pet SA, so that check isn't repeated until the credentials change.
+ */
+public class ToolEnvironment {
+  private static final Logger logger = LoggerFactory.getLogger(ToolEnvironment.class);
+
+  // increment this when the file format or the environment variables change
+  public static final int FORMAT_VERSION = 1;
+  private static final String TOOL_ENVIRONMENT_FILENAME = "tool-env.json";
+
+  private final UUID workspaceUuid;
+  private final String serverName;
+  private final String userEmail;
+  private final long resourcesVersion;
+  private final Map<String, String> envVars;
+  @Nullable private final OffsetDateTime expiresDate;
+  @Nullable private String checkedAdcFingerprint;
+
+  private ToolEnvironment(
+      Workspace workspace,
+      long resourcesVersion,
+      Map<String, String> envVars,
+      @Nullable OffsetDateTime expiresDate) {
+    this.workspaceUuid = workspace.getUuid();
+    this.serverName = workspace.getServerName();
+    this.userEmail = workspace.getUserEmail();
+    this.resourcesVersion = resourcesVersion;
+    this.envVars = new TreeMap<>(envVars);
+    this.expiresDate = expiresDate;
+  }
+
+  /** Build an instance of this class from the serialized format on disk. */
+  private ToolEnvironment(PDToolEnvironment configFromDisk) {
+    this.workspaceUuid = configFromDisk.workspaceUuid;
+    this.serverName = configFromDisk.serverName;
+    this.userEmail = configFromDisk.userEmail;
+    this.resourcesVersion = configFromDisk.resourcesVersion;
+    this.envVars = new TreeMap<>(configFromDisk.envVars);
+    this.expiresDate = configFromDisk.expiresDate;
+    this.checkedAdcFingerprint = configFromDisk.checkedAdcFingerprint;
+  }
+
+  /**
+   * Get the environment variables for tool commands in the current workspace, from the snapshot on
+   * disk if it's still valid, otherwise by building them and saving a new snapshot.
+   *
+   * @param buildEnvVars function to build the environment variables
+   * @return the tool environment
+   */
+  public static ToolEnvironment get(Supplier<Map<String, String>> buildEnvVars) {
+    Workspace workspace = Context.requireWorkspace();
+    Optional<ToolEnvironment> snapshot = read(workspace.getUuid());
+    if (snapshot.isPresent()) {
+      logger.debug("Using tool environment snapshot for workspace {}", workspace.getUuid());
+      return snapshot.get();
+    }
+
+    long resourcesVersion = workspace.getResourcesVersion();
+    Map<String, String> envVars = buildEnvVars.get();
+    OffsetDateTime expiresDate =
+        workspace.getResourcesOfType(Resource.Type.DATA_COLLECTION).isEmpty()
+            ? null
+            : OffsetDateTime.now()
+                .plusMinutes(Context.getConfig().getDataCollectionCacheTtlMinutes());
+    ToolEnvironment toolEnvironment =
+        new ToolEnvironment(workspace, resourcesVersion, envVars, expiresDate);
+    toolEnvironment.write();
+    return toolEnvironment;
+  }
+
+  /**
+   * Check whether the application default credentials with this fingerprint were already checked
+   * against the pet SA.
+   */
+  public boolean isAdcChecked(String adcFingerprint) {
+    return adcFingerprint.equals(checkedAdcFingerprint);
+  }
+
+  /** Remember that the application default credentials with this fingerprint match the pet SA. */
+  public void setAdcChecked(String adcFingerprint) {
+    checkedAdcFingerprint = adcFingerprint;
+    write();
+  }
+
+  /**
+   * Read the snapshot from disk, if there is one for this user, it hasn't expired, and the resource
+   * cache hasn't changed since it was built.
+   */
+  private static Optional<ToolEnvironment> read(UUID workspaceUuid) {
+    PDToolEnvironment fromDisk;
+    try {
+      fromDisk =
+          JacksonMapper.readFileIntoJavaObject(
+              getToolEnvironmentFile(workspaceUuid).toFile(), PDToolEnvironment.class);
+    } catch (FileNotFoundException fnfEx) {
+      return Optional.empty();
+    } catch (IOException ioEx) {
+      // it's only a snapshot, so build the environment variables again
+      logger.warn("Error reading tool environment snapshot for workspace {}", workspaceUuid, ioEx);
+      return Optional.empty();
+    }
+    if (fromDisk.formatVersion != FORMAT_VERSION
+        || !workspaceUuid.equals(fromDisk.workspaceUuid)
+        || !Context.getServer().getName().equals(fromDisk.serverName)
+        || !Context.requireUser().getEmail().equals(fromDisk.userEmail)
+        || fromDisk.envVars == null) {
+      logger.debug("Tool environment snapshot for workspace {} doesn't match", workspaceUuid);
+      return Optional.empty();
+    }
+    // another process may have changed the resources since, so check the version on disk
+    if (fromDisk.resourcesVersion != WorkspaceResourceStore.readVersion(workspaceUuid)) {
+      logger.debug("Tool environment snapshot for workspace {} is out of date", workspaceUuid);
+      return Optional.empty();
+    }
+    if (fromDisk.expiresDate != null && fromDisk.expiresDate.isBefore(OffsetDateTime.now())) {
+      logger.debug("Tool environment snapshot for workspace {} expired", workspaceUuid);
+      return Optional.empty();
+    }
+    return Optional.of(new ToolEnvironment(fromDisk));
+  }
+
+  private void write() {
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getToolEnvironmentFile(workspaceUuid).toFile(),
+          JacksonMapper.getMapper().writeValueAsString(new PDToolEnvironment(this)));
+    } catch (IOException ioEx) {
+      // the next tool command will build the environment variables again
+      logger.warn("Error writing tool environment snapshot for workspace {}", workspaceUuid, ioEx);
+    }
+  }
+
+  private static Path getToolEnvironmentFile(UUID workspaceUuid) {
+    return Context.getWorkspaceDir(workspaceUuid).resolve(TOOL_ENVIRONMENT_FILENAME);
+  }
+
+  // ====================================================
+  // Property getters.
+
+  public UUID getWorkspaceUuid() {
+    return workspaceUuid;
+  }
+
+  public String getServerName() {
+    return serverName;
+  }
+
+  public String getUserEmail() {
+    return userEmail;
+  }
+
+  public long getResourcesVersion() {
+    return resourcesVersion;
+  }
+
+  public Map<String, String> getEnvVars() {
+    return Collections.unmodifiableMap(envVars);
+  }
+
+  public Optional<OffsetDateTime> getExpiresDate() {
+    return Optional.ofNullable(expiresDate);
+  }
+
+  public Optional<String> getCheckedAdcFingerprint() {
+    return Optional.ofNullable(checkedAdcFingerprint);
+  }
+}
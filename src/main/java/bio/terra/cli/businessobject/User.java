@@ -19,6 +19,7 @@ import java.security.GeneralSecurityException;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 import org.broadinstitute.dsde.workbench.client.sam.model.UserStatusInfo;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -166,6 +167,7 @@ public class User {
   public void logout() {
     deleteOauthCredentials();
     deletePetSaEmail();
+    PetSaAccessTokenCache.clear();
     GoogleOauth.revokeToken(getTerraCredentials());
 
     // unset the current user in the global context
@@ -294,7 +296,9 @@ public class User {
   }
 
   public GoogleCredentials getPetSACredentials() {
-    return GoogleCredentials.create(getPetSaAccessToken());
+    String googleProjectId = Context.requireWorkspace().getGoogleProjectId();
+    return new PetSaCredentials(
+        getPetSaAccessToken(googleProjectId), () -> getPetSaAccessToken(googleProjectId));
   }
 
   public LogInMode getLogInMode() {
@@ -344,9 +348,42 @@ public class User {
 
   /** Get the access token for the pet SA credentials. */
   public AccessToken getPetSaAccessToken() {
-    String googleProjectId = Context.requireWorkspace().getGoogleProjectId();
-    String accessTokenStr =
-        SamService.forUser(this).getPetSaAccessTokenForProject(googleProjectId, PET_SA_SCOPES);
-    return new AccessToken(accessTokenStr, null);
+    return getPetSaAccessToken(Context.requireWorkspace().getGoogleProjectId());
+  }
+
+  /**
+   * Get the access token for the pet SA credentials in the given project. Tokens are cached until
+   * shortly before they expire.
+   */
+  private AccessToken getPetSaAccessToken(String googleProjectId) {
+    return PetSaAccessTokenCache.getAccessToken(
+        email,
+        googleProjectId,
+        PET_SA_SCOPES,
+        () ->
+            SamService.forUser(this).getPetSaAccessTokenForProject(googleProjectId, PET_SA_SCOPES));
+  }
+
+  /**
+   * Pet SA credentials that get a new access token from the cache when the current one is about to
+   * expire, so that long-running commands keep working past the lifetime of a single token.
+   */
+  @SuppressFBWarnings(
+      value = {"SE_BAD_FIELD", "EQ_DOESNT_OVERRIDE_EQUALS"},
+      justification =
+          "These credentials are never serialized or compared, they're only passed to client"
+              + " libraries for the current command.")
+  private static class PetSaCredentials extends GoogleCredentials {
+    private final Supplier<AccessToken> refreshToken;
+
+    PetSaCredentials(AccessToken accessToken, Supplier<AccessToken> refreshToken) {
+      super(accessToken);
+      this.refreshToken = refreshToken;
+    }
+
+    @Override
+    public AccessToken refreshAccessToken() {
+      return refreshToken.get();
+    }
   }
 }
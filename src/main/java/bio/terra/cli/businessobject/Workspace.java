@@ -13,6 +13,7 @@ import bio.terra.workspace.model.ClonedWorkspace;
 import bio.terra.workspace.model.Properties;
 import bio.terra.workspace.model.Property;
 import bio.terra.workspace.model.ResourceDescription;
+import bio.terra.workspace.model.StewardshipType;
 import bio.terra.workspace.model.WorkspaceDescription;
 import com.google.api.services.cloudresourcemanager.v3.model.Binding;
 import com.google.api.services.cloudresourcemanager.v3.model.GetIamPolicyRequest;
@@ -21,6 +22,7 @@ import com.google.api.services.cloudresourcemanager.v3.model.SetIamPolicyRequest
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.common.collect.ImmutableList;
 import java.io.IOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +31,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -39,6 +42,9 @@ import org.slf4j.LoggerFactory;
  */
 public class Workspace {
   private static final Logger logger = LoggerFactory.getLogger(Workspace.class);
+  // how long to patch the cached resources one at a time before fetching the whole list again.
+  // `terra resource list` always fetches the whole list
+  private static final Duration FULL_SYNC_INTERVAL = Duration.ofMinutes(30);
 
   private UUID uuid;
   private String userFacingId;
@@ -53,14 +59,18 @@ public class Workspace {
   // email of the user that loaded the workspace to this machine
   private String userEmail;
 
-  // list of resources (controlled & referenced)
-  private List<Resource> resources;
+  // cache of the resources (controlled & referenced), kept on disk. null until first used, because
+  // most commands don't need the resources
+  @Nullable private WorkspaceResourceStore resourceStore;
+  // resources read from a context file written by an older version of the CLI, which kept them
+  // inline. they're moved to the resource cache on the next write
+  @Nullable private List<Resource> legacyResources;
 
   private OffsetDateTime createdDate;
   private OffsetDateTime lastUpdatedDate;
 
   /** Build an instance of this class from the WSM client library WorkspaceDescription object. */
-  private Workspace(WorkspaceDescription wsmObject) {
+  Workspace(WorkspaceDescription wsmObject) {
     this.uuid = wsmObject.getId();
     this.userFacingId = wsmObject.getUserFacingId();
     this.name = wsmObject.getDisplayName() == null ? "" : wsmObject.getDisplayName();
@@ -70,7 +80,6 @@ public class Workspace {
     this.properties = propertiesToStringMap(wsmObject.getProperties());
     this.serverName = Context.getServer().getName();
     this.userEmail = Context.requireUser().getEmail();
-    this.resources = new ArrayList<>();
     this.createdDate = wsmObject.getCreatedDate();
     this.lastUpdatedDate = wsmObject.getLastUpdatedDate();
   }
@@ -85,10 +94,14 @@ public class Workspace {
     this.properties = configFromDisk.properties;
     this.serverName = configFromDisk.serverName;
     this.userEmail = configFromDisk.userEmail;
-    this.resources =
-        configFromDisk.resources.stream()
-            .map(PDResource::deserializeToInternal)
-            .collect(Collectors.toList());
+    if (configFromDisk.resources != null) {
+      // context file written by an older version of the CLI: move the resources to their own file
+      // on the next write
+      this.legacyResources =
+          configFromDisk.resources.stream()
+              .map(PDResource::deserializeToInternal)
+              .collect(Collectors.toList());
+    }
     this.createdDate = configFromDisk.createdDate;
     this.lastUpdatedDate = configFromDisk.lastUpdatedDate;
   }
@@ -102,8 +115,10 @@ public class Workspace {
             .createWorkspace(userFacingId, name, description, properties);
     logger.info("Created workspace: {}", createdWorkspace);
 
-    // convert the WSM object to a CLI object
+    // convert the WSM object to a CLI object. a new workspace has no resources, so its resource
+    // cache starts out up to date
     Workspace workspace = new Workspace(createdWorkspace);
+    workspace.getResourceStore().replaceAll(Stream.empty());
 
     // update the global context with the current workspace
     Context.setWorkspace(workspace);
@@ -246,6 +261,7 @@ public class Workspace {
 
     // unset the workspace in the current context
     Context.setWorkspace(null);
+    WorkspaceResourceStore.delete(uuid);
   }
 
   /**
@@ -295,31 +311,73 @@ public class Workspace {
    * @throws UserActionableException if there is no resource with that name
    */
   public Resource getResource(String name) {
-    Optional<Resource> resourceOpt =
-        resources.stream().filter(resource -> resource.name.equals(name)).findFirst();
-    return resourceOpt.orElseThrow(
-        () -> new UserActionableException("Resource not found: " + name));
+    return findResource(name)
+        .orElseThrow(() -> new UserActionableException("Resource not found: " + name));
   }
 
-  /** Populate the list of resources for this workspace. Does not sync to disk. */
-  private void populateResources() {
-    List<ResourceDescription> wsmObjects =
-        WorkspaceManagerService.fromContext()
-            .enumerateAllResources(uuid, Context.getConfig().getResourcesCacheSize());
-    List<Resource> resources =
-        wsmObjects.stream().map(Resource::deserializeFromWsm).collect(Collectors.toList());
+  /**
+   * Look up a resource by name.
+   *
+   * @return the resource, or empty if there is no resource with that name
+   */
+  public Optional<Resource> findResource(String name) {
+    return getResourceStore().get(name);
+  }
 
-    this.resources = resources;
+  /**
+   * Populate the cache of resources for this workspace. Each resource is written to disk as it's
+   * fetched, so there's no limit on the number of resources in a workspace.
+   */
+  void populateResources() {
+    legacyResources = null;
+    // convert each resource as it arrives, while the next pages are fetched in the background
+    try (Stream<ResourceDescription> wsmObjects =
+        WorkspaceManagerService.fromContext().enumerateAllResources(uuid)) {
+      getResourceStore().replaceAll(wsmObjects.map(Resource::deserializeFromWsm));
+    }
   }
 
   /**
-   * Fetch the list of resources for the current workspace. Sync the cached list of resources to
-   * disk.
+   * Add or update one resource in the cache on disk, after this CLI created or updated it. Every so
+   * often, fetch the whole list of resources instead, to pick up changes made by other clients.
    */
+  public void putResourceAndSync(Resource resource) {
+    if (getResourceStore().needsFullSync(FULL_SYNC_INTERVAL)) {
+      populateResources();
+    } else {
+      getResourceStore().put(resource);
+    }
+  }
+
+  /**
+   * Remove one resource from the cache on disk, after this CLI deleted it. Every so often, fetch
+   * the whole list of resources instead, to pick up changes made by other clients.
+   */
+  public void removeResourceAndSync(Resource resource) {
+    if (getResourceStore().needsFullSync(FULL_SYNC_INTERVAL)) {
+      populateResources();
+    } else {
+      getResourceStore().remove(resource);
+    }
+  }
+
+  /** Fetch the list of resources for the current workspace, and update the cache on disk. */
   public List<Resource> listResourcesAndSync() {
     populateResources();
-    Context.synchronizeToDisk();
-    return resources;
+    return getResources();
+  }
+
+  /**
+   * Fetch the list of resources for the current workspace, and update the cache on disk.
+   *
+   * @param type only return resources of this type, or null for all types
+   * @param stewardshipType only return resources of this stewardship type, or null for both
+   * @return list of resources, sorted by name
+   */
+  public List<Resource> listResourcesAndSync(
+      @Nullable Resource.Type type, @Nullable StewardshipType stewardshipType) {
+    populateResources();
+    return Collections.unmodifiableList(getResourceStore().list(type, stewardshipType, true));
   }
 
   /**
@@ -420,8 +478,55 @@ public class Workspace {
     return userEmail;
   }
 
+  /**
+   * Get all the cached resources. This reads every resource from disk, so use {@link
+   * #getResource(String)} or {@link #getResourcesOfType(Resource.Type)} when only some are needed.
+   */
   public List<Resource> getResources() {
-    return Collections.unmodifiableList(resources);
+    return Collections.unmodifiableList(getResourceStore().list(null, null, false));
+  }
+
+  /** Get the cached resources of one type. */
+  public List<Resource> getResourcesOfType(Resource.Type type) {
+    return Collections.unmodifiableList(getResourceStore().list(type, null, false));
+  }
+
+  /** Get the number of cached resources, without reading them. */
+  public int getNumResources() {
+    return getResourceStore().size();
+  }
+
+  /** Get the cache of resources, moving any resources from an older context file into it first. */
+  private WorkspaceResourceStore getResourceStore() {
+    if (resourceStore == null) {
+      resourceStore = new WorkspaceResourceStore(uuid, Context.getConfig().getResourcesCacheSize());
+    }
+    if (legacyResources != null) {
+      List<Resource> resourcesToMove = legacyResources;
+      legacyResources = null;
+      resourceStore.replaceAll(resourcesToMove.stream());
+    }
+    return resourceStore;
+  }
+
+  /** Get the version of the resource cache, which changes each time any resource changes. */
+  long getResourcesVersion() {
+    return getResourceStore().getVersion();
+  }
+
+  /** True if the cache holds a full list of resources fetched from WSM, however old. */
+  boolean hasSyncedResources() {
+    return getResourceStore().wasFullySynced();
+  }
+
+  /** True if there are resources from an older context file that haven't been moved yet. */
+  boolean hasUnsavedResources() {
+    return legacyResources != null;
+  }
+
+  /** Move any resources from an older context file to the resource cache on disk. */
+  void saveResources() {
+    getResourceStore();
   }
 
   public OffsetDateTime getCreatedDate() {
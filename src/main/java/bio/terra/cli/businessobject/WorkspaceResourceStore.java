@@ -0,0 +1,620 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.PDResource;
+import bio.terra.cli.serialization.persisted.PDResourceIndex;
+import bio.terra.cli.serialization.persisted.PDResourceIndexEntry;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.workspace.model.StewardshipType;
+import com.google.common.hash.Hashing;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cache of the resources in a workspace, kept on disk so that the number of resources isn't limited
+ * by memory.
+ *
+ * <p>Each resource is written to its own file, named by the resource id, as soon as it's fetched.
+ * An index file lists the name, type and stewardship type of each resource, so that looking up a
+ * resource by name or listing the resources of one type only reads the files that match. The
+ * lookups into the index (by name, by type, by stewardship type, and sorted by name) are built in
+ * memory the first time they're used. The most recently used resources are also kept in memory, up
+ * to the limit set in the config (see {@link Config#getResourcesCacheSize()}).
+ *
+ * <p>The whole cache is replaced each time the list of resources is fetched from Workspace Manager.
+ * In between, resources that this CLI creates, updates or deletes are patched in one at a time (see
+ * {@link #put(Resource)} and {@link #remove(Resource)}), so a change to one resource doesn't
+ * re-fetch all of them.
+ *
+ * <p>Each change holds an exclusive lock on a lock file next to the index, from reading the index
+ * to writing it, so that changes from concurrent processes don't overwrite each other. A full sync
+ * fetches the resources and writes their files before it takes the lock. Readers don't take the
+ * lock.
+ *
+ * <p>The index file is replaced in one step, after all the resource files it lists have been
+ * written, so other processes reading the cache never see an index that points to missing files
+ * (except for the short time between replacing the index and deleting files it no longer lists,
+ * which readers handle by re-reading the index).
+ */
+class WorkspaceResourceStore {
+  private static final Logger logger = LoggerFactory.getLogger(WorkspaceResourceStore.class);
+
+  private static final String RESOURCES_DIRNAME = "resources";
+  private static final String INDEX_FILENAME = "index.json";
+  private static final String INDEX_LOCK_FILENAME = "index.lock";
+  // prefix of the directories that a sync writes the changed resource files to, before it takes
+  // the index lock
+  private static final String STAGING_DIR_PREFIX = "sync-";
+
+  private final UUID workspaceUuid;
+  private final int maxResourcesInMemory;
+  // index entries in the order Workspace Manager returned them, or null if not read yet
+  @Nullable private List<PDResourceIndexEntry> index;
+  // when the whole list of resources was last fetched from Workspace Manager, null if never
+  @Nullable private OffsetDateTime lastSyncedDate;
+  // incremented each time the index is written, by this or any other process
+  private long version;
+  // lookups into the index, each built the first time it's used and dropped whenever the index
+  // changes: entries by resource name, by resource type, by stewardship type, and sorted by name
+  @Nullable private Map<String, PDResourceIndexEntry> indexByName;
+  @Nullable private Map<Resource.Type, List<PDResourceIndexEntry>> indexByType;
+  @Nullable private Map<StewardshipType, List<PDResourceIndexEntry>> indexByStewardshipType;
+  @Nullable private List<PDResourceIndexEntry> indexSortedByName;
+  // most recently used resources, by name. the least recently used one is dropped when it's full
+  private final Map<String, Resource> mostUsed;
+
+  WorkspaceResourceStore(UUID workspaceUuid, int maxResourcesInMemory) {
+    this.workspaceUuid = workspaceUuid;
+    this.maxResourcesInMemory = maxResourcesInMemory;
+    this.mostUsed =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Resource> eldest) {
+            return size() > WorkspaceResourceStore.this.maxResourcesInMemory;
+          }
+        };
+  }
+
+  /** Number of resources in the cache. */
+  int size() {
+    return getIndex().size();
+  }
+
+  /**
+   * Get a resource by name.
+   *
+   * @return the resource, or empty if there is no resource with that name in the cache
+   */
+  Optional<Resource> get(String name) {
+    Resource resource = mostUsed.get(name);
+    if (resource != null) {
+      return Optional.of(resource);
+    }
+    return Optional.ofNullable(getIndexByName().get(name)).map(this::readResource);
+  }
+
+  /**
+   * List the resources in the cache. This reads each matching resource, so use {@link #get(String)}
+   * to look up a single resource.
+   *
+   * <p>The filters and the sort only use the index, so only the resources that are returned are
+   * read.
+   *
+   * @param type only list resources of this type, or null for all types
+   * @param stewardshipType only list resources of this stewardship type, or null for both
+   * @param sortByName true to sort by name, false to keep the order Workspace Manager returned them
+   * @return list of resources
+   */
+  List<Resource> list(
+      @Nullable Resource.Type type, @Nullable StewardshipType stewardshipType, boolean sortByName) {
+    // start from the smallest list of entries that has all the matches in the right order
+    List<PDResourceIndexEntry> candidates;
+    if (sortByName) {
+      candidates = getIndexSortedByName();
+    } else if (type != null) {
+      candidates = getIndexByType().getOrDefault(type, Collections.emptyList());
+    } else if (stewardshipType != null) {
+      candidates =
+          getIndexByStewardshipType().getOrDefault(stewardshipType, Collections.emptyList());
+    } else {
+      candidates = getIndex();
+    }
+    return candidates.stream()
+        .filter(entry -> type == null || entry.resourceType.equals(type))
+        .filter(entry -> stewardshipType == null || entry.stewardshipType.equals(stewardshipType))
+        .map(this::readResource)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Replace the contents of the cache. Each resource is written to disk as it arrives, so the
+   * stream can have more resources than fit in memory. Resource files whose contents haven't
+   * changed since they were last written are left alone, so a sync where little changed writes few
+   * files.
+   *
+   * <p>The stream is read, and the changed resources are written to a staging directory, before
+   * taking the index lock. So paging through a long list from Workspace Manager doesn't hold up
+   * other processes that change the cache. Under the lock, the staged files are moved into place
+   * and the index is written.
+   *
+   * @param resources stream of all the resources in the workspace
+   */
+  void replaceAll(Stream<Resource> resources) {
+    // compare against the index as it is on disk now. readers don't need the lock
+    readIndex();
+    Map<UUID, String> oldContentHashes = new HashMap<>();
+    for (PDResourceIndexEntry entry : index) {
+      if (entry.contentHash != null) {
+        oldContentHashes.put(entry.id, entry.contentHash);
+      }
+    }
+    Path stagingDir = createStagingDir();
+    try {
+      List<PDResourceIndexEntry> newIndex = new ArrayList<>();
+      Set<UUID> stagedIds = new HashSet<>();
+      mostUsed.clear();
+      resources.forEach(
+          resource -> {
+            String contents = serializeResource(resource);
+            String contentHash = hashContents(contents);
+            if (!contentHash.equals(oldContentHashes.get(resource.getId()))
+                || !Files.exists(getResourceFile(resource.getId()))) {
+              writeFile(stagingDir.resolve(getResourceFileName(resource.getId())), contents);
+              stagedIds.add(resource.getId());
+            }
+            newIndex.add(new PDResourceIndexEntry(resource, contentHash));
+            mostUsed.put(resource.getName(), resource);
+          });
+      withIndexLock(() -> commitStagedIndex(newIndex, stagedIds, stagingDir));
+    } finally {
+      deleteStagingDir(stagingDir);
+    }
+  }
+
+  /**
+   * Move the staged resource files into place and write the new index, while holding the index
+   * lock. Another process may have changed the cache since it was compared against, so the index is
+   * re-read first. A resource file that wasn't staged, and that the other process rewrote in the
+   * meantime, keeps that process's index entry, which matches the file on disk. The next sync
+   * brings it up to date.
+   */
+  private void commitStagedIndex(
+      List<PDResourceIndexEntry> newIndex, Set<UUID> stagedIds, Path stagingDir) {
+    readIndex();
+    Map<UUID, PDResourceIndexEntry> currentEntries = new HashMap<>();
+    for (PDResourceIndexEntry entry : index) {
+      currentEntries.put(entry.id, entry);
+    }
+    List<PDResourceIndexEntry> committedIndex = new ArrayList<>(newIndex.size());
+    for (PDResourceIndexEntry entry : newIndex) {
+      if (stagedIds.contains(entry.id)) {
+        moveFile(stagingDir.resolve(getResourceFileName(entry.id)), getResourceFile(entry.id));
+        committedIndex.add(entry);
+        continue;
+      }
+      PDResourceIndexEntry currentEntry = currentEntries.get(entry.id);
+      if (currentEntry == null) {
+        // the other process removed it, and its file
+        mostUsed.remove(entry.name);
+      } else if (Objects.equals(currentEntry.contentHash, entry.contentHash)) {
+        committedIndex.add(entry);
+      } else {
+        mostUsed.remove(entry.name);
+        committedIndex.add(currentEntry);
+      }
+    }
+    writeIndex(committedIndex, OffsetDateTime.now());
+
+    // delete the files of resources that are no longer listed, e.g. because they were deleted
+    Set<UUID> committedIds =
+        committedIndex.stream().map(entry -> entry.id).collect(Collectors.toSet());
+    for (UUID removedId : currentEntries.keySet()) {
+      if (!committedIds.contains(removedId)) {
+        try {
+          Files.deleteIfExists(getResourceFile(removedId));
+        } catch (IOException ioEx) {
+          // a leftover file only takes up space, it's never read
+          logger.warn("Error deleting old resource file {}", removedId, ioEx);
+        }
+      }
+    }
+    logger.debug(
+        "Cached {} resources for workspace {}, {} changed",
+        committedIndex.size(),
+        workspaceUuid,
+        stagedIds.size());
+  }
+
+  /**
+   * Add or update one resource in the cache, e.g. after this CLI creates or updates it. The index
+   * is re-read under the index lock first, so that changes other processes made to the cache aren't
+   * lost.
+   *
+   * @param resource the new version of the resource
+   */
+  void put(Resource resource) {
+    withIndexLock(
+        () -> {
+          readIndex();
+          String contents = serializeResource(resource);
+          writeResourceFile(resource, contents);
+          List<PDResourceIndexEntry> newIndex = new ArrayList<>(index);
+          PDResourceIndexEntry newEntry =
+              new PDResourceIndexEntry(resource, hashContents(contents));
+          OptionalInt position = findById(newIndex, resource.getId());
+          if (position.isPresent()) {
+            // the resource may have been renamed
+            mostUsed.remove(newIndex.get(position.getAsInt()).name);
+            newIndex.set(position.getAsInt(), newEntry);
+          } else {
+            newIndex.add(newEntry);
+          }
+          writeIndex(newIndex, lastSyncedDate);
+          mostUsed.put(resource.getName(), resource);
+          logger.debug(
+              "Updated resource {} in the cache for workspace {}",
+              resource.getName(),
+              workspaceUuid);
+        });
+  }
+
+  /**
+   * Remove one resource from the cache, e.g. after this CLI deletes it. The index is re-read under
+   * the index lock first, so that changes other processes made to the cache aren't lost.
+   *
+   * @param resource the resource that was deleted
+   */
+  void remove(Resource resource) {
+    withIndexLock(
+        () -> {
+          readIndex();
+          List<PDResourceIndexEntry> newIndex = new ArrayList<>(index);
+          OptionalInt position = findById(newIndex, resource.getId());
+          if (position.isPresent()) {
+            mostUsed.remove(newIndex.remove(position.getAsInt()).name);
+            writeIndex(newIndex, lastSyncedDate);
+          }
+          try {
+            Files.deleteIfExists(getResourceFile(resource.getId()));
+          } catch (IOException ioEx) {
+            // a leftover file only takes up space, it's never read
+            logger.warn("Error deleting resource file for {}", resource.getName(), ioEx);
+          }
+          logger.debug(
+              "Removed resource {} from the cache for workspace {}",
+              resource.getName(),
+              workspaceUuid);
+        });
+  }
+
+  /**
+   * Check whether the whole list of resources should be fetched again, to pick up changes made by
+   * other clients (e.g. the UI, or another user of the workspace).
+   *
+   * @param maxAge how long a fully fetched list is trusted
+   * @return true if the list was never fetched in full, or was fetched longer ago than the max age
+   */
+  boolean needsFullSync(Duration maxAge) {
+    getIndex();
+    return lastSyncedDate == null || lastSyncedDate.plus(maxAge).isBefore(OffsetDateTime.now());
+  }
+
+  /** Get the version of the index, which changes each time any resource in the cache changes. */
+  long getVersion() {
+    getIndex();
+    return version;
+  }
+
+  /** True if the whole list of resources has been fetched at least once. */
+  boolean wasFullySynced() {
+    getIndex();
+    return lastSyncedDate != null;
+  }
+
+  /**
+   * Delete the resource cache for a workspace from disk.
+   *
+   * @param workspaceUuid workspace id
+   */
+  static void delete(UUID workspaceUuid) {
+    Path workspaceDir = Context.getWorkspaceDir(workspaceUuid);
+    if (!Files.exists(workspaceDir)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(workspaceDir)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.deleteIfExists(path);
+      }
+    } catch (IOException ioEx) {
+      logger.warn("Error deleting resources cache for workspace {}", workspaceUuid, ioEx);
+    }
+  }
+
+  /**
+   * Get the directory that holds the resource cache for a workspace.
+   *
+   * @param workspaceUuid workspace id
+   * @return absolute path to the directory
+   */
+  static Path getResourcesDir(UUID workspaceUuid) {
+    return Context.getWorkspaceDir(workspaceUuid).resolve(RESOURCES_DIRNAME);
+  }
+
+  /**
+   * Get the index file of the resource cache for a workspace.
+   *
+   * @param workspaceUuid workspace id
+   * @return absolute path to the index file
+   */
+  static Path getIndexFile(UUID workspaceUuid) {
+    return getResourcesDir(workspaceUuid).resolve(INDEX_FILENAME);
+  }
+
+  /**
+   * Run a change to the cache while holding the lock on the index, from reading the index to
+   * writing it, so that concurrent changes from other processes aren't lost.
+   */
+  private void withIndexLock(Runnable change) {
+    try {
+      FileUtils.callWithFileLock(
+          getResourcesDir(workspaceUuid).resolve(INDEX_LOCK_FILENAME),
+          () -> {
+            change.run();
+            return null;
+          });
+    } catch (IOException ioEx) {
+      throw new SystemException("Error locking the resources index.", ioEx);
+    }
+  }
+
+  /** Get the index, reading it from disk the first time. */
+  private List<PDResourceIndexEntry> getIndex() {
+    if (index == null) {
+      readIndex();
+    }
+    return index;
+  }
+
+  /** Read the index from disk. */
+  private void readIndex() {
+    try {
+      PDResourceIndex diskIndex =
+          JacksonMapper.readFileIntoJavaObject(
+              getIndexFile(workspaceUuid).toFile(), PDResourceIndex.class);
+      setIndex(diskIndex.resources, diskIndex.lastSyncedDate, diskIndex.version);
+    } catch (FileNotFoundException fnfEx) {
+      logger.debug("Resources index not found for workspace {}", workspaceUuid);
+      setIndex(new ArrayList<>(), null, 0);
+    } catch (IOException ioEx) {
+      // the index is only a cache, so fall back to an empty list. listing the resources will
+      // rebuild it
+      logger.warn("Error reading resources index for workspace {}", workspaceUuid, ioEx);
+      setIndex(new ArrayList<>(), null, 0);
+    }
+  }
+
+  private void setIndex(
+      List<PDResourceIndexEntry> entries,
+      @Nullable OffsetDateTime entriesSyncedDate,
+      long indexVersion) {
+    index = Collections.unmodifiableList(entries);
+    lastSyncedDate = entriesSyncedDate;
+    version = indexVersion;
+    indexByName = null;
+    indexByType = null;
+    indexByStewardshipType = null;
+    indexSortedByName = null;
+  }
+
+  private Map<String, PDResourceIndexEntry> getIndexByName() {
+    if (indexByName == null) {
+      indexByName = new HashMap<>();
+      for (PDResourceIndexEntry entry : getIndex()) {
+        indexByName.put(entry.name, entry);
+      }
+    }
+    return indexByName;
+  }
+
+  private Map<Resource.Type, List<PDResourceIndexEntry>> getIndexByType() {
+    if (indexByType == null) {
+      indexByType =
+          getIndex().stream()
+              .collect(
+                  Collectors.groupingBy(
+                      entry -> entry.resourceType,
+                      () -> new EnumMap<>(Resource.Type.class),
+                      Collectors.toList()));
+    }
+    return indexByType;
+  }
+
+  private Map<StewardshipType, List<PDResourceIndexEntry>> getIndexByStewardshipType() {
+    if (indexByStewardshipType == null) {
+      indexByStewardshipType =
+          getIndex().stream()
+              .collect(
+                  Collectors.groupingBy(
+                      entry -> entry.stewardshipType,
+                      () -> new EnumMap<>(StewardshipType.class),
+                      Collectors.toList()));
+    }
+    return indexByStewardshipType;
+  }
+
+  private List<PDResourceIndexEntry> getIndexSortedByName() {
+    if (indexSortedByName == null) {
+      List<PDResourceIndexEntry> sorted = new ArrayList<>(getIndex());
+      sorted.sort(Comparator.comparing(entry -> entry.name));
+      indexSortedByName = Collections.unmodifiableList(sorted);
+    }
+    return indexSortedByName;
+  }
+
+  /**
+   * Write the index to disk, with a version higher than any index this or another process wrote
+   * before, so that files built from the old resources (e.g. {@link ToolEnvironment}) can tell
+   * they're out of date.
+   */
+  private void writeIndex(
+      List<PDResourceIndexEntry> entries, @Nullable OffsetDateTime entriesSyncedDate) {
+    long newVersion = Math.max(version, readVersion(workspaceUuid)) + 1;
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getIndexFile(workspaceUuid).toFile(),
+          JacksonMapper.getMapper()
+              .writeValueAsString(
+                  new PDResourceIndex(workspaceUuid, entries, entriesSyncedDate, newVersion)));
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing resources index to disk.", ioEx);
+    }
+    setIndex(entries, entriesSyncedDate, newVersion);
+  }
+
+  /**
+   * Read the version of the index on disk, which may have been written by another process.
+   *
+   * @param workspaceUuid workspace id
+   * @return the version, or 0 if there is no index
+   */
+  static long readVersion(UUID workspaceUuid) {
+    try {
+      return JacksonMapper.readFileIntoJavaObject(
+              getIndexFile(workspaceUuid).toFile(), PDResourceIndex.class)
+          .version;
+    } catch (IOException ioEx) {
+      return 0;
+    }
+  }
+
+  private static OptionalInt findById(List<PDResourceIndexEntry> entries, UUID resourceId) {
+    return IntStream.range(0, entries.size())
+        .filter(i -> entries.get(i).id.equals(resourceId))
+        .findFirst();
+  }
+
+  /** Read a resource from its file, or from memory if it was used recently. */
+  private Resource readResource(PDResourceIndexEntry entry) {
+    Resource resource = mostUsed.get(entry.name);
+    if (resource != null) {
+      return resource;
+    }
+    try {
+      resource =
+          JacksonMapper.readFileIntoJavaObject(getResourceFile(entry.id).toFile(), PDResource.class)
+              .deserializeToInternal();
+    } catch (FileNotFoundException fnfEx) {
+      // another process replaced the cache since the index was read. re-read the index once
+      logger.debug("Resource file for {} not found, re-reading the index", entry.name);
+      readIndex();
+      PDResourceIndexEntry newEntry = getIndexByName().get(entry.name);
+      if (newEntry == null || newEntry.id.equals(entry.id)) {
+        throw new SystemException(
+            "Resource " + entry.name + " is missing from the cache. Run `terra resource list`.");
+      }
+      return readResource(newEntry);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error reading resource " + entry.name + " from disk.", ioEx);
+    }
+    mostUsed.put(entry.name, resource);
+    return resource;
+  }
+
+  private static String serializeResource(Resource resource) {
+    try {
+      return JacksonMapper.getMapper().writeValueAsString(resource.serializeToDisk());
+    } catch (IOException ioEx) {
+      throw new SystemException("Error serializing resource " + resource.getName() + ".", ioEx);
+    }
+  }
+
+  private static String hashContents(String contents) {
+    return Hashing.sha256().hashString(contents, StandardCharsets.UTF_8).toString();
+  }
+
+  private void writeResourceFile(Resource resource, String contents) {
+    try {
+      FileUtils.writeStringToFileAtomically(getResourceFile(resource.getId()).toFile(), contents);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing resource " + resource.getName() + " to disk.", ioEx);
+    }
+  }
+
+  /**
+   * Create a directory next to the resource files to write the changed ones to before the index
+   * lock is taken. It's on the same file system, so the files can be moved into place in one step.
+   */
+  private Path createStagingDir() {
+    try {
+      Path resourcesDir = getResourcesDir(workspaceUuid);
+      Files.createDirectories(resourcesDir);
+      return Files.createTempDirectory(resourcesDir, STAGING_DIR_PREFIX);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error creating a directory for the resources cache.", ioEx);
+    }
+  }
+
+  private static void deleteStagingDir(Path stagingDir) {
+    try (Stream<Path> files = Files.list(stagingDir)) {
+      for (Path file : files.collect(Collectors.toList())) {
+        Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(stagingDir);
+    } catch (IOException ioEx) {
+      // leftover files only take up space, they're never read
+      logger.warn("Error deleting staged resource files in {}", stagingDir, ioEx);
+    }
+  }
+
+  private static void moveFile(Path source, Path target) {
+    try {
+      Files.move(
+          source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing resource file " + target + " to disk.", ioEx);
+    }
+  }
+
+  private static void writeFile(Path file, String contents) {
+    try {
+      FileUtils.writeStringToFile(file.toFile(), contents);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error writing resource file " + file + " to disk.", ioEx);
+    }
+  }
+
+  private Path getResourceFile(UUID resourceId) {
+    return getResourcesDir(workspaceUuid).resolve(getResourceFileName(resourceId));
+  }
+
+  private static String getResourceFileName(UUID resourceId) {
+    return resourceId + ".json";
+  }
+}
@@ -0,0 +1,427 @@
+package bio.terra.cli.businessobject;
+
+import bio.terra.cli.businessobject.resource.BqDataset;
+import bio.terra.cli.businessobject.resource.BqTable;
+import bio.terra.cli.businessobject.resource.DataCollection;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.PDResourceUsage;
+import bio.terra.cli.serialization.persisted.PDWorkspaceUsage;
+import bio.terra.cli.serialization.userfacing.UFWorkspaceUsage;
+import bio.terra.cli.service.GoogleBigQuery;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cli.utils.UserIO;
+import com.google.api.services.bigquery.model.Table;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Storage used by the buckets, datasets and tables in the current workspace, including the ones
+ * inside its data collections.
+ *
+ * <p>Each resource is scanned on its own thread: buckets are listed with {@link GcsObjectStats},
+ * and the size of each table is looked up in BigQuery. A dataset is the sum of its tables, which
+ * are looked up on a separate pool so that a dataset with many tables doesn't hold up the other
+ * resources.
+ *
+ * <p>The report is saved in the workspace directory. The next report can start from it, and copy
+ * the usage of buckets that still resolve to the same bucket and were scanned less than {@link
+ * #SNAPSHOT_BUCKET_TTL} ago. Listing a bucket is the slow part of a report, and there's no cheap
+ * way to tell whether its objects changed. Datasets and tables are always looked up again: their
+ * size and last modified time come from the same metadata call that would tell whether they
+ * changed. A data collection that can't be fetched (e.g. the user lost access to it) is skipped
+ * with a warning, so the rest of the report still runs.
+ */
+public class WorkspaceUsage {
+  private static final Logger logger = LoggerFactory.getLogger(WorkspaceUsage.class);
+
+  private static final String USAGE_SNAPSHOT_FILENAME = "usage.json";
+  // copy the usage of a bucket from the last report if it was scanned at most this long ago
+  private static final Duration SNAPSHOT_BUCKET_TTL = Duration.ofDays(1);
+  // scan up to this many resources at the same time
+  private static final int MAX_SCANS_IN_FLIGHT = 8;
+  // look up up to this many tables of datasets at the same time
+  private static final int MAX_TABLE_LOOKUPS_IN_FLIGHT = 16;
+  private static final Set<Resource.Type> SCANNED_RESOURCE_TYPES =
+      Set.of(Resource.Type.GCS_BUCKET, Resource.Type.BQ_DATASET, Resource.Type.BQ_TABLE);
+
+  // sorted by size, largest first
+  private final List<ResourceUsage> resources;
+  private final OffsetDateTime computedDate;
+
+  private WorkspaceUsage(List<ResourceUsage> resources, OffsetDateTime computedDate) {
+    this.resources = resources;
+    this.computedDate = computedDate;
+  }
+
+  /**
+   * Scan the buckets, datasets and tables in the current workspace and its data collections, and
+   * save the report for the next time.
+   *
+   * @param sinceLast true to copy the usage of buckets that were scanned recently from the last
+   *     report, instead of scanning them again
+   * @param refresh true to list the objects in all buckets, even if the last report or {@link
+   *     GcsObjectStats} has recent counts for them
+   * @return the report
+   */
+  public static WorkspaceUsage compute(boolean sinceLast, boolean refresh) {
+    Map<String, ResourceUsage> lastSnapshot = Map.of();
+    if (sinceLast) {
+      lastSnapshot = refresh ? Map.of() : readSnapshot();
+      if (refresh) {
+        UserIO.getErr().println("--refresh is set, scanning all resources.");
+      } else if (lastSnapshot.isEmpty()) {
+        UserIO.getErr().println("No previous usage report found, scanning all resources.");
+      }
+    }
+    List<ResourceUsage> resources = new Scan(lastSnapshot, refresh).run();
+    resources.sort(
+        Comparator.comparing(
+                ResourceUsage::getNumBytes, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(ResourceUsage::getQualifiedName));
+    WorkspaceUsage usage = new WorkspaceUsage(resources, OffsetDateTime.now());
+    writeSnapshot(usage);
+    return usage;
+  }
+
+  /** Serialize the internal representation of the report to the format for command output. */
+  public UFWorkspaceUsage serializeToCommand() {
+    return new UFWorkspaceUsage(this);
+  }
+
+  /**
+   * Read the last report from disk, keyed by qualified resource name. A report saved by a different
+   * user is ignored.
+   */
+  private static Map<String, ResourceUsage> readSnapshot() {
+    try {
+      PDWorkspaceUsage fromDisk =
+          JacksonMapper.readFileIntoJavaObject(getSnapshotFile().toFile(), PDWorkspaceUsage.class);
+      if (!Context.requireUser().getEmail().equals(fromDisk.userEmail)
+          || fromDisk.resources == null) {
+        return Map.of();
+      }
+      return fromDisk.resources.stream()
+          .map(ResourceUsage::new)
+          .collect(Collectors.toMap(ResourceUsage::getQualifiedName, usage -> usage));
+    } catch (FileNotFoundException fnfEx) {
+      return Map.of();
+    } catch (IOException ioEx) {
+      // scan everything again
+      logger.warn("Error reading the last usage report", ioEx);
+      return Map.of();
+    }
+  }
+
+  /** Save the report to disk. Resources that couldn't be scanned are left out. */
+  private static void writeSnapshot(WorkspaceUsage usage) {
+    List<PDResourceUsage> scanned =
+        usage.resources.stream()
+            .filter(ResourceUsage::isScanned)
+            .map(ResourceUsage::serializeToDisk)
+            .collect(Collectors.toList());
+    try {
+      FileUtils.writeStringToFileAtomically(
+          getSnapshotFile().toFile(),
+          JacksonMapper.getMapper()
+              .writeValueAsString(
+                  new PDWorkspaceUsage(
+                      scanned, usage.computedDate, Context.requireUser().getEmail())));
+    } catch (IOException ioEx) {
+      // the next `--since-last` will scan everything again
+      logger.warn("Error saving the usage report", ioEx);
+    }
+  }
+
+  private static Path getSnapshotFile() {
+    return Context.getWorkspaceDir(Context.requireWorkspace().getUuid())
+        .resolve(USAGE_SNAPSHOT_FILENAME);
+  }
+
+  private static @Nullable OffsetDateTime toDateTime(@Nullable BigInteger epochMillis) {
+    return epochMillis == null
+        ? null
+        : OffsetDateTime.ofInstant(Instant.ofEpochMilli(epochMillis.longValue()), ZoneOffset.UTC);
+  }
+
+  /** One run of scanning the resources in the workspace. */
+  private static class Scan {
+    private final Map<String, ResourceUsage> lastSnapshot;
+    private final boolean refresh;
+    private final ExecutorService executor =
+        ThreadPools.newFixedDaemonPool("workspace-usage", MAX_SCANS_IN_FLIGHT);
+    private final ExecutorService tableExecutor =
+        ThreadPools.newFixedDaemonPool("workspace-usage-tables", MAX_TABLE_LOOKUPS_IN_FLIGHT);
+    private final Supplier<GoogleBigQuery> bigQuery =
+        Suppliers.memoize(GoogleBigQuery::fromContextForPetSa);
+    private final AtomicInteger numScansDone = new AtomicInteger();
+    private int numScans;
+
+    Scan(Map<String, ResourceUsage> lastSnapshot, boolean refresh) {
+      this.lastSnapshot = lastSnapshot;
+      this.refresh = refresh;
+    }
+
+    List<ResourceUsage> run() {
+      try {
+        List<ResourceUsage> resources = new ArrayList<>();
+        List<ScanTarget> toScan = new ArrayList<>();
+        for (ScanTarget target : getScanTargets()) {
+          Optional<ResourceUsage> fromLastSnapshot = target.getFromLastSnapshot(lastSnapshot);
+          if (fromLastSnapshot.isPresent()) {
+            logger.debug("Copying the usage of {} from the last report", target.getQualifiedName());
+            resources.add(fromLastSnapshot.get());
+          } else {
+            toScan.add(target);
+          }
+        }
+        numScans = toScan.size();
+        List<Future<ResourceUsage>> scans = new ArrayList<>();
+        for (ScanTarget target : toScan) {
+          scans.add(executor.submit(() -> scanAndPrintProgress(target)));
+        }
+        for (Future<ResourceUsage> scan : scans) {
+          resources.add(waitFor(scan));
+        }
+        return resources;
+      } finally {
+        executor.shutdownNow();
+        tableExecutor.shutdownNow();
+      }
+    }
+
+    /**
+     * Get the resources to scan: the ones in the workspace, and the ones in each data collection.
+     * The data collection workspaces are fetched at the same time.
+     */
+    private List<ScanTarget> getScanTargets() {
+      Workspace workspace = Context.requireWorkspace();
+      List<ScanTarget> targets = new ArrayList<>();
+      Map<String, Future<Workspace>> dataCollectionWorkspaces = new HashMap<>();
+      for (Resource resource : workspace.getResources()) {
+        if (SCANNED_RESOURCE_TYPES.contains(resource.getResourceType())) {
+          targets.add(new ScanTarget(null, resource));
+        } else if (resource.getResourceType() == Resource.Type.DATA_COLLECTION) {
+          DataCollection dataCollection = (DataCollection) resource;
+          dataCollectionWorkspaces.put(
+              dataCollection.getName(),
+              executor.submit(dataCollection::getDataCollectionWorkspace));
+        }
+      }
+      dataCollectionWorkspaces.forEach(
+          (dataCollectionName, dataCollectionWorkspace) ->
+              waitForDataCollectionWorkspace(dataCollectionName, dataCollectionWorkspace)
+                  .ifPresent(
+                      fetched ->
+                          fetched.getResources().stream()
+                              .filter(
+                                  resource ->
+                                      SCANNED_RESOURCE_TYPES.contains(resource.getResourceType()))
+                              .forEach(
+                                  resource ->
+                                      targets.add(new ScanTarget(dataCollectionName, resource)))));
+      return targets;
+    }
+
+    /**
+     * Wait for a data collection workspace to be fetched. If the user can't read it, warn and skip
+     * the data collection, instead of failing the whole report.
+     *
+     * @return the data collection workspace, or empty if it couldn't be fetched
+     */
+    private Optional<Workspace> waitForDataCollectionWorkspace(
+        String dataCollectionName, Future<Workspace> fetch) {
+      try {
+        return Optional.of(waitFor(fetch));
+      } catch (SystemException sysEx) {
+        logger.warn(
+            String.format("Failed to get the data collection %s", dataCollectionName), sysEx);
+        UserIO.getErr()
+            .printf(
+                "Skipping data collection %s: it couldn't be fetched, check that you have access"
+                    + " to it.%n",
+                dataCollectionName);
+        return Optional.empty();
+      }
+    }
+
+    private ResourceUsage scanAndPrintProgress(ScanTarget target) {
+      String qualifiedName = target.getQualifiedName();
+      try {
+        ResourceUsage usage = scan(target);
+        UserIO.getErr()
+            .printf(
+                "[%d/%d] Scanned %s%n", numScansDone.incrementAndGet(), numScans, qualifiedName);
+        return usage;
+      } catch (RuntimeException rtEx) {
+        logger.error("Error scanning resource {}", qualifiedName, rtEx);
+        UserIO.getErr()
+            .printf(
+                "[%d/%d] Scan of %s failed%n",
+                numScansDone.incrementAndGet(), numScans, qualifiedName);
+        return ResourceUsage.failed(target.dataCollectionName, target.resource);
+      }
+    }
+
+    private ResourceUsage scan(ScanTarget target) {
+      switch (target.resource.getResourceType()) {
+        case GCS_BUCKET:
+          GcsBucket bucket = (GcsBucket) target.resource;
+          GcsObjectStats stats =
+              GcsObjectStats.get(bucket.getBucketName(), "", null, false, refresh);
+          return new ResourceUsage(
+              target.dataCollectionName,
+              bucket,
+              stats.getTotalBytes(),
+              stats.getNumObjects(),
+              stats.getLastUpdated(),
+              stats.getComputedDate());
+        case BQ_DATASET:
+          return scanDataset(target.dataCollectionName, (BqDataset) target.resource);
+        case BQ_TABLE:
+          BqTable table = (BqTable) target.resource;
+          Table tableMetadata =
+              getTable(table.getProjectId(), table.getDatasetId(), table.getDataTableId());
+          return new ResourceUsage(
+              target.dataCollectionName,
+              table,
+              numBytesOf(tableMetadata),
+              numRowsOf(tableMetadata),
+              toDateTime(tableMetadata.getLastModifiedTime()),
+              OffsetDateTime.now());
+        default:
+          throw new IllegalArgumentException(
+              "Unexpected resource type: " + target.resource.getResourceType());
+      }
+    }
+
+    /** Add up the sizes of all the tables in a dataset, looking them up at the same time. */
+    private ResourceUsage scanDataset(@Nullable String dataCollectionName, BqDataset dataset) {
+      List<Future<Table>> tableLookups =
+          bigQuery.get().listTableIds(dataset.getProjectId(), dataset.getDatasetId()).stream()
+              .map(
+                  tableId ->
+                      tableExecutor.submit(
+                          () -> getTable(dataset.getProjectId(), dataset.getDatasetId(), tableId)))
+              .collect(Collectors.toList());
+      long numBytes = 0;
+      long numRows = 0;
+      BigInteger lastModified = null;
+      for (Future<Table> tableLookup : tableLookups) {
+        Table table = waitFor(tableLookup);
+        numBytes += numBytesOf(table);
+        numRows += numRowsOf(table);
+        if (table.getLastModifiedTime() != null
+            && (lastModified == null || table.getLastModifiedTime().compareTo(lastModified) > 0)) {
+          lastModified = table.getLastModifiedTime();
+        }
+      }
+      return new ResourceUsage(
+          dataCollectionName,
+          dataset,
+          numBytes,
+          numRows,
+          toDateTime(lastModified),
+          OffsetDateTime.now());
+    }
+
+    private Table getTable(String projectId, String datasetId, String tableId) {
+      return bigQuery
+          .get()
+          .getDataTable(projectId, datasetId, tableId)
+          .orElseThrow(
+              () ->
+                  new SystemException(
+                      "Error looking up table " + projectId + "." + datasetId + "." + tableId));
+    }
+
+    // views and external tables have no size or row count
+    private static long numBytesOf(Table table) {
+      return table.getNumBytes() == null ? 0 : table.getNumBytes();
+    }
+
+    private static long numRowsOf(Table table) {
+      return table.getNumRows() == null ? 0 : table.getNumRows().longValue();
+    }
+
+    /** Wait for a task, and re-throw any exception thrown by it. */
+    private <T> T waitFor(Future<T> task) {
+      try {
+        return task.get();
+      } catch (ExecutionException exEx) {
+        if (exEx.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) exEx.getCause();
+        }
+        throw new SystemException("Error scanning workspace resources.", exEx.getCause());
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        throw new SystemException("Interrupted while scanning workspace resources.", intEx);
+      }
+    }
+  }
+
+  /** A resource to scan, and the data collection it's in, if any. */
+  private static class ScanTarget {
+    final @Nullable String dataCollectionName;
+    final Resource resource;
+
+    ScanTarget(@Nullable String dataCollectionName, Resource resource) {
+      this.dataCollectionName = dataCollectionName;
+      this.resource = resource;
+    }
+
+    String getQualifiedName() {
+      return ResourceUsage.toQualifiedName(dataCollectionName, resource.getName());
+    }
+
+    /**
+     * Get the usage from the last report, if this is a bucket that still resolves to the same
+     * bucket and was scanned less than {@link #SNAPSHOT_BUCKET_TTL} ago.
+     */
+    Optional<ResourceUsage> getFromLastSnapshot(Map<String, ResourceUsage> lastSnapshot) {
+      if (resource.getResourceType() != Resource.Type.GCS_BUCKET) {
+        return Optional.empty();
+      }
+      OffsetDateTime oldestReused = OffsetDateTime.now().minus(SNAPSHOT_BUCKET_TTL);
+      return Optional.ofNullable(lastSnapshot.get(getQualifiedName()))
+          .filter(usage -> usage.matches(resource))
+          .filter(usage -> usage.getScannedDate().isAfter(oldestReused));
+    }
+  }
+
+  // ====================================================
+  // Property getters.
+
+  public List<ResourceUsage> getResources() {
+    return resources;
+  }
+
+  public OffsetDateTime getComputedDate() {
+    return computedDate;
+  }
+}
@@ -2,6 +2,7 @@ package bio.terra.cli.businessobject.resource;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.serialization.persisted.resource.PDBqDataset;
 import bio.terra.cli.serialization.userfacing.input.CreateBqDatasetParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateControlledBqDatasetParams;
@@ -71,8 +72,9 @@ public class BqDataset extends Resource {
     logger.info("Created BQ dataset: {}", addedResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new BqDataset(addedResource);
+    BqDataset resource = new BqDataset(addedResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
@@ -90,15 +92,16 @@ public class BqDataset extends Resource {
     logger.info("Created BQ dataset: {}", createdResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new BqDataset(createdResource);
+    BqDataset resource = new BqDataset(createdResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
    */
-  public UFBqDataset serializeToCommand() {
-    return new UFBqDataset(this);
+  public UFBqDataset serializeToCommand(ResourceEnrichment enrichment) {
+    return new UFBqDataset(this, enrichment);
   }
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
@@ -4,6 +4,7 @@ import static bio.terra.cli.businessobject.resource.BqResolvedOptions.BQ_PROJECT
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.serialization.persisted.resource.PDBqTable;
 import bio.terra.cli.serialization.userfacing.input.AddBqTableParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedBqTableParams;
@@ -66,15 +67,16 @@ public class BqTable extends Resource {
     logger.info("Created BQ data table: {}", addedResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new BqTable(addedResource);
+    BqTable resource = new BqTable(addedResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
    */
-  public UFBqTable serializeToCommand() {
-    return new UFBqTable(this);
+  public UFBqTable serializeToCommand(ResourceEnrichment enrichment) {
+    return new UFBqTable(this, enrichment);
   }
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
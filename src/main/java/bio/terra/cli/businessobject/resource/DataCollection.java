@@ -1,7 +1,9 @@
 package bio.terra.cli.businessobject.resource;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.DataCollectionWorkspaceCache;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.serialization.persisted.resource.PDDataCollection;
@@ -46,9 +48,11 @@ public class DataCollection extends Resource {
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
+   * The resources in the data collection are shown with the cloud metadata in the given enrichment,
+   * which {@link ResourceEnrichment#fetch(java.util.List)} looks up along with this resource.
    */
-  public UFDataCollection serializeToCommand() {
-    return new UFDataCollection(this);
+  public UFDataCollection serializeToCommand(ResourceEnrichment enrichment) {
+    return new UFDataCollection(this, enrichment);
   }
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
@@ -75,16 +79,12 @@ public class DataCollection extends Resource {
   }
 
   public String resolve(String resourceName) {
-    var resources = getDataCollectionWorkspace().getResources();
-    return resources.stream()
-        .filter(
-            resource ->
-                // There shouldn't be any data collection resources in a data collection workspace,
-                // but filter out just in case.
-                resource.getResourceType() != Type.DATA_COLLECTION
-                    && resource.getName().equals(resourceName))
+    return getDataCollectionWorkspace()
+        .findResource(resourceName)
+        // There shouldn't be any data collection resources in a data collection workspace,
+        // but filter out just in case.
+        .filter(resource -> resource.getResourceType() != Type.DATA_COLLECTION)
         .map(Resource::resolve)
-        .findFirst()
         .orElseThrow(
             () ->
                 new UserActionableException(
@@ -93,7 +93,7 @@ public class DataCollection extends Resource {
   }
 
   public Workspace getDataCollectionWorkspace() {
-    return Workspace.get(dataCollectionWorkspaceUuid, /*isDataCollectionWorkspace=*/ true);
+    return DataCollectionWorkspaceCache.get(dataCollectionWorkspaceUuid);
   }
 
   // ====================================================
@@ -2,6 +2,7 @@ package bio.terra.cli.businessobject.resource;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.serialization.persisted.resource.PDGcpNotebook;
 import bio.terra.cli.serialization.userfacing.input.CreateGcpNotebookParams;
@@ -75,15 +76,16 @@ public class GcpNotebook extends Resource {
     logger.info("Created GCP notebook: {}", createdResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new GcpNotebook(createdResource);
+    GcpNotebook resource = new GcpNotebook(createdResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
    */
-  public UFGcpNotebook serializeToCommand() {
-    return new UFGcpNotebook(this);
+  public UFGcpNotebook serializeToCommand(ResourceEnrichment enrichment) {
+    return new UFGcpNotebook(this, enrichment);
   }
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
@@ -123,14 +125,13 @@ public class GcpNotebook extends Resource {
   }
 
   /** Query the cloud for information about the notebook VM. */
-  public Optional<Instance> getInstance() {
+  public Optional<Instance> getInstance(GoogleNotebooks notebooks) {
     InstanceName instanceName =
         InstanceName.builder()
             .projectId(projectId)
             .location(location)
             .instanceId(instanceId)
             .build();
-    GoogleNotebooks notebooks = new GoogleNotebooks(Context.requireUser().getPetSACredentials());
     try {
       return Optional.of(notebooks.get(instanceName));
     } catch (Exception ex) {
@@ -2,6 +2,7 @@ package bio.terra.cli.businessobject.resource;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.serialization.persisted.resource.PDGcsBucket;
 import bio.terra.cli.serialization.userfacing.input.CreateGcsBucketParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateControlledGcsBucketParams;
@@ -61,8 +62,9 @@ public class GcsBucket extends Resource {
     logger.info("Created GCS bucket: {}", addedResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new GcsBucket(addedResource);
+    GcsBucket resource = new GcsBucket(addedResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
@@ -80,15 +82,16 @@ public class GcsBucket extends Resource {
     logger.info("Created GCS bucket: {}", createdResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new GcsBucket(createdResource);
+    GcsBucket resource = new GcsBucket(createdResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
    */
-  public UFGcsBucket serializeToCommand() {
-    return new UFGcsBucket(this);
+  public UFGcsBucket serializeToCommand(ResourceEnrichment enrichment) {
+    return new UFGcsBucket(this, enrichment);
   }
 
   /** Serialize the internal representation of the resource to the format for writing to disk. */
@@ -4,6 +4,7 @@ import static bio.terra.cli.businessobject.resource.GcsBucket.GCS_BUCKET_URL_PRE
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.serialization.persisted.resource.PDGcsObject;
 import bio.terra.cli.serialization.userfacing.input.AddGcsObjectParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedGcsObjectParams;
@@ -62,14 +63,16 @@ public class GcsObject extends Resource {
     logger.info("Created GCS bucket object: {}", addedResource);
 
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new GcsObject(addedResource);
+    GcsObject resource = new GcsObject(addedResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
+   * There is no cloud metadata to show for this resource type.
    */
-  public UFGcsObject serializeToCommand() {
+  public UFGcsObject serializeToCommand(ResourceEnrichment enrichment) {
     return new UFGcsObject(this);
   }
 
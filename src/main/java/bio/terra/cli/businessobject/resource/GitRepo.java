@@ -2,6 +2,7 @@ package bio.terra.cli.businessobject.resource;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.serialization.persisted.resource.PDGitRepo;
 import bio.terra.cli.serialization.userfacing.input.AddGitRepoParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedGitRepoParams;
@@ -55,14 +56,16 @@ public class GitRepo extends Resource {
             .createReferencedGitRepo(Context.requireWorkspace().getUuid(), addGitRepoParams);
     logger.info("Created Git repo reference: {}", addedResource);
     // convert the WSM object to a CLI object
-    Context.requireWorkspace().listResourcesAndSync();
-    return new GitRepo(addedResource);
+    GitRepo resource = new GitRepo(addedResource);
+    Context.requireWorkspace().putResourceAndSync(resource);
+    return resource;
   }
 
   /**
    * Serialize the internal representation of the resource to the format for command input/output.
+   * There is no cloud metadata to show for this resource type.
    */
-  public UFGitRepo serializeToCommand() {
+  public UFGitRepo serializeToCommand(ResourceEnrichment enrichment) {
     return new UFGitRepo(this);
   }
 
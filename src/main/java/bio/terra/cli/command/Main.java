@@ -9,13 +9,19 @@ import bio.terra.cli.command.app.passthrough.Nextflow;
 import bio.terra.cli.exception.PassthroughException;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.service.utils.HttpTransport;
+import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.ServiceCache;
+import bio.terra.cli.utils.CommandTimings;
 import bio.terra.cli.utils.UserIO;
 import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
@@ -32,6 +38,7 @@ import picocli.CommandLine.ParseResult;
       Auth.class,
       Bq.class,
       Config.class,
+      Daemon.class,
       Gcloud.class,
       Git.class,
       Group.class,
@@ -95,11 +102,20 @@ public class Main implements Runnable {
     subcommands.get("nextflow").setStopAtPositional(true);
     subcommands.get("app").getSubcommands().get("execute").setStopAtPositional(true);
 
+    // service clients are cached per command, because the current server and user can change
+    // between commands run in the same process (e.g. tests, the daemon)
+    ServiceCache.clear();
+    HttpTransport.resetConnectionStats();
+    HttpUtils.resetRetryBudget();
+    CommandTimings.reset();
+
     // delegate to the appropriate command class, or print the usage if no command was specified
     int exitCode = cmd.execute(args);
     if (args.length == 0) {
       cmd.usage(cmd.getOut());
     }
+    HttpTransport.logConnectionStats();
+    CommandTimings.finish(getCommandName(cmd.getParseResult()), exitCode);
 
     return exitCode;
   }
@@ -111,21 +127,62 @@ public class Main implements Runnable {
    * @param args from stdin
    */
   public static void main(String... args) {
-    // Save the user input args so that {@link BaseCommand} can log the command and arguments being
-    // executed.
-    argList = Arrays.asList(args);
     // run the command
-    int exitCode = runCommand(args);
+    int exitCode = runUserCommand(args);
 
     // set the exit code and terminate the process
     System.exit(exitCode);
   }
 
+  /**
+   * Create and execute the top-level command for a user invocation, either from {@link
+   * #main(String...)} or from a client of the daemon.
+   *
+   * @param args command and arguments
+   * @return process exit code
+   */
+  public static int runUserCommand(String... args) {
+    // Save the user input args so that {@link BaseCommand} can log the command and arguments being
+    // executed.
+    argList = Arrays.asList(args);
+    return runCommand(args);
+  }
+
+  /**
+   * Get the name of the command that was run (e.g. "terra resource list"), without any options or
+   * parameters, which may include sensitive values.
+   *
+   * @param parseResult result of parsing the command line, null if parsing failed
+   */
+  private static String getCommandName(@Nullable ParseResult parseResult) {
+    List<String> commandNames = new ArrayList<>();
+    commandNames.add("terra");
+    ParseResult subcommand = parseResult == null ? null : parseResult.subcommand();
+    while (subcommand != null) {
+      commandNames.add(subcommand.commandSpec().name());
+      subcommand = subcommand.subcommand();
+    }
+    return String.join(" ", commandNames);
+  }
+
   /** Get the user input arguments */
   public static List<String> getArgList() {
     return argList;
   }
 
+  /**
+   * Global option to print where the command spent its time. This is inherited by all subcommands,
+   * so it can go anywhere on the command line.
+   */
+  @CommandLine.Option(
+      names = "--timings",
+      scope = CommandLine.ScopeType.INHERIT,
+      description =
+          "Print the time spent in each phase of the command and in each request to a Terra or cloud service.")
+  void setTimings(boolean timings) {
+    CommandTimings.setPrintReport(timings);
+  }
+
   /** Required method to implement Runnable, but not actually called by picocli. */
   @Override
   public void run() {}
@@ -211,6 +268,9 @@ public class Main implements Runnable {
       // log the exact message that was printed to the console, for easier debugging
       logger.error(errorMessage, ex);
 
+      // keep any changes to the context made before the error (e.g. refreshed credentials)
+      Context.flushToDisk();
+
       // set the process return code
       return exitCode;
     }
@@ -13,6 +13,7 @@ import bio.terra.cli.command.workspace.RemoveUser;
 import bio.terra.cli.command.workspace.Set;
 import bio.terra.cli.command.workspace.SetProperty;
 import bio.terra.cli.command.workspace.Update;
+import bio.terra.cli.command.workspace.Usage;
 import picocli.CommandLine.Command;
 
 /**
@@ -36,5 +37,6 @@ import picocli.CommandLine.Command;
       Set.class,
       SetProperty.class,
       Update.class,
+      Usage.class,
     })
 public class Workspace {}
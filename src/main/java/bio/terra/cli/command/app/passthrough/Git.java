@@ -8,11 +8,13 @@ import bio.terra.cli.exception.PassthroughException;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -36,6 +38,13 @@ public class Git extends ToolCommand {
       description = "clone all the git repo resources in the current workspace")
   public boolean cloneAll;
 
+  @CommandLine.Option(
+      names = "--parallel",
+      description =
+          "number of git repo resources to clone at the same time. \n"
+              + "Example usage: git clone --all --parallel=4")
+  public Integer parallel;
+
   @Override
   public String getExecutableName() {
     return "git";
@@ -49,7 +58,7 @@ public class Git extends ToolCommand {
   @Override
   protected void executeImpl() {
     workspaceOption.overrideIfSpecified();
-    command.add(0, "git");
+    command.add(0, getExecutable());
     if (cloneAll && names != null && names.length > 0) {
       throw new UserActionableException(
           "Conflicted input argument. Only specify one depending on "
@@ -57,9 +66,18 @@ public class Git extends ToolCommand {
     }
     if (cloneAll || (names != null && names.length > 0)) {
       validateCloneCommand();
-      clone(cloneAll ? getAllGitReposInWorkspace() : getGitReposByNames());
+      Set<String> gitRepos = cloneAll ? getAllGitReposInWorkspace() : getGitReposByNames();
+      if (parallel != null) {
+        cloneConcurrently(gitRepos);
+      } else {
+        clone(gitRepos);
+      }
       return;
     }
+    if (parallel != null) {
+      throw new UserActionableException(
+          "--parallel only applies to cloning git repo resources, with --all or --resource.");
+    }
     // handle other git commands
     Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
   }
@@ -69,19 +87,22 @@ public class Git extends ToolCommand {
       throw new UserActionableException(
           "Did you mean to clone git repo resources in the workspace? If so, please use terra git clone");
     }
+    if (parallel != null && parallel < 1) {
+      throw new UserActionableException("--parallel must be at least 1.");
+    }
   }
 
   private Set<String> getAllGitReposInWorkspace() {
     // Use Set instead of List because there might be duplicates. This workspace may have a git
     // repo, and a data collection may have the same repo.
-    Set<String> gitResources = getGitRepos(Context.requireWorkspace().getResources());
+    Set<String> gitResources =
+        getGitRepos(Context.requireWorkspace().getResourcesOfType(Resource.Type.GIT_REPO));
 
     // Add git repos from data collections
     // Java doesn't allow modifying gitResources in lambda, so use for loop
-    for (Resource resource : Context.requireWorkspace().getResources()) {
-      if (resource.getResourceType() == Resource.Type.DATA_COLLECTION) {
-        gitResources.addAll(attemptToGetGitReposInDataCollection((DataCollection) resource));
-      }
+    for (Resource resource :
+        Context.requireWorkspace().getResourcesOfType(Resource.Type.DATA_COLLECTION)) {
+      gitResources.addAll(attemptToGetGitReposInDataCollection((DataCollection) resource));
     }
     return gitResources;
   }
@@ -112,7 +133,7 @@ public class Git extends ToolCommand {
       logger.warn(String.format("Failed to get Data collection %s", dataCollection.getName()));
     }
     if (dataCollectionWorkspace != null) {
-      return getGitRepos(dataCollectionWorkspace.getResources());
+      return getGitRepos(dataCollectionWorkspace.getResourcesOfType(Resource.Type.GIT_REPO));
     }
     return Collections.emptySet();
   }
@@ -127,7 +148,7 @@ public class Git extends ToolCommand {
   private void clone(Set<String> gitRepos) {
     gitRepos.forEach(
         gitRepo -> {
-          List<String> cloneCommands = ImmutableList.of("git", "clone", gitRepo);
+          List<String> cloneCommands = ImmutableList.of(getExecutable(), "clone", gitRepo);
           try {
             Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(cloneCommands);
           } catch (PassthroughException e) {
@@ -135,4 +156,48 @@ public class Git extends ToolCommand {
           }
         });
   }
+
+  /**
+   * Clone the repos at the same time, at most `--parallel` at once, with one line of progress per
+   * repo. git's own progress output is turned off, because it would be interleaved between repos.
+   */
+  private void cloneConcurrently(Set<String> gitRepos) {
+    List<List<String>> cloneCommands =
+        gitRepos.stream()
+            .sorted()
+            .map(gitRepo -> List.of(getExecutable(), "clone", "--quiet", gitRepo))
+            .collect(Collectors.toList());
+    AtomicInteger numFinished = new AtomicInteger();
+    List<Integer> exitCodes =
+        Context.getConfig()
+            .getCommandRunnerOption()
+            .getRunner()
+            .runToolCommandsConcurrently(
+                cloneCommands,
+                parallel,
+                (cloneCommand, exitCode) -> {
+                  String gitRepo = cloneCommand.get(cloneCommand.size() - 1);
+                  String progress =
+                      String.format("[%d/%d]", numFinished.incrementAndGet(), cloneCommands.size());
+                  if (exitCode == 0) {
+                    OUT.println(progress + " Cloned " + gitRepo);
+                  } else {
+                    ERR.println(progress + " Git clone for " + gitRepo + " failed");
+                  }
+                });
+
+    List<String> failedRepos = new ArrayList<>();
+    for (int i = 0; i < cloneCommands.size(); i++) {
+      if (exitCodes.get(i) != 0) {
+        List<String> cloneCommand = cloneCommands.get(i);
+        failedRepos.add(cloneCommand.get(cloneCommand.size() - 1));
+      }
+    }
+    if (!failedRepos.isEmpty()) {
+      throw new UserActionableException(
+          String.format(
+              "Failed to clone %d of %d git repos: %s",
+              failedRepos.size(), cloneCommands.size(), String.join(", ", failedRepos)));
+    }
+  }
 }
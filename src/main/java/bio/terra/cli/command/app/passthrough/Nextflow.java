@@ -1,6 +1,7 @@
 package bio.terra.cli.command.app.passthrough;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.utils.InvocationEnvironment;
 import java.util.HashMap;
 import java.util.Map;
 import picocli.CommandLine.Command;
@@ -28,7 +29,7 @@ public class Nextflow extends ToolCommand {
   @Override
   protected void executeImpl() {
     workspaceOption.overrideIfSpecified();
-    command.add(0, "nextflow");
+    command.add(0, getExecutable());
     Map<String, String> envVars = new HashMap<>();
     envVars.put("NXF_MODE", "google");
     addEnvVarIfDefinedInHost("TOWER_ACCESS_TOKEN", envVars);
@@ -37,7 +38,7 @@ public class Nextflow extends ToolCommand {
   }
 
   private void addEnvVarIfDefinedInHost(String envVarName, Map<String, String> envVars) {
-    String envVarValue = System.getenv(envVarName);
+    String envVarValue = InvocationEnvironment.getEnvVar(envVarName);
     if (envVarValue != null && !envVars.isEmpty()) {
       envVars.put(envVarName, envVarValue);
     }
@@ -1,24 +1,25 @@
 package bio.terra.cli.command.app.passthrough;
 
-import bio.terra.cli.app.utils.LocalProcessLauncher;
+import bio.terra.cli.app.utils.ToolResolver;
 import bio.terra.cli.businessobject.Config.CommandRunnerOption;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
-import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
-import com.google.common.collect.ImmutableList;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import java.util.regex.Pattern;
+import javax.annotation.Nullable;
 import picocli.CommandLine;
 
 public abstract class ToolCommand extends BaseCommand {
-  private static final Logger logger = LoggerFactory.getLogger(ToolCommand.class);
+  // paths that can be put into a shell command without quoting
+  private static final Pattern SHELL_SAFE_PATH = Pattern.compile("[A-Za-z0-9_./+-]+");
   @CommandLine.Unmatched protected final List<String> command = new ArrayList<>();
   @CommandLine.Mixin protected WorkspaceOverride workspaceOption;
+  // absolute path to the tool executable, set in the LOCAL_PROCESS app launch mode
+  @Nullable private Path resolvedExecutable;
 
   /** Return the name used to invoke this command in the shell. */
   public abstract String getExecutableName();
@@ -53,29 +54,30 @@ public abstract class ToolCommand extends BaseCommand {
     workspaceOption.overrideIfSpecified();
     // no need for any special setup or teardown logic since command is already initialized when the
     // container starts
-    command.add(0, getExecutableName());
+    command.add(0, getExecutable());
     Context.getConfig().getCommandRunnerOption().getRunner().runToolCommand(command);
   }
 
   /**
-   * Launch a no-op process to determine if the tool is installed. Don't use the full CommandRunner,
-   * because we don't want to set environment variables or clean up.
+   * Get the executable to put at the start of the command: the absolute path found when checking
+   * that the tool is installed, so the shell doesn't search the PATH again, or else the executable
+   * name.
    */
-  protected boolean toolIsInstalled() {
-    List<String> noOpCommand = ImmutableList.of(getExecutableName(), getVersionArgument());
-    // launch the No-op child process
-    LocalProcessLauncher localProcessLauncher = new LocalProcessLauncher();
-    try {
-      localProcessLauncher.launchProcess(noOpCommand, new HashMap<>());
-      // Output should not show to the screen
-      // block until the child process exits
-      int exitCode = localProcessLauncher.waitForTerminate();
-      return 0 == exitCode;
-    } catch (SystemException e) {
-      logger.debug(
-          "Failed to launch local process to check tool version for {}: ", getExecutableName(), e);
-      // Likely the process failed to start, so we assume it isn't installed.
-      return false;
+  protected String getExecutable() {
+    if (resolvedExecutable != null
+        && SHELL_SAFE_PATH.matcher(resolvedExecutable.toString()).matches()) {
+      return resolvedExecutable.toString();
     }
+    return getExecutableName();
+  }
+
+  /**
+   * Determine if the tool is installed, by finding it on the PATH. A no-op process is only launched
+   * the first time the tool is found, or if the executable changed since then.
+   */
+  protected boolean toolIsInstalled() {
+    resolvedExecutable =
+        ToolResolver.resolve(getExecutableName(), getVersionArgument()).orElse(null);
+    return resolvedExecutable != null;
   }
 }
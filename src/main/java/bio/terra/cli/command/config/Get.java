@@ -2,6 +2,8 @@ package bio.terra.cli.command.config;
 
 import bio.terra.cli.command.config.get.AppLaunch;
 import bio.terra.cli.command.config.get.Browser;
+import bio.terra.cli.command.config.get.DataCollectionTtl;
+import bio.terra.cli.command.config.get.DockerReuse;
 import bio.terra.cli.command.config.get.Format;
 import bio.terra.cli.command.config.get.Image;
 import bio.terra.cli.command.config.get.Logging;
@@ -20,6 +22,8 @@ import picocli.CommandLine.Command;
     subcommands = {
       AppLaunch.class,
       Browser.class,
+      DataCollectionTtl.class,
+      DockerReuse.class,
       Format.class,
       Image.class,
       Logging.class,
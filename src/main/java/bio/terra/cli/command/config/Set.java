@@ -2,6 +2,8 @@ package bio.terra.cli.command.config;
 
 import bio.terra.cli.command.config.set.AppLaunch;
 import bio.terra.cli.command.config.set.Browser;
+import bio.terra.cli.command.config.set.DataCollectionTtl;
+import bio.terra.cli.command.config.set.DockerReuse;
 import bio.terra.cli.command.config.set.Format;
 import bio.terra.cli.command.config.set.Image;
 import bio.terra.cli.command.config.set.Logging;
@@ -20,6 +22,8 @@ import picocli.CommandLine.Command;
     subcommands = {
       AppLaunch.class,
       Browser.class,
+      DataCollectionTtl.class,
+      DockerReuse.class,
       Format.class,
       Image.class,
       Logging.class,
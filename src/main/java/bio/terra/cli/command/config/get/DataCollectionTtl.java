@@ -0,0 +1,29 @@
+package bio.terra.cli.command.config.get;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config get data-collection-ttl" command. */
+@Command(
+    name = "data-collection-ttl",
+    description =
+        "Get the number of minutes to use a cached data collection before checking for changes.")
+public class DataCollectionTtl extends BaseCommand {
+
+  @CommandLine.Mixin Format formatOption;
+
+  /** Return the data collection cache TTL property of the global context. */
+  @Override
+  protected void execute() {
+    formatOption.printReturnValue(Context.getConfig().getDataCollectionCacheTtlMinutes());
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
@@ -0,0 +1,29 @@
+package bio.terra.cli.command.config.get;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.Format;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config get docker-reuse" command. */
+@Command(
+    name = "docker-reuse",
+    description =
+        "Get the number of minutes to keep an idle Docker container for the next command (0 = off).")
+public class DockerReuse extends BaseCommand {
+
+  @CommandLine.Mixin Format formatOption;
+
+  /** Return the Docker container reuse property of the global context. */
+  @Override
+  protected void execute() {
+    formatOption.printReturnValue(Context.getConfig().getDockerReuseIdleMinutes());
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
@@ -9,7 +9,7 @@ import picocli.CommandLine.Command;
 /** This class corresponds to the fourth-level "terra config get resource-limit" command. */
 @Command(
     name = "resource-limit",
-    description = "Get the maximum number of resources allowed per workspace.")
+    description = "Get the maximum number of resources per workspace to keep in memory.")
 public class ResourceLimit extends BaseCommand {
 
   @CommandLine.Mixin Format formatOption;
@@ -0,0 +1,69 @@
+package bio.terra.cli.command.config.set;
+
+import bio.terra.cli.businessobject.Config;
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.exception.UserActionableException;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config set data-collection-ttl" command. */
+@Command(
+    name = "data-collection-ttl",
+    description =
+        "Set the number of minutes to use a cached data collection before checking for changes.")
+public class DataCollectionTtl extends BaseCommand {
+
+  @CommandLine.ArgGroup(exclusive = true, multiplicity = "1")
+  DataCollectionTtlArgGroup argGroup;
+
+  /** Updates the data collection cache TTL property of the global context. */
+  @Override
+  protected void execute() {
+    Config config = Context.getConfig();
+    int prevTtlMinutes = config.getDataCollectionCacheTtlMinutes();
+    int newTtlMinutes =
+        argGroup.useDefault ? Config.DEFAULT_DATA_COLLECTION_CACHE_TTL_MINUTES : argGroup.minutes;
+    if (newTtlMinutes < 0) {
+      throw new UserActionableException(
+          "Number of minutes to use a cached data collection must not be negative.");
+    }
+    config.setDataCollectionCacheTtlMinutes(newTtlMinutes);
+
+    if (config.getDataCollectionCacheTtlMinutes() == prevTtlMinutes) {
+      OUT.println(
+          "Minutes to use a cached data collection: "
+              + config.getDataCollectionCacheTtlMinutes()
+              + " (UNCHANGED)");
+    } else {
+      OUT.println(
+          "Minutes to use a cached data collection: "
+              + config.getDataCollectionCacheTtlMinutes()
+              + " (CHANGED FROM "
+              + prevTtlMinutes
+              + ")");
+    }
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+
+  static class DataCollectionTtlArgGroup {
+    @CommandLine.Option(
+        names = "--minutes",
+        description =
+            "Number of minutes. Use 0 to check for changes every time a data collection is used.")
+    private int minutes;
+
+    @CommandLine.Option(
+        names = "--default",
+        description =
+            "Use the default number of minutes: "
+                + Config.DEFAULT_DATA_COLLECTION_CACHE_TTL_MINUTES
+                + ".")
+    private boolean useDefault;
+  }
+}
@@ -0,0 +1,66 @@
+package bio.terra.cli.command.config.set;
+
+import bio.terra.cli.businessobject.Config;
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.exception.UserActionableException;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the fourth-level "terra config set docker-reuse" command. */
+@Command(
+    name = "docker-reuse",
+    description =
+        "Keep the Docker container running between tool commands in the DOCKER_CONTAINER app launch mode, instead of starting a new one for each command.")
+public class DockerReuse extends BaseCommand {
+
+  @CommandLine.ArgGroup(exclusive = true, multiplicity = "1")
+  DockerReuseArgGroup argGroup;
+
+  /** Updates the Docker container reuse property of the global context. */
+  @Override
+  protected void execute() {
+    Config config = Context.getConfig();
+    int prevIdleMinutes = config.getDockerReuseIdleMinutes();
+    int newIdleMinutes =
+        argGroup.disable ? Config.DEFAULT_DOCKER_REUSE_IDLE_MINUTES : argGroup.idleMinutes;
+    if (newIdleMinutes < 0) {
+      throw new UserActionableException(
+          "Number of minutes to keep an idle Docker container must not be negative.");
+    }
+    config.setDockerReuseIdleMinutes(newIdleMinutes);
+
+    if (config.getDockerReuseIdleMinutes() == prevIdleMinutes) {
+      OUT.println(
+          "Minutes to keep an idle Docker container: "
+              + config.getDockerReuseIdleMinutes()
+              + " (UNCHANGED)");
+    } else {
+      OUT.println(
+          "Minutes to keep an idle Docker container: "
+              + config.getDockerReuseIdleMinutes()
+              + " (CHANGED FROM "
+              + prevIdleMinutes
+              + ")");
+    }
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+
+  static class DockerReuseArgGroup {
+    @CommandLine.Option(
+        names = "--idle-minutes",
+        description =
+            "Number of minutes without any tool commands before the container is stopped.")
+    private int idleMinutes;
+
+    @CommandLine.Option(
+        names = "--disable",
+        description = "Start a new container for each tool command (the default).")
+    private boolean disable;
+  }
+}
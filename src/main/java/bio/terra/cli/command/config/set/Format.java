@@ -4,6 +4,7 @@ import bio.terra.cli.businessobject.Config;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format.FormatOptions;
+import bio.terra.cli.exception.UserActionableException;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
@@ -17,6 +18,15 @@ public class Format extends BaseCommand {
 
   @Override
   protected void execute() {
+    if (format == FormatOptions.CSV || format == FormatOptions.TSV) {
+      // most commands don't print a table, and would all fail with this default
+      throw new UserActionableException(
+          format
+              + " can't be the default format, because only commands that print a table support"
+              + " it. Pass --format="
+              + format
+              + " to those commands instead.");
+    }
     Config config = Context.getConfig();
     FormatOptions previousFormatOption = config.getFormat();
     config.setFormat(format);
@@ -10,7 +10,8 @@ import picocli.CommandLine.Command;
 /** This class corresponds to the fourth-level "terra config set resource-limit" command. */
 @Command(
     name = "resource-limit",
-    description = "Set the maximum number of resources allowed per workspace.")
+    description =
+        "Set the maximum number of resources per workspace to keep in memory. The rest are cached on disk.")
 public class ResourceLimit extends BaseCommand {
 
   @CommandLine.ArgGroup(exclusive = true, multiplicity = "1")
@@ -24,18 +25,18 @@ public class ResourceLimit extends BaseCommand {
     int newMaxResources = argGroup.useDefault ? Config.DEFAULT_RESOURCES_CACHE_SIZE : argGroup.max;
     if (newMaxResources <= 0) {
       throw new UserActionableException(
-          "Maximum number of resources allowed per workspace must be positive.");
+          "Maximum number of resources per workspace to keep in memory must be positive.");
     }
     config.setResourcesCacheSize(newMaxResources);
 
     if (config.getResourcesCacheSize() == prevMaxResources) {
       OUT.println(
-          "Max number of resources per workspace: "
+          "Max number of resources per workspace to keep in memory: "
               + config.getResourcesCacheSize()
               + " (UNCHANGED)");
     } else {
       OUT.println(
-          "Max number of resources per workspace: "
+          "Max number of resources per workspace to keep in memory: "
               + config.getResourcesCacheSize()
               + " (CHANGED FROM "
               + prevMaxResources
@@ -50,9 +51,7 @@ public class ResourceLimit extends BaseCommand {
   }
 
   static class ResourceLimitArgGroup {
-    @CommandLine.Option(
-        names = "--max",
-        description = "Maximum number to allow before throwing an error.")
+    @CommandLine.Option(names = "--max", description = "Maximum number to keep in memory.")
     private int max;
 
     @CommandLine.Option(
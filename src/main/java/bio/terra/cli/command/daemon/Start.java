@@ -0,0 +1,137 @@
+package bio.terra.cli.command.daemon;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.Main;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.daemon.DaemonInfo;
+import bio.terra.cli.daemon.DaemonServer;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.utils.FileUtils;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra daemon start" command. */
+@Command(
+    name = "start",
+    description =
+        "Start a resident background process that serves subsequent terra commands, to avoid the"
+            + " startup cost of each command.",
+    showDefaultValues = true)
+public class Start extends BaseCommand {
+  private static final String DAEMON_LOG_FILENAME = "daemon.log";
+  private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(30);
+  private static final Duration STARTUP_POLL_INTERVAL = Duration.ofMillis(100);
+
+  @CommandLine.Option(
+      names = "--idle-timeout",
+      description = "Number of minutes without any commands before the daemon shuts down.")
+  private long idleTimeoutMinutes = DaemonServer.DEFAULT_IDLE_TIMEOUT.toMinutes();
+
+  @CommandLine.Option(
+      names = "--foreground",
+      description = "Run the daemon in this process instead of in the background.")
+  private boolean foreground;
+
+  /** Start the daemon, either in this process or as a detached background process. */
+  @Override
+  protected void execute() {
+    if (idleTimeoutMinutes <= 0) {
+      throw new UserActionableException("Idle timeout must be positive.");
+    }
+    Optional<DaemonInfo> runningDaemon = DaemonServer.getRunningDaemon();
+    if (runningDaemon.isPresent()) {
+      OUT.println("Daemon is already running (pid " + runningDaemon.get().pid + ").");
+      return;
+    }
+
+    if (foreground) {
+      DaemonServer.run(Duration.ofMinutes(idleTimeoutMinutes));
+      return;
+    }
+
+    launchBackgroundProcess();
+    DaemonInfo daemonInfo = waitForStartup();
+    OUT.println(
+        "Daemon started (pid "
+            + daemonInfo.pid
+            + "). It will shut down after "
+            + idleTimeoutMinutes
+            + " minutes without any commands.");
+  }
+
+  /**
+   * Launch a new JVM with the same arguments and classpath as this one, running this command in the
+   * foreground. Its output goes to a log file, since this process exits right away.
+   */
+  private void launchBackgroundProcess() {
+    List<String> command = new ArrayList<>();
+    command.add(
+        ProcessHandle.current()
+            .info()
+            .command()
+            .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+    command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(Main.class.getName());
+    command.add("daemon");
+    command.add("start");
+    command.add("--foreground");
+    command.add("--idle-timeout=" + idleTimeoutMinutes);
+
+    File logFile =
+        Context.getContextDir().resolve(Context.LOGS_DIRNAME).resolve(DAEMON_LOG_FILENAME).toFile();
+    try {
+      FileUtils.createFile(logFile);
+      ProcessBuilder processBuilder =
+          new ProcessBuilder(command)
+              .redirectErrorStream(true)
+              .redirectOutput(ProcessBuilder.Redirect.appendTo(logFile));
+      // commands read this from the client's environment, so don't let the daemon's own copy stand
+      // in for it when a client doesn't set it
+      processBuilder.environment().remove("GOOGLE_APPLICATION_CREDENTIALS");
+      processBuilder.start();
+    } catch (IOException ioEx) {
+      throw new SystemException("Error launching the daemon process.", ioEx);
+    }
+  }
+
+  /** Poll until the background process is accepting commands. */
+  private DaemonInfo waitForStartup() {
+    Instant deadline = Instant.now().plus(STARTUP_TIMEOUT);
+    while (Instant.now().isBefore(deadline)) {
+      Optional<DaemonInfo> daemonInfo = DaemonServer.getRunningDaemon();
+      if (daemonInfo.isPresent()) {
+        return daemonInfo.get();
+      }
+      try {
+        Thread.sleep(STARTUP_POLL_INTERVAL.toMillis());
+      } catch (InterruptedException intEx) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    throw new SystemException(
+        "Daemon did not start within "
+            + STARTUP_TIMEOUT.toSeconds()
+            + " seconds. See "
+            + Context.getContextDir().resolve(Context.LOGS_DIRNAME).resolve(DAEMON_LOG_FILENAME)
+            + " for more information.");
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
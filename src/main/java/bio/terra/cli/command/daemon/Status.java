@@ -0,0 +1,37 @@
+package bio.terra.cli.command.daemon;
+
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.daemon.DaemonInfo;
+import bio.terra.cli.daemon.DaemonServer;
+import java.util.Optional;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra daemon status" command. */
+@Command(name = "status", description = "Check whether the daemon is running.")
+public class Status extends BaseCommand {
+
+  /** Ping the daemon for the current context directory. */
+  @Override
+  protected void execute() {
+    Optional<DaemonInfo> runningDaemon = DaemonServer.getRunningDaemon();
+    if (runningDaemon.isEmpty()) {
+      OUT.println("Daemon is not running.");
+      return;
+    }
+    DaemonInfo daemonInfo = runningDaemon.get();
+    OUT.println(
+        "Daemon is running (pid "
+            + daemonInfo.pid
+            + ", port "
+            + daemonInfo.port
+            + ", idle timeout "
+            + daemonInfo.idleTimeoutMinutes
+            + " minutes).");
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
@@ -0,0 +1,52 @@
+package bio.terra.cli.command.daemon;
+
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.daemon.DaemonClient;
+import bio.terra.cli.daemon.DaemonInfo;
+import bio.terra.cli.daemon.DaemonServer;
+import bio.terra.cli.exception.SystemException;
+import java.io.IOException;
+import java.util.Optional;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra daemon stop" command. */
+@Command(name = "stop", description = "Stop the daemon.")
+public class Stop extends BaseCommand {
+
+  /**
+   * Ask the daemon to shut down. If it doesn't respond, kill the process and clean up the file it
+   * left behind.
+   */
+  @Override
+  protected void execute() {
+    Optional<DaemonInfo> daemonInfo = DaemonServer.getDaemonInfo();
+    if (daemonInfo.isEmpty()) {
+      OUT.println("Daemon is not running.");
+      return;
+    }
+
+    if (DaemonClient.stop(daemonInfo.get())) {
+      OUT.println("Daemon stopped.");
+      return;
+    }
+
+    Optional<ProcessHandle> process = ProcessHandle.of(daemonInfo.get().pid);
+    if (process.isPresent() && process.get().isAlive()) {
+      process.get().destroy();
+      OUT.println("Daemon was not responding, killed process " + daemonInfo.get().pid + ".");
+    } else {
+      OUT.println("Daemon is not running.");
+    }
+    try {
+      DaemonServer.deleteStaleDaemonInfo();
+    } catch (IOException ioEx) {
+      throw new SystemException("Error deleting the daemon info file.", ioEx);
+    }
+  }
+
+  /** This command never requires login. */
+  @Override
+  protected boolean requiresLogin() {
+    return false;
+  }
+}
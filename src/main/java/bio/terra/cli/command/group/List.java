@@ -4,12 +4,10 @@ import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
 import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.RIGHT;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Group;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.serialization.userfacing.UFGroup;
-import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
 import java.util.function.Function;
 import picocli.CommandLine;
@@ -18,20 +16,14 @@ import picocli.CommandLine.Command;
 /** This class corresponds to the third-level "terra group list" command. */
 @Command(name = "list", description = "List the groups to which the current user belongs.")
 public class List extends BaseCommand {
-  @CommandLine.Mixin Format formatOption;
-
-  /** Print this command's output in text format. */
-  private static void printText(java.util.List<UFGroup> returnValue) {
-    TablePrinter<UFGroup> printer = bio.terra.cli.command.group.List.UFGroupColumns::values;
-    OUT.println(printer.print(returnValue));
-  }
+  @CommandLine.Mixin TableFormat formatOption;
 
   /** List the groups to which the current user belongs. */
   @Override
   protected void execute() {
-    formatOption.printReturnValue(
-        UserIO.sortAndMap(Group.list(), Comparator.comparing(Group::getName), UFGroup::new),
-        List::printText);
+    formatOption.printTable(
+        Group.list().stream().sorted(Comparator.comparing(Group::getName)).map(UFGroup::new),
+        UFGroupColumns::values);
   }
 
   /** Column information for fields in `resource list` output */
@@ -3,15 +3,12 @@ package bio.terra.cli.command.group;
 import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Group;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
 import bio.terra.cli.command.shared.options.GroupName;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.serialization.userfacing.UFGroupMember;
-import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
-import java.util.List;
 import java.util.function.Function;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
@@ -21,23 +18,16 @@ import picocli.CommandLine.Command;
 public class ListUsers extends BaseCommand {
   @CommandLine.Mixin GroupName groupNameOption;
 
-  @CommandLine.Mixin Format formatOption;
-
-  /** Print this command's output in text format. */
-  private static void printText(List<UFGroupMember> returnValue) {
-    TablePrinter<UFGroupMember> printer = UFGroupMemberColumns::values;
-    OUT.println(printer.print(returnValue));
-  }
+  @CommandLine.Mixin TableFormat formatOption;
 
   /** List the users in the given group. */
   @Override
   protected void execute() {
-    formatOption.printReturnValue(
-        UserIO.sortAndMap(
-            Group.get(groupNameOption.name).getMembers(),
-            Comparator.comparing(Group.Member::getEmail),
-            UFGroupMember::new),
-        ListUsers::printText);
+    formatOption.printTable(
+        Group.get(groupNameOption.name).getMembers().stream()
+            .sorted(Comparator.comparing(Group.Member::getEmail))
+            .map(UFGroupMember::new),
+        UFGroupMemberColumns::values);
   }
 
   /** Column information for fields in `resource list` output */
@@ -1,12 +1,19 @@
 package bio.terra.cli.command.resource;
 
 import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.GcsObjectStats;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.businessobject.resource.GcsObject;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.ResourceEnrichmentOption;
 import bio.terra.cli.command.shared.options.ResourceName;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.serialization.userfacing.UFGcsObjectStats;
 import bio.terra.cli.serialization.userfacing.UFResource;
+import java.time.Duration;
 import picocli.CommandLine;
 
 /** This class corresponds to the third-level "terra resource describe" command. */
@@ -16,12 +23,71 @@ public class Describe extends BaseCommand {
 
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
   @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin ResourceEnrichmentOption enrichmentOption;
+
+  @CommandLine.Option(
+      names = "--stats",
+      description =
+          "Instead of describing the resource, count the objects and add up their sizes, for a GCS bucket or the objects under a GCS object prefix. This lists every object, so it can take a while for large buckets.")
+  private boolean stats;
+
+  @CommandLine.Option(
+      names = "--max-duration",
+      description =
+          "With --stats, stop listing objects after this many seconds. The counts are then lower bounds.")
+  private Integer maxDurationSeconds;
+
+  @CommandLine.Option(
+      names = "--refresh",
+      description =
+          "With --stats, list the objects again instead of using counts cached in the last hour.")
+  private boolean refresh;
 
   /** Describe a resource. */
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
     Resource resource = Context.requireWorkspace().getResource(resourceNameOption.name);
-    formatOption.printReturnValue(resource.serializeToCommand(), UFResource::print);
+    if (stats) {
+      formatOption.printReturnValue(
+          getStats(resource).serializeToCommand(), UFGcsObjectStats::print);
+      return;
+    }
+    if (maxDurationSeconds != null || refresh) {
+      throw new UserActionableException("--max-duration and --refresh only apply with --stats.");
+    }
+    formatOption.printReturnValue(
+        resource.serializeToCommand(enrichmentOption.fetch(java.util.List.of(resource))),
+        UFResource::print);
+  }
+
+  /** Count the objects in a bucket, or under an object prefix. */
+  private GcsObjectStats getStats(Resource resource) {
+    Duration maxDuration = null;
+    if (maxDurationSeconds != null) {
+      if (maxDurationSeconds <= 0) {
+        throw new UserActionableException("--max-duration must be a positive number of seconds.");
+      }
+      maxDuration = Duration.ofSeconds(maxDurationSeconds);
+    }
+    switch (resource.getResourceType()) {
+      case GCS_BUCKET:
+        return GcsObjectStats.get(
+            ((GcsBucket) resource).getBucketName(), "", maxDuration, true, refresh);
+      case GCS_OBJECT:
+        GcsObject gcsObject = (GcsObject) resource;
+        // an object name ending in a slash is a folder: count the objects under it
+        return gcsObject.getObjectName().endsWith("/")
+            ? GcsObjectStats.get(
+                gcsObject.getBucketName(), gcsObject.getObjectName(), maxDuration, true, refresh)
+            : GcsObjectStats.getForObject(gcsObject.getBucketName(), gcsObject.getObjectName());
+      default:
+        throw new UserActionableException(
+            "--stats is only supported for "
+                + Resource.Type.GCS_BUCKET
+                + " and "
+                + Resource.Type.GCS_OBJECT
+                + " resources.");
+    }
   }
 }
@@ -3,24 +3,24 @@ package bio.terra.cli.command.resource;
 import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.ResourceEnrichmentOption;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.serialization.userfacing.UFResource;
 import bio.terra.workspace.model.StewardshipType;
-import java.util.Comparator;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 import picocli.CommandLine;
 
 /** This class corresponds to the third-level "terra resource list" command. */
 @CommandLine.Command(name = "list", description = "List all resources.")
 public class List extends BaseCommand {
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
-  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableFormat formatOption;
+  @CommandLine.Mixin ResourceEnrichmentOption enrichmentOption;
 
   @CommandLine.Option(
       names = "--stewardship",
@@ -32,29 +32,20 @@ public class List extends BaseCommand {
       description = "Filter on a particular resource type: ${COMPLETION-CANDIDATES}.")
   private Resource.Type type;
 
-  /** Print this command's output in tabular text format. */
-  private static void printText(java.util.List<UFResource> returnValue) {
-    TablePrinter<UFResource> printer = UFResourceColumns::values;
-    OUT.println(printer.print(returnValue));
-  }
-
   /** List the resources in the workspace. */
   @Override
   protected void execute() {
     workspaceOption.overrideIfSpecified();
-    java.util.List<UFResource> resources =
-        Context.requireWorkspace().listResourcesAndSync().stream()
-            .filter(
-                (resource) -> {
-                  boolean stewardshipMatches =
-                      stewardship == null || resource.getStewardshipType().equals(stewardship);
-                  boolean typeMatches = type == null || resource.getResourceType().equals(type);
-                  return stewardshipMatches && typeMatches;
-                })
-            .sorted(Comparator.comparing(Resource::getName))
-            .map(Resource::serializeToCommand)
-            .collect(Collectors.toList());
-    formatOption.printReturnValue(resources, List::printText);
+    java.util.List<Resource> resources =
+        Context.requireWorkspace().listResourcesAndSync(type, stewardship);
+    // the table columns only show the workspace metadata, so only look up the cloud metadata for
+    // the JSON formats
+    ResourceEnrichment enrichment =
+        formatOption.isTable() ? ResourceEnrichment.none() : enrichmentOption.fetch(resources);
+    // serialize each resource as it's printed, so the JSON formats don't wait for every lookup
+    formatOption.printTable(
+        resources.stream().map(resource -> resource.serializeToCommand(enrichment)),
+        UFResourceColumns::values);
   }
 
   /** Column information for fields in `resource list` output */
@@ -1,7 +1,6 @@
 package bio.terra.cli.command.resource;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.businessobject.resource.BqDataset;
@@ -11,7 +10,7 @@ import bio.terra.cli.businessobject.resource.DataCollection;
 import bio.terra.cli.businessobject.resource.GcsBucket;
 import bio.terra.cli.businessobject.resource.GcsObject;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.exception.UserActionableException;
 import java.util.ArrayList;
@@ -34,7 +33,7 @@ public class Resolve extends BaseCommand {
   public String resourceName;
 
   @CommandLine.Mixin WorkspaceOverride workspaceOption;
-  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableFormat formatOption;
 
   @CommandLine.Option(
       names = "--exclude-bucket-prefix",
@@ -102,15 +101,16 @@ public class Resolve extends BaseCommand {
   }
 
   private void printText(JSONObject resourceNameToPaths) {
-    // For a single resource, just print path (no resource name)
-    if (resourceNameToPaths.length() == 1) {
+    // For a single resource, just print path (no resource name). CSV and TSV always print the
+    // table, so that the columns are the same however many resources there are.
+    if (resourceNameToPaths.length() == 1 && formatOption.isText()) {
       String resourceName = (String) resourceNameToPaths.keySet().iterator().next();
       OUT.println(resourceNameToPaths.get(resourceName));
       return;
     }
 
     // These are the resources for a data collection. Print table of resource name and path.
-    // Convert JSONObject to List for TablePrinter.
+    // Convert JSONObject to List for the table.
     java.util.List<Pair<String, String>> resourceNameToPathsList = new ArrayList<>();
     resourceNameToPaths
         .keySet()
@@ -120,11 +120,14 @@ public class Resolve extends BaseCommand {
                     Pair.of(
                         (String) resourceName,
                         (String) resourceNameToPaths.get((String) resourceName))));
-    TablePrinter<Pair<String, String>> printer = ResolveColumns::values;
-    OUT.println(printer.print(resourceNameToPathsList));
+    formatOption.printTableRows(resourceNameToPathsList, ResolveColumns::values);
   }
 
   private void printJson(JSONObject resourceNameToPaths) {
+    if (formatOption.isNdjson()) {
+      OUT.println(resourceNameToPaths.toString());
+      return;
+    }
     // "2" prevents entire dict from being printed on one line and to stay consistent with the rest
     // of JSON formatted output.
     OUT.println(resourceNameToPaths.toString(2));
@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.addref;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.BqDatasetsIds;
 import bio.terra.cli.command.shared.options.Format;
@@ -42,6 +43,8 @@ public class BqDataset extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.BqDataset createdResource =
         bio.terra.cli.businessobject.resource.BqDataset.addReferenced(createParams.build());
-    formatOption.printReturnValue(new UFBqDataset(createdResource), BqDataset::printText);
+    formatOption.printReturnValue(
+        new UFBqDataset(createdResource, ResourceEnrichment.fetch(createdResource)),
+        BqDataset::printText);
   }
 }
@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.addref;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.BqDatasetsIds;
 import bio.terra.cli.command.shared.options.Format;
@@ -49,6 +50,8 @@ public class BqTable extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.BqTable createdResource =
         bio.terra.cli.businessobject.resource.BqTable.addReferenced(createParamsBuilder.build());
-    formatOption.printReturnValue(new UFBqTable(createdResource), BqTable::printText);
+    formatOption.printReturnValue(
+        new UFBqTable(createdResource, ResourceEnrichment.fetch(createdResource)),
+        BqTable::printText);
   }
 }
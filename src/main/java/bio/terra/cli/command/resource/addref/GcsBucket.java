@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.addref;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
 import bio.terra.cli.command.shared.options.GcsBucketName;
@@ -41,6 +42,8 @@ public class GcsBucket extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.GcsBucket addedResource =
         bio.terra.cli.businessobject.resource.GcsBucket.addReferenced(createParams.build());
-    formatOption.printReturnValue(new UFGcsBucket(addedResource), GcsBucket::printText);
+    formatOption.printReturnValue(
+        new UFGcsBucket(addedResource, ResourceEnrichment.fetch(addedResource)),
+        GcsBucket::printText);
   }
 }
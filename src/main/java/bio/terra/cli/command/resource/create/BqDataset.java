@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.create;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.BqDatasetLifetime;
 import bio.terra.cli.command.shared.options.ControlledResourceCreation;
@@ -61,6 +62,8 @@ public class BqDataset extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.BqDataset createdResource =
         bio.terra.cli.businessobject.resource.BqDataset.createControlled(createParams.build());
-    formatOption.printReturnValue(new UFBqDataset(createdResource), BqDataset::printText);
+    formatOption.printReturnValue(
+        new UFBqDataset(createdResource, ResourceEnrichment.fetch(createdResource)),
+        BqDataset::printText);
   }
 }
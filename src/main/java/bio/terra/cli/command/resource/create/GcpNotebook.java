@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.create;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.ControlledResourceCreation;
 import bio.terra.cli.command.shared.options.Format;
@@ -164,7 +165,9 @@ public class GcpNotebook extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.GcpNotebook createdResource =
         bio.terra.cli.businessobject.resource.GcpNotebook.createControlled(createParams.build());
-    formatOption.printReturnValue(new UFGcpNotebook(createdResource), GcpNotebook::printText);
+    formatOption.printReturnValue(
+        new UFGcpNotebook(createdResource, ResourceEnrichment.fetch(createdResource)),
+        GcpNotebook::printText);
   }
 
   static class VmOrContainerImage {
@@ -1,5 +1,6 @@
 package bio.terra.cli.command.resource.create;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.ControlledResourceCreation;
 import bio.terra.cli.command.shared.options.Format;
@@ -61,6 +62,8 @@ public class GcsBucket extends BaseCommand {
 
     bio.terra.cli.businessobject.resource.GcsBucket createdResource =
         bio.terra.cli.businessobject.resource.GcsBucket.createControlled(createParams.build());
-    formatOption.printReturnValue(new UFGcsBucket(createdResource), GcsBucket::printText);
+    formatOption.printReturnValue(
+        new UFGcsBucket(createdResource, ResourceEnrichment.fetch(createdResource)),
+        GcsBucket::printText);
   }
 }
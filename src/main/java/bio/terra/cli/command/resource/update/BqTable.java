@@ -3,6 +3,7 @@ package bio.terra.cli.command.resource.update;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.businessobject.Resource.Type;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.BqDatasetNewIds;
 import bio.terra.cli.command.shared.options.CloningInstructionsForUpdate;
@@ -64,6 +65,7 @@ public class BqTable extends BaseCommand {
     resource.updateReferenced(bqTableParams.build());
     // re-load the resource so we display all properties with up-to-date values
     resource = Context.requireWorkspace().getResource(resource.getName()).castToType(Type.BQ_TABLE);
-    formatOption.printReturnValue(new UFBqTable(resource), BqTable::printText);
+    formatOption.printReturnValue(
+        new UFBqTable(resource, ResourceEnrichment.fetch(resource)), BqTable::printText);
   }
 }
@@ -2,6 +2,7 @@ package bio.terra.cli.command.resource.update;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource.Type;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
 import bio.terra.cli.command.shared.options.NotebookMetadata;
@@ -53,6 +54,7 @@ public class GcpNotebook extends BaseCommand {
     // re-load the resource so we display all properties with up-to-date values
     resource =
         Context.requireWorkspace().getResource(resource.getName()).castToType(Type.AI_NOTEBOOK);
-    formatOption.printReturnValue(new UFGcpNotebook(resource), GcpNotebook::printText);
+    formatOption.printReturnValue(
+        new UFGcpNotebook(resource, ResourceEnrichment.fetch(resource)), GcpNotebook::printText);
   }
 }
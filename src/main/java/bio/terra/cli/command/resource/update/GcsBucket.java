@@ -3,6 +3,7 @@ package bio.terra.cli.command.resource.update;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.businessobject.Resource.Type;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.CloningInstructionsForUpdate;
 import bio.terra.cli.command.shared.options.Format;
@@ -82,6 +83,7 @@ public class GcsBucket extends BaseCommand {
     // re-load the resource so we display all properties with up-to-date values
     resource =
         Context.requireWorkspace().getResource(resource.getName()).castToType(Type.GCS_BUCKET);
-    formatOption.printReturnValue(new UFGcsBucket(resource), GcsBucket::printText);
+    formatOption.printReturnValue(
+        new UFGcsBucket(resource, ResourceEnrichment.fetch(resource)), GcsBucket::printText);
   }
 }
@@ -3,13 +3,11 @@ package bio.terra.cli.command.server;
 import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Server;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.serialization.userfacing.UFServer;
-import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
 import java.util.function.Function;
 import picocli.CommandLine;
@@ -19,23 +17,17 @@ import picocli.CommandLine.Command;
 @Command(name = "list", description = "List all available Terra servers.")
 public class List extends BaseCommand {
 
-  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableFormat formatOption;
 
   /** List all Terra environments. */
   @Override
   protected void execute() {
-    formatOption.printReturnValue(
-        UserIO.sortAndMap(Server.list(), Comparator.comparing(Server::getName), UFServer::new),
-        this::printText);
-  }
-
-  /** Print this command's output in text format. */
-  private void printText(java.util.List<UFServer> returnValue) {
     Server currentServer = Context.getServer();
-    TablePrinter<UFServer> printer = Columns::values;
     // print the UFServers, and highlight the current one
-    String text = printer.print(returnValue, s -> currentServer.getName().equals(s.name));
-    OUT.println(text);
+    formatOption.printTable(
+        Server.list().stream().sorted(Comparator.comparing(Server::getName)).map(UFServer::new),
+        Columns::values,
+        s -> currentServer.getName().equals(s.name));
   }
 
   /** This command never requires login. */
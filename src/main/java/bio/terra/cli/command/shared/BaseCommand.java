@@ -4,6 +4,8 @@ import bio.terra.cli.app.utils.VersionCheckUtils;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.User;
 import bio.terra.cli.command.Main;
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.utils.CommandTimings;
 import bio.terra.cli.utils.Logger;
 import bio.terra.cli.utils.UserIO;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
@@ -21,6 +23,10 @@ import picocli.CommandLine;
  *
  * <p>- executing the command
  *
+ * <p>- writing any changes to the context back to disk
+ *
+ * <p>- timing each of these phases, for the --timings report
+ *
  * <p>Sub-classes define how to execute the command (i.e. the implementation of {@link #execute}).
  */
 @CommandLine.Command
@@ -39,6 +45,9 @@ public abstract class BaseCommand implements Callable<Integer> {
   protected static PrintStream OUT;
   protected static PrintStream ERR;
 
+  // set by picocli, to find this command's mixins
+  @CommandLine.Spec private CommandLine.Model.CommandSpec spec;
+
   @Override
   public Integer call() {
     // pull the output streams from the singleton object setup by the top-level Main class
@@ -47,33 +56,56 @@ public abstract class BaseCommand implements Callable<Integer> {
     ERR = UserIO.getErr();
 
     // read in the global context and setup logging
-    Context.initializeFromDisk();
-    Logger.setupLogging(
-        Context.getConfig().getConsoleLoggingLevel(), Context.getConfig().getFileLoggingLevel());
+    CommandTimings.timePhase("context load", Context::initializeFromDisk);
+    CommandTimings.timePhase(
+        "logging setup",
+        () ->
+            Logger.setupLogging(
+                Context.getConfig().getConsoleLoggingLevel(),
+                Context.getConfig().getFileLoggingLevel()));
+
+    // check that this command can print its output in the format in force, before it changes
+    // anything
+    validateFormat();
 
     // do the login flow if required
-    if (requiresLogin()) {
-      User.login();
-    } else if (Context.getUser().isPresent()) {
-      Context.requireUser().loadExistingCredentials();
-    }
+    CommandTimings.timePhase(
+        "login",
+        () -> {
+          if (requiresLogin()) {
+            User.login();
+          } else if (Context.getUser().isPresent()) {
+            Context.requireUser().loadExistingCredentials();
+          }
+        });
 
     // execute the command
     logger.debug("[COMMAND RUN] terra " + String.join(" ", Main.getArgList()));
-    execute();
+    CommandTimings.timePhase("execute", this::execute);
 
     //     optionally check if this version of the CLI is out of date
-    if (VersionCheckUtils.isObsolete()) {
+    if (CommandTimings.timePhase("version check", VersionCheckUtils::isObsolete)) {
       ERR.printf(
           "Warning: Version %s of the CLI has expired. Functionality may not work as expected. To install the latest version: curl -L https://github.com/DataBiosphere/terra-cli/releases/latest/download/download-install.sh | bash ./terra\n"
               + "If you have added the CLI to your $PATH, this step will need to be repeated after the installation is complete.%n",
           bio.terra.cli.utils.Version.getVersion());
     }
 
+    // write any changes to the context once, at the end of the command
+    Context.flushToDisk();
+
     // set the command exit code
     return 0;
   }
 
+  /** Validate the --format option of this command, if it has one. */
+  private void validateFormat() {
+    spec.mixins().values().stream()
+        .map(CommandLine.Model.CommandSpec::userObject)
+        .filter(Format.class::isInstance)
+        .forEach(mixin -> ((Format) mixin).validate());
+  }
+
   /**
    * Required override for executing this command and printing any output.
    *
@@ -2,12 +2,19 @@ package bio.terra.cli.command.shared.options;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.utils.JacksonMapper;
 import bio.terra.cli.utils.UserIO;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import picocli.CommandLine;
 
 /**
@@ -28,18 +35,91 @@ public class Format {
 
   /**
    * Default implementation of printing this command's return value in JSON format. This method uses
-   * Jackson for serialization.
+   * Jackson for serialization, and writes straight to stdout instead of building the whole JSON
+   * text block in memory first.
    *
    * @param returnValue command return value
    */
   public static <T> void printJson(T returnValue) {
-    // use Jackson to map the object to a JSON-formatted text block
-    ObjectWriter objectWriter = JacksonMapper.getMapper().writerWithDefaultPrettyPrinter();
-    try {
-      UserIO.getOut().println(objectWriter.writeValueAsString(returnValue));
-    } catch (JsonProcessingException jsonEx) {
-      throw new SystemException("Error JSON-formatting the command return value.", jsonEx);
+    try (JsonGenerator generator = createGenerator()) {
+      generator.useDefaultPrettyPrinter();
+      JacksonMapper.getMapper().writeValue(generator, returnValue);
+    } catch (IOException ioEx) {
+      throw new SystemException("Error JSON-formatting the command return value.", ioEx);
     }
+    UserIO.getOut().println();
+  }
+
+  /**
+   * Print a list return value in JSON format, as an array. Each element is serialized and written
+   * to stdout as the iterator returns it, so the start of a long list is printed before the end of
+   * it has been fetched or serialized.
+   *
+   * @param returnValues command return value elements
+   */
+  public static <T> void printJsonArray(Iterator<T> returnValues) {
+    ObjectMapper objectMapper = JacksonMapper.getMapper();
+    try (JsonGenerator generator = createGenerator()) {
+      generator.useDefaultPrettyPrinter();
+      generator.writeStartArray();
+      while (returnValues.hasNext()) {
+        // the mapper flushes the generator after each element
+        objectMapper.writeValue(generator, returnValues.next());
+      }
+      generator.writeEndArray();
+    } catch (IOException ioEx) {
+      throw new SystemException("Error JSON-formatting the command return value.", ioEx);
+    }
+    UserIO.getOut().println();
+  }
+
+  /**
+   * Print a return value in newline-delimited JSON format: one compact JSON object per line. A
+   * collection is printed one element per line, any other object on a single line.
+   *
+   * @param returnValue command return value
+   */
+  public static <T> void printNdjson(T returnValue) {
+    if (returnValue instanceof Iterable) {
+      printNdjsonElements(((Iterable<?>) returnValue).iterator());
+    } else {
+      printNdjsonElements(Collections.singletonList(returnValue).iterator());
+    }
+  }
+
+  /**
+   * Print the elements of a list return value in newline-delimited JSON format, writing each line
+   * to stdout as the iterator returns the element.
+   *
+   * @param returnValues command return value elements
+   */
+  public static <T> void printNdjsonElements(Iterator<T> returnValues) {
+    ObjectMapper objectMapper = JacksonMapper.getMapper();
+    try (JsonGenerator generator = createGenerator()) {
+      // separate the top-level values with newlines instead of the default space
+      generator.setRootValueSeparator(null);
+      while (returnValues.hasNext()) {
+        objectMapper.writeValue(generator, returnValues.next());
+        generator.writeRaw('\n');
+        generator.flush();
+      }
+    } catch (IOException ioEx) {
+      throw new SystemException("Error JSON-formatting the command return value.", ioEx);
+    }
+  }
+
+  /**
+   * Create a JSON generator that writes to stdout, and leaves it open when it's closed. Closing the
+   * generator doesn't close any arrays or objects left open either, so if serializing an element
+   * fails partway, the output is truncated JSON that doesn't parse, instead of a valid array that's
+   * silently missing the rest of the elements.
+   */
+  private static JsonGenerator createGenerator() throws IOException {
+    return JacksonMapper.getMapper()
+        .getFactory()
+        .createGenerator(UserIO.getOut())
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
   }
 
   /**
@@ -55,35 +135,103 @@ public class Format {
   }
 
   // Return the option in force, either from the --format passed in or the Config system.
-  private FormatOptions getEffectiveFormatOption() {
+  protected FormatOptions getEffectiveFormatOption() {
     return Optional.ofNullable(format).orElseGet(() -> Context.getConfig().getFormat());
   }
 
   /**
-   * This method calls the {@link #printJson} method if the --format flag is set to JSON. Otherwise,
-   * it calls the {@link #printText} method, passing the return value object as an argument.
+   * True if this command prints a table, and so can print it as comma- or tab-separated values.
+   * Commands that print a table use {@link TableFormat} instead of this class.
+   */
+  protected boolean printsTable() {
+    return false;
+  }
+
+  /**
+   * Check that this command can print its output in the format in force. This is called before the
+   * command runs, so that a command that changes something doesn't fail only once it's done.
+   *
+   * @throws UserActionableException if the format is CSV or TSV and this command doesn't print a
+   *     table
+   */
+  public void validate() {
+    FormatOptions formatOption = getEffectiveFormatOption();
+    if ((formatOption == FormatOptions.CSV || formatOption == FormatOptions.TSV)
+        && !printsTable()) {
+      throw new UserActionableException(
+          "The "
+              + formatOption
+              + " format is only supported by commands that print a table (e.g. `terra resource"
+              + " list`). Use TEXT, JSON or NDJSON for this command.");
+    }
+  }
+
+  /** True if the command output will be printed in text format. */
+  public boolean isText() {
+    return getEffectiveFormatOption() == FormatOptions.TEXT;
+  }
+
+  /** True if the command output will be printed in newline-delimited JSON format. */
+  public boolean isNdjson() {
+    return getEffectiveFormatOption() == FormatOptions.NDJSON;
+  }
+
+  /**
+   * This method calls the {@link #printJson} method if the --format flag is set to JSON, or the
+   * {@link #printNdjson} method if it's set to NDJSON. Otherwise, it calls the {@link #printText}
+   * method, passing the return value object as an argument.
    *
    * @param returnValue command return value
    */
   public <T> void printReturnValue(T returnValue) {
-    printReturnValue(returnValue, Format::printText, Format::printJson);
+    printReturnValue(returnValue, Format::printText);
   }
 
   /**
-   * This method calls the {@link #printJson} method if the --format flag is set to JSON. Otherwise,
-   * it calls the given printTextFunction.
+   * This method calls the {@link #printJson} method if the --format flag is set to JSON, or the
+   * {@link #printNdjson} method if it's set to NDJSON. Otherwise, it calls the given
+   * printTextFunction.
    *
    * @param returnValue command return value
    * @param printTextFunction reference to function that accepts the command return value and prints
    *     it out in text format
    */
   public <T> void printReturnValue(T returnValue, Consumer<T> printTextFunction) {
-    printReturnValue(returnValue, printTextFunction, Format::printJson);
+    if (getEffectiveFormatOption() == FormatOptions.NDJSON) {
+      printNdjson(returnValue);
+    } else {
+      printReturnValue(returnValue, printTextFunction, Format::printJson);
+    }
+  }
+
+  /**
+   * Print a list return value, serializing the elements as the stream returns them for the JSON and
+   * NDJSON formats. Prefer this to {@link #printReturnValue(Object, Consumer)} for lists that can
+   * be long, and build the stream lazily (e.g. map each element to its user-facing object in the
+   * stream) so that nothing is held up waiting for the whole list. The text format needs the whole
+   * list, so the stream is collected first for the printTextFunction.
+   *
+   * @param returnValues command return value elements
+   * @param printTextFunction reference to function that accepts the command return value list and
+   *     prints it out in text format
+   */
+  public <T> void printReturnValues(Stream<T> returnValues, Consumer<List<T>> printTextFunction) {
+    switch (getEffectiveFormatOption()) {
+      case JSON:
+        printJsonArray(returnValues.iterator());
+        break;
+      case NDJSON:
+        printNdjsonElements(returnValues.iterator());
+        break;
+      default:
+        printTextFunction.accept(returnValues.collect(Collectors.toList()));
+    }
   }
 
   /**
-   * This method calls the given printJsonFunction if the --format flag is set to JSON. Otherwise,
-   * it calls the given printTextFunction.
+   * This method calls the given printJsonFunction if the --format flag is set to JSON or NDJSON.
+   * Otherwise, it calls the given printTextFunction. For NDJSON, the printJsonFunction should print
+   * the return value on one line (see {@link #isNdjson()}).
    *
    * @param returnValue command return value
    * @param printTextFunction reference to function that accepts the command return value and prints
@@ -93,7 +241,8 @@ public class Format {
    */
   public <T> void printReturnValue(
       T returnValue, Consumer<T> printTextFunction, Consumer<T> printJsonFunction) {
-    if (getEffectiveFormatOption() == FormatOptions.JSON) {
+    FormatOptions formatOption = getEffectiveFormatOption();
+    if (formatOption == FormatOptions.JSON || formatOption == FormatOptions.NDJSON) {
       printJsonFunction.accept(returnValue);
     } else {
       printTextFunction.accept(returnValue);
@@ -103,6 +252,12 @@ public class Format {
   /** This enum specifies the format options for printing the command output. */
   public enum FormatOptions {
     JSON,
-    TEXT;
+    // newline-delimited JSON: one compact JSON object per line, e.g. for streaming into jq
+    NDJSON,
+    TEXT,
+    // the table columns as comma- or tab-separated values. only commands that print a table take
+    // these, see TableFormat
+    CSV,
+    TSV;
   }
 }
@@ -1,6 +1,7 @@
 package bio.terra.cli.command.shared.options;
 
 import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.utils.InvocationEnvironment;
 import bio.terra.cli.utils.JacksonMapper;
 import com.fasterxml.jackson.databind.MapperFeature;
 import java.io.IOException;
@@ -31,7 +32,7 @@ public class GcsBucketLifecycle {
       // read in the lifecycle rules from a file
       try {
         return JacksonMapper.readFileIntoJavaObject(
-            lifecycleArgGroup.pathToLifecycleFile.toFile(),
+            InvocationEnvironment.resolvePath(lifecycleArgGroup.pathToLifecycleFile).toFile(),
             bio.terra.cli.serialization.userfacing.input.GcsBucketLifecycle.class,
             Collections.singletonList(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS));
       } catch (IOException ioEx) {
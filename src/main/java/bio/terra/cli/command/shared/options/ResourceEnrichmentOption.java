@@ -0,0 +1,25 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
+import java.util.List;
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the --no-enrich flag for skipping the cloud metadata lookups
+ * (e.g. the number of objects in a bucket) when printing resources.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class ResourceEnrichmentOption {
+  @CommandLine.Option(
+      names = "--no-enrich",
+      description =
+          "Only show the resource metadata stored in the workspace. Skip looking up cloud metadata (e.g. location, number of objects), which is shown as unknown.")
+  private boolean noEnrich;
+
+  /** Start looking up the cloud metadata for the resources, unless --no-enrich was specified. */
+  public ResourceEnrichment fetch(List<? extends Resource> resources) {
+    return noEnrich ? ResourceEnrichment.none() : ResourceEnrichment.fetch(resources);
+  }
+}
@@ -0,0 +1,134 @@
+package bio.terra.cli.command.shared.options;
+
+import bio.terra.cli.app.utils.tables.DelimitedTableWriter.Delimiter;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.app.utils.tables.TableWriter;
+import bio.terra.cli.utils.UserIO;
+import java.io.PrintStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+import picocli.CommandLine;
+
+/**
+ * Command helper class that defines the --format flag for commands that print a table. On top of
+ * the {@link Format} options, these commands take the CSV and TSV formats, and the --auto-width
+ * flag for the TEXT format.
+ *
+ * <p>This class is meant to be used as a @CommandLine.Mixin.
+ */
+public class TableFormat extends Format {
+
+  @CommandLine.Option(
+      names = "--auto-width",
+      description =
+          "Size the table columns to fit the values in the first rows, instead of using fixed widths. Only applies to the TEXT format.")
+  private boolean autoWidth;
+
+  @Override
+  protected boolean printsTable() {
+    return true;
+  }
+
+  /**
+   * True if a list return value will be printed as table columns: in text format, or as comma- or
+   * tab-separated values.
+   */
+  public boolean isTable() {
+    FormatOptions formatOption = getEffectiveFormatOption();
+    return formatOption == FormatOptions.TEXT
+        || formatOption == FormatOptions.CSV
+        || formatOption == FormatOptions.TSV;
+  }
+
+  /**
+   * Print a list return value that's shown as a table in text format. The JSON and NDJSON formats
+   * serialize the elements, and the TEXT, CSV and TSV formats write the table rows, as the stream
+   * returns them. Build the stream lazily (e.g. map each element to its user-facing object in the
+   * stream) so that nothing is held up waiting for the whole list.
+   *
+   * @param returnValues command return value elements
+   * @param tablePrinter columns of the table
+   */
+  public <T> void printTable(Stream<T> returnValues, TablePrinter<T> tablePrinter) {
+    printTable(returnValues, tablePrinter, null);
+  }
+
+  /**
+   * Print a list return value that's shown as a table in text format, with a highlight column. See
+   * {@link #printTable(Stream, TablePrinter)}.
+   *
+   * @param returnValues command return value elements
+   * @param tablePrinter columns of the table
+   * @param isHighlighted boolean-valued function to tell if a row should be highlighted (starred)
+   *     in text format
+   */
+  public <T> void printTable(
+      Stream<T> returnValues, TablePrinter<T> tablePrinter, @Nullable Predicate<T> isHighlighted) {
+    switch (getEffectiveFormatOption()) {
+      case JSON:
+        printJsonArray(returnValues.iterator());
+        break;
+      case NDJSON:
+        printNdjsonElements(returnValues.iterator());
+        break;
+      default:
+        printTableRows(returnValues.iterator(), tablePrinter, isHighlighted);
+    }
+  }
+
+  /**
+   * Print the table part of a return value that isn't itself a list, in the TEXT, CSV or TSV
+   * format. Call this from the printTextFunction passed to {@link #printReturnValue}, for commands
+   * whose text output is a table plus other lines (e.g. a total). Those other lines should only be
+   * printed if {@link #isText()}, so that the CSV and TSV output is just the table.
+   *
+   * @param rowObjects rows of the table
+   * @param tablePrinter columns of the table
+   */
+  public <T> void printTableRows(List<T> rowObjects, TablePrinter<T> tablePrinter) {
+    printTableRows(rowObjects.iterator(), tablePrinter, null);
+  }
+
+  /**
+   * Print a table in text format with the fixed column widths, for a table that's part of a
+   * description rather than a command's whole output (e.g. the resources in a data collection).
+   *
+   * @param rowObjects rows of the table
+   * @param tablePrinter columns of the table
+   */
+  public static <T> void printTextTable(List<T> rowObjects, TablePrinter<T> tablePrinter) {
+    writeTextTable(rowObjects.iterator(), tablePrinter.writer());
+  }
+
+  private <T> void printTableRows(
+      Iterator<T> rowObjects, TablePrinter<T> tablePrinter, @Nullable Predicate<T> isHighlighted) {
+    PrintStream out = UserIO.getOut();
+    switch (getEffectiveFormatOption()) {
+      case CSV:
+        tablePrinter.delimitedWriter(Delimiter.CSV).write(rowObjects, out::println);
+        break;
+      case TSV:
+        tablePrinter.delimitedWriter(Delimiter.TSV).write(rowObjects, out::println);
+        break;
+      default:
+        writeTextTable(
+            rowObjects,
+            tablePrinter
+                .writer()
+                .highlight(isHighlighted)
+                .autoWidth(autoWidth ? TableWriter.DEFAULT_AUTO_WIDTH_SAMPLE_SIZE : 0));
+    }
+  }
+
+  private static <T> void writeTextTable(Iterator<T> rowObjects, TableWriter<T> tableWriter) {
+    PrintStream out = UserIO.getOut();
+    int numRows = tableWriter.write(rowObjects, out::println);
+    if (numRows == 0) {
+      // same as printing an empty table with TablePrinter.print
+      out.println();
+    }
+  }
+}
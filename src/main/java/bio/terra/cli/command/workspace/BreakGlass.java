@@ -8,6 +8,7 @@ import bio.terra.cli.command.shared.options.WorkspaceOverride;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.GoogleOauth;
+import bio.terra.cli.utils.InvocationEnvironment;
 import com.google.api.client.util.DateTime;
 import com.google.auth.oauth2.ServiceAccountCredentials;
 import com.google.cloud.bigquery.BigQuery;
@@ -84,9 +85,11 @@ public class BreakGlass extends BaseCommand {
           ImmutableList.of("https://www.googleapis.com/auth/cloud-platform");
       userProjectsAdminCredentials =
           GoogleOauth.getServiceAccountCredential(
-              Path.of(userProjectAdminSAKeyFile).toFile(), SA_SCOPES);
+              InvocationEnvironment.resolvePath(Path.of(userProjectAdminSAKeyFile)).toFile(),
+              SA_SCOPES);
       bigQueryCredentials =
-          GoogleOauth.getServiceAccountCredential(Path.of(bigQuerySAKeyFile).toFile(), SA_SCOPES);
+          GoogleOauth.getServiceAccountCredential(
+              InvocationEnvironment.resolvePath(Path.of(bigQuerySAKeyFile)).toFile(), SA_SCOPES);
     } catch (IOException ioEx) {
       throw new UserActionableException("Error reading break-glass SA key files.", ioEx);
     }
@@ -2,6 +2,7 @@ package bio.terra.cli.command.workspace;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.command.shared.BaseCommand;
 import bio.terra.cli.command.shared.options.Format;
@@ -13,8 +14,8 @@ import bio.terra.cli.serialization.userfacing.UFWorkspace;
 import bio.terra.workspace.model.CloneResourceResult;
 import bio.terra.workspace.model.ClonedWorkspace;
 import bio.terra.workspace.model.ResourceCloneDetails;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.ArrayList;
+import java.util.Objects;
 import picocli.CommandLine;
 import picocli.CommandLine.Command;
 
@@ -43,11 +44,32 @@ public class Clone extends BaseCommand {
         Workspace.get(
             clonedWorkspace.getDestinationWorkspaceId(), /*isDataCollectionWorkspace=*/ false);
 
+    // look up the cloud metadata for all the source and destination resources at the same time
+    java.util.List<Resource> sourceResources = new ArrayList<>();
+    java.util.List<Resource> destinationResources = new ArrayList<>();
+    for (ResourceCloneDetails resourceCloneDetails : clonedWorkspace.getResources()) {
+      sourceResources.add(sourceWorkspace.getResource(resourceCloneDetails.getName()));
+      destinationResources.add(
+          CloneResourceResult.SUCCEEDED == resourceCloneDetails.getResult()
+              ? destinationWorkspaceHydrated.getResource(resourceCloneDetails.getName())
+              : null);
+    }
+    java.util.List<Resource> resourcesToLookUp = new ArrayList<>(sourceResources);
+    destinationResources.stream().filter(Objects::nonNull).forEach(resourcesToLookUp::add);
+    ResourceEnrichment enrichment = ResourceEnrichment.fetch(resourcesToLookUp);
+
     // Get a list of UFClonedResource objects based on the resources returned in the ClonedWorkspace
-    java.util.List<UFClonedResource> ufClonedResources =
-        clonedWorkspace.getResources().stream()
-            .map(r -> buildUfClonedResource(sourceWorkspace, destinationWorkspaceHydrated, r))
-            .collect(Collectors.toList());
+    java.util.List<UFClonedResource> ufClonedResources = new ArrayList<>();
+    for (int i = 0; i < clonedWorkspace.getResources().size(); i++) {
+      Resource destinationResource = destinationResources.get(i);
+      ufClonedResources.add(
+          new UFClonedResource(
+              clonedWorkspace.getResources().get(i),
+              sourceResources.get(i).serializeToCommand(enrichment),
+              destinationResource == null
+                  ? null
+                  : destinationResource.serializeToCommand(enrichment)));
+    }
 
     // print results
     formatOption.printReturnValue(
@@ -58,24 +80,6 @@ public class Clone extends BaseCommand {
         this::printText);
   }
 
-  private UFClonedResource buildUfClonedResource(
-      Workspace sourceWorkspace,
-      Workspace destinationWorkspace,
-      ResourceCloneDetails resourceCloneDetails) {
-    Resource sourceResource = sourceWorkspace.getResource(resourceCloneDetails.getName());
-    final Resource destinationResource;
-    if (CloneResourceResult.SUCCEEDED == resourceCloneDetails.getResult()) {
-      destinationResource = destinationWorkspace.getResource(resourceCloneDetails.getName());
-    } else {
-      destinationResource = null;
-    }
-
-    return new UFClonedResource(
-        resourceCloneDetails,
-        sourceResource.serializeToCommand(),
-        Optional.ofNullable(destinationResource).map(Resource::serializeToCommand).orElse(null));
-  }
-
   private void printText(UFClonedWorkspace returnValue) {
     OUT.println("Workspace successfully cloned.");
     returnValue.print();
@@ -3,13 +3,11 @@ package bio.terra.cli.command.workspace;
 import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.command.shared.BaseCommand;
-import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.serialization.userfacing.UFWorkspaceLight;
-import bio.terra.cli.utils.UserIO;
 import java.util.Comparator;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -23,7 +21,7 @@ import picocli.CommandLine.Command;
     showDefaultValues = true)
 public class List extends BaseCommand {
 
-  @CommandLine.Mixin Format formatOption;
+  @CommandLine.Mixin TableFormat formatOption;
 
   @CommandLine.Option(
       names = "--offset",
@@ -43,28 +41,24 @@ public class List extends BaseCommand {
   /** List all workspaces a user has access to. */
   @Override
   protected void execute() {
-    formatOption.printReturnValue(
-        UserIO.sortAndMap(
-            Workspace.list(offset, limit),
-            Comparator.comparing(Workspace::getName),
-            UFWorkspaceLight::new),
-        this::printText);
+    formatOption.printTable(
+        Workspace.list(offset, limit).stream()
+            .sorted(Comparator.comparing(Workspace::getName))
+            .map(UFWorkspaceLight::new),
+        Columns::values,
+        getIsHighlighted());
   }
 
-  /** Print this command's output in tabular text format. */
-  private void printText(java.util.List<UFWorkspaceLight> returnValue) {
+  /** Highlight the current workspace in the table. */
+  private static Predicate<UFWorkspaceLight> getIsHighlighted() {
     // Guard against the current workspace being empty, but keep the highlight column so the
     // table is formatted the same with or without the workspace being set (i.e. pass always-false
     // instead of a null predicate).
-    Predicate<UFWorkspaceLight> isHighlighted =
-        Context.getWorkspace()
-            .map(
-                current ->
-                    (Predicate<UFWorkspaceLight>) (ufw -> current.getUserFacingId().equals(ufw.id)))
-            .orElse(ufw -> false);
-    TablePrinter<UFWorkspaceLight> printer = Columns::values;
-    String text = printer.print(returnValue, isHighlighted);
-    OUT.println(text);
+    return Context.getWorkspace()
+        .map(
+            current ->
+                (Predicate<UFWorkspaceLight>) (ufw -> current.getUserFacingId().equals(ufw.id)))
+        .orElse(ufw -> false);
   }
 
   /** Column information for table output with `terra workspace list` */
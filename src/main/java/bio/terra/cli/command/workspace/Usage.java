@@ -0,0 +1,131 @@
+package bio.terra.cli.command.workspace;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.RIGHT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.businessobject.WorkspaceUsage;
+import bio.terra.cli.command.shared.BaseCommand;
+import bio.terra.cli.command.shared.options.TableFormat;
+import bio.terra.cli.command.shared.options.WorkspaceOverride;
+import bio.terra.cli.serialization.userfacing.UFResourceUsage;
+import bio.terra.cli.serialization.userfacing.UFWorkspaceUsage;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Function;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+
+/** This class corresponds to the third-level "terra workspace usage" command. */
+@Command(
+    name = "usage",
+    description =
+        "Show the storage used by the buckets, datasets and tables in the workspace, including the ones in data collections.",
+    showDefaultValues = true)
+public class Usage extends BaseCommand {
+  private static final String FAILED_PLACEHOLDER = "(failed)";
+
+  @CommandLine.Option(
+      names = "--since-last",
+      description =
+          "Copy the usage of buckets scanned in the last day from the last report, instead of listing their objects again. Datasets and tables are always looked up again.")
+  private boolean sinceLast;
+
+  @CommandLine.Option(
+      names = "--refresh",
+      description =
+          "List the objects in all buckets again, instead of using counts from the last report or cached in the last hour.")
+  private boolean refresh;
+
+  @CommandLine.Mixin WorkspaceOverride workspaceOption;
+  @CommandLine.Mixin TableFormat formatOption;
+
+  /** Scan the workspace resources and print their usage. */
+  @Override
+  protected void execute() {
+    workspaceOption.overrideIfSpecified();
+    formatOption.printReturnValue(
+        WorkspaceUsage.compute(sinceLast, refresh).serializeToCommand(), this::printText);
+  }
+
+  /** Print this command's output in tabular text format, or just the table for CSV and TSV. */
+  private void printText(UFWorkspaceUsage returnValue) {
+    formatOption.printTableRows(returnValue.resources, Columns::values);
+    if (!formatOption.isText()) {
+      return;
+    }
+    OUT.println();
+    OUT.printf(
+        "Total: %,d bytes in %d resources (%d scanned, %d from the last report, %d failed)%n",
+        returnValue.totalBytes,
+        returnValue.resources.size(),
+        returnValue.numScanned,
+        returnValue.numFromLastSnapshot,
+        returnValue.numFailed);
+  }
+
+  private static String formatCount(Long count) {
+    return count == null ? FAILED_PLACEHOLDER : String.format("%,d", count);
+  }
+
+  private static String formatDate(OffsetDateTime date) {
+    return date == null ? null : date.truncatedTo(ChronoUnit.SECONDS).toString();
+  }
+
+  /** Column information for table output with `terra workspace usage` */
+  private enum Columns implements ColumnDefinition<UFResourceUsage> {
+    NAME(
+        "NAME",
+        r ->
+            r.dataCollectionName == null
+                ? r.resourceName
+                : r.dataCollectionName + "/" + r.resourceName,
+        40,
+        LEFT),
+    RESOURCE_TYPE("RESOURCE TYPE", r -> r.resourceType.toString(), 13, LEFT),
+    BYTES("BYTES", r -> formatCount(r.numBytes), 20, RIGHT),
+    OBJECTS_OR_ROWS("OBJECTS/ROWS", r -> formatCount(r.numItems), 16, RIGHT),
+    LAST_MODIFIED("LAST MODIFIED", r -> formatDate(r.lastModified), 20, LEFT),
+    SCANNED(
+        "SCANNED",
+        r -> formatDate(r.scannedDate) + (r.fromLastSnapshot ? " (last report)" : ""),
+        34,
+        LEFT);
+
+    private final String columnLabel;
+    private final Function<UFResourceUsage, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    Columns(
+        String columnLabel,
+        Function<UFResourceUsage, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<UFResourceUsage, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
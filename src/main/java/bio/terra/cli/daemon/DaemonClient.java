@@ -0,0 +1,174 @@
+package bio.terra.cli.daemon;
+
+import bio.terra.cli.command.Main;
+import bio.terra.cli.utils.InvocationEnvironment;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cli.utils.Version;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Entry point for the terra start script. If a daemon is running for the current context directory,
+ * this forwards the command to it and streams back the output and exit code. Otherwise, it runs the
+ * command in this process, exactly like {@link Main#main(String...)}.
+ *
+ * <p>This class is loaded before anything else, so it should stay small and avoid touching the
+ * context, logging or any of the service clients.
+ */
+public class DaemonClient {
+  // exit code when the connection to the daemon drops in the middle of a command. this matches the
+  // exit code for unexpected errors in Main
+  private static final int LOST_CONNECTION_EXIT_CODE = 3;
+  private static final int STDIN_BUFFER_SIZE = 8 * 1024;
+  // the daemon answers control requests right away, even while it runs a command, so don't wait
+  // long for a daemon that isn't responding
+  private static final int CONTROL_REQUEST_TIMEOUT_MS = 10_000;
+
+  private DaemonClient() {}
+
+  /**
+   * Main entry point into the CLI application.
+   *
+   * @param args from stdin
+   */
+  public static void main(String... args) {
+    // the daemon commands always run in-process, so that e.g. "terra daemon stop" works even if
+    // the daemon isn't responding
+    if (args.length == 0 || !args[0].equals("daemon")) {
+      Optional<DaemonInfo> daemonInfo =
+          DaemonProtocol.readDaemonInfo()
+              .filter(info -> Objects.equals(info.version, Version.getVersion()));
+      if (daemonInfo.isPresent()) {
+        Optional<Integer> exitCode = forwardCommand(daemonInfo.get(), Arrays.asList(args));
+        if (exitCode.isPresent()) {
+          System.exit(exitCode.get());
+        }
+      }
+    }
+    Main.main(args);
+  }
+
+  /**
+   * Forward a command to the daemon.
+   *
+   * @return the command's exit code, or empty if the daemon couldn't be reached or is busy with
+   *     another command, and the command should run in-process instead
+   */
+  private static Optional<Integer> forwardCommand(DaemonInfo daemonInfo, List<String> args) {
+    Socket socket;
+    DataOutputStream out;
+    try {
+      socket = DaemonProtocol.connect(daemonInfo);
+      out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      DaemonProtocol.writeRequest(
+          out,
+          new DaemonProtocol.Request(
+              DaemonProtocol.RUN,
+              daemonInfo.token,
+              args,
+              System.getProperty("user.dir"),
+              System.getenv(),
+              InvocationEnvironment.isProcessStdInPipeOrFile()));
+    } catch (IOException ioEx) {
+      // stale daemon info file (e.g. the daemon was killed), fall back to running in-process
+      return Optional.empty();
+    }
+
+    // once the request is sent, the command may have side effects, so never re-run it in-process
+    try (socket) {
+      // reading stdin may block (e.g. on a terminal), so keep it off the thread that reads output
+      ExecutorService stdInReader = ThreadPools.newFixedDaemonPool("daemon-client-stdin", 1);
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      Optional<DaemonProtocol.Frame> frame;
+      while ((frame = DaemonProtocol.readFrame(in)).isPresent()) {
+        switch (frame.get().type) {
+          case DaemonProtocol.STDOUT:
+            System.out.write(frame.get().payload);
+            System.out.flush();
+            break;
+          case DaemonProtocol.STDERR:
+            System.err.write(frame.get().payload);
+            System.err.flush();
+            break;
+          case DaemonProtocol.STDIN_REQUEST:
+            int maxNumBytes = DaemonProtocol.readStdInRequest(frame.get().payload);
+            stdInReader.execute(() -> sendStdIn(out, maxNumBytes));
+            break;
+          case DaemonProtocol.EXIT:
+            return Optional.of(DaemonProtocol.readExitCode(frame.get().payload));
+          case DaemonProtocol.BUSY:
+            // the daemon didn't run the command, so it's safe to run it in-process
+            return Optional.empty();
+          default:
+            // ignore unknown frame types
+        }
+      }
+    } catch (IOException ioEx) {
+      // fall through to the lost connection error below
+    }
+    new PrintStream(System.err, true, StandardCharsets.UTF_8)
+        .println("[ERROR] Lost connection to the terra daemon.");
+    return Optional.of(LOST_CONNECTION_EXIT_CODE);
+  }
+
+  /**
+   * Read at most the given number of bytes from this process' stdin, and send them to the daemon.
+   */
+  private static void sendStdIn(DataOutputStream out, int maxNumBytes) {
+    byte[] buffer = new byte[Math.min(maxNumBytes, STDIN_BUFFER_SIZE)];
+    try {
+      int numBytes = System.in.read(buffer);
+      if (numBytes < 0) {
+        DaemonProtocol.writeFrame(out, DaemonProtocol.STDIN_EOF, new byte[0]);
+      } else {
+        DaemonProtocol.writeFrame(out, DaemonProtocol.STDIN, buffer, 0, numBytes);
+      }
+    } catch (IOException ioEx) {
+      // the command finished and the daemon closed the connection
+    }
+  }
+
+  /**
+   * Check whether the daemon described by the given info is up and accepting commands.
+   *
+   * @return true if the daemon responded
+   */
+  static boolean ping(DaemonInfo daemonInfo) {
+    return sendControlRequest(daemonInfo, DaemonProtocol.PING);
+  }
+
+  /**
+   * Ask the daemon described by the given info to shut down after any in-progress command.
+   *
+   * @return true if the daemon acknowledged the request
+   */
+  public static boolean stop(DaemonInfo daemonInfo) {
+    return sendControlRequest(daemonInfo, DaemonProtocol.STOP);
+  }
+
+  private static boolean sendControlRequest(DaemonInfo daemonInfo, String kind) {
+    try (Socket socket = DaemonProtocol.connect(daemonInfo)) {
+      socket.setSoTimeout(CONTROL_REQUEST_TIMEOUT_MS);
+      DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+      DaemonProtocol.writeRequest(
+          out, new DaemonProtocol.Request(kind, daemonInfo.token, List.of(), "", Map.of(), false));
+      Optional<DaemonProtocol.Frame> frame =
+          DaemonProtocol.readFrame(new DataInputStream(socket.getInputStream()));
+      return frame.isPresent() && frame.get().type == DaemonProtocol.EXIT;
+    } catch (IOException ioEx) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package bio.terra.cli.daemon;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+/**
+ * Connection details for a running daemon, written to the context directory so that the thin client
+ * can find it.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing. The file
+ * is only readable by the owner, because the token is all that's needed to run commands as the
+ * current user.
+ */
+@JsonDeserialize(builder = DaemonInfo.Builder.class)
+public class DaemonInfo {
+  public final int port;
+  public final String token;
+  public final long pid;
+  public final String version;
+  public final long idleTimeoutMinutes;
+
+  private DaemonInfo(Builder builder) {
+    this.port = builder.port;
+    this.token = builder.token;
+    this.pid = builder.pid;
+    this.version = builder.version;
+    this.idleTimeoutMinutes = builder.idleTimeoutMinutes;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private int port;
+    private String token;
+    private long pid;
+    private String version;
+    private long idleTimeoutMinutes;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder port(int port) {
+      this.port = port;
+      return this;
+    }
+
+    public Builder token(String token) {
+      this.token = token;
+      return this;
+    }
+
+    public Builder pid(long pid) {
+      this.pid = pid;
+      return this;
+    }
+
+    public Builder version(String version) {
+      this.version = version;
+      return this;
+    }
+
+    public Builder idleTimeoutMinutes(long idleTimeoutMinutes) {
+      this.idleTimeoutMinutes = idleTimeoutMinutes;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public DaemonInfo build() {
+      return new DaemonInfo(this);
+    }
+  }
+}
@@ -0,0 +1,325 @@
+package bio.terra.cli.daemon;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.utils.JacksonMapper;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Wire format shared by the daemon and the thin client.
+ *
+ * <p>Everything sent over the socket is a frame: a one-byte frame type, a four-byte length, and
+ * that many bytes of payload. The client sends a single {@link #REQUEST} frame. The daemon sends
+ * any number of {@link #STDOUT} and {@link #STDERR} frames, then exactly one {@link #EXIT} frame
+ * holding the exit code. Output bytes are passed through unchanged, so binary output survives the
+ * round trip. If the daemon is already running another command, it sends a single {@link #BUSY}
+ * frame instead, before running anything, and the client runs the command in-process.
+ *
+ * <p>Stdin is only read when the command asks for it: each read sends a {@link #STDIN_REQUEST}
+ * frame with the most bytes the command wants, and the client answers with a single {@link #STDIN}
+ * frame of at most that many bytes, or a {@link #STDIN_EOF}. A command that never reads stdin
+ * leaves the client's stdin untouched, e.g. for the next command in a {@code while read} loop.
+ */
+class DaemonProtocol {
+  // frame types sent by the client
+  static final byte REQUEST = 'R';
+  static final byte STDIN = 'I';
+  static final byte STDIN_EOF = 'D';
+
+  // frame types sent by the daemon
+  static final byte STDOUT = 'O';
+  static final byte STDERR = 'E';
+  static final byte STDIN_REQUEST = 'Q';
+  static final byte EXIT = 'X';
+  static final byte BUSY = 'B';
+
+  // request kinds
+  static final String RUN = "run";
+  static final String PING = "ping";
+  static final String STOP = "stop";
+
+  private static final String DAEMON_INFO_FILENAME = "daemon.json";
+  private static final int CONNECT_TIMEOUT_MS = 500;
+  // guard against allocating huge buffers for garbage sent by something other than the client
+  private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+  private DaemonProtocol() {}
+
+  /** A single frame read off the socket. */
+  static class Frame {
+    final byte type;
+    final byte[] payload;
+
+    Frame(byte type, byte[] payload) {
+      this.type = type;
+      this.payload = payload;
+    }
+  }
+
+  /** A request from the client to the daemon. */
+  static class Request {
+    final String kind;
+    final String token;
+    final List<String> args;
+    final String workingDir;
+    final Map<String, String> envVars;
+    // true if the client's stdin is a pipe or a file, so tool commands can read it
+    final boolean stdInPipeOrFile;
+
+    Request(
+        String kind,
+        String token,
+        List<String> args,
+        String workingDir,
+        Map<String, String> envVars,
+        boolean stdInPipeOrFile) {
+      this.kind = kind;
+      this.token = token;
+      this.args = args;
+      this.workingDir = workingDir;
+      this.envVars = envVars;
+      this.stdInPipeOrFile = stdInPipeOrFile;
+    }
+  }
+
+  /**
+   * Write a single frame. Frames may be written from several threads (e.g. stdout and stderr), so
+   * synchronize on the stream to keep them from interleaving.
+   */
+  static void writeFrame(DataOutputStream out, byte type, byte[] payload, int offset, int length)
+      throws IOException {
+    synchronized (out) {
+      out.writeByte(type);
+      out.writeInt(length);
+      out.write(payload, offset, length);
+      out.flush();
+    }
+  }
+
+  /** Write a single frame with the full payload. */
+  static void writeFrame(DataOutputStream out, byte type, byte[] payload) throws IOException {
+    writeFrame(out, type, payload, 0, payload.length);
+  }
+
+  /** Write the exit code frame. */
+  static void writeExit(DataOutputStream out, int exitCode) throws IOException {
+    writeFrame(out, EXIT, toBytes(exitCode));
+  }
+
+  /** Decode the exit code from an {@link #EXIT} frame payload. */
+  static int readExitCode(byte[] payload) {
+    return fromBytes(payload);
+  }
+
+  /** Decode the maximum number of bytes to send from a {@link #STDIN_REQUEST} frame payload. */
+  static int readStdInRequest(byte[] payload) {
+    return fromBytes(payload);
+  }
+
+  private static byte[] toBytes(int value) {
+    return new byte[] {
+      (byte) (value >>> 24), (byte) (value >>> 16), (byte) (value >>> 8), (byte) value
+    };
+  }
+
+  private static int fromBytes(byte[] payload) {
+    return ((payload[0] & 0xFF) << 24)
+        | ((payload[1] & 0xFF) << 16)
+        | ((payload[2] & 0xFF) << 8)
+        | (payload[3] & 0xFF);
+  }
+
+  /**
+   * Read a single frame.
+   *
+   * @return the frame, or empty if the other side closed the connection cleanly
+   */
+  static Optional<Frame> readFrame(DataInputStream in) throws IOException {
+    int type = in.read();
+    if (type < 0) {
+      return Optional.empty();
+    }
+    int length = in.readInt();
+    if (length < 0 || length > MAX_FRAME_BYTES) {
+      throw new IOException("Invalid daemon frame length: " + length);
+    }
+    byte[] payload = new byte[length];
+    in.readFully(payload);
+    return Optional.of(new Frame((byte) type, payload));
+  }
+
+  /** Serialize a request into a {@link #REQUEST} frame. */
+  static void writeRequest(DataOutputStream out, Request request) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream data = new DataOutputStream(bytes);
+    writeString(data, request.kind);
+    writeString(data, request.token);
+    data.writeInt(request.args.size());
+    for (String arg : request.args) {
+      writeString(data, arg);
+    }
+    writeString(data, request.workingDir);
+    data.writeInt(request.envVars.size());
+    for (Map.Entry<String, String> envVar : request.envVars.entrySet()) {
+      writeString(data, envVar.getKey());
+      writeString(data, envVar.getValue());
+    }
+    data.writeBoolean(request.stdInPipeOrFile);
+    data.flush();
+    writeFrame(out, REQUEST, bytes.toByteArray());
+  }
+
+  /** Deserialize a request from a {@link #REQUEST} frame payload. */
+  static Request readRequest(byte[] payload) throws IOException {
+    DataInputStream data = new DataInputStream(new ByteArrayInputStream(payload));
+    String kind = readString(data);
+    String token = readString(data);
+    int numArgs = data.readInt();
+    List<String> args = new ArrayList<>(numArgs);
+    for (int i = 0; i < numArgs; i++) {
+      args.add(readString(data));
+    }
+    String workingDir = readString(data);
+    int numEnvVars = data.readInt();
+    Map<String, String> envVars = new HashMap<>(numEnvVars * 2);
+    for (int i = 0; i < numEnvVars; i++) {
+      envVars.put(readString(data), readString(data));
+    }
+    boolean stdInPipeOrFile = data.readBoolean();
+    return new Request(kind, token, args, workingDir, envVars, stdInPipeOrFile);
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new EOFException("Malformed daemon request.");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Output stream that wraps everything written to it in frames of the given type. */
+  static class FrameOutputStream extends OutputStream {
+    private final DataOutputStream out;
+    private final byte type;
+
+    FrameOutputStream(DataOutputStream out, byte type) {
+      this.out = out;
+      this.type = type;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      writeFrame(out, type, new byte[] {(byte) b});
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      if (len > 0) {
+        writeFrame(out, type, b, off, len);
+      }
+    }
+  }
+
+  /**
+   * Input stream that reads the client's stdin on demand: each read asks the client for at most the
+   * number of bytes requested, and waits for its answer. The client sends nothing else while a
+   * command runs, so the answer is always the next frame.
+   */
+  static class StdInRequestStream extends InputStream {
+    private final DataInputStream in;
+    private final DataOutputStream out;
+    private boolean reachedEof;
+
+    StdInRequestStream(DataInputStream in, DataOutputStream out) {
+      this.in = in;
+      this.out = out;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] oneByte = new byte[1];
+      return read(oneByte, 0, 1) < 0 ? -1 : oneByte[0] & 0xFF;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+      if (reachedEof) {
+        return -1;
+      } else if (len == 0) {
+        return 0;
+      }
+      writeFrame(out, STDIN_REQUEST, toBytes(len));
+      Optional<Frame> frame = readFrame(in);
+      if (frame.isEmpty() || frame.get().type != STDIN || frame.get().payload.length > len) {
+        // end of input, or the client went away
+        reachedEof = true;
+        return -1;
+      }
+      byte[] payload = frame.get().payload;
+      System.arraycopy(payload, 0, b, off, payload.length);
+      return payload.length;
+    }
+  }
+
+  // ====================================================
+  // Daemon info file
+
+  /** Get the file where a running daemon writes its connection details. */
+  static Path getDaemonInfoFile() {
+    return Context.getContextDir().resolve(DAEMON_INFO_FILENAME);
+  }
+
+  /** Read the connection details of the running daemon, if there is one. */
+  static Optional<DaemonInfo> readDaemonInfo() {
+    File infoFile = getDaemonInfoFile().toFile();
+    if (!infoFile.exists()) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(JacksonMapper.readFileIntoJavaObject(infoFile, DaemonInfo.class));
+    } catch (IOException ioEx) {
+      // a partially written or corrupt file is treated the same as no daemon
+      return Optional.empty();
+    }
+  }
+
+  /** Write the connection details of this daemon. The file is only readable by the owner. */
+  static void writeDaemonInfo(DaemonInfo daemonInfo) throws IOException {
+    JacksonMapper.writeJavaObjectToPrivateFile(getDaemonInfoFile().toFile(), daemonInfo);
+  }
+
+  /** Connect to the daemon described by the given info on the loopback interface. */
+  static Socket connect(DaemonInfo daemonInfo) throws IOException {
+    Socket socket = new Socket();
+    socket.setTcpNoDelay(true);
+    socket.connect(
+        new InetSocketAddress(InetAddress.getLoopbackAddress(), daemonInfo.port),
+        CONNECT_TIMEOUT_MS);
+    return socket;
+  }
+}
@@ -0,0 +1,300 @@
+package bio.terra.cli.daemon;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.command.Main;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.InvocationEnvironment;
+import bio.terra.cli.utils.ThreadPools;
+import bio.terra.cli.utils.UserIO;
+import bio.terra.cli.utils.Version;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resident process that serves CLI commands to the thin {@link DaemonClient}, so that commands
+ * don't pay for JVM startup, reading the context file and setting up logging every time.
+ *
+ * <p>The daemon listens on an ephemeral port on the loopback interface, and writes the port and a
+ * random token to an owner-only file in the context directory. Clients must present the token, so
+ * other users on the same machine can't run commands as this user.
+ *
+ * <p>Commands run one at a time on a single worker thread, because the context is held in static
+ * singletons that are not safe to share across concurrent commands. A command sent while another
+ * one is running is answered as busy right away, so the client runs it in-process instead of
+ * waiting. Control requests (ping, stop) are answered on the thread that accepts connections, even
+ * while a command runs. The in-memory context is reused between commands, and is re-read whenever
+ * the context file changes on disk (e.g. because a command was run without the daemon). The daemon
+ * exits after the idle timeout passes with no connections and no command running.
+ */
+public class DaemonServer {
+  private static final Logger logger = LoggerFactory.getLogger(DaemonServer.class);
+
+  public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(30);
+
+  private static final int TOKEN_NUM_BYTES = 32;
+
+  private final Duration idleTimeout;
+  private final String token;
+  private boolean stopRequested;
+  // runs the commands, one at a time
+  private final ExecutorService commandExecutor =
+      ThreadPools.newFixedDaemonPool("daemon-command", 1);
+  // the command that is running or ran last, null before the first one. only used from the thread
+  // that accepts connections
+  @Nullable private Future<?> lastCommand;
+
+  private DaemonServer(Duration idleTimeout) {
+    this.idleTimeout = idleTimeout;
+    this.token = generateToken();
+  }
+
+  /**
+   * Run the daemon in the current process. This method blocks until the daemon is stopped or the
+   * idle timeout passes.
+   *
+   * @param idleTimeout how long to wait for a command before exiting
+   */
+  public static void run(Duration idleTimeout) {
+    new DaemonServer(idleTimeout).serve();
+  }
+
+  /**
+   * Get the connection details written by the daemon for the current context directory. The daemon
+   * may not be running any more (e.g. if it was killed).
+   */
+  public static Optional<DaemonInfo> getDaemonInfo() {
+    return DaemonProtocol.readDaemonInfo();
+  }
+
+  /** Check whether a daemon is running and responding for the current context directory. */
+  public static Optional<DaemonInfo> getRunningDaemon() {
+    return getDaemonInfo().filter(DaemonClient::ping);
+  }
+
+  /** Delete the daemon info file left behind by a daemon that is no longer running. */
+  public static void deleteStaleDaemonInfo() throws IOException {
+    Files.deleteIfExists(DaemonProtocol.getDaemonInfoFile());
+  }
+
+  /** Accept and run commands until stopped or idle. */
+  private void serve() {
+    try (ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+      serverSocket.setSoTimeout(Math.toIntExact(idleTimeout.toMillis()));
+      DaemonProtocol.writeDaemonInfo(
+          new DaemonInfo.Builder()
+              .port(serverSocket.getLocalPort())
+              .token(token)
+              .pid(ProcessHandle.current().pid())
+              .version(Version.getVersion())
+              .idleTimeoutMinutes(idleTimeout.toMinutes())
+              .build());
+      logger.info("Daemon listening on port {}", serverSocket.getLocalPort());
+
+      // keep the in-memory context between commands, unless the context file changes
+      Context.setReuseUnchangedContext(true);
+      while (!stopRequested) {
+        Socket socket;
+        try {
+          socket = serverSocket.accept();
+        } catch (SocketTimeoutException stEx) {
+          if (isRunningCommand()) {
+            continue;
+          }
+          logger.info("Daemon idle for {}, shutting down", idleTimeout);
+          break;
+        }
+        try {
+          handleConnection(socket);
+        } catch (IOException | RuntimeException ex) {
+          logger.error("Error serving daemon request", ex);
+          closeQuietly(socket);
+        }
+      }
+      // finish the in-progress command before exiting
+      waitForLastCommand();
+    } catch (IOException ioEx) {
+      throw new SystemException("Error running the daemon.", ioEx);
+    } finally {
+      commandExecutor.shutdownNow();
+      Context.setReuseUnchangedContext(false);
+      deleteDaemonInfo();
+    }
+  }
+
+  /** True if a command is running on the worker thread. */
+  private boolean isRunningCommand() {
+    return lastCommand != null && !lastCommand.isDone();
+  }
+
+  /** Block until the command running on the worker thread, if any, finishes. */
+  private void waitForLastCommand() {
+    if (lastCommand == null) {
+      return;
+    }
+    try {
+      lastCommand.get();
+    } catch (ExecutionException exEx) {
+      logger.error("Error running daemon command", exEx.getCause());
+    } catch (InterruptedException intEx) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Read a single request off the socket and answer it. A command is handed off to the worker
+   * thread, which closes the socket when the command finishes. The socket is closed here for any
+   * other request.
+   */
+  private void handleConnection(Socket socket) throws IOException {
+    socket.setTcpNoDelay(true);
+    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+    Optional<DaemonProtocol.Frame> firstFrame = DaemonProtocol.readFrame(in);
+    if (firstFrame.isEmpty() || firstFrame.get().type != DaemonProtocol.REQUEST) {
+      logger.warn("Daemon connection closed before sending a request");
+      socket.close();
+      return;
+    }
+    DaemonProtocol.Request request = DaemonProtocol.readRequest(firstFrame.get().payload);
+    if (!MessageDigest.isEqual(
+        token.getBytes(StandardCharsets.UTF_8), request.token.getBytes(StandardCharsets.UTF_8))) {
+      logger.warn("Daemon request rejected: invalid token");
+      socket.close();
+      return;
+    }
+
+    switch (request.kind) {
+      case DaemonProtocol.PING:
+        DaemonProtocol.writeExit(out, 0);
+        break;
+      case DaemonProtocol.STOP:
+        stopRequested = true;
+        DaemonProtocol.writeExit(out, 0);
+        break;
+      case DaemonProtocol.RUN:
+        if (isRunningCommand()) {
+          logger.debug("Daemon busy, the client will run the command in-process");
+          DaemonProtocol.writeFrame(out, DaemonProtocol.BUSY, new byte[0]);
+          break;
+        }
+        lastCommand = commandExecutor.submit(() -> runCommandAndClose(socket, request, in, out));
+        return;
+      default:
+        logger.warn("Unknown daemon request kind: {}", request.kind);
+    }
+    socket.close();
+  }
+
+  /** Run a single command on the worker thread, then close the connection to the client. */
+  private void runCommandAndClose(
+      Socket socket, DaemonProtocol.Request request, DataInputStream in, DataOutputStream out) {
+    try (socket) {
+      runCommand(request, in, out);
+    } catch (IOException | RuntimeException ex) {
+      logger.error("Error running daemon command", ex);
+    }
+  }
+
+  /**
+   * Run a single command, with the standard streams pointed at the client's socket and the client's
+   * working directory and environment variables in effect.
+   */
+  private void runCommand(DaemonProtocol.Request request, DataInputStream in, DataOutputStream out)
+      throws IOException {
+    PrintStream stdOut =
+        new PrintStream(
+            new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDOUT),
+            true,
+            StandardCharsets.UTF_8);
+    PrintStream stdErr =
+        new PrintStream(
+            new DaemonProtocol.FrameOutputStream(out, DaemonProtocol.STDERR),
+            true,
+            StandardCharsets.UTF_8);
+    InputStream stdIn = new DaemonProtocol.StdInRequestStream(in, out);
+
+    // also swap the JVM-wide streams, so that anything that writes to them directly (e.g. the
+    // console log appender) goes to the client
+    PrintStream daemonOut = System.out;
+    PrintStream daemonErr = System.err;
+    InputStream daemonIn = System.in;
+    System.setOut(stdOut);
+    System.setErr(stdErr);
+    System.setIn(stdIn);
+    UserIO.initialize(stdOut, stdErr, stdIn);
+    InvocationEnvironment.initialize(
+        Path.of(request.workingDir), request.envVars, request.stdInPipeOrFile);
+
+    int exitCode;
+    try {
+      exitCode = Main.runUserCommand(request.args.toArray(new String[0]));
+    } finally {
+      stdOut.flush();
+      stdErr.flush();
+      System.setOut(daemonOut);
+      System.setErr(daemonErr);
+      System.setIn(daemonIn);
+      InvocationEnvironment.reset();
+    }
+
+    // a failed command may have left the in-memory context partially updated, so re-read it from
+    // disk before the next command instead of trusting it
+    if (exitCode != 0) {
+      Context.forceReloadFromDisk();
+    }
+    DaemonProtocol.writeExit(out, exitCode);
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException ioEx) {
+      logger.debug("Error closing daemon connection", ioEx);
+    }
+  }
+
+  /** Delete the daemon info file, unless another daemon has since replaced it. */
+  private void deleteDaemonInfo() {
+    Optional<DaemonInfo> daemonInfo = DaemonProtocol.readDaemonInfo();
+    if (daemonInfo.isPresent() && token.equals(daemonInfo.get().token)) {
+      try {
+        Files.deleteIfExists(DaemonProtocol.getDaemonInfoFile());
+      } catch (IOException ioEx) {
+        logger.error("Error deleting daemon info file", ioEx);
+      }
+    }
+  }
+
+  private static String generateToken() {
+    byte[] bytes = new byte[TOKEN_NUM_BYTES];
+    new SecureRandom().nextBytes(bytes);
+    StringBuilder token = new StringBuilder();
+    for (byte b : bytes) {
+      token.append(String.format("%02x", b));
+    }
+    return token.toString();
+  }
+}
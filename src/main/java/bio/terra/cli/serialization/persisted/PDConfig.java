@@ -22,6 +22,8 @@ public class PDConfig {
   public final CommandRunnerOption commandRunnerOption;
   public final String dockerImageId;
   public final int resourcesCacheSize;
+  public final Integer dataCollectionCacheTtlMinutes;
+  public final Integer dockerReuseIdleMinutes;
   public final Logger.LogLevel fileLoggingLevel;
   public final Logger.LogLevel consoleLoggingLevel;
   public final Format.FormatOptions format;
@@ -32,6 +34,8 @@ public class PDConfig {
     this.commandRunnerOption = internalObj.getCommandRunnerOption();
     this.dockerImageId = internalObj.getDockerImageId();
     this.resourcesCacheSize = internalObj.getResourcesCacheSize();
+    this.dataCollectionCacheTtlMinutes = internalObj.getDataCollectionCacheTtlMinutes();
+    this.dockerReuseIdleMinutes = internalObj.getDockerReuseIdleMinutes();
     this.fileLoggingLevel = internalObj.getFileLoggingLevel();
     this.consoleLoggingLevel = internalObj.getConsoleLoggingLevel();
     this.format = internalObj.getFormat();
@@ -42,6 +46,8 @@ public class PDConfig {
     this.commandRunnerOption = builder.commandRunnerOption;
     this.dockerImageId = builder.dockerImageId;
     this.resourcesCacheSize = builder.resourcesCacheSize;
+    this.dataCollectionCacheTtlMinutes = builder.dataCollectionCacheTtlMinutes;
+    this.dockerReuseIdleMinutes = builder.dockerReuseIdleMinutes;
     this.fileLoggingLevel = builder.fileLoggingLevel;
     this.consoleLoggingLevel = builder.consoleLoggingLevel;
     this.format = builder.format;
@@ -53,6 +59,8 @@ public class PDConfig {
     private CommandRunnerOption commandRunnerOption;
     private String dockerImageId;
     private int resourcesCacheSize;
+    private Integer dataCollectionCacheTtlMinutes;
+    private Integer dockerReuseIdleMinutes;
     private Logger.LogLevel fileLoggingLevel;
     private Logger.LogLevel consoleLoggingLevel;
     private Format.FormatOptions format;
@@ -80,6 +88,16 @@ public class PDConfig {
       return this;
     }
 
+    public Builder dataCollectionCacheTtlMinutes(Integer dataCollectionCacheTtlMinutes) {
+      this.dataCollectionCacheTtlMinutes = dataCollectionCacheTtlMinutes;
+      return this;
+    }
+
+    public Builder dockerReuseIdleMinutes(Integer dockerReuseIdleMinutes) {
+      this.dockerReuseIdleMinutes = dockerReuseIdleMinutes;
+      return this;
+    }
+
     public Builder fileLoggingLevel(Logger.LogLevel fileLoggingLevel) {
       this.fileLoggingLevel = fileLoggingLevel;
       return this;
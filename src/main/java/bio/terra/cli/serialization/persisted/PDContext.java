@@ -24,6 +24,9 @@ public class PDContext {
   public final PDUser user;
   public final PDWorkspace workspace;
   public final PDVersionCheck versionCheck;
+  // incremented on each write, so that processes sharing the context directory can tell which
+  // version they read
+  public final long version;
 
   /** Serialize an instance of the internal classes to the disk format. */
   public PDContext(
@@ -37,6 +40,7 @@ public class PDContext {
     this.user = internalUser == null ? null : new PDUser(internalUser);
     this.workspace = internalWorkspace == null ? null : new PDWorkspace(internalWorkspace);
     this.versionCheck = versionCheck == null ? null : new PDVersionCheck(versionCheck);
+    this.version = 0;
   }
 
   private PDContext(PDContext.Builder builder) {
@@ -45,6 +49,7 @@ public class PDContext {
     this.user = builder.user;
     this.workspace = builder.workspace;
     this.versionCheck = builder.versionCheck;
+    this.version = builder.version;
   }
 
   @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
@@ -54,6 +59,7 @@ public class PDContext {
     private PDUser user;
     private PDWorkspace workspace;
     private PDVersionCheck versionCheck;
+    private long version;
 
     /** Default constructor for Jackson. */
     public Builder() {}
@@ -83,6 +89,11 @@ public class PDContext {
       return this;
     }
 
+    public Builder version(long version) {
+      this.version = version;
+      return this;
+    }
+
     /** Call the private constructor. */
     public PDContext build() {
       return new PDContext(this);
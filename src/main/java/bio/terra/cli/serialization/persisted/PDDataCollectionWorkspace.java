@@ -0,0 +1,56 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.Workspace;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+
+/**
+ * External representation of a cached data collection workspace for writing to disk. Its resources
+ * are cached separately, the same way as for the current workspace (see {@link PDResourceIndex}).
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link Workspace} class for a workspace's internal representation.
+ */
+@JsonDeserialize(builder = PDDataCollectionWorkspace.Builder.class)
+public class PDDataCollectionWorkspace {
+  public final PDWorkspace workspace;
+  // when the CLI last checked with WSM that the cached workspace was up to date
+  public final OffsetDateTime lastCheckedDate;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDDataCollectionWorkspace(Workspace internalObj, OffsetDateTime lastCheckedDate) {
+    this.workspace = new PDWorkspace(internalObj);
+    this.lastCheckedDate = lastCheckedDate;
+  }
+
+  private PDDataCollectionWorkspace(PDDataCollectionWorkspace.Builder builder) {
+    this.workspace = builder.workspace;
+    this.lastCheckedDate = builder.lastCheckedDate;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private PDWorkspace workspace;
+    private OffsetDateTime lastCheckedDate;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder workspace(PDWorkspace workspace) {
+      this.workspace = workspace;
+      return this;
+    }
+
+    public Builder lastCheckedDate(OffsetDateTime lastCheckedDate) {
+      this.lastCheckedDate = lastCheckedDate;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDDataCollectionWorkspace build() {
+      return new PDDataCollectionWorkspace(this);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.GcsObjectStats;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+import javax.annotation.Nullable;
+
+/**
+ * External representation of the object count and total size of a bucket or prefix, for writing to
+ * disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link GcsObjectStats} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDGcsObjectStats.Builder.class)
+public class PDGcsObjectStats {
+  public final String bucketName;
+  public final String prefix;
+  public final long numObjects;
+  public final long totalBytes;
+  // latest update time of any of the objects, null if there are none
+  public final @Nullable OffsetDateTime lastUpdated;
+  public final OffsetDateTime computedDate;
+  // user whose pet SA listed the objects
+  public final String userEmail;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDGcsObjectStats(GcsObjectStats internalObj, String userEmail) {
+    this.bucketName = internalObj.getBucketName();
+    this.prefix = internalObj.getPrefix();
+    this.numObjects = internalObj.getNumObjects();
+    this.totalBytes = internalObj.getTotalBytes();
+    this.lastUpdated = internalObj.getLastUpdated();
+    this.computedDate = internalObj.getComputedDate();
+    this.userEmail = userEmail;
+  }
+
+  private PDGcsObjectStats(PDGcsObjectStats.Builder builder) {
+    this.bucketName = builder.bucketName;
+    this.prefix = builder.prefix;
+    this.numObjects = builder.numObjects;
+    this.totalBytes = builder.totalBytes;
+    this.lastUpdated = builder.lastUpdated;
+    this.computedDate = builder.computedDate;
+    this.userEmail = builder.userEmail;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String bucketName;
+    private String prefix;
+    private long numObjects;
+    private long totalBytes;
+    private OffsetDateTime lastUpdated;
+    private OffsetDateTime computedDate;
+    private String userEmail;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder bucketName(String bucketName) {
+      this.bucketName = bucketName;
+      return this;
+    }
+
+    public Builder prefix(String prefix) {
+      this.prefix = prefix;
+      return this;
+    }
+
+    public Builder numObjects(long numObjects) {
+      this.numObjects = numObjects;
+      return this;
+    }
+
+    public Builder totalBytes(long totalBytes) {
+      this.totalBytes = totalBytes;
+      return this;
+    }
+
+    public Builder lastUpdated(OffsetDateTime lastUpdated) {
+      this.lastUpdated = lastUpdated;
+      return this;
+    }
+
+    public Builder computedDate(OffsetDateTime computedDate) {
+      this.computedDate = computedDate;
+      return this;
+    }
+
+    public Builder userEmail(String userEmail) {
+      this.userEmail = userEmail;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDGcsObjectStats build() {
+      return new PDGcsObjectStats(this);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.GcsObjectStats;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.Map;
+
+/**
+ * External representation of the cached object counts and total sizes for a workspace's buckets,
+ * keyed by gs:// URL of the bucket or prefix, for writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link GcsObjectStats} class for how these are used.
+ */
+@JsonDeserialize(builder = PDGcsObjectStatsCache.Builder.class)
+public class PDGcsObjectStatsCache {
+  public final Map<String, PDGcsObjectStats> stats;
+
+  public PDGcsObjectStatsCache(Map<String, PDGcsObjectStats> stats) {
+    this.stats = stats;
+  }
+
+  private PDGcsObjectStatsCache(PDGcsObjectStatsCache.Builder builder) {
+    this.stats = builder.stats;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private Map<String, PDGcsObjectStats> stats;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder stats(Map<String, PDGcsObjectStats> stats) {
+      this.stats = stats;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDGcsObjectStatsCache build() {
+      return new PDGcsObjectStatsCache(this);
+    }
+  }
+}
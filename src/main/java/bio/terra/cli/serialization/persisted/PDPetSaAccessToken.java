@@ -0,0 +1,73 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.PetSaAccessTokenCache;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * External representation of a cached pet SA access token for writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link PetSaAccessTokenCache} class for how these are used.
+ */
+@JsonDeserialize(builder = PDPetSaAccessToken.Builder.class)
+public class PDPetSaAccessToken {
+  public final String userEmail;
+  public final String googleProjectId;
+  public final List<String> scopes;
+  public final String tokenValue;
+  public final Date expirationTime;
+
+  private PDPetSaAccessToken(Builder builder) {
+    this.userEmail = builder.userEmail;
+    this.googleProjectId = builder.googleProjectId;
+    this.scopes = builder.scopes;
+    this.tokenValue = builder.tokenValue;
+    this.expirationTime = builder.expirationTime;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String userEmail;
+    private String googleProjectId;
+    private List<String> scopes;
+    private String tokenValue;
+    private Date expirationTime;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder userEmail(String userEmail) {
+      this.userEmail = userEmail;
+      return this;
+    }
+
+    public Builder googleProjectId(String googleProjectId) {
+      this.googleProjectId = googleProjectId;
+      return this;
+    }
+
+    public Builder scopes(List<String> scopes) {
+      this.scopes = scopes;
+      return this;
+    }
+
+    public Builder tokenValue(String tokenValue) {
+      this.tokenValue = tokenValue;
+      return this;
+    }
+
+    public Builder expirationTime(Date expirationTime) {
+      this.expirationTime = expirationTime;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDPetSaAccessToken build() {
+      return new PDPetSaAccessToken(this);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.app.utils.ToolResolver;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+/**
+ * External representation of a tool executable found on the PATH, for writing to disk. The entry is
+ * only used while the executable is still the first match on the PATH and its modified time hasn't
+ * changed.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link ToolResolver} class for how these are used.
+ */
+@JsonDeserialize(builder = PDResolvedTool.Builder.class)
+public class PDResolvedTool {
+  // PATH entry the executable was found in
+  public final String pathEntry;
+  public final String absolutePath;
+  public final long lastModifiedMillis;
+  // first line of the tool's version output
+  public final String version;
+
+  public PDResolvedTool(
+      String pathEntry, String absolutePath, long lastModifiedMillis, String version) {
+    this.pathEntry = pathEntry;
+    this.absolutePath = absolutePath;
+    this.lastModifiedMillis = lastModifiedMillis;
+    this.version = version;
+  }
+
+  private PDResolvedTool(PDResolvedTool.Builder builder) {
+    this.pathEntry = builder.pathEntry;
+    this.absolutePath = builder.absolutePath;
+    this.lastModifiedMillis = builder.lastModifiedMillis;
+    this.version = builder.version;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String pathEntry;
+    private String absolutePath;
+    private long lastModifiedMillis;
+    private String version;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder pathEntry(String pathEntry) {
+      this.pathEntry = pathEntry;
+      return this;
+    }
+
+    public Builder absolutePath(String absolutePath) {
+      this.absolutePath = absolutePath;
+      return this;
+    }
+
+    public Builder lastModifiedMillis(long lastModifiedMillis) {
+      this.lastModifiedMillis = lastModifiedMillis;
+      return this;
+    }
+
+    public Builder version(String version) {
+      this.version = version;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDResolvedTool build() {
+      return new PDResolvedTool(this);
+    }
+  }
+}
@@ -0,0 +1,45 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.app.utils.ToolResolver;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.Map;
+
+/**
+ * External representation of the tool executables found on the PATH, by executable name, for
+ * writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link ToolResolver} class for how these are used.
+ */
+@JsonDeserialize(builder = PDResolvedTools.Builder.class)
+public class PDResolvedTools {
+  public final Map<String, PDResolvedTool> tools;
+
+  public PDResolvedTools(Map<String, PDResolvedTool> tools) {
+    this.tools = tools;
+  }
+
+  private PDResolvedTools(PDResolvedTools.Builder builder) {
+    this.tools = builder.tools;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private Map<String, PDResolvedTool> tools;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder tools(Map<String, PDResolvedTool> tools) {
+      this.tools = tools;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDResolvedTools build() {
+      return new PDResolvedTools(this);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package bio.terra.cli.serialization.persisted;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * External representation of the index of a workspace's cached resources, for writing to disk. Each
+ * resource is kept in its own file, named by the resource id. The index lists them in the order
+ * Workspace Manager returned them, so that looking up a resource by name or filtering by type only
+ * reads the files that match.
+ *
+ * <p>The index also records when the whole list was last fetched from Workspace Manager. Resources
+ * that this CLI creates, updates or deletes are patched in without changing that time.
+ *
+ * <p>The version is incremented each time the index is written, so that files derived from the
+ * cached resources (e.g. {@link PDToolEnvironment}) can tell whether they're out of date.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ */
+@JsonDeserialize(builder = PDResourceIndex.Builder.class)
+public class PDResourceIndex {
+  public final UUID workspaceUuid;
+  public final List<PDResourceIndexEntry> resources;
+  // null if the list was never fetched in full
+  public final OffsetDateTime lastSyncedDate;
+  // 0 for an index written by an older version of the CLI
+  public final long version;
+
+  public PDResourceIndex(
+      UUID workspaceUuid,
+      List<PDResourceIndexEntry> resources,
+      OffsetDateTime lastSyncedDate,
+      long version) {
+    this.workspaceUuid = workspaceUuid;
+    this.resources = resources;
+    this.lastSyncedDate = lastSyncedDate;
+    this.version = version;
+  }
+
+  private PDResourceIndex(PDResourceIndex.Builder builder) {
+    this.workspaceUuid = builder.workspaceUuid;
+    this.resources = builder.resources;
+    this.lastSyncedDate = builder.lastSyncedDate;
+    this.version = builder.version;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private UUID workspaceUuid;
+    private List<PDResourceIndexEntry> resources;
+    private OffsetDateTime lastSyncedDate;
+    private long version;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder workspaceUuid(UUID workspaceUuid) {
+      this.workspaceUuid = workspaceUuid;
+      return this;
+    }
+
+    public Builder resources(List<PDResourceIndexEntry> resources) {
+      this.resources = resources;
+      return this;
+    }
+
+    public Builder lastSyncedDate(OffsetDateTime lastSyncedDate) {
+      this.lastSyncedDate = lastSyncedDate;
+      return this;
+    }
+
+    public Builder version(long version) {
+      this.version = version;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDResourceIndex build() {
+      return new PDResourceIndex(this);
+    }
+  }
+}
@@ -0,0 +1,85 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.workspace.model.StewardshipType;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.util.UUID;
+
+/**
+ * External representation of one entry in the index of a workspace's cached resources, for writing
+ * to disk. It has just the properties needed to find a resource without reading its file, and a
+ * hash of the file's contents to tell whether it needs to be written again.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link PDResourceIndex} class for the whole index.
+ */
+@JsonDeserialize(builder = PDResourceIndexEntry.Builder.class)
+public class PDResourceIndexEntry {
+  public final UUID id;
+  public final String name;
+  public final Resource.Type resourceType;
+  public final StewardshipType stewardshipType;
+  // hash of the resource file contents
+  public final String contentHash;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDResourceIndexEntry(Resource internalObj, String contentHash) {
+    this.id = internalObj.getId();
+    this.name = internalObj.getName();
+    this.resourceType = internalObj.getResourceType();
+    this.stewardshipType = internalObj.getStewardshipType();
+    this.contentHash = contentHash;
+  }
+
+  private PDResourceIndexEntry(PDResourceIndexEntry.Builder builder) {
+    this.id = builder.id;
+    this.name = builder.name;
+    this.resourceType = builder.resourceType;
+    this.stewardshipType = builder.stewardshipType;
+    this.contentHash = builder.contentHash;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private UUID id;
+    private String name;
+    private Resource.Type resourceType;
+    private StewardshipType stewardshipType;
+    private String contentHash;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder id(UUID id) {
+      this.id = id;
+      return this;
+    }
+
+    public Builder name(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public Builder resourceType(Resource.Type resourceType) {
+      this.resourceType = resourceType;
+      return this;
+    }
+
+    public Builder stewardshipType(StewardshipType stewardshipType) {
+      this.stewardshipType = stewardshipType;
+      return this;
+    }
+
+    public Builder contentHash(String contentHash) {
+      this.contentHash = contentHash;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDResourceIndexEntry build() {
+      return new PDResourceIndexEntry(this);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceUsage;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+
+/**
+ * External representation of the storage used by a workspace resource, for writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link ResourceUsage} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDResourceUsage.Builder.class)
+public class PDResourceUsage {
+  public final String dataCollectionName;
+  public final String resourceName;
+  public final Resource.Type resourceType;
+  public final String cloudId;
+  public final Long numBytes;
+  public final Long numItems;
+  public final OffsetDateTime lastModified;
+  public final OffsetDateTime scannedDate;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDResourceUsage(ResourceUsage internalObj) {
+    this.dataCollectionName = internalObj.getDataCollectionName();
+    this.resourceName = internalObj.getResourceName();
+    this.resourceType = internalObj.getResourceType();
+    this.cloudId = internalObj.getCloudId();
+    this.numBytes = internalObj.getNumBytes();
+    this.numItems = internalObj.getNumItems();
+    this.lastModified = internalObj.getLastModified();
+    this.scannedDate = internalObj.getScannedDate();
+  }
+
+  private PDResourceUsage(PDResourceUsage.Builder builder) {
+    this.dataCollectionName = builder.dataCollectionName;
+    this.resourceName = builder.resourceName;
+    this.resourceType = builder.resourceType;
+    this.cloudId = builder.cloudId;
+    this.numBytes = builder.numBytes;
+    this.numItems = builder.numItems;
+    this.lastModified = builder.lastModified;
+    this.scannedDate = builder.scannedDate;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String dataCollectionName;
+    private String resourceName;
+    private Resource.Type resourceType;
+    private String cloudId;
+    private Long numBytes;
+    private Long numItems;
+    private OffsetDateTime lastModified;
+    private OffsetDateTime scannedDate;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder dataCollectionName(String dataCollectionName) {
+      this.dataCollectionName = dataCollectionName;
+      return this;
+    }
+
+    public Builder resourceName(String resourceName) {
+      this.resourceName = resourceName;
+      return this;
+    }
+
+    public Builder resourceType(Resource.Type resourceType) {
+      this.resourceType = resourceType;
+      return this;
+    }
+
+    public Builder cloudId(String cloudId) {
+      this.cloudId = cloudId;
+      return this;
+    }
+
+    public Builder numBytes(Long numBytes) {
+      this.numBytes = numBytes;
+      return this;
+    }
+
+    public Builder numItems(Long numItems) {
+      this.numItems = numItems;
+      return this;
+    }
+
+    public Builder lastModified(OffsetDateTime lastModified) {
+      this.lastModified = lastModified;
+      return this;
+    }
+
+    public Builder scannedDate(OffsetDateTime scannedDate) {
+      this.scannedDate = scannedDate;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDResourceUsage build() {
+      return new PDResourceUsage(this);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.ToolEnvironment;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * External representation of the environment variables passed to tool commands in a workspace, for
+ * writing to disk.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link ToolEnvironment} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDToolEnvironment.Builder.class)
+public class PDToolEnvironment {
+  // version of this file format. files with a different version are ignored
+  public final int formatVersion;
+  public final UUID workspaceUuid;
+  public final String serverName;
+  public final String userEmail;
+  // version of the resource cache that the environment variables were built from
+  public final long resourcesVersion;
+  public final Map<String, String> envVars;
+  // null if the environment variables don't include any data collections, which expire
+  public final OffsetDateTime expiresDate;
+  // application default credentials that were checked against the pet SA, null if not checked
+  public final String checkedAdcFingerprint;
+
+  /** Serialize an instance of the internal class to the disk format. */
+  public PDToolEnvironment(ToolEnvironment internalObj) {
+    this.formatVersion = ToolEnvironment.FORMAT_VERSION;
+    this.workspaceUuid = internalObj.getWorkspaceUuid();
+    this.serverName = internalObj.getServerName();
+    this.userEmail = internalObj.getUserEmail();
+    this.resourcesVersion = internalObj.getResourcesVersion();
+    this.envVars = internalObj.getEnvVars();
+    this.expiresDate = internalObj.getExpiresDate().orElse(null);
+    this.checkedAdcFingerprint = internalObj.getCheckedAdcFingerprint().orElse(null);
+  }
+
+  private PDToolEnvironment(PDToolEnvironment.Builder builder) {
+    this.formatVersion = builder.formatVersion;
+    this.workspaceUuid = builder.workspaceUuid;
+    this.serverName = builder.serverName;
+    this.userEmail = builder.userEmail;
+    this.resourcesVersion = builder.resourcesVersion;
+    this.envVars = builder.envVars;
+    this.expiresDate = builder.expiresDate;
+    this.checkedAdcFingerprint = builder.checkedAdcFingerprint;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private int formatVersion;
+    private UUID workspaceUuid;
+    private String serverName;
+    private String userEmail;
+    private long resourcesVersion;
+    private Map<String, String> envVars;
+    private OffsetDateTime expiresDate;
+    private String checkedAdcFingerprint;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder formatVersion(int formatVersion) {
+      this.formatVersion = formatVersion;
+      return this;
+    }
+
+    public Builder workspaceUuid(UUID workspaceUuid) {
+      this.workspaceUuid = workspaceUuid;
+      return this;
+    }
+
+    public Builder serverName(String serverName) {
+      this.serverName = serverName;
+      return this;
+    }
+
+    public Builder userEmail(String userEmail) {
+      this.userEmail = userEmail;
+      return this;
+    }
+
+    public Builder resourcesVersion(long resourcesVersion) {
+      this.resourcesVersion = resourcesVersion;
+      return this;
+    }
+
+    public Builder envVars(Map<String, String> envVars) {
+      this.envVars = envVars;
+      return this;
+    }
+
+    public Builder expiresDate(OffsetDateTime expiresDate) {
+      this.expiresDate = expiresDate;
+      return this;
+    }
+
+    public Builder checkedAdcFingerprint(String checkedAdcFingerprint) {
+      this.checkedAdcFingerprint = checkedAdcFingerprint;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDToolEnvironment build() {
+      return new PDToolEnvironment(this);
+    }
+  }
+}
@@ -1,20 +1,21 @@
 package bio.terra.cli.serialization.persisted;
 
-import bio.terra.cli.businessobject.Resource;
 import bio.terra.cli.businessobject.Workspace;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * External representation of a workspace for writing to disk.
  *
  * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
  *
+ * <p>The cached list of resources is written to separate files (see {@link PDResourceIndex}).
+ *
  * <p>See the {@link Workspace} class for a workspace's internal representation.
  */
 @JsonDeserialize(builder = PDWorkspace.Builder.class)
@@ -27,7 +28,11 @@ public class PDWorkspace {
   public final Map<String, String> properties;
   public final String serverName;
   public final String userEmail;
+  // only set when reading a context file written by an older version of the CLI, which kept the
+  // resources inline
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   public final List<PDResource> resources;
+
   public final OffsetDateTime createdDate;
   public final OffsetDateTime lastUpdatedDate;
 
@@ -41,10 +46,7 @@ public class PDWorkspace {
     this.properties = internalObj.getProperties();
     this.serverName = internalObj.getServerName();
     this.userEmail = internalObj.getUserEmail();
-    this.resources =
-        internalObj.getResources().stream()
-            .map(Resource::serializeToDisk)
-            .collect(Collectors.toList());
+    this.resources = null;
     this.createdDate = internalObj.getCreatedDate();
     this.lastUpdatedDate = internalObj.getLastUpdatedDate();
   }
@@ -0,0 +1,66 @@
+package bio.terra.cli.serialization.persisted;
+
+import bio.terra.cli.businessobject.WorkspaceUsage;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * External representation of the last workspace usage report, for writing to disk. Only the
+ * resources that were scanned without an error are included.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is not user-facing.
+ *
+ * <p>See the {@link WorkspaceUsage} class for the internal representation.
+ */
+@JsonDeserialize(builder = PDWorkspaceUsage.Builder.class)
+public class PDWorkspaceUsage {
+  public final List<PDResourceUsage> resources;
+  public final OffsetDateTime computedDate;
+  // user whose pet SA scanned the resources
+  public final String userEmail;
+
+  public PDWorkspaceUsage(
+      List<PDResourceUsage> resources, OffsetDateTime computedDate, String userEmail) {
+    this.resources = resources;
+    this.computedDate = computedDate;
+    this.userEmail = userEmail;
+  }
+
+  private PDWorkspaceUsage(PDWorkspaceUsage.Builder builder) {
+    this.resources = builder.resources;
+    this.computedDate = builder.computedDate;
+    this.userEmail = builder.userEmail;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private List<PDResourceUsage> resources;
+    private OffsetDateTime computedDate;
+    private String userEmail;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder resources(List<PDResourceUsage> resources) {
+      this.resources = resources;
+      return this;
+    }
+
+    public Builder computedDate(OffsetDateTime computedDate) {
+      this.computedDate = computedDate;
+      return this;
+    }
+
+    public Builder userEmail(String userEmail) {
+      this.userEmail = userEmail;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public PDWorkspaceUsage build() {
+      return new PDWorkspaceUsage(this);
+    }
+  }
+}
@@ -25,6 +25,8 @@ public class UFConfig {
   public final Config.CommandRunnerOption commandRunnerOption;
   public final String dockerImageId;
   public final int resourcesCacheSize;
+  public final int dataCollectionCacheTtlMinutes;
+  public final int dockerReuseIdleMinutes;
   public final Logger.LogLevel fileLoggingLevel;
   public final Logger.LogLevel consoleLoggingLevel;
   public final String serverName;
@@ -39,6 +41,8 @@ public class UFConfig {
     this.commandRunnerOption = internalConfig.getCommandRunnerOption();
     this.dockerImageId = internalConfig.getDockerImageId();
     this.resourcesCacheSize = internalConfig.getResourcesCacheSize();
+    this.dataCollectionCacheTtlMinutes = internalConfig.getDataCollectionCacheTtlMinutes();
+    this.dockerReuseIdleMinutes = internalConfig.getDockerReuseIdleMinutes();
     this.fileLoggingLevel = internalConfig.getFileLoggingLevel();
     this.consoleLoggingLevel = internalConfig.getConsoleLoggingLevel();
     this.serverName = internalServer.getName();
@@ -52,6 +56,8 @@ public class UFConfig {
     this.commandRunnerOption = builder.commandRunnerOption;
     this.dockerImageId = builder.dockerImageId;
     this.resourcesCacheSize = builder.resourcesCacheSize;
+    this.dataCollectionCacheTtlMinutes = builder.dataCollectionCacheTtlMinutes;
+    this.dockerReuseIdleMinutes = builder.dockerReuseIdleMinutes;
     this.fileLoggingLevel = builder.fileLoggingLevel;
     this.consoleLoggingLevel = builder.consoleLoggingLevel;
     this.serverName = builder.serverName;
@@ -66,7 +72,14 @@ public class UFConfig {
     OUT.println("[browser] browser launch for login = " + browserLaunchOption);
     OUT.println("[image] docker image id = " + dockerImageId);
     OUT.println(
-        "[resource-limit] max number of resources to allow per workspace = " + resourcesCacheSize);
+        "[resource-limit] max number of resources to keep in memory per workspace = "
+            + resourcesCacheSize);
+    OUT.println(
+        "[data-collection-ttl] minutes to use a cached data collection before checking for changes = "
+            + dataCollectionCacheTtlMinutes);
+    OUT.println(
+        "[docker-reuse] minutes to keep an idle docker container for the next command (0 = off) = "
+            + dockerReuseIdleMinutes);
     OUT.println();
     OUT.println(
         "[logging, console] logging level for printing directly to the terminal = "
@@ -88,6 +101,8 @@ public class UFConfig {
     private Config.CommandRunnerOption commandRunnerOption;
     private String dockerImageId;
     private int resourcesCacheSize;
+    private int dataCollectionCacheTtlMinutes;
+    private int dockerReuseIdleMinutes;
     private Logger.LogLevel fileLoggingLevel;
     private Logger.LogLevel consoleLoggingLevel;
     private String serverName;
@@ -118,6 +133,16 @@ public class UFConfig {
       return this;
     }
 
+    public Builder dataCollectionCacheTtlMinutes(int dataCollectionCacheTtlMinutes) {
+      this.dataCollectionCacheTtlMinutes = dataCollectionCacheTtlMinutes;
+      return this;
+    }
+
+    public Builder dockerReuseIdleMinutes(int dockerReuseIdleMinutes) {
+      this.dockerReuseIdleMinutes = dockerReuseIdleMinutes;
+      return this;
+    }
+
     public Builder fileLoggingLevel(Logger.LogLevel fileLoggingLevel) {
       this.fileLoggingLevel = fileLoggingLevel;
       return this;
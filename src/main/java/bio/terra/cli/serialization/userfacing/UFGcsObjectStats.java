@@ -0,0 +1,134 @@
+package bio.terra.cli.serialization.userfacing;
+
+import bio.terra.cli.businessobject.GcsObjectStats;
+import bio.terra.cli.utils.UserIO;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.io.PrintStream;
+import java.time.OffsetDateTime;
+import javax.annotation.Nullable;
+
+/**
+ * External representation of the object count and total size of a bucket or prefix for command
+ * input/output.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is user-facing.
+ *
+ * <p>See the {@link GcsObjectStats} class for the internal representation.
+ */
+@JsonDeserialize(builder = UFGcsObjectStats.Builder.class)
+public class UFGcsObjectStats {
+  public final String bucketName;
+  public final String prefix;
+  public final long numObjects;
+  public final long totalBytes;
+  // latest update time of any of the objects, null if there are none
+  public final @Nullable OffsetDateTime lastUpdated;
+  // false if the listing was cut off, in which case the numbers are lower bounds
+  public final boolean complete;
+  public final OffsetDateTime computedDate;
+  // true if the stats were cached by an earlier command, in which case they may be out of date
+  public final boolean fromCache;
+
+  /** Serialize an instance of the internal class to the command format. */
+  public UFGcsObjectStats(GcsObjectStats internalObj) {
+    this.bucketName = internalObj.getBucketName();
+    this.prefix = internalObj.getPrefix();
+    this.numObjects = internalObj.getNumObjects();
+    this.totalBytes = internalObj.getTotalBytes();
+    this.lastUpdated = internalObj.getLastUpdated();
+    this.complete = internalObj.isComplete();
+    this.computedDate = internalObj.getComputedDate();
+    this.fromCache = internalObj.isFromCache();
+  }
+
+  /** Constructor for Jackson deserialization during testing. */
+  private UFGcsObjectStats(Builder builder) {
+    this.bucketName = builder.bucketName;
+    this.prefix = builder.prefix;
+    this.numObjects = builder.numObjects;
+    this.totalBytes = builder.totalBytes;
+    this.lastUpdated = builder.lastUpdated;
+    this.complete = builder.complete;
+    this.computedDate = builder.computedDate;
+    this.fromCache = builder.fromCache;
+  }
+
+  /** Print out this object in text format. */
+  public void print() {
+    PrintStream OUT = UserIO.getOut();
+    String atLeast = complete ? "" : "at least ";
+    OUT.println("GCS bucket name: " + bucketName);
+    OUT.println("Prefix:          " + (prefix.isEmpty() ? "(whole bucket)" : prefix));
+    OUT.println("# Objects:       " + atLeast + String.format("%,d", numObjects));
+    OUT.println("Total size:      " + atLeast + String.format("%,d bytes", totalBytes));
+    OUT.println("Last updated:    " + (lastUpdated == null ? "(no objects)" : lastUpdated));
+    OUT.println(
+        "Computed:        "
+            + computedDate
+            + (fromCache ? " (cached, use --refresh to count again)" : ""));
+    if (!complete) {
+      OUT.println("The listing was stopped at --max-duration, so these are lower bounds.");
+    }
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private String bucketName;
+    private String prefix;
+    private long numObjects;
+    private long totalBytes;
+    private OffsetDateTime lastUpdated;
+    private boolean complete;
+    private OffsetDateTime computedDate;
+    private boolean fromCache;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder bucketName(String bucketName) {
+      this.bucketName = bucketName;
+      return this;
+    }
+
+    public Builder prefix(String prefix) {
+      this.prefix = prefix;
+      return this;
+    }
+
+    public Builder numObjects(long numObjects) {
+      this.numObjects = numObjects;
+      return this;
+    }
+
+    public Builder totalBytes(long totalBytes) {
+      this.totalBytes = totalBytes;
+      return this;
+    }
+
+    public Builder lastUpdated(OffsetDateTime lastUpdated) {
+      this.lastUpdated = lastUpdated;
+      return this;
+    }
+
+    public Builder complete(boolean complete) {
+      this.complete = complete;
+      return this;
+    }
+
+    public Builder computedDate(OffsetDateTime computedDate) {
+      this.computedDate = computedDate;
+      return this;
+    }
+
+    public Builder fromCache(boolean fromCache) {
+      this.fromCache = fromCache;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public UFGcsObjectStats build() {
+      return new UFGcsObjectStats(this);
+    }
+  }
+}
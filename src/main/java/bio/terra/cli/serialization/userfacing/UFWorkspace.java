@@ -24,7 +24,7 @@ public class UFWorkspace extends UFWorkspaceLight {
    */
   public UFWorkspace(Workspace internalObj) {
     super(internalObj);
-    this.numResources = internalObj.getResources().size();
+    this.numResources = internalObj.getNumResources();
   }
 
   /** Constructor for Jackson deserialization during testing. */
@@ -0,0 +1,105 @@
+package bio.terra.cli.serialization.userfacing;
+
+import bio.terra.cli.businessobject.ResourceUsage;
+import bio.terra.cli.businessobject.WorkspaceUsage;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * External representation of a workspace usage report for command input/output.
+ *
+ * <p>This is a POJO class intended for serialization. This JSON format is user-facing.
+ *
+ * <p>See the {@link WorkspaceUsage} class for the internal representation.
+ */
+@JsonDeserialize(builder = UFWorkspaceUsage.Builder.class)
+public class UFWorkspaceUsage {
+  // sorted by size, largest first
+  public final List<UFResourceUsage> resources;
+  // sum over the resources that were scanned without an error
+  public final long totalBytes;
+  public final int numScanned;
+  public final int numFromLastSnapshot;
+  public final int numFailed;
+  public final OffsetDateTime computedDate;
+
+  /** Serialize an instance of the internal class to the command format. */
+  public UFWorkspaceUsage(WorkspaceUsage internalObj) {
+    List<ResourceUsage> internalResources = internalObj.getResources();
+    this.resources =
+        internalResources.stream()
+            .map(ResourceUsage::serializeToCommand)
+            .collect(Collectors.toList());
+    this.totalBytes =
+        internalResources.stream()
+            .filter(ResourceUsage::isScanned)
+            .mapToLong(ResourceUsage::getNumBytes)
+            .sum();
+    this.numFailed = (int) internalResources.stream().filter(r -> !r.isScanned()).count();
+    this.numFromLastSnapshot =
+        (int) internalResources.stream().filter(ResourceUsage::isFromLastSnapshot).count();
+    this.numScanned = internalResources.size() - numFailed - numFromLastSnapshot;
+    this.computedDate = internalObj.getComputedDate();
+  }
+
+  /** Constructor for Jackson deserialization during testing. */
+  private UFWorkspaceUsage(Builder builder) {
+    this.resources = builder.resources;
+    this.totalBytes = builder.totalBytes;
+    this.numScanned = builder.numScanned;
+    this.numFromLastSnapshot = builder.numFromLastSnapshot;
+    this.numFailed = builder.numFailed;
+    this.computedDate = builder.computedDate;
+  }
+
+  @JsonPOJOBuilder(buildMethodName = "build", withPrefix = "")
+  public static class Builder {
+    private List<UFResourceUsage> resources;
+    private long totalBytes;
+    private int numScanned;
+    private int numFromLastSnapshot;
+    private int numFailed;
+    private OffsetDateTime computedDate;
+
+    /** Default constructor for Jackson. */
+    public Builder() {}
+
+    public Builder resources(List<UFResourceUsage> resources) {
+      this.resources = resources;
+      return this;
+    }
+
+    public Builder totalBytes(long totalBytes) {
+      this.totalBytes = totalBytes;
+      return this;
+    }
+
+    public Builder numScanned(int numScanned) {
+      this.numScanned = numScanned;
+      return this;
+    }
+
+    public Builder numFromLastSnapshot(int numFromLastSnapshot) {
+      this.numFromLastSnapshot = numFromLastSnapshot;
+      return this;
+    }
+
+    public Builder numFailed(int numFailed) {
+      this.numFailed = numFailed;
+      return this;
+    }
+
+    public Builder computedDate(OffsetDateTime computedDate) {
+      this.computedDate = computedDate;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public UFWorkspaceUsage build() {
+      return new UFWorkspaceUsage(this);
+    }
+  }
+}
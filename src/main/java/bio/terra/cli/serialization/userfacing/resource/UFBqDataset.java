@@ -1,12 +1,12 @@
 package bio.terra.cli.serialization.userfacing.resource;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
+import bio.terra.cli.businessobject.ResourceEnrichment.BqDatasetMetadata;
 import bio.terra.cli.businessobject.resource.BqDataset;
 import bio.terra.cli.serialization.userfacing.UFResource;
-import bio.terra.cli.service.GoogleBigQuery;
 import bio.terra.cli.utils.UserIO;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
-import com.google.api.services.bigquery.model.Dataset;
 import java.io.PrintStream;
 import java.util.Optional;
 
@@ -25,15 +25,14 @@ public class UFBqDataset extends UFResource {
   public final Integer numTables;
 
   /** Serialize an instance of the internal class to the command format. */
-  public UFBqDataset(BqDataset internalObj) {
+  public UFBqDataset(BqDataset internalObj, ResourceEnrichment enrichment) {
     super(internalObj);
     this.projectId = internalObj.getProjectId();
     this.datasetId = internalObj.getDatasetId();
 
-    GoogleBigQuery bigQuery = GoogleBigQuery.fromContextForPetSa();
-    Optional<Dataset> dataset = bigQuery.getDataset(projectId, datasetId);
-    this.location = dataset.map(Dataset::getLocation).orElse(null);
-    this.numTables = bigQuery.getNumTables(projectId, datasetId).orElse(null);
+    Optional<BqDatasetMetadata> metadata = enrichment.get(internalObj, BqDatasetMetadata.class);
+    this.location = metadata.map(m -> m.location).orElse(null);
+    this.numTables = metadata.map(m -> m.numTables).orElse(null);
   }
 
   /** Constructor for Jackson deserialization during testing. */
@@ -1,8 +1,8 @@
 package bio.terra.cli.serialization.userfacing.resource;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.businessobject.resource.BqTable;
 import bio.terra.cli.serialization.userfacing.UFResource;
-import bio.terra.cli.service.GoogleBigQuery;
 import bio.terra.cli.utils.UserIO;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
@@ -28,14 +28,13 @@ public class UFBqTable extends UFResource {
   public final BigInteger numRows;
 
   /** Serialize an instance of the internal class to the command format. */
-  public UFBqTable(BqTable internalObj) {
+  public UFBqTable(BqTable internalObj, ResourceEnrichment enrichment) {
     super(internalObj);
     this.projectId = internalObj.getProjectId();
     this.datasetId = internalObj.getDatasetId();
     this.dataTableId = internalObj.getDataTableId();
 
-    GoogleBigQuery bigQuery = GoogleBigQuery.fromContextForPetSa();
-    Optional<Table> dataTableOptional = bigQuery.getDataTable(projectId, datasetId, dataTableId);
+    Optional<Table> dataTableOptional = enrichment.get(internalObj, Table.class);
     tableDescription = dataTableOptional.map(Table::getDescription).orElse(null);
     numRows = dataTableOptional.map(Table::getNumRows).orElse(null);
   }
@@ -1,10 +1,10 @@
 package bio.terra.cli.serialization.userfacing.resource;
 
 import bio.terra.cli.app.utils.tables.ColumnDefinition;
-import bio.terra.cli.app.utils.tables.TablePrinter;
-import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.businessobject.Workspace;
 import bio.terra.cli.businessobject.resource.DataCollection;
+import bio.terra.cli.command.shared.options.TableFormat;
 import bio.terra.cli.serialization.userfacing.UFResource;
 import bio.terra.cli.utils.UserIO;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -40,8 +40,11 @@ public class UFDataCollection extends UFResource {
   public final @Nullable OffsetDateTime createdDate;
   public final @Nullable OffsetDateTime lastUpdatedDate;
 
-  /** Serialize an instance of the internal class to the command format. */
-  public UFDataCollection(DataCollection internalObj) {
+  /**
+   * Serialize an instance of the internal class to the command format, with the cloud metadata for
+   * the resources in the data collection taken from the given enrichment.
+   */
+  public UFDataCollection(DataCollection internalObj, ResourceEnrichment enrichment) {
     super(internalObj);
     this.dataCollectionWorkspaceUuid = internalObj.getDataCollectionWorkspaceUuid();
 
@@ -51,7 +54,7 @@ public class UFDataCollection extends UFResource {
     this.version = workspace.getProperty(DataCollection.VERSION_KEY).orElse("");
     this.resources =
         workspace.getResources().stream()
-            .map(Resource::serializeToCommand)
+            .map(resource -> resource.serializeToCommand(enrichment))
             .collect(Collectors.toList());
     this.createdDate = workspace.getCreatedDate();
     this.lastUpdatedDate = workspace.getLastUpdatedDate();
@@ -85,8 +88,7 @@ public class UFDataCollection extends UFResource {
     printDate(prefix, "Last updated", lastUpdatedDate);
 
     OUT.println(prefix + "Resources:");
-    TablePrinter<UFResource> printer = UFResourceColumns::values;
-    OUT.println(printer.print(resources));
+    TableFormat.printTextTable(resources, UFResourceColumns::values);
   }
 
   private void printDate(String prefix, String dateLabel, @Nullable OffsetDateTime dateTime) {
@@ -1,5 +1,6 @@
 package bio.terra.cli.serialization.userfacing.resource;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
 import bio.terra.cli.businessobject.resource.GcpNotebook;
 import bio.terra.cli.serialization.userfacing.UFResource;
 import bio.terra.cli.utils.UserIO;
@@ -29,13 +30,13 @@ public class UFGcpNotebook extends UFResource {
   public final String createTime;
 
   /** Serialize an instance of the internal class to the command format. */
-  public UFGcpNotebook(GcpNotebook internalObj) {
+  public UFGcpNotebook(GcpNotebook internalObj, ResourceEnrichment enrichment) {
     super(internalObj);
     this.projectId = internalObj.getProjectId();
     this.instanceId = internalObj.getInstanceId();
     this.location = internalObj.getLocation();
 
-    Optional<Instance> instance = internalObj.getInstance();
+    Optional<Instance> instance = enrichment.get(internalObj, Instance.class);
     this.instanceName = instance.map(Instance::getName).orElse(null);
     this.state = instance.map(Instance::getState).orElse(null);
     this.metadata = instance.map(Instance::getMetadata).orElse(null);
@@ -1,10 +1,10 @@
 package bio.terra.cli.serialization.userfacing.resource;
 
+import bio.terra.cli.businessobject.ResourceEnrichment;
+import bio.terra.cli.businessobject.ResourceEnrichment.GcsBucketMetadata;
 import bio.terra.cli.businessobject.resource.GcsBucket;
 import bio.terra.cli.serialization.userfacing.UFResource;
-import bio.terra.cli.service.GoogleCloudStorage;
 import bio.terra.cli.utils.UserIO;
-import bio.terra.cloudres.google.storage.BucketCow;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import java.io.PrintStream;
@@ -21,23 +21,19 @@ import java.util.Optional;
 public class UFGcsBucket extends UFResource {
   // the maximum number of objects to iterate through in the bucket.
   // if there are more, we just add a "+" at the end for display
-  private static final long MAX_NUM_OBJECTS = 100;
+  public static final long MAX_NUM_OBJECTS = 100;
   public final String bucketName;
   public final String location;
   public final Integer numObjects;
 
   /** Serialize an instance of the internal class to the command format. */
-  public UFGcsBucket(GcsBucket internalObj) {
+  public UFGcsBucket(GcsBucket internalObj, ResourceEnrichment enrichment) {
     super(internalObj);
     this.bucketName = internalObj.getBucketName();
 
-    GoogleCloudStorage storage = GoogleCloudStorage.fromContextForPetSa();
-    Optional<BucketCow> bucket = storage.getBucket(bucketName);
-    this.location = bucket.map((bucketCow) -> bucketCow.getBucketInfo().getLocation()).orElse(null);
-    this.numObjects =
-        bucket
-            .map((bucketCow) -> storage.getNumObjects(bucket.get(), MAX_NUM_OBJECTS + 1))
-            .orElse(null);
+    Optional<GcsBucketMetadata> metadata = enrichment.get(internalObj, GcsBucketMetadata.class);
+    this.location = metadata.map(m -> m.location).orElse(null);
+    this.numObjects = metadata.map(m -> m.numObjects).orElse(null);
   }
 
   /** Constructor for Jackson deserialization during testing. */
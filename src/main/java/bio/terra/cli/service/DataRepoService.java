@@ -1,13 +1,15 @@
 package bio.terra.cli.service;
 
 import bio.terra.cli.businessobject.Server;
-import bio.terra.cli.businessobject.User;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.service.utils.HttpTransport;
+import bio.terra.cli.service.utils.ServiceCache;
 import bio.terra.datarepo.api.UnauthenticatedApi;
 import bio.terra.datarepo.client.ApiClient;
 import bio.terra.datarepo.client.ApiException;
 import bio.terra.datarepo.model.RepositoryConfigurationModel;
 import bio.terra.datarepo.model.RepositoryStatusModel;
+import com.google.auth.oauth2.AccessToken;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,15 +22,16 @@ public class DataRepoService {
   private final ApiClient apiClient;
 
   /**
-   * Constructor for class that talks to TDR. If the user is null, only unauthenticated endpoints
-   * can be called.
+   * Constructor for class that talks to TDR. If the access token is null, only unauthenticated
+   * endpoints can be called.
    */
-  private DataRepoService(@Nullable User user, Server server) {
+  private DataRepoService(@Nullable AccessToken accessToken, Server server) {
     this.apiClient = new ApiClient();
+    this.apiClient.setHttpClient(HttpTransport.buildJerseyClient(apiClient.getHttpClient()));
 
     this.apiClient.setBasePath(server.getDataRepoUri());
-    if (user != null) {
-      this.apiClient.setAccessToken(user.getTerraToken().getTokenValue());
+    if (accessToken != null) {
+      this.apiClient.setAccessToken(accessToken.getTokenValue());
     }
   }
 
@@ -37,7 +40,7 @@ public class DataRepoService {
    * unauthenticated endpoints can be called.
    */
   public static DataRepoService unauthenticated(Server server) {
-    return new DataRepoService(null, server);
+    return ServiceCache.get(DataRepoService.class, null, server, DataRepoService::new);
   }
 
   /**
@@ -3,7 +3,9 @@ package bio.terra.cli.service;
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.businessobject.Server;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.service.utils.HttpTransport;
 import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.ServiceCache;
 import bio.terra.externalcreds.api.SshKeyPairApi;
 import bio.terra.externalcreds.client.ApiClient;
 import bio.terra.externalcreds.model.SshKeyPair;
@@ -28,8 +30,9 @@ public class ExternalCredentialsManagerService {
   private final ApiClient apiClient;
 
   private ExternalCredentialsManagerService(@Nullable AccessToken accessToken, Server server) {
-    this.apiClient =
-        new ApiClient(new RestTemplate(List.of(new MappingJackson2HttpMessageConverter())));
+    RestTemplate restTemplate = new RestTemplate(HttpTransport.getRestTemplateRequestFactory());
+    restTemplate.setMessageConverters(List.of(new MappingJackson2HttpMessageConverter()));
+    this.apiClient = new ApiClient(restTemplate);
 
     this.apiClient.setBasePath(server.getExternalCredsUri());
     if (accessToken != null) {
@@ -40,8 +43,11 @@ public class ExternalCredentialsManagerService {
   }
 
   public static ExternalCredentialsManagerService fromContext() {
-    return new ExternalCredentialsManagerService(
-        Context.requireUser().getTerraToken(), Context.getServer());
+    return ServiceCache.get(
+        ExternalCredentialsManagerService.class,
+        Context.requireUser().getTerraToken(),
+        Context.getServer(),
+        ExternalCredentialsManagerService::new);
   }
 
   /**
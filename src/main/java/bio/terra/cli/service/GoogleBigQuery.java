@@ -2,8 +2,10 @@ package bio.terra.cli.service;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.service.utils.BackoffRetryPolicy;
 import bio.terra.cli.service.utils.CrlUtils;
 import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.RetryPolicy;
 import bio.terra.cloudres.google.bigquery.BigQueryCow;
 import com.google.api.client.googleapis.json.GoogleJsonResponseException;
 import com.google.api.services.bigquery.model.Dataset;
@@ -12,6 +14,9 @@ import com.google.api.services.bigquery.model.TableList;
 import com.google.auth.oauth2.GoogleCredentials;
 import java.io.IOException;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
@@ -22,6 +27,12 @@ public class GoogleBigQuery {
   // default value for the maximum number of times to retry HTTP requests to BQ
   public static final int BQ_MAXIMUM_RETRIES = 5;
   private static final Logger logger = LoggerFactory.getLogger(GoogleBigQuery.class);
+  // wait at least this long before retrying a forbidden error, so that the retries still span the
+  // few seconds it can take for a new IAM grant to propagate
+  private static final Duration FORBIDDEN_RETRY_MIN_DELAY = Duration.ofSeconds(1);
+  // exponential backoff, waiting longer if BQ asks us to
+  private static final RetryPolicy BQ_RETRY_POLICY =
+      BackoffRetryPolicy.forRetries(BQ_MAXIMUM_RETRIES, GoogleBigQuery::getRetryAfter);
   private final BigQueryCow bigQuery;
 
   private GoogleBigQuery(GoogleCredentials credentials) {
@@ -58,12 +69,29 @@ public class GoogleBigQuery {
         || statusCode == HttpStatus.SC_BAD_GATEWAY
         || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
         || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT
+        || statusCode == HttpUtils.STATUS_CODE_TOO_MANY_REQUESTS
 
         // retry forbidden errors because we often see propagation delays when a user is just
         // granted access
         || statusCode == HttpStatus.SC_FORBIDDEN;
   }
 
+  /**
+   * Get the delay requested by BQ in the Retry-After header of a throttled response, or the minimum
+   * delay before retrying a forbidden error, which may be IAM propagation.
+   */
+  private static Optional<Duration> getRetryAfter(Exception ex) {
+    if (!(ex instanceof GoogleJsonResponseException)) {
+      return Optional.empty();
+    }
+    GoogleJsonResponseException jsonEx = (GoogleJsonResponseException) ex;
+    if (jsonEx.getStatusCode() == HttpStatus.SC_FORBIDDEN) {
+      return Optional.of(FORBIDDEN_RETRY_MIN_DELAY);
+    }
+    return HttpUtils.getRetryAfter(
+        jsonEx.getStatusCode(), jsonEx.getHeaders().getFirstHeaderStringValue("Retry-After"));
+  }
+
   public Optional<Dataset> getDataset(String projectId, String datasetId) {
     try {
       Dataset dataset =
@@ -105,6 +133,33 @@ public class GoogleBigQuery {
     }
   }
 
+  /**
+   * List the ids of all the tables in a dataset, following the pages of the list.
+   *
+   * @throws SystemException if there was an error listing the tables
+   */
+  public List<String> listTableIds(String projectId, String datasetId) {
+    List<String> tableIds = new ArrayList<>();
+    String pageToken = null;
+    do {
+      final String currentPageToken = pageToken;
+      TableList tables =
+          callWithRetries(
+              () ->
+                  bigQuery
+                      .tables()
+                      .list(projectId, datasetId)
+                      .setPageToken(currentPageToken)
+                      .execute(),
+              "Error listing dataset tables.");
+      if (tables.getTables() != null) {
+        tables.getTables().forEach(table -> tableIds.add(table.getTableReference().getTableId()));
+      }
+      pageToken = tables.getNextPageToken();
+    } while (pageToken != null);
+    return tableIds;
+  }
+
   /**
    * Execute a function that includes hitting BQ endpoints. Retry if the function throws an {@link
    * #isRetryable} exception. If an exception is thrown by the BQ client or the retries, make sure
@@ -117,12 +172,7 @@ public class GoogleBigQuery {
   private <T> T callWithRetries(
       HttpUtils.SupplierWithCheckedException<T, IOException> makeRequest, String errorMsg) {
     return handleClientExceptions(
-        () ->
-            HttpUtils.callWithRetries(
-                makeRequest,
-                GoogleBigQuery::isRetryable,
-                BQ_MAXIMUM_RETRIES,
-                HttpUtils.DEFAULT_DURATION_SLEEP_FOR_RETRY),
+        () -> HttpUtils.callWithRetries(makeRequest, GoogleBigQuery::isRetryable, BQ_RETRY_POLICY),
         errorMsg);
   }
 
@@ -2,8 +2,10 @@ package bio.terra.cli.service;
 
 import bio.terra.cli.businessobject.Context;
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.service.utils.BackoffRetryPolicy;
 import bio.terra.cli.service.utils.CrlUtils;
 import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.RetryPolicy;
 import bio.terra.cloudres.google.storage.BlobCow;
 import bio.terra.cloudres.google.storage.BucketCow;
 import bio.terra.cloudres.google.storage.StorageCow;
@@ -13,8 +15,12 @@ import com.google.cloud.storage.BlobId;
 import com.google.cloud.storage.Storage;
 import com.google.cloud.storage.StorageException;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import javax.annotation.Nullable;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +30,15 @@ public class GoogleCloudStorage {
   // default value for the maximum number of times to retry HTTP requests to GCS
   public static final int GCS_MAXIMUM_RETRIES = 5;
   private static final Logger logger = LoggerFactory.getLogger(GoogleCloudStorage.class);
+  // wait at least this long before retrying a forbidden error, so that the retries still span the
+  // few seconds it can take for a new IAM grant to propagate
+  private static final Duration FORBIDDEN_RETRY_MIN_DELAY = Duration.ofSeconds(1);
+  // exponential backoff. StorageException doesn't include the response headers, so there's no
+  // Retry-After to honor
+  private static final RetryPolicy GCS_RETRY_POLICY =
+      BackoffRetryPolicy.forRetries(GCS_MAXIMUM_RETRIES, GoogleCloudStorage::getMinimumDelay);
+  // maximum number of objects that GCS returns in one page of a list
+  private static final int LIST_OBJECTS_PAGE_SIZE = 1000;
   private final StorageCow storage;
 
   private GoogleCloudStorage(GoogleCredentials credentials) {
@@ -60,12 +75,21 @@ public class GoogleCloudStorage {
         || statusCode == HttpStatus.SC_BAD_GATEWAY
         || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
         || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT
+        || statusCode == HttpUtils.STATUS_CODE_TOO_MANY_REQUESTS
 
         // retry forbidden errors because we often see propagation delays when a user is just
         // granted access
         || statusCode == HttpStatus.SC_FORBIDDEN;
   }
 
+  /** Get the minimum delay before retrying a forbidden error, which may be IAM propagation. */
+  private static Optional<Duration> getMinimumDelay(Exception ex) {
+    return ex instanceof StorageException
+            && ((StorageException) ex).getCode() == HttpStatus.SC_FORBIDDEN
+        ? Optional.of(FORBIDDEN_RETRY_MIN_DELAY)
+        : Optional.empty();
+  }
+
   public Optional<BucketCow> getBucket(String bucketName) {
     try {
       BucketCow bucketCow =
@@ -109,6 +133,40 @@ public class GoogleCloudStorage {
     }
   }
 
+  /**
+   * List the first page of objects in a bucket whose names start with a prefix.
+   *
+   * @param bucket bucket to list
+   * @param prefix only list objects whose names start with this, empty to list the whole bucket
+   * @param currentDirectoryOnly if true, objects with a "/" after the prefix are not returned one
+   *     by one. instead, there is one directory entry for each distinct sub-prefix up to the next
+   *     "/" (e.g. prefix "a/" returns "a/b/" for objects "a/b/c" and "a/b/d")
+   * @return the first page of objects
+   */
+  public Page<BlobCow> listObjects(BucketCow bucket, String prefix, boolean currentDirectoryOnly) {
+    List<Storage.BlobListOption> options = new ArrayList<>();
+    options.add(Storage.BlobListOption.pageSize(LIST_OBJECTS_PAGE_SIZE));
+    options.add(Storage.BlobListOption.prefix(prefix));
+    if (currentDirectoryOnly) {
+      options.add(Storage.BlobListOption.currentDirectory());
+    }
+    return callWithRetries(
+        () -> bucket.list(options.toArray(new Storage.BlobListOption[0])),
+        "Error listing objects in bucket.");
+  }
+
+  /**
+   * Fetch the page of objects after this one.
+   *
+   * @return the next page, or null if this is the last page
+   */
+  public @Nullable Page<BlobCow> getNextPage(Page<BlobCow> page) {
+    if (!page.hasNextPage()) {
+      return null;
+    }
+    return callWithRetries(page::getNextPage, "Error listing objects in bucket.");
+  }
+
   /**
    * Execute a function that includes hitting GCS endpoints. Retry if the function throws an {@link
    * #isRetryable} exception. If an exception is thrown by the GCS client or the retries, make sure
@@ -123,10 +181,7 @@ public class GoogleCloudStorage {
     return handleClientExceptions(
         () ->
             HttpUtils.callWithRetries(
-                makeRequest,
-                GoogleCloudStorage::isRetryable,
-                GCS_MAXIMUM_RETRIES,
-                HttpUtils.DEFAULT_DURATION_SLEEP_FOR_RETRY),
+                makeRequest, GoogleCloudStorage::isRetryable, GCS_RETRY_POLICY),
         errorMsg);
   }
 
@@ -4,7 +4,9 @@ import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
 import bio.terra.cli.service.utils.HttpUtils;
 import bio.terra.cli.service.utils.TerraCredentials;
+import bio.terra.cli.utils.JacksonMapper;
 import bio.terra.cli.utils.UserIO;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.google.api.client.auth.oauth2.AuthorizationCodeFlow;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.auth.oauth2.CredentialRefreshListener;
@@ -17,6 +19,7 @@ import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeFlow;
 import com.google.api.client.googleapis.auth.oauth2.GoogleClientSecrets;
 import com.google.api.client.googleapis.javanet.GoogleNetHttpTransport;
+import com.google.api.client.http.HttpStatusCodes;
 import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import com.google.api.client.util.store.DataStore;
@@ -287,6 +290,39 @@ public final class GoogleOauth {
     }
   }
 
+  /**
+   * Look up when an access token expires (https://developers.google.com/identity/protocols/oauth2
+   * /openid-connect#validatinganidtoken). Pet SA access tokens come back from SAM as bare strings,
+   * so this is the only way to find out their real expiry.
+   *
+   * @param accessToken access token value
+   * @return expiration time, or empty if the lookup failed
+   */
+  public static Optional<Date> getAccessTokenExpiration(String accessToken) {
+    String endpoint = "https://oauth2.googleapis.com/tokeninfo";
+    Map<String, String> headers =
+        ImmutableMap.of("Content-type", "application/x-www-form-urlencoded");
+    Map<String, String> params = ImmutableMap.of("access_token", accessToken);
+    try {
+      // POST instead of GET, so the token isn't part of the URL
+      HttpUtils.HttpResponse response =
+          HttpUtils.sendHttpRequest(endpoint, "POST", headers, params);
+      if (!HttpStatusCodes.isSuccess(response.statusCode)) {
+        logger.warn("Token info lookup returned status code {}", response.statusCode);
+        return Optional.empty();
+      }
+      JsonNode expiresIn =
+          JacksonMapper.getMapper().readTree(response.responseBody).get("expires_in");
+      if (expiresIn == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new Date(System.currentTimeMillis() + expiresIn.asLong() * 1000));
+    } catch (IOException ioEx) {
+      logger.warn("Error looking up access token expiration", ioEx);
+      return Optional.empty();
+    }
+  }
+
   /**
    * Helper class that asks the user to copy/paste the token response manually to stdin.
    * https://developers.google.com/identity/protocols/oauth2/native-app#step-2:-send-a-request-to-googles-oauth-2.0-server
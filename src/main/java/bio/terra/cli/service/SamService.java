@@ -5,14 +5,20 @@ import bio.terra.cli.businessobject.Server;
 import bio.terra.cli.businessobject.User;
 import bio.terra.cli.exception.SystemException;
 import bio.terra.cli.exception.UserActionableException;
+import bio.terra.cli.service.utils.BackoffRetryPolicy;
+import bio.terra.cli.service.utils.HttpTransport;
 import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.RetryPolicy;
+import bio.terra.cli.service.utils.ServiceCache;
 import bio.terra.cli.utils.JacksonMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.api.client.http.HttpStatusCodes;
 import com.google.auth.oauth2.AccessToken;
 import java.net.SocketTimeoutException;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Predicate;
 import javax.annotation.Nullable;
 import org.apache.http.HttpStatus;
@@ -39,6 +45,9 @@ import org.slf4j.LoggerFactory;
 /** Utility methods for calling SAM endpoints. */
 public class SamService {
   private static final Logger logger = LoggerFactory.getLogger(SamService.class);
+  // exponential backoff, waiting longer if SAM asks us to
+  private static final RetryPolicy SAM_RETRY_POLICY =
+      BackoffRetryPolicy.forRetries(HttpUtils.DEFAULT_MAXIMUM_RETRIES, SamService::getRetryAfter);
 
   // the Terra environment where the SAM service lives
   private final Server server;
@@ -57,6 +66,7 @@ public class SamService {
     this.accessToken = accessToken;
     this.server = server;
     this.apiClient = new ApiClient();
+    this.apiClient.setHttpClient(HttpTransport.getOkHttpClient());
 
     this.apiClient.setBasePath(server.getSamUri());
     this.apiClient.setUserAgent("OpenAPI-Generator/1.0.0 java"); // only logs an error in sam
@@ -72,7 +82,7 @@ public class SamService {
    * unauthenticated endpoints can be called.
    */
   public static SamService unauthenticated(Server server) {
-    return new SamService(null, server);
+    return ServiceCache.get(SamService.class, null, server, SamService::new);
   }
 
   /**
@@ -84,12 +94,12 @@ public class SamService {
 
   /** Factory method for class that talks to SAM. Pulls the current server from the context. */
   public static SamService forUser(User user) {
-    return new SamService(user.getTerraToken(), Context.getServer());
+    return forToken(user.getTerraToken());
   }
 
   /** Factory method for class that talks to SAM. Pulls the current server from the context. */
   public static SamService forToken(AccessToken accessToken) {
-    return new SamService(accessToken, Context.getServer());
+    return ServiceCache.get(SamService.class, accessToken, Context.getServer(), SamService::new);
   }
 
   /**
@@ -130,9 +140,19 @@ public class SamService {
         || statusCode == HttpStatus.SC_BAD_GATEWAY
         || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
         || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT
+        || statusCode == HttpUtils.STATUS_CODE_TOO_MANY_REQUESTS
         || isSamInternalSocketTimeout;
   }
 
+  /** Get the delay requested by SAM in the Retry-After header of a throttled response. */
+  private static Optional<Duration> getRetryAfter(Exception ex) {
+    if (!(ex instanceof ApiException)) {
+      return Optional.empty();
+    }
+    ApiException apiEx = (ApiException) ex;
+    return HttpUtils.getRetryAfter(apiEx.getCode(), apiEx.getResponseHeaders());
+  }
+
   /** Pull a human-readable error message from an ApiException. */
   private static String logErrorMessage(ApiException apiEx) {
     logger.error(
@@ -499,7 +519,8 @@ public class SamService {
   private void callWithRetries(
       HttpUtils.RunnableWithCheckedException<ApiException> makeRequest, String errorMsg) {
     handleClientExceptions(
-        () -> HttpUtils.callWithRetries(makeRequest, SamService::isRetryable), errorMsg);
+        () -> HttpUtils.callWithRetries(makeRequest, SamService::isRetryable, SAM_RETRY_POLICY),
+        errorMsg);
   }
 
   /**
@@ -516,7 +537,8 @@ public class SamService {
   private <T> T callWithRetries(
       HttpUtils.SupplierWithCheckedException<T, ApiException> makeRequest, String errorMsg) {
     return handleClientExceptions(
-        () -> HttpUtils.callWithRetries(makeRequest, SamService::isRetryable), errorMsg);
+        () -> HttpUtils.callWithRetries(makeRequest, SamService::isRetryable, SAM_RETRY_POLICY),
+        errorMsg);
   }
 
   /**
@@ -630,16 +652,6 @@ public class SamService {
 
       // wrap the SAM exception and re-throw it
       throw new SystemException(errorMsg, ex);
-    } finally {
-      // try to close the connection pool after we're finished with this request
-      // TODO: why is this needed? possibly a bad interaction with picoCLI?
-      try {
-        apiClient.getHttpClient().connectionPool().evictAll();
-      } catch (Exception anyEx) {
-        logger.error(
-            "Error forcing connection pool to shutdown after making a SAM client library call.",
-            anyEx);
-      }
     }
   }
 
@@ -22,7 +22,12 @@ import bio.terra.cli.serialization.userfacing.input.UpdateReferencedBqTableParam
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedGcsBucketParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedGcsObjectParams;
 import bio.terra.cli.serialization.userfacing.input.UpdateReferencedGitRepoParams;
+import bio.terra.cli.service.utils.BackoffRetryPolicy;
+import bio.terra.cli.service.utils.HttpTransport;
 import bio.terra.cli.service.utils.HttpUtils;
+import bio.terra.cli.service.utils.PagedEnumerator;
+import bio.terra.cli.service.utils.RetryPolicy;
+import bio.terra.cli.service.utils.ServiceCache;
 import bio.terra.cli.utils.JacksonMapper;
 import bio.terra.workspace.api.ControlledGcpResourceApi;
 import bio.terra.workspace.api.ReferencedGcpResourceApi;
@@ -116,9 +121,13 @@ import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import javax.annotation.Nullable;
 import org.apache.http.HttpStatus;
 import org.slf4j.Logger;
@@ -128,13 +137,31 @@ import org.slf4j.LoggerFactory;
 public class WorkspaceManagerService {
 
   private static final Logger logger = LoggerFactory.getLogger(WorkspaceManagerService.class);
-  private static final int CLONE_WORKSPACE_MAXIMUM_RETRIES = 360;
-  private static final Duration CLONE_WORKSPACE_RETRY_INTERVAL = Duration.ofSeconds(10);
-  // the maximum number of retries and time to sleep for creating a new workspace
-  private static final int CREATE_WORKSPACE_MAXIMUM_RETRIES = 120;
-  private static final Duration CREATE_WORKSPACE_DURATION_SLEEP_FOR_RETRY = Duration.ofSeconds(1);
+  // exponential backoff, waiting longer if WSM asks us to
+  private static final RetryPolicy WSM_RETRY_POLICY =
+      BackoffRetryPolicy.forRetries(
+          HttpUtils.DEFAULT_MAXIMUM_RETRIES, WorkspaceManagerService::getRetryAfter);
+  // polling schedules for the async jobs: poll quickly at first, then back off to the interval
+  private static final RetryPolicy CLONE_WORKSPACE_POLLING_POLICY =
+      BackoffRetryPolicy.forPolling(
+          Duration.ofHours(1), Duration.ofSeconds(10), WorkspaceManagerService::getRetryAfter);
+  private static final RetryPolicy CREATE_WORKSPACE_POLLING_POLICY =
+      BackoffRetryPolicy.forPolling(
+          Duration.ofMinutes(2), Duration.ofSeconds(2), WorkspaceManagerService::getRetryAfter);
+  // creating a GCP notebook instance should take less than ~10 minutes
+  private static final RetryPolicy CREATE_NOTEBOOK_POLLING_POLICY =
+      BackoffRetryPolicy.forPolling(
+          Duration.ofMinutes(10), Duration.ofSeconds(10), WorkspaceManagerService::getRetryAfter);
+  private static final RetryPolicy DELETE_RESOURCE_POLLING_POLICY =
+      BackoffRetryPolicy.forPolling(
+          Duration.ofSeconds(15), Duration.ofSeconds(1), WorkspaceManagerService::getRetryAfter);
   // maximum number of resources to fetch per call to the enumerate endpoint
   private static final int MAX_RESOURCES_PER_ENUMERATE_REQUEST = 100;
+  // maximum number of calls to the enumerate endpoint to make at the same time
+  private static final int MAX_ENUMERATE_REQUESTS_IN_FLIGHT = 8;
+  // number of resources found the last time each workspace was enumerated in this process, used to
+  // decide how many pages to fetch at once the next time
+  private static final Map<UUID, Integer> lastNumResourcesEnumerated = new ConcurrentHashMap<>();
   // the Terra environment where the WSM service lives
   private final Server server;
   // the client object used for talking to WSM
@@ -147,6 +174,7 @@ public class WorkspaceManagerService {
   private WorkspaceManagerService(@Nullable AccessToken accessToken, Server server) {
     this.server = server;
     this.apiClient = new ApiClient();
+    this.apiClient.setHttpClient(HttpTransport.buildJerseyClient(apiClient.getHttpClient()));
 
     this.apiClient.setBasePath(server.getWorkspaceManagerUri());
     if (accessToken != null) {
@@ -161,14 +189,19 @@ public class WorkspaceManagerService {
    * unauthenticated endpoints can be called.
    */
   public static WorkspaceManagerService unauthenticated(Server server) {
-    return new WorkspaceManagerService(null, server);
+    return ServiceCache.get(
+        WorkspaceManagerService.class, null, server, WorkspaceManagerService::new);
   }
 
   /**
    * Factory method for class that talks to WSM. Pulls the current server and user from the context.
    */
   public static WorkspaceManagerService fromContext() {
-    return new WorkspaceManagerService(Context.requireUser().getTerraToken(), Context.getServer());
+    return ServiceCache.get(
+        WorkspaceManagerService.class,
+        Context.requireUser().getTerraToken(),
+        Context.getServer(),
+        WorkspaceManagerService::new);
   }
 
   /**
@@ -348,7 +381,17 @@ public class WorkspaceManagerService {
         || statusCode == HttpStatus.SC_INTERNAL_SERVER_ERROR
         || statusCode == HttpStatus.SC_BAD_GATEWAY
         || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE
-        || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT;
+        || statusCode == HttpStatus.SC_GATEWAY_TIMEOUT
+        || statusCode == HttpUtils.STATUS_CODE_TOO_MANY_REQUESTS;
+  }
+
+  /** Get the delay requested by WSM in the Retry-After header of a throttled response. */
+  private static Optional<Duration> getRetryAfter(Exception ex) {
+    if (!(ex instanceof ApiException)) {
+      return Optional.empty();
+    }
+    ApiException apiEx = (ApiException) ex;
+    return HttpUtils.getRetryAfter(apiEx.getCode(), apiEx.getResponseHeaders());
   }
 
   /** Pull a human-readable error message from an ApiException. */
@@ -445,7 +488,8 @@ public class WorkspaceManagerService {
           WorkspaceApi workspaceApi = new WorkspaceApi(apiClient);
           HttpUtils.callWithRetries(
               () -> workspaceApi.createWorkspace(workspaceRequestBody),
-              WorkspaceManagerService::isRetryable);
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
 
           // create the Google project that backs the Terra workspace object
           UUID jobId = UUID.randomUUID();
@@ -456,7 +500,8 @@ public class WorkspaceManagerService {
           // make the initial create context request
           HttpUtils.callWithRetries(
               () -> workspaceApi.createCloudContext(cloudContextRequest, workspaceId),
-              WorkspaceManagerService::isRetryable);
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
 
           // poll the result endpoint until the job is no longer RUNNING
           CreateCloudContextResult createContextResult =
@@ -464,8 +509,7 @@ public class WorkspaceManagerService {
                   () -> workspaceApi.getCreateCloudContextResult(workspaceId, jobId.toString()),
                   (result) -> isDone(result.getJobReport()),
                   WorkspaceManagerService::isRetryable,
-                  CREATE_WORKSPACE_MAXIMUM_RETRIES,
-                  CREATE_WORKSPACE_DURATION_SLEEP_FOR_RETRY);
+                  CREATE_WORKSPACE_POLLING_POLICY);
           logger.debug("create workspace context result: {}", createContextResult);
           StatusEnum status = createContextResult.getJobReport().getStatus();
           if (StatusEnum.FAILED == status) {
@@ -505,7 +549,9 @@ public class WorkspaceManagerService {
 
           // call the get workspace endpoint to get the full description object
           return HttpUtils.callWithRetries(
-              () -> workspaceApi.getWorkspace(workspaceId), WorkspaceManagerService::isRetryable);
+              () -> workspaceApi.getWorkspace(workspaceId),
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
         },
         "Error creating a new workspace");
   }
@@ -656,8 +702,7 @@ public class WorkspaceManagerService {
                             initialResult.getJobReport().getId()),
                     (result) -> isDone(result.getJobReport()),
                     WorkspaceManagerService::isRetryable,
-                    CLONE_WORKSPACE_MAXIMUM_RETRIES,
-                    CLONE_WORKSPACE_RETRY_INTERVAL),
+                    CLONE_WORKSPACE_POLLING_POLICY),
             "Error in cloning workspace.");
     logger.debug("clone workspace polling result: {}", cloneWorkspaceResult);
     throwIfJobNotCompleted(
@@ -743,55 +788,53 @@ public class WorkspaceManagerService {
   /**
    * Call the Workspace Manager GET "/api/workspaces/v1/{workspaceId}/resources" endpoint, possibly
    * multiple times, to get a list of all resources (controlled and referenced) in the workspace.
-   * Throw an exception if the number of resources in the workspace is greater than the specified
-   * limit.
+   *
+   * <p>The resources are streamed as the pages come back, and the next pages are fetched
+   * concurrently while the caller processes the current one (see {@link PagedEnumerator}). The
+   * stream should be closed if it's not consumed to the end.
+   *
+   * @param workspaceId the workspace to query
+   * @return a stream of resources
+   */
+  public Stream<ResourceDescription> enumerateAllResources(UUID workspaceId) {
+    PagedEnumerator<ResourceDescription> pages =
+        new PagedEnumerator<>(
+            (offset, pageSize) -> enumerateResourcesPage(workspaceId, offset, pageSize),
+            MAX_RESOURCES_PER_ENUMERATE_REQUEST,
+            lastNumResourcesEnumerated.getOrDefault(workspaceId, 0),
+            MAX_ENUMERATE_REQUESTS_IN_FLIGHT);
+    AtomicInteger numResources = new AtomicInteger();
+    return pages.stream()
+        .peek(
+            resource ->
+                lastNumResourcesEnumerated.put(workspaceId, numResources.incrementAndGet()));
+  }
+
+  /**
+   * Call the Workspace Manager GET "/api/workspaces/v1/{workspaceId}/resources" endpoint once, to
+   * get one page of resources in the workspace.
    *
    * @param workspaceId the workspace to query
-   * @param limit the maximum number of resources to return
+   * @param offset index of the first resource to fetch
+   * @param limit maximum number of resources to fetch
    * @return a list of resources
-   * @throws SystemException if the number of resources in the workspace > the specified limit
    */
-  public List<ResourceDescription> enumerateAllResources(UUID workspaceId, int limit) {
+  private List<ResourceDescription> enumerateResourcesPage(
+      UUID workspaceId, int offset, int limit) {
     return handleClientExceptions(
         () -> {
-          // poll the enumerate endpoint until no results are returned, or we hit the limit
-          List<ResourceDescription> allResources = new ArrayList<>();
-          int numResultsReturned = 0;
-          do {
-            int offset = allResources.size();
-            ResourceList result =
-                HttpUtils.callWithRetries(
-                    () ->
-                        new ResourceApi(apiClient)
-                            .enumerateResources(
-                                workspaceId,
-                                offset,
-                                MAX_RESOURCES_PER_ENUMERATE_REQUEST,
-                                null,
-                                null),
-                    WorkspaceManagerService::isRetryable);
-
-            // add all fetched resources to the running list
-            numResultsReturned = result.getResources().size();
-            logger.debug("Called enumerate endpoints, fetched {} resources", numResultsReturned);
-            allResources.addAll(result.getResources());
-
-            // if we have fetched more than the limit, then throw an exception
-            if (allResources.size() > limit) {
-              throw new SystemException(
-                  "Total number of resources ("
-                      + allResources.size()
-                      + ") exceeds the CLI limit ("
-                      + limit
-                      + ")");
-            }
-
-            // if this fetch returned less than the maximum allowed per request, then that indicates
-            // there are no more
-          } while (numResultsReturned >= MAX_RESOURCES_PER_ENUMERATE_REQUEST);
-
-          logger.debug("Fetched total number of resources: {}", allResources.size());
-          return allResources;
+          ResourceList result =
+              HttpUtils.callWithRetries(
+                  () ->
+                      new ResourceApi(apiClient)
+                          .enumerateResources(workspaceId, offset, limit, null, null),
+                  WorkspaceManagerService::isRetryable,
+                  WSM_RETRY_POLICY);
+          logger.debug(
+              "Called enumerate endpoint at offset {}, fetched {} resources",
+              offset,
+              result.getResources().size());
+          return result.getResources();
         },
         "Error enumerating resources in the workspace.");
   }
@@ -968,7 +1011,8 @@ public class WorkspaceManagerService {
           // Start the GCP notebook creation job.
           HttpUtils.callWithRetries(
               () -> controlledGcpResourceApi.createAiNotebookInstance(createRequest, workspaceId),
-              WorkspaceManagerService::isRetryable);
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
 
           // Poll the result endpoint until the job is no longer RUNNING.
           CreatedControlledGcpAiNotebookInstanceResult createResult =
@@ -978,9 +1022,7 @@ public class WorkspaceManagerService {
                           workspaceId, jobId),
                   (result) -> isDone(result.getJobReport()),
                   WorkspaceManagerService::isRetryable,
-                  // Creating a GCP notebook instance should take less than ~10 minutes.
-                  60,
-                  Duration.ofSeconds(10));
+                  CREATE_NOTEBOOK_POLLING_POLICY);
           logger.debug("Create controlled GCP notebook result {}", createResult);
           throwIfJobNotCompleted(createResult.getJobReport(), createResult.getErrorReport());
           return createResult.getAiNotebookInstance();
@@ -1396,7 +1438,8 @@ public class WorkspaceManagerService {
               () ->
                   controlledGcpResourceApi.deleteAiNotebookInstance(
                       deleteRequest, workspaceId, resourceId),
-              WorkspaceManagerService::isRetryable);
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
 
           // poll the result endpoint until the job is no longer RUNNING
           DeleteControlledGcpAiNotebookInstanceResult deleteResult =
@@ -1405,7 +1448,8 @@ public class WorkspaceManagerService {
                       controlledGcpResourceApi.getDeleteAiNotebookInstanceResult(
                           workspaceId, asyncJobId),
                   (result) -> isDone(result.getJobReport()),
-                  WorkspaceManagerService::isRetryable);
+                  WorkspaceManagerService::isRetryable,
+                  DELETE_RESOURCE_POLLING_POLICY);
           logger.debug("delete controlled GCP notebook instance result: {}", deleteResult);
 
           throwIfJobNotCompleted(deleteResult.getJobReport(), deleteResult.getErrorReport());
@@ -1433,14 +1477,16 @@ public class WorkspaceManagerService {
           // make the initial delete request
           HttpUtils.callWithRetries(
               () -> controlledGcpResourceApi.deleteBucket(deleteRequest, workspaceId, resourceId),
-              WorkspaceManagerService::isRetryable);
+              WorkspaceManagerService::isRetryable,
+              WSM_RETRY_POLICY);
 
           // poll the result endpoint until the job is no longer RUNNING
           DeleteControlledGcpGcsBucketResult deleteResult =
               HttpUtils.pollWithRetries(
                   () -> controlledGcpResourceApi.getDeleteBucketResult(workspaceId, asyncJobId),
                   (result) -> isDone(result.getJobReport()),
-                  WorkspaceManagerService::isRetryable);
+                  WorkspaceManagerService::isRetryable,
+                  DELETE_RESOURCE_POLLING_POLICY);
           logger.debug("delete controlled gcs bucket result: {}", deleteResult);
 
           throwIfJobNotCompleted(deleteResult.getJobReport(), deleteResult.getErrorReport());
@@ -1475,7 +1521,9 @@ public class WorkspaceManagerService {
   private void callWithRetries(
       HttpUtils.RunnableWithCheckedException<ApiException> makeRequest, String errorMsg) {
     handleClientExceptions(
-        () -> HttpUtils.callWithRetries(makeRequest, WorkspaceManagerService::isRetryable),
+        () ->
+            HttpUtils.callWithRetries(
+                makeRequest, WorkspaceManagerService::isRetryable, WSM_RETRY_POLICY),
         errorMsg);
   }
 
@@ -1499,7 +1547,9 @@ public class WorkspaceManagerService {
       String errorMsg,
       boolean isDataCollectionWorkspace) {
     return handleClientExceptions(
-        () -> HttpUtils.callWithRetries(makeRequest, WorkspaceManagerService::isRetryable),
+        () ->
+            HttpUtils.callWithRetries(
+                makeRequest, WorkspaceManagerService::isRetryable, WSM_RETRY_POLICY),
         errorMsg,
         isDataCollectionWorkspace);
   }
@@ -0,0 +1,188 @@
+package bio.terra.cli.service.utils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Retry policy that waits an exponentially increasing amount of time between tries, up to a maximum
+ * delay, and stops after a maximum number of tries or a maximum elapsed time.
+ *
+ * <p>With full jitter, each delay is a random duration between zero and the exponential value, so
+ * that many clients retrying against a throttled service don't all retry at the same moment.
+ *
+ * <p>If the server says how long to wait (i.e. a Retry-After header on a 429 or 503 response), the
+ * delay is at least that long.
+ */
+public class BackoffRetryPolicy implements RetryPolicy {
+  // defaults for retrying failed requests: 0.25s, 0.5s, 1s, ... up to 10s, with full jitter
+  private static final Duration DEFAULT_RETRY_INITIAL_DELAY = Duration.ofMillis(250);
+  private static final Duration DEFAULT_RETRY_MAX_DELAY = Duration.ofSeconds(10);
+  private static final double DEFAULT_RETRY_MULTIPLIER = 2.0;
+  // defaults for polling a long-running job: poll quickly at first, because many jobs finish in a
+  // few seconds, then back off to the maximum interval
+  private static final Duration DEFAULT_POLLING_INITIAL_DELAY = Duration.ofMillis(500);
+  private static final double DEFAULT_POLLING_MULTIPLIER = 1.5;
+
+  private final int maxCalls;
+  private final @Nullable Duration maxElapsed;
+  private final Duration initialDelay;
+  private final Duration maxDelay;
+  private final double multiplier;
+  private final boolean fullJitter;
+  private final Function<Exception, Optional<Duration>> getRetryAfter;
+
+  private BackoffRetryPolicy(Builder builder) {
+    this.maxCalls = builder.maxCalls;
+    this.maxElapsed = builder.maxElapsed;
+    this.initialDelay = builder.initialDelay;
+    this.maxDelay = builder.maxDelay;
+    this.multiplier = builder.multiplier;
+    this.fullJitter = builder.fullJitter;
+    this.getRetryAfter = builder.getRetryAfter;
+  }
+
+  /**
+   * Policy for retrying failed requests: exponential backoff with full jitter.
+   *
+   * @param maxCalls maximum number of times to try the request
+   * @param getRetryAfter function to get the minimum delay for a retryable exception, e.g. the
+   *     server-requested delay
+   */
+  public static BackoffRetryPolicy forRetries(
+      int maxCalls, Function<Exception, Optional<Duration>> getRetryAfter) {
+    return new Builder()
+        .maxCalls(maxCalls)
+        .initialDelay(DEFAULT_RETRY_INITIAL_DELAY)
+        .maxDelay(DEFAULT_RETRY_MAX_DELAY)
+        .multiplier(DEFAULT_RETRY_MULTIPLIER)
+        .fullJitter(true)
+        .getRetryAfter(getRetryAfter)
+        .build();
+  }
+
+  /**
+   * Policy for polling a long-running job: start with short intervals and back off to the maximum
+   * interval, until the maximum wait time has passed. Retryable exceptions thrown while polling use
+   * the same schedule.
+   *
+   * @param maxWait maximum time to keep polling
+   * @param maxInterval maximum time between polls
+   * @param getRetryAfter function to get the server-requested delay from a retryable exception
+   */
+  public static BackoffRetryPolicy forPolling(
+      Duration maxWait,
+      Duration maxInterval,
+      Function<Exception, Optional<Duration>> getRetryAfter) {
+    return new Builder()
+        .maxElapsed(maxWait)
+        .initialDelay(
+            maxInterval.compareTo(DEFAULT_POLLING_INITIAL_DELAY) < 0
+                ? maxInterval
+                : DEFAULT_POLLING_INITIAL_DELAY)
+        .maxDelay(maxInterval)
+        .multiplier(DEFAULT_POLLING_MULTIPLIER)
+        .getRetryAfter(getRetryAfter)
+        .build();
+  }
+
+  /**
+   * Policy that waits the same time between every try.
+   *
+   * @param maxCalls maximum number of times to try the request
+   * @param delay time to wait between tries
+   */
+  public static BackoffRetryPolicy fixedDelay(int maxCalls, Duration delay) {
+    return new Builder().maxCalls(maxCalls).initialDelay(delay).maxDelay(delay).build();
+  }
+
+  @Override
+  public Optional<Duration> getDelayBeforeNextTry(
+      int numTries, Duration elapsed, @Nullable Exception retryableException) {
+    if (numTries >= maxCalls || (maxElapsed != null && elapsed.compareTo(maxElapsed) >= 0)) {
+      return Optional.empty();
+    }
+
+    // exponential delay, capped at the maximum. compute in floating point so that large numbers of
+    // tries can't overflow
+    double exponentialMillis =
+        Math.min(
+            initialDelay.toMillis() * Math.pow(multiplier, numTries - 1.0),
+            (double) maxDelay.toMillis());
+    long delayMillis =
+        fullJitter
+            ? ThreadLocalRandom.current().nextLong((long) exponentialMillis + 1)
+            : (long) exponentialMillis;
+    Duration delay = Duration.ofMillis(delayMillis);
+
+    // wait at least as long as the server asked
+    if (retryableException != null) {
+      Optional<Duration> retryAfter = getRetryAfter.apply(retryableException);
+      if (retryAfter.isPresent() && retryAfter.get().compareTo(delay) > 0) {
+        delay = retryAfter.get();
+      }
+    }
+
+    // don't sleep past the maximum elapsed time
+    if (maxElapsed != null && elapsed.plus(delay).compareTo(maxElapsed) > 0) {
+      delay = maxElapsed.minus(elapsed);
+    }
+    return Optional.of(delay);
+  }
+
+  /**
+   * Builder class to construct an immutable BackoffRetryPolicy object. By default, there is no
+   * limit on the number of tries or the elapsed time, so at least one of those must be set.
+   */
+  public static class Builder {
+    private int maxCalls = Integer.MAX_VALUE;
+    private @Nullable Duration maxElapsed;
+    private Duration initialDelay = DEFAULT_RETRY_INITIAL_DELAY;
+    private Duration maxDelay = DEFAULT_RETRY_MAX_DELAY;
+    private double multiplier = 1.0;
+    private boolean fullJitter;
+    private Function<Exception, Optional<Duration>> getRetryAfter = ex -> Optional.empty();
+
+    public Builder maxCalls(int maxCalls) {
+      this.maxCalls = maxCalls;
+      return this;
+    }
+
+    public Builder maxElapsed(Duration maxElapsed) {
+      this.maxElapsed = maxElapsed;
+      return this;
+    }
+
+    public Builder initialDelay(Duration initialDelay) {
+      this.initialDelay = initialDelay;
+      return this;
+    }
+
+    public Builder maxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+      return this;
+    }
+
+    public Builder multiplier(double multiplier) {
+      this.multiplier = multiplier;
+      return this;
+    }
+
+    public Builder fullJitter(boolean fullJitter) {
+      this.fullJitter = fullJitter;
+      return this;
+    }
+
+    public Builder getRetryAfter(Function<Exception, Optional<Duration>> getRetryAfter) {
+      this.getRetryAfter = getRetryAfter;
+      return this;
+    }
+
+    /** Call the private constructor. */
+    public BackoffRetryPolicy build() {
+      return new BackoffRetryPolicy(this);
+    }
+  }
+}
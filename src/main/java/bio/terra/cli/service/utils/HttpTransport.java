@@ -0,0 +1,239 @@
+package bio.terra.cli.service.utils;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.ConnectionPool;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpConnectionMetrics;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.glassfish.jersey.apache.connector.ApacheClientProperties;
+import org.glassfish.jersey.apache.connector.ApacheConnectorProvider;
+import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
+import org.glassfish.jersey.client.RequestEntityProcessing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Process-wide HTTP transport shared by the Terra service clients, so that each command opens at
+ * most one connection per host instead of one per client object.
+ *
+ * <p>The generated clients use three different HTTP libraries: WSM and Data Repo use Jersey, ECM
+ * uses Spring's RestTemplate, and SAM uses OkHttp. Jersey and RestTemplate are both backed by a
+ * single pooled Apache HttpClient connection manager. SAM gets a single shared OkHttp client. Both
+ * keep connections alive between requests, reuse TLS sessions (there's one SSL context per pool)
+ * and ask for gzip-compressed responses.
+ *
+ * <p>Connections opened and reused are counted per host, and logged at debug level at the end of
+ * each command. Bytes sent and received are counted per thread, so that {@link HttpUtils} can
+ * attribute them to the request that the thread is making.
+ */
+public class HttpTransport {
+  private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+
+  // pool limits. the CLI talks to a handful of hosts, but may make concurrent requests to each one
+  private static final int MAX_CONNECTIONS_TOTAL = 50;
+  private static final int MAX_CONNECTIONS_PER_HOST = 20;
+  // how long OkHttp keeps idle connections open
+  private static final long KEEP_ALIVE_MINUTES = 5;
+
+  // number of connections opened and leased from the pools, per host, since the last reset
+  private static final Map<String, LongAdder> connectionsOpened = new ConcurrentHashMap<>();
+  private static final Map<String, LongAdder> connectionsLeased = new ConcurrentHashMap<>();
+  // number of bytes sent and received by the current thread: {sent, received}
+  private static final ThreadLocal<long[]> bytesTransferred =
+      ThreadLocal.withInitial(() -> new long[2]);
+
+  private static final PoolingHttpClientConnectionManager apacheConnectionManager =
+      buildApacheConnectionManager();
+  private static final CloseableHttpClient apacheHttpClient =
+      HttpClients.custom()
+          .setConnectionManager(apacheConnectionManager)
+          .setConnectionManagerShared(true)
+          .build();
+  private static final ClientHttpRequestFactory restTemplateRequestFactory =
+      new HttpComponentsClientHttpRequestFactory(apacheHttpClient);
+  private static final OkHttpClient okHttpClient = buildOkHttpClient();
+
+  private HttpTransport() {}
+
+  /**
+   * Build a Jersey client that has the same configuration (e.g. JSON providers) as the given one,
+   * but sends requests over the shared connection pool. The given client is closed.
+   *
+   * @param generatedClient client built by the generated ApiClient
+   * @return client to set on the ApiClient instead
+   */
+  public static Client buildJerseyClient(Client generatedClient) {
+    ClientConfig clientConfig = new ClientConfig().loadFrom(generatedClient.getConfiguration());
+    generatedClient.close();
+
+    clientConfig.connectorProvider(new ApacheConnectorProvider());
+    clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER, apacheConnectionManager);
+    // don't shut down the pool when an individual client is closed
+    clientConfig.property(ApacheClientProperties.CONNECTION_MANAGER_SHARED, true);
+    // send a Content-Length instead of chunking request bodies, same as the default connector
+    clientConfig.property(
+        ClientProperties.REQUEST_ENTITY_PROCESSING, RequestEntityProcessing.BUFFERED);
+    return ClientBuilder.newClient(clientConfig);
+  }
+
+  /** Get the request factory for Spring RestTemplates that use the shared connection pool. */
+  public static ClientHttpRequestFactory getRestTemplateRequestFactory() {
+    return restTemplateRequestFactory;
+  }
+
+  /** Get the shared OkHttp client. */
+  public static OkHttpClient getOkHttpClient() {
+    return okHttpClient;
+  }
+
+  /** Reset the connection counters, at the start of a command. */
+  public static void resetConnectionStats() {
+    connectionsOpened.clear();
+    connectionsLeased.clear();
+  }
+
+  /** Log the number of connections opened and reused per host since the last reset. */
+  public static void logConnectionStats() {
+    if (!logger.isDebugEnabled() || connectionsLeased.isEmpty()) {
+      return;
+    }
+    Map<String, String> statsPerHost = new TreeMap<>();
+    long totalOpened = 0;
+    long totalLeased = 0;
+    for (Map.Entry<String, LongAdder> leased : connectionsLeased.entrySet()) {
+      long numLeased = leased.getValue().sum();
+      LongAdder opened = connectionsOpened.get(leased.getKey());
+      long numOpened = opened == null ? 0 : opened.sum();
+      statsPerHost.put(
+          leased.getKey(), "opened " + numOpened + ", reused " + (numLeased - numOpened));
+      totalOpened += numOpened;
+      totalLeased += numLeased;
+    }
+    logger.debug(
+        "HTTP connections opened: {}, reused: {} ({})",
+        totalOpened,
+        totalLeased - totalOpened,
+        statsPerHost.entrySet().stream()
+            .map(hostStats -> hostStats.getKey() + ": " + hostStats.getValue())
+            .collect(Collectors.joining("; ")));
+  }
+
+  /** Get the number of bytes sent by the current thread, over either connection pool. */
+  public static long getBytesSent() {
+    return bytesTransferred.get()[0];
+  }
+
+  /** Get the number of bytes received by the current thread, over either connection pool. */
+  public static long getBytesReceived() {
+    return bytesTransferred.get()[1];
+  }
+
+  private static void countBytes(long sent, long received) {
+    long[] bytes = bytesTransferred.get();
+    bytes[0] += sent;
+    bytes[1] += received;
+  }
+
+  private static void countConnection(Map<String, LongAdder> counters, String host) {
+    counters.computeIfAbsent(host, key -> new LongAdder()).increment();
+  }
+
+  /**
+   * Build the Apache connection pool, counting the connections it opens and leases, and the bytes
+   * transferred over each connection while it was leased.
+   */
+  private static PoolingHttpClientConnectionManager buildApacheConnectionManager() {
+    PoolingHttpClientConnectionManager connectionManager =
+        new PoolingHttpClientConnectionManager() {
+          @Override
+          public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            countConnection(connectionsLeased, route.getTargetHost().getHostName());
+            return super.requestConnection(route, state);
+          }
+
+          @Override
+          public void connect(
+              HttpClientConnection managedConn,
+              HttpRoute route,
+              int connectTimeout,
+              HttpContext context)
+              throws IOException {
+            countConnection(connectionsOpened, route.getTargetHost().getHostName());
+            super.connect(managedConn, route, connectTimeout, context);
+          }
+
+          @Override
+          public void releaseConnection(
+              HttpClientConnection managedConn, Object state, long keepalive, TimeUnit timeUnit) {
+            // the connection is released on the thread that read the response
+            if (managedConn.isOpen()) {
+              HttpConnectionMetrics metrics = managedConn.getMetrics();
+              countBytes(metrics.getSentBytesCount(), metrics.getReceivedBytesCount());
+              metrics.reset();
+            }
+            super.releaseConnection(managedConn, state, keepalive, timeUnit);
+          }
+        };
+    connectionManager.setMaxTotal(MAX_CONNECTIONS_TOTAL);
+    connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_HOST);
+    return connectionManager;
+  }
+
+  /**
+   * Build the OkHttp client, counting the connections it opens and leases, and the bytes in request
+   * and response bodies.
+   */
+  private static OkHttpClient buildOkHttpClient() {
+    // these events are all fired on the calling thread for synchronous requests
+    EventListener connectionCounter =
+        new EventListener() {
+          @Override
+          public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            countConnection(connectionsOpened, call.request().url().host());
+          }
+
+          @Override
+          public void connectionAcquired(Call call, Connection connection) {
+            countConnection(connectionsLeased, call.request().url().host());
+          }
+
+          @Override
+          public void requestBodyEnd(Call call, long byteCount) {
+            countBytes(byteCount, 0);
+          }
+
+          @Override
+          public void responseBodyEnd(Call call, long byteCount) {
+            countBytes(0, byteCount);
+          }
+        };
+    // OkHttp requests and decompresses gzip responses transparently
+    return new OkHttpClient.Builder()
+        .connectionPool(
+            new ConnectionPool(MAX_CONNECTIONS_PER_HOST, KEEP_ALIVE_MINUTES, TimeUnit.MINUTES))
+        .eventListener(connectionCounter)
+        .build();
+  }
+}
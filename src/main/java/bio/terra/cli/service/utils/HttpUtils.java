@@ -1,6 +1,7 @@
 package bio.terra.cli.service.utils;
 
 import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.CommandTimings;
 import bio.terra.cli.utils.UserIO;
 import com.google.api.client.http.HttpStatusCodes;
 import java.io.BufferedReader;
@@ -13,9 +14,17 @@ import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -23,9 +32,29 @@ import org.slf4j.LoggerFactory;
 public class HttpUtils {
   // default value for the maximum number of times to retry HTTP requests
   public static final int DEFAULT_MAXIMUM_RETRIES = 15;
-  // default value for the time to sleep between retries
-  public static final Duration DEFAULT_DURATION_SLEEP_FOR_RETRY = Duration.ofSeconds(1);
+  // default policy for retrying HTTP requests: exponential backoff with full jitter
+  public static final RetryPolicy DEFAULT_RETRY_POLICY =
+      BackoffRetryPolicy.forRetries(DEFAULT_MAXIMUM_RETRIES, ex -> Optional.empty());
+  // default policy for polling a long-running job: up to 15 seconds, polling at least every second
+  public static final RetryPolicy DEFAULT_POLLING_POLICY =
+      BackoffRetryPolicy.forPolling(
+          Duration.ofSeconds(15), Duration.ofSeconds(1), ex -> Optional.empty());
+  // total time each command can spend waiting to retry failed requests, across all requests. this
+  // stops a command from retrying for a very long time when a service is down
+  public static final Duration RETRY_BUDGET = Duration.ofMinutes(5);
+  // HTTP status code and header for throttled requests
+  public static final int STATUS_CODE_TOO_MANY_REQUESTS = 429;
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
   private static final Logger logger = LoggerFactory.getLogger(HttpUtils.class);
+  private static final AtomicLong retryBudgetUsedMillis = new AtomicLong();
+  // methods in the service clients that only wrap calls to the retry helpers. skipped when deciding
+  // which operation a request belongs to
+  private static final Set<String> RETRY_WRAPPER_METHODS =
+      Set.of(
+          "callWithRetries",
+          "pollWithRetries",
+          "callAndHandleOneTimeErrorWithRetries",
+          "handleClientExceptions");
 
   private HttpUtils() {}
 
@@ -131,9 +160,7 @@ public class HttpUtils {
   }
 
   /**
-   * Helper method to call a function with retries. Uses {@link #DEFAULT_MAXIMUM_RETRIES} for
-   * maximum number of retries and {@link #DEFAULT_DURATION_SLEEP_FOR_RETRY} for the time to sleep
-   * between retries.
+   * Helper method to call a function with retries. Uses {@link #DEFAULT_RETRY_POLICY}.
    *
    * @param makeRequest function to perform the request
    * @param isRetryable function to test whether the exception is retryable or not
@@ -144,20 +171,35 @@ public class HttpUtils {
   public static <E extends Exception> void callWithRetries(
       RunnableWithCheckedException<E> makeRequest, Predicate<Exception> isRetryable)
       throws E, InterruptedException {
+    callWithRetries(makeRequest, isRetryable, DEFAULT_RETRY_POLICY);
+  }
+
+  /**
+   * Helper method to call a function with retries.
+   *
+   * @param makeRequest function to perform the request
+   * @param isRetryable function to test whether the exception is retryable or not
+   * @param retryPolicy how many times to retry and how long to wait in between
+   * @throws E if makeRequest throws an exception that is not retryable
+   * @throws SystemException if the maximum number of retries is exhausted, and the last attempt
+   *     threw a retryable exception
+   */
+  public static <E extends Exception> void callWithRetries(
+      RunnableWithCheckedException<E> makeRequest,
+      Predicate<Exception> isRetryable,
+      RetryPolicy retryPolicy)
+      throws E, InterruptedException {
     callWithRetries(
         () -> {
           makeRequest.run();
           return null;
         },
         isRetryable,
-        DEFAULT_MAXIMUM_RETRIES,
-        DEFAULT_DURATION_SLEEP_FOR_RETRY);
+        retryPolicy);
   }
 
   /**
-   * Helper method to call a function with retries. Uses {@link #DEFAULT_MAXIMUM_RETRIES} for
-   * maximum number of retries and {@link #DEFAULT_DURATION_SLEEP_FOR_RETRY} for the time to sleep
-   * between retries.
+   * Helper method to call a function with retries. Uses {@link #DEFAULT_RETRY_POLICY}.
    *
    * @param makeRequest function to perform the request
    * @param isRetryable function to test whether the exception is retryable or not
@@ -170,12 +212,11 @@ public class HttpUtils {
   public static <T, E extends Exception> T callWithRetries(
       SupplierWithCheckedException<T, E> makeRequest, Predicate<Exception> isRetryable)
       throws E, InterruptedException {
-    return callWithRetries(
-        makeRequest, isRetryable, DEFAULT_MAXIMUM_RETRIES, DEFAULT_DURATION_SLEEP_FOR_RETRY);
+    return callWithRetries(makeRequest, isRetryable, DEFAULT_RETRY_POLICY);
   }
 
   /**
-   * Helper method to call a function with retries.
+   * Helper method to call a function with retries, waiting the same time between each try.
    *
    * @param <T> type of the response object (i.e. return type of the makeRequest function)
    * @param makeRequest function to perform the request
@@ -193,19 +234,38 @@ public class HttpUtils {
       int maxCalls,
       Duration sleepDuration)
       throws E, InterruptedException {
+    return callWithRetries(
+        makeRequest, isRetryable, BackoffRetryPolicy.fixedDelay(maxCalls, sleepDuration));
+  }
+
+  /**
+   * Helper method to call a function with retries.
+   *
+   * @param <T> type of the response object (i.e. return type of the makeRequest function)
+   * @param makeRequest function to perform the request
+   * @param isRetryable function to test whether the exception is retryable or not
+   * @param retryPolicy how many times to retry and how long to wait in between
+   * @return the response object
+   * @throws E if makeRequest throws an exception that is not retryable
+   * @throws SystemException if the maximum number of retries is exhausted, and the last attempt
+   *     threw a retryable exception
+   */
+  public static <T, E extends Exception> T callWithRetries(
+      SupplierWithCheckedException<T, E> makeRequest,
+      Predicate<Exception> isRetryable,
+      RetryPolicy retryPolicy)
+      throws E, InterruptedException {
     // isDone always return true
     return pollWithRetries(
         makeRequest,
         (result) -> true,
         isRetryable,
         /* shouldPrintToStderrOnRetry */ true,
-        maxCalls,
-        sleepDuration);
+        retryPolicy);
   }
 
   /**
-   * Helper method to poll with retries. Uses {@link #DEFAULT_MAXIMUM_RETRIES} for maximum number of
-   * retries and {@link #DEFAULT_DURATION_SLEEP_FOR_RETRY} for the time to sleep between retries.
+   * Helper method to poll with retries. Uses {@link #DEFAULT_POLLING_POLICY}.
    *
    * @param makeRequest function to perform the request
    * @param isRetryable function to test whether the exception is retryable or not
@@ -220,16 +280,11 @@ public class HttpUtils {
       Predicate<T> isDone,
       Predicate<Exception> isRetryable)
       throws E, InterruptedException {
-    return pollWithRetries(
-        makeRequest,
-        isDone,
-        isRetryable,
-        DEFAULT_MAXIMUM_RETRIES,
-        DEFAULT_DURATION_SLEEP_FOR_RETRY);
+    return pollWithRetries(makeRequest, isDone, isRetryable, DEFAULT_POLLING_POLICY);
   }
 
   /**
-   * Helper method to poll with retries.
+   * Helper method to poll with retries, waiting the same time between each try.
    *
    * @param <T> type of the response object (i.e. return type of the makeRequest function)
    * @param makeRequest function to perform the request
@@ -250,12 +305,30 @@ public class HttpUtils {
       Duration sleepDuration)
       throws E, InterruptedException {
     return pollWithRetries(
-        makeRequest,
-        isDone,
-        isRetryable,
-        /* shouldPrintToStderrOnRetry */ false,
-        maxCalls,
-        sleepDuration);
+        makeRequest, isDone, isRetryable, BackoffRetryPolicy.fixedDelay(maxCalls, sleepDuration));
+  }
+
+  /**
+   * Helper method to poll with retries.
+   *
+   * @param <T> type of the response object (i.e. return type of the makeRequest function)
+   * @param makeRequest function to perform the request
+   * @param isDone function to decide whether to keep polling or not, based on the result
+   * @param isRetryable function to test whether the exception is retryable or not
+   * @param pollingPolicy how long to keep polling and how long to wait in between
+   * @return the response object
+   * @throws E if makeRequest throws an exception that is not retryable
+   * @throws SystemException if the maximum number of retries is exhausted, and the last attempt
+   *     threw a retryable exception
+   */
+  public static <T, E extends Exception> T pollWithRetries(
+      SupplierWithCheckedException<T, E> makeRequest,
+      Predicate<T> isDone,
+      Predicate<Exception> isRetryable,
+      RetryPolicy pollingPolicy)
+      throws E, InterruptedException {
+    return pollWithRetries(
+        makeRequest, isDone, isRetryable, /* shouldPrintToStderrOnRetry */ false, pollingPolicy);
   }
 
   /**
@@ -269,15 +342,15 @@ public class HttpUtils {
    * the result is returned.
    *
    * <p>- If the last attempt threw a retryable exception, then this method re-throws that last
-   * exception wrapped in a {@link SystemException} with a timeout message.
+   * exception wrapped in a {@link SystemException} with a timeout message. This also happens if
+   * waiting to retry would exceed the command's {@link #RETRY_BUDGET}.
    *
    * @param <T> type of the response object (i.e. return type of the makeRequest function)
    * @param makeRequest function to perform the request
    * @param isDone function to decide whether to keep polling or not, based on the result
    * @param isRetryable function to test whether the exception is retryable or not
    * @param shouldPrintToStderrOnRetry should print to stderr on retry
-   * @param maxCalls maximum number of times to poll or retry
-   * @param sleepDuration time to sleep between tries
+   * @param retryPolicy how many times to poll or retry and how long to wait in between
    * @return the response object
    * @throws E if makeRequest throws an exception that is not retryable
    * @throws SystemException if the maximum number of retries is exhausted, and the last attempt
@@ -288,55 +361,183 @@ public class HttpUtils {
       Predicate<T> isDone,
       Predicate<Exception> isRetryable,
       boolean shouldPrintToStderrOnRetry,
-      int maxCalls,
-      Duration sleepDuration)
+      RetryPolicy retryPolicy)
       throws E, InterruptedException {
+    long startTime = System.nanoTime();
+    long startBytesSent = HttpTransport.getBytesSent();
+    long startBytesReceived = HttpTransport.getBytesReceived();
     int numTries = 0;
-    Exception lastRetryableException = null;
-    do {
-      numTries++;
-      try {
-        logger.debug("Request attempt #{}", numTries);
+    boolean succeeded = false;
+    try {
+      while (true) {
+        numTries++;
+        T result = null;
+        Exception lastRetryableException = null;
+        try {
+          logger.debug("Request attempt #{}", numTries);
+          result = makeRequest.makeRequest();
+          logger.debug("Result: {}", result);
+
+          if (isDone.test(result)) {
+            logger.debug("polling with retries completed after {} tries", numTries);
+            succeeded = true;
+            return result;
+          }
+        } catch (Exception ex) {
+          if (!isRetryable.test(ex)) {
+            // the exception is not retryable: re-throw
+            throw ex;
+          }
+          // keep track of the last retryable exception so we can re-throw it in case of a timeout
+          lastRetryableException = ex;
+          logger.info("Caught retryable exception: {}", ex);
+        }
 
-        // Print to STDERR so that terminal command doesn't appear to hang.
-        if (shouldPrintToStderrOnRetry && numTries > 1) {
-          UserIO.getErr()
-              .printf("Encountered error, retrying request (%s/%s)%n", numTries - 1, maxCalls);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - startTime);
+        Optional<Duration> delay =
+            retryPolicy.getDelayBeforeNextTry(numTries, elapsed, lastRetryableException);
+        if (delay.isPresent()
+            && lastRetryableException != null
+            && !takeFromRetryBudget(delay.get())) {
+          logger.info("Retry budget of {} for this command is used up, not retrying", RETRY_BUDGET);
+          delay = Optional.empty();
         }
 
-        T result = makeRequest.makeRequest();
-        logger.debug("Result: {}", result);
-
-        boolean jobCompleted = isDone.test(result);
-        boolean timedOut = numTries > maxCalls;
-        if (jobCompleted || timedOut) {
-          // polling is either done (i.e. job completed) or timed out: return the last result
-          logger.debug(
-              "polling with retries completed. jobCompleted = {}, timedOut = {}",
-              jobCompleted,
-              timedOut);
-          return result;
+        if (delay.isEmpty()) {
+          if (lastRetryableException == null) {
+            // polling timed out: return the last result
+            logger.debug("polling with retries timed out after {} tries", numTries);
+            succeeded = true;
+            return result;
+          }
+          // request with retries timed out: re-throw the last exception
+          throw new SystemException(
+              "Request with retries timed out after " + numTries + " tries.",
+              lastRetryableException);
         }
-      } catch (Exception ex) {
-        if (!isRetryable.test(ex)) {
-          // the exception is not retryable: re-throw
-          throw ex;
-        } else {
-          // keep track of the last retryable exception so we can re-throw it in case of a timeout
-          lastRetryableException = ex;
+
+        // Print to STDERR so that terminal command doesn't appear to hang.
+        if (shouldPrintToStderrOnRetry && lastRetryableException != null) {
+          UserIO.getErr()
+              .printf("Encountered error, retrying request (attempt %s)%n", numTries + 1);
         }
-        logger.info("Caught retryable exception: {}", ex);
+        logger.debug("Waiting {} before the next try", delay.get());
+        Thread.sleep(delay.get().toMillis());
       }
+    } finally {
+      recordCall(
+          numTries,
+          HttpTransport.getBytesSent() - startBytesSent,
+          HttpTransport.getBytesReceived() - startBytesReceived,
+          Duration.ofNanos(System.nanoTime() - startTime),
+          succeeded);
+    }
+  }
 
-      // sleep before retrying, unless this is the last try
-      if (numTries < maxCalls) {
-        Thread.sleep(sleepDuration.toMillis());
-      }
-    } while (numTries <= maxCalls);
+  /**
+   * Record the timing of a request for the --timings report, attributing it to the service client
+   * method that called the retry helpers. Requests made by clients that don't use the shared
+   * transport (e.g. the Google Cloud clients) show zero bytes transferred, so record those as
+   * unknown.
+   */
+  private static void recordCall(
+      int numTries, long bytesSent, long bytesReceived, Duration latency, boolean succeeded) {
+    StackWalker.StackFrame caller =
+        StackWalker.getInstance()
+            .walk(
+                frames ->
+                    frames
+                        .filter(
+                            frame ->
+                                !frame.getClassName().equals(HttpUtils.class.getName())
+                                    && !frame.getMethodName().startsWith("lambda$")
+                                    && !RETRY_WRAPPER_METHODS.contains(frame.getMethodName()))
+                        .findFirst())
+            .orElse(null);
+    boolean bytesKnown = bytesSent > 0 || bytesReceived > 0;
+    CommandTimings.recordCall(
+        caller == null ? "unknown" : simpleClassName(caller.getClassName()),
+        caller == null ? "unknown" : caller.getMethodName(),
+        numTries,
+        bytesKnown ? bytesSent : null,
+        bytesKnown ? bytesReceived : null,
+        latency,
+        succeeded);
+  }
+
+  private static String simpleClassName(String className) {
+    return className.substring(className.lastIndexOf('.') + 1);
+  }
+
+  /** Reset the retry budget, at the start of a command. */
+  public static void resetRetryBudget() {
+    retryBudgetUsedMillis.set(0);
+  }
+
+  /**
+   * Use part of this command's retry budget.
+   *
+   * @return false if there isn't enough budget left for this delay
+   */
+  private static boolean takeFromRetryBudget(Duration delay) {
+    long budgetUsed = retryBudgetUsedMillis.addAndGet(delay.toMillis());
+    if (budgetUsed > RETRY_BUDGET.toMillis()) {
+      retryBudgetUsedMillis.addAndGet(-delay.toMillis());
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Get the delay requested by the server in a Retry-After header, if this is a 429 (too many
+   * requests) or 503 (service unavailable) response.
+   *
+   * @param statusCode HTTP status code of the response
+   * @param headers response headers, null if not available
+   * @return the requested delay, or empty if there isn't one
+   */
+  public static Optional<Duration> getRetryAfter(
+      int statusCode, @Nullable Map<String, List<String>> headers) {
+    if (headers == null) {
+      return Optional.empty();
+    }
+    return headers.entrySet().stream()
+        .filter(header -> RETRY_AFTER_HEADER.equalsIgnoreCase(header.getKey()))
+        .flatMap(header -> header.getValue().stream())
+        .findFirst()
+        .flatMap(headerValue -> getRetryAfter(statusCode, headerValue));
+  }
 
-    // request with retries timed out: re-throw the last exception
-    throw new SystemException(
-        "Request with retries timed out after " + numTries + " tries.", lastRetryableException);
+  /**
+   * Get the delay requested by the server in a Retry-After header, if this is a 429 (too many
+   * requests) or 503 (service unavailable) response. The header value is either a number of seconds
+   * or an HTTP date.
+   *
+   * @param statusCode HTTP status code of the response
+   * @param retryAfterHeader value of the Retry-After header, null if there isn't one
+   * @return the requested delay, or empty if there isn't one
+   */
+  public static Optional<Duration> getRetryAfter(
+      int statusCode, @Nullable String retryAfterHeader) {
+    if ((statusCode != STATUS_CODE_TOO_MANY_REQUESTS
+            && statusCode != HttpStatusCodes.STATUS_CODE_SERVICE_UNAVAILABLE)
+        || retryAfterHeader == null) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(Duration.ofSeconds(Long.parseLong(retryAfterHeader.trim())));
+    } catch (NumberFormatException nfEx) {
+      // not a number of seconds, try parsing it as a date
+    }
+    try {
+      ZonedDateTime retryAt =
+          ZonedDateTime.parse(retryAfterHeader.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+      Duration delay = Duration.between(ZonedDateTime.now(retryAt.getZone()), retryAt);
+      return Optional.of(delay.isNegative() ? Duration.ZERO : delay);
+    } catch (DateTimeParseException dtpEx) {
+      logger.debug("Ignoring invalid Retry-After header: {}", retryAfterHeader);
+      return Optional.empty();
+    }
   }
 
   /**
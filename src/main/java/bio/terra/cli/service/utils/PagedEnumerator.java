@@ -0,0 +1,164 @@
+package bio.terra.cli.service.utils;
+
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.utils.ThreadPools;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Iterates over all the items of an offset/limit paginated list endpoint, fetching the next pages
+ * in the background while the caller processes the current one.
+ *
+ * <p>The number of pages fetched ahead starts from a hint (e.g. the number of items the last time
+ * the list was enumerated) and doubles each time a full page comes back, up to a maximum, so small
+ * lists cost one request and large lists quickly reach full concurrency. The first page shorter
+ * than the page size marks the end of the list, and any pages fetched past it are cancelled.
+ *
+ * <p>Items are returned in order. Exceptions thrown while fetching a page are re-thrown to the
+ * caller when it reaches that page.
+ *
+ * @param <T> type of the list items
+ */
+public class PagedEnumerator<T> implements Iterator<T>, AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(PagedEnumerator.class);
+
+  private final PageFetcher<T> pageFetcher;
+  private final int pageSize;
+  private final int maxPagesInFlight;
+  private final ExecutorService executor;
+  // pages that have been requested but not yet returned to the caller, in offset order
+  private final Deque<Future<List<T>>> pagesInFlight = new ArrayDeque<>();
+  private Iterator<T> currentPage = Collections.emptyIterator();
+  private int pagesAhead;
+  private int nextOffset;
+  private boolean reachedEnd;
+
+  /**
+   * Start fetching pages.
+   *
+   * @param pageFetcher function to fetch one page
+   * @param pageSize number of items to ask for in each page. this must be no more than the
+   *     endpoint's maximum, because a page shorter than this is taken to be the last page
+   * @param expectedNumItems hint for how many items the list has, 0 if unknown
+   * @param maxPagesInFlight maximum number of pages to fetch at the same time
+   */
+  public PagedEnumerator(
+      PageFetcher<T> pageFetcher, int pageSize, int expectedNumItems, int maxPagesInFlight) {
+    this.pageFetcher = pageFetcher;
+    this.pageSize = pageSize;
+    this.maxPagesInFlight = maxPagesInFlight;
+    this.executor = ThreadPools.newFixedDaemonPool("page-fetch", maxPagesInFlight);
+    // enough pages for the expected number of items, plus the short page that marks the end
+    this.pagesAhead = Math.max(1, Math.min(maxPagesInFlight, expectedNumItems / pageSize + 1));
+    fetchAhead();
+  }
+
+  /**
+   * Stream all the items in the list. The stream must be closed (e.g. with try-with-resources) if
+   * it's not consumed to the end.
+   */
+  public Stream<T> stream() {
+    return StreamSupport.stream(
+            Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL),
+            false)
+        .onClose(this::close);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!currentPage.hasNext()) {
+      if (pagesInFlight.isEmpty()) {
+        close();
+        return false;
+      }
+      List<T> page = waitForPage(pagesInFlight.removeFirst());
+      if (page.size() < pageSize) {
+        // a short page is the last one: don't wait for any pages after it
+        reachedEnd = true;
+        cancelPagesInFlight();
+      } else {
+        pagesAhead = Math.min(maxPagesInFlight, pagesAhead * 2);
+        fetchAhead();
+      }
+      currentPage = page.iterator();
+    }
+    return true;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    return currentPage.next();
+  }
+
+  /** Cancel any pages that are still being fetched. */
+  @Override
+  public void close() {
+    cancelPagesInFlight();
+    executor.shutdownNow();
+  }
+
+  /** Request pages until there are enough in flight. */
+  private void fetchAhead() {
+    while (!reachedEnd && pagesInFlight.size() < pagesAhead) {
+      final int offset = nextOffset;
+      logger.debug("Fetching page at offset {} ({} pages in flight)", offset, pagesInFlight.size());
+      pagesInFlight.addLast(executor.submit(() -> pageFetcher.fetchPage(offset, pageSize)));
+      nextOffset += pageSize;
+    }
+  }
+
+  private void cancelPagesInFlight() {
+    pagesInFlight.forEach(page -> page.cancel(true));
+    pagesInFlight.clear();
+  }
+
+  /** Wait for a page, and re-throw any exception thrown while fetching it. */
+  private List<T> waitForPage(Future<List<T>> page) {
+    try {
+      return page.get();
+    } catch (ExecutionException exEx) {
+      close();
+      if (exEx.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exEx.getCause();
+      }
+      throw new SystemException("Error fetching page.", exEx.getCause());
+    } catch (InterruptedException intEx) {
+      close();
+      Thread.currentThread().interrupt();
+      throw new SystemException("Interrupted while fetching page.", intEx);
+    }
+  }
+
+  /**
+   * Function interface for fetching one page of a list.
+   *
+   * @param <T> type of the list items
+   */
+  @FunctionalInterface
+  public interface PageFetcher<T> {
+    /**
+     * Fetch one page. This is called from a background thread.
+     *
+     * @param offset index of the first item to fetch
+     * @param limit maximum number of items to fetch
+     * @return the items, fewer than the limit if this is the end of the list
+     */
+    List<T> fetchPage(int offset, int limit);
+  }
+}
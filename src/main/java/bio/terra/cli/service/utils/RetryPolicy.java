@@ -0,0 +1,24 @@
+package bio.terra.cli.service.utils;
+
+import java.time.Duration;
+import java.util.Optional;
+import javax.annotation.Nullable;
+
+/**
+ * Decides whether to try a request again, and how long to wait first. Used by the retry and polling
+ * helpers in {@link HttpUtils}. See {@link BackoffRetryPolicy} for the standard implementations.
+ */
+@FunctionalInterface
+public interface RetryPolicy {
+  /**
+   * Get the time to wait before the next try.
+   *
+   * @param numTries number of tries made so far, including the one that just finished
+   * @param elapsed time since the first try started
+   * @param retryableException exception thrown by the last try, or null if it returned a result
+   *     that is not done yet (i.e. when polling)
+   * @return time to wait before trying again, or empty to stop trying
+   */
+  Optional<Duration> getDelayBeforeNextTry(
+      int numTries, Duration elapsed, @Nullable Exception retryableException);
+}
@@ -0,0 +1,49 @@
+package bio.terra.cli.service.utils;
+
+import bio.terra.cli.businessobject.Server;
+import com.google.auth.oauth2.AccessToken;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import javax.annotation.Nullable;
+
+/**
+ * Cache of Terra service client objects (e.g. WorkspaceManagerService), keyed by the service class,
+ * server and access token. Business objects ask for a service client for every request they make,
+ * so this saves building a new generated ApiClient each time. It's cleared at the start of each
+ * command.
+ */
+public class ServiceCache {
+  private static final Map<String, Object> services = new ConcurrentHashMap<>();
+
+  private ServiceCache() {}
+
+  /**
+   * Get the cached service client for this server and access token, or build a new one.
+   *
+   * @param serviceClass class of the service client
+   * @param accessToken access token the client uses, null for unauthenticated clients
+   * @param server server the client talks to
+   * @param newService function to build a new service client
+   * @return the service client
+   */
+  public static <T> T get(
+      Class<T> serviceClass,
+      @Nullable AccessToken accessToken,
+      Server server,
+      BiFunction<AccessToken, Server, T> newService) {
+    String key =
+        serviceClass.getName()
+            + "|"
+            + server.getName()
+            + "|"
+            + (accessToken == null ? "" : accessToken.getTokenValue());
+    return serviceClass.cast(
+        services.computeIfAbsent(key, unused -> newService.apply(accessToken, server)));
+  }
+
+  /** Clear the cache, at the start of a command. */
+  public static void clear() {
+    services.clear();
+  }
+}
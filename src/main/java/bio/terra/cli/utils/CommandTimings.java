@@ -0,0 +1,339 @@
+package bio.terra.cli.utils;
+
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.LEFT;
+import static bio.terra.cli.app.utils.tables.ColumnDefinition.Alignment.RIGHT;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.businessobject.Context;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records where a command spends its time: the wall time of each phase of {@link
+ * bio.terra.cli.command.shared.BaseCommand#call} and every outbound request made through the retry
+ * helpers in {@link bio.terra.cli.service.utils.HttpUtils}.
+ *
+ * <p>At the end of each command, one JSON line is appended to the timings file in the logs
+ * directory, so that latencies can be aggregated across runs. If the global --timings flag is set,
+ * a summary is also printed to stderr.
+ */
+public class CommandTimings {
+  private static final Logger logger = LoggerFactory.getLogger(CommandTimings.class);
+
+  private static final String TIMINGS_FILENAME = "timings.jsonl";
+  // roll the timings file over to a single backup once it gets this big
+  private static final long MAX_TIMINGS_FILE_SIZE = 10 * 1024 * 1024;
+  // placeholder for byte counts that aren't known (e.g. requests made by the Google clients)
+  private static final String UNKNOWN_BYTES = "-";
+
+  private static final Queue<PhaseTiming> phases = new ConcurrentLinkedQueue<>();
+  private static final Queue<CallTiming> calls = new ConcurrentLinkedQueue<>();
+  private static volatile Instant commandStart = Instant.now();
+  private static volatile boolean printReport;
+
+  private CommandTimings() {}
+
+  /** Clear the timings, at the start of a command. */
+  public static void reset() {
+    phases.clear();
+    calls.clear();
+    commandStart = Instant.now();
+    printReport = false;
+  }
+
+  /** Set whether to print the timings report to stderr at the end of this command. */
+  public static void setPrintReport(boolean printReport) {
+    CommandTimings.printReport = printReport;
+  }
+
+  /**
+   * Run one phase of the command and record how long it took.
+   *
+   * @param phase name of the phase
+   * @param runPhase code to run
+   */
+  public static void timePhase(String phase, Runnable runPhase) {
+    timePhase(
+        phase,
+        () -> {
+          runPhase.run();
+          return null;
+        });
+  }
+
+  /**
+   * Run one phase of the command and record how long it took.
+   *
+   * @param phase name of the phase
+   * @param runPhase code to run
+   * @return the value returned by the phase
+   */
+  public static <T> T timePhase(String phase, Supplier<T> runPhase) {
+    long startNanos = System.nanoTime();
+    try {
+      return runPhase.get();
+    } finally {
+      phases.add(new PhaseTiming(phase, Duration.ofNanos(System.nanoTime() - startNanos)));
+    }
+  }
+
+  /**
+   * Record an outbound request, including any retries or polling.
+   *
+   * @param service name of the service client (e.g. WorkspaceManagerService)
+   * @param operation name of the service client method
+   * @param attempts number of tries
+   * @param bytesSent bytes sent over the network, or null if not known
+   * @param bytesReceived bytes received over the network, or null if not known
+   * @param latency total time, including time spent waiting between tries
+   * @param succeeded false if the request threw an exception
+   */
+  public static void recordCall(
+      String service,
+      String operation,
+      int attempts,
+      @Nullable Long bytesSent,
+      @Nullable Long bytesReceived,
+      Duration latency,
+      boolean succeeded) {
+    calls.add(
+        new CallTiming(
+            service, operation, attempts, bytesSent, bytesReceived, latency.toMillis(), succeeded));
+  }
+
+  /**
+   * Finish recording this command: append the timings to the timings file, and print the report if
+   * requested.
+   *
+   * @param command command name (e.g. "terra workspace set"), without arguments
+   * @param exitCode exit code of the command
+   */
+  public static void finish(String command, int exitCode) {
+    CommandRecord commandRecord =
+        new CommandRecord(
+            commandStart.toString(),
+            command,
+            exitCode,
+            Duration.between(commandStart, Instant.now()).toMillis(),
+            new ArrayList<>(phases),
+            new ArrayList<>(calls));
+    appendToFile(commandRecord);
+    if (printReport) {
+      printReport(commandRecord, UserIO.getErr());
+    }
+  }
+
+  /** Print the timings tables. */
+  private static void printReport(CommandRecord commandRecord, PrintStream err) {
+    TablePrinter<PhaseTiming> phasePrinter = PhaseColumns::values;
+    TablePrinter<CallTiming> callPrinter = CallColumns::values;
+    err.println();
+    err.println(phasePrinter.print(commandRecord.phases));
+    if (!commandRecord.calls.isEmpty()) {
+      err.println();
+      err.println(callPrinter.print(commandRecord.calls));
+    }
+    err.printf("%nTotal: %d ms%n", commandRecord.totalMillis);
+  }
+
+  /** Append a single JSON line for this command to the timings file. */
+  private static void appendToFile(CommandRecord commandRecord) {
+    // the context directory may not exist yet (e.g. on the first `terra version` command)
+    Path timingsFile =
+        Context.getContextDir().resolve(Context.LOGS_DIRNAME).resolve(TIMINGS_FILENAME);
+    try {
+      Files.createDirectories(timingsFile.getParent());
+      if (Files.exists(timingsFile) && Files.size(timingsFile) > MAX_TIMINGS_FILE_SIZE) {
+        Files.move(
+            timingsFile,
+            timingsFile.resolveSibling(TIMINGS_FILENAME + ".1"),
+            StandardCopyOption.REPLACE_EXISTING);
+      }
+      String jsonLine = JacksonMapper.getMapper().writeValueAsString(commandRecord) + "\n";
+      Files.write(
+          timingsFile,
+          jsonLine.getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+    } catch (JsonProcessingException jsonEx) {
+      logger.error("Error serializing command timings.", jsonEx);
+    } catch (IOException ioEx) {
+      logger.error("Error writing command timings file: {}", timingsFile, ioEx);
+    }
+  }
+
+  private static String formatBytes(@Nullable Long bytes) {
+    return bytes == null ? UNKNOWN_BYTES : String.valueOf(bytes);
+  }
+
+  /** Timings for a single command, written as one line of the timings file. */
+  public static class CommandRecord {
+    public final String startTime;
+    public final String command;
+    public final int exitCode;
+    public final long totalMillis;
+    public final List<PhaseTiming> phases;
+    public final List<CallTiming> calls;
+
+    CommandRecord(
+        String startTime,
+        String command,
+        int exitCode,
+        long totalMillis,
+        List<PhaseTiming> phases,
+        List<CallTiming> calls) {
+      this.startTime = startTime;
+      this.command = command;
+      this.exitCode = exitCode;
+      this.totalMillis = totalMillis;
+      this.phases = phases;
+      this.calls = calls;
+    }
+  }
+
+  /** Wall time of a single phase of a command. */
+  public static class PhaseTiming {
+    public final String phase;
+    public final long millis;
+
+    PhaseTiming(String phase, Duration duration) {
+      this.phase = phase;
+      this.millis = duration.toMillis();
+    }
+  }
+
+  /** Stats for a single outbound request, including any retries or polling. */
+  public static class CallTiming {
+    public final String service;
+    public final String operation;
+    public final int attempts;
+    public final @Nullable Long bytesSent;
+    public final @Nullable Long bytesReceived;
+    public final long latencyMillis;
+    public final boolean succeeded;
+
+    CallTiming(
+        String service,
+        String operation,
+        int attempts,
+        @Nullable Long bytesSent,
+        @Nullable Long bytesReceived,
+        long latencyMillis,
+        boolean succeeded) {
+      this.service = service;
+      this.operation = operation;
+      this.attempts = attempts;
+      this.bytesSent = bytesSent;
+      this.bytesReceived = bytesReceived;
+      this.latencyMillis = latencyMillis;
+      this.succeeded = succeeded;
+    }
+  }
+
+  /** Column information for the phases table. */
+  private enum PhaseColumns implements ColumnDefinition<PhaseTiming> {
+    PHASE("PHASE", p -> p.phase, 20, LEFT),
+    MILLIS("TIME (MS)", p -> String.valueOf(p.millis), 10, RIGHT);
+
+    private final String columnLabel;
+    private final Function<PhaseTiming, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    PhaseColumns(
+        String columnLabel,
+        Function<PhaseTiming, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<PhaseTiming, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+
+  /** Column information for the outbound requests table. */
+  private enum CallColumns implements ColumnDefinition<CallTiming> {
+    SERVICE("SERVICE", c -> c.service, 34, LEFT),
+    OPERATION("OPERATION", c -> c.operation, 36, LEFT),
+    ATTEMPTS("ATTEMPTS", c -> String.valueOf(c.attempts), 8, RIGHT),
+    SENT("SENT (B)", c -> formatBytes(c.bytesSent), 10, RIGHT),
+    RECEIVED("RECEIVED (B)", c -> formatBytes(c.bytesReceived), 12, RIGHT),
+    LATENCY("TIME (MS)", c -> String.valueOf(c.latencyMillis), 10, RIGHT),
+    STATUS("STATUS", c -> c.succeeded ? "OK" : "FAILED", 6, LEFT);
+
+    private final String columnLabel;
+    private final Function<CallTiming, String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    CallColumns(
+        String columnLabel,
+        Function<CallTiming, String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<CallTiming, String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
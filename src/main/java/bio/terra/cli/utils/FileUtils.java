@@ -5,14 +5,25 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** Utility methods for manipulating files on disk. */
 public class FileUtils {
+  // file locks are held by the whole JVM, and trying to take a second one on the same file throws
+  // an exception instead of waiting. so threads in the same process take the lock for that file
+  // here first. locks on different files don't wait for each other
+  private static final Map<Path, ReentrantLock> inProcessLocks = new ConcurrentHashMap<>();
   private static final Logger logger = LoggerFactory.getLogger(FileUtils.class);
 
   /**
@@ -62,4 +73,70 @@ public class FileUtils {
 
     return Files.write(outputFile.toPath(), fileContents.getBytes(StandardCharsets.UTF_8));
   }
+
+  /**
+   * Write a string to a file, replacing it in one step. The string is written to a temporary file
+   * in the same directory first and then moved into place, so readers never see a partially written
+   * file and a crash part-way through leaves the previous contents intact.
+   *
+   * @param outputFile the file to write to
+   * @param fileContents the string to write
+   * @return the file that was written to
+   */
+  public static Path writeStringToFileAtomically(File outputFile, String fileContents)
+      throws IOException {
+    logger.debug("Writing to file: {}", outputFile.getAbsolutePath());
+
+    Path outputPath = outputFile.toPath().toAbsolutePath();
+    Files.createDirectories(outputPath.getParent());
+    Path tempPath =
+        Files.createTempFile(outputPath.getParent(), outputPath.getFileName().toString(), ".tmp");
+    try {
+      Files.write(tempPath, fileContents.getBytes(StandardCharsets.UTF_8));
+      return Files.move(
+          tempPath,
+          outputPath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
+
+  /**
+   * Run an action while holding an exclusive lock on a lock file, so that other CLI processes that
+   * share the context directory, and other threads in this one, wait for it to finish. Use this
+   * around a read-modify-write of a shared file, so that concurrent writers don't lose each other's
+   * changes. Readers don't need to take the lock, if the file is written with {@link
+   * #writeStringToFileAtomically}.
+   *
+   * <p>Hold the lock for as short a time as possible: e.g. fetch anything the action needs from the
+   * network first. The action must not take the lock on the same lock file again.
+   *
+   * @param lockFile the lock file, which is created if it doesn't exist
+   * @param action the action to run while holding the lock
+   * @return the result of the action
+   */
+  public static <T> T callWithFileLock(Path lockFile, LockedAction<T> action) throws IOException {
+    ReentrantLock inProcessLock =
+        inProcessLocks.computeIfAbsent(
+            lockFile.toAbsolutePath().normalize(), path -> new ReentrantLock());
+    inProcessLock.lock();
+    try {
+      Files.createDirectories(lockFile.getParent());
+      try (FileChannel lockChannel =
+              FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+          FileLock lock = lockChannel.lock()) {
+        return action.call();
+      }
+    } finally {
+      inProcessLock.unlock();
+    }
+  }
+
+  /** Function interface for an action run while holding a file lock. */
+  @FunctionalInterface
+  public interface LockedAction<T> {
+    T call() throws IOException;
+  }
 }
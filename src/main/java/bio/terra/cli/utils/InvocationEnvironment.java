@@ -0,0 +1,105 @@
+package bio.terra.cli.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import javax.annotation.Nullable;
+
+/**
+ * Singleton class for holding the working directory and environment variables of the process that
+ * invoked the current command.
+ *
+ * <p>Normally this is just the current JVM's working directory and environment. When a command is
+ * served by the daemon, the invoking process is the thin client instead, and the daemon sets these
+ * from the client's request before running the command. Code that launches child processes, mounts
+ * the working directory, or reads files or environment variables the user passed in should read
+ * from here instead of directly from {@link System}.
+ */
+public class InvocationEnvironment {
+  @Nullable private static Path workingDir;
+  @Nullable private static Map<String, String> envVars;
+  private static boolean stdInPipeOrFile;
+
+  // file type bits of a unix file mode (st_mode)
+  private static final int FILE_TYPE_MASK = 0170000;
+  private static final int FILE_TYPE_FIFO = 0010000;
+  private static final int FILE_TYPE_REGULAR = 0100000;
+  private static final int FILE_TYPE_SOCKET = 0140000;
+
+  private InvocationEnvironment() {}
+
+  /**
+   * Override the working directory and environment variables for the current command.
+   *
+   * @param clientWorkingDir working directory of the invoking process
+   * @param clientEnvVars environment variables of the invoking process
+   * @param clientStdInPipeOrFile true if the standard in of the invoking process is a pipe or a
+   *     file, as opposed to e.g. a terminal
+   */
+  public static void initialize(
+      Path clientWorkingDir, Map<String, String> clientEnvVars, boolean clientStdInPipeOrFile) {
+    workingDir = clientWorkingDir;
+    envVars = Map.copyOf(clientEnvVars);
+    stdInPipeOrFile = clientStdInPipeOrFile;
+  }
+
+  /** Reset back to the current JVM's working directory and environment. */
+  public static void reset() {
+    workingDir = null;
+    envVars = null;
+    stdInPipeOrFile = false;
+  }
+
+  /** True if the environment was overridden by the invoking process (i.e. daemon mode). */
+  public static boolean isOverridden() {
+    return envVars != null;
+  }
+
+  /** Get the working directory of the invoking process. */
+  public static Path getWorkingDir() {
+    return workingDir != null ? workingDir : Path.of(System.getProperty("user.dir"));
+  }
+
+  /**
+   * Resolve a path the user passed in, e.g. as a command option. A relative path is relative to the
+   * working directory of the invoking process.
+   */
+  public static Path resolvePath(Path path) {
+    return getWorkingDir().resolve(path);
+  }
+
+  /** Get all environment variables of the invoking process. */
+  public static Map<String, String> getEnvVars() {
+    return envVars != null ? envVars : System.getenv();
+  }
+
+  /**
+   * True if the standard in of the invoking process is a pipe or a file, so that it can be passed
+   * on to a tool command, e.g. `cat file | terra gsutil cp - gs://...`.
+   */
+  public static boolean isStdInPipeOrFile() {
+    return isOverridden() ? stdInPipeOrFile : isProcessStdInPipeOrFile();
+  }
+
+  /**
+   * True if the standard in of the current JVM is a pipe or a file. This is false for a terminal or
+   * /dev/null, and on systems that don't expose the file type of /dev/stdin.
+   */
+  public static boolean isProcessStdInPipeOrFile() {
+    try {
+      int fileType = (int) Files.getAttribute(Path.of("/dev/stdin"), "unix:mode") & FILE_TYPE_MASK;
+      return fileType == FILE_TYPE_FIFO
+          || fileType == FILE_TYPE_REGULAR
+          || fileType == FILE_TYPE_SOCKET;
+    } catch (IOException | UnsupportedOperationException | IllegalArgumentException ex) {
+      return false;
+    }
+  }
+
+  /** Get a single environment variable of the invoking process, or null if it's not defined. */
+  @Nullable
+  public static String getEnvVar(String name) {
+    return getEnvVars().get(name);
+  }
+}
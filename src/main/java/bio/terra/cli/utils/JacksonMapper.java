@@ -10,6 +10,10 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.Collections;
 import java.util.List;
 import org.slf4j.Logger;
@@ -115,4 +119,44 @@ public class JacksonMapper {
     logger.debug("Serializing object with Jackson to file: {}", outputFile.getAbsolutePath());
     objectWriter.writeValue(outputFile, javaObject);
   }
+
+  /**
+   * Write a Java object to a JSON-formatted file that only the current user can read (e.g. because
+   * it holds credentials). The object is written to a temporary file in the same directory first
+   * and then moved into place, so readers never see a partially written file.
+   *
+   * @param outputFile the file to write to
+   * @param javaObject the Java object to write
+   * @param <T> the Java object class to write
+   */
+  public static <T> void writeJavaObjectToPrivateFile(File outputFile, T javaObject)
+      throws IOException {
+    Path outputPath = outputFile.toPath().toAbsolutePath();
+    Files.createDirectories(outputPath.getParent());
+    Path tempPath;
+    try {
+      tempPath =
+          Files.createTempFile(
+              outputPath.getParent(),
+              outputPath.getFileName().toString(),
+              ".tmp",
+              PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+    } catch (UnsupportedOperationException uoEx) {
+      // not a POSIX filesystem (e.g. Windows), fall back to the default permissions
+      tempPath =
+          Files.createTempFile(outputPath.getParent(), outputPath.getFileName().toString(), ".tmp");
+    }
+
+    try {
+      logger.debug("Serializing object with Jackson to file: {}", outputPath);
+      getMapper().writerWithDefaultPrettyPrinter().writeValue(tempPath.toFile(), javaObject);
+      Files.move(
+          tempPath,
+          outputPath,
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tempPath);
+    }
+  }
 }
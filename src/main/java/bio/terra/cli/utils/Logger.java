@@ -30,6 +30,12 @@ public class Logger {
   private static final long MAX_FILE_SIZE = 5 * FileSize.MB_COEFFICIENT; // 5 MB
   private static final int MAX_NUM_FILES = 5;
 
+  // logging levels and file used by the last call to setupLogging, so that commands served by the
+  // daemon don't rebuild the appenders when nothing has changed
+  private static LogLevel currentConsoleLoggingLevel;
+  private static LogLevel currentFileLoggingLevel;
+  private static File currentLogFile;
+
   /**
    * Setup a file and console appender for the root logger. Each may use a different logging level,
    * as specified in the global context.
@@ -37,10 +43,21 @@ public class Logger {
   @SuppressFBWarnings(
       value = "NP_NULL_ON_SOME_PATH_FROM_RETURN_VALUE",
       justification =
-          "An NPE would only happen here if there was an error getting the global context directory,"
-              + " and an exception would have been thrown earlier when we first read in the global "
-              + "context file anyway.")
+          "An NPE would only happen here if there was an error getting the global context"
+              + " directory, and an exception would have been thrown earlier when we first read in"
+              + " the global context file anyway.")
   public static void setupLogging(LogLevel consoleLoggingLevel, LogLevel fileLoggingLevel) {
+    File logFile = Context.getLogFile().toFile();
+    if (consoleLoggingLevel == currentConsoleLoggingLevel
+        && fileLoggingLevel == currentFileLoggingLevel
+        && logFile.equals(currentLogFile)
+        && logFile.exists()) {
+      return;
+    }
+    currentConsoleLoggingLevel = consoleLoggingLevel;
+    currentFileLoggingLevel = fileLoggingLevel;
+    currentLogFile = logFile;
+
     LoggerContext loggerContext = (LoggerContext) LoggerFactory.getILoggerFactory();
     loggerContext.reset();
 
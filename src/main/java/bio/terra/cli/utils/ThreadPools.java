@@ -0,0 +1,31 @@
+package bio.terra.cli.utils;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Utility methods for creating thread pools for work that a command does concurrently. */
+public class ThreadPools {
+  private ThreadPools() {}
+
+  /**
+   * Create a fixed-size thread pool. The threads are daemon threads, so that an abandoned task
+   * (e.g. a prefetch that's no longer needed) never keeps the CLI process from exiting. Callers
+   * should still shut down the pool when they're done with it.
+   *
+   * @param name prefix for the thread names, which show up in the log file
+   * @param numThreads maximum number of tasks to run at the same time
+   * @return the thread pool
+   */
+  public static ExecutorService newFixedDaemonPool(String name, int numThreads) {
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory =
+        runnable -> {
+          Thread thread = new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        };
+    return Executors.newFixedThreadPool(numThreads, threadFactory);
+  }
+}
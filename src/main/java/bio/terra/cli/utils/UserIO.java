@@ -51,8 +51,9 @@ public class UserIO {
     if (userIO == null) {
       initialize(DEFAULT_OUT_STREAM, DEFAULT_ERR_STREAM, DEFAULT_IN_STREAM);
     } else {
-      logger.warn(
-          "Printing setup called multiple times. This is expected when testing, not during normal operation.");
+      logger.debug(
+          "Printing setup called multiple times. This is expected when testing or running in the"
+              + " daemon, not during normal operation.");
     }
     cmd.setOut(getPrintWriter(userIO.out));
     cmd.setErr(getPrintWriter(userIO.err));
@@ -113,6 +114,19 @@ public class UserIO {
     return userIO.in;
   }
 
+  /**
+   * Check whether the CLI is reading and writing the real standard streams of this process, as
+   * opposed to streams redirected by tests or by the daemon.
+   *
+   * @return true if a child process can inherit standard in, out and err
+   */
+  public static boolean isProcessStdio() {
+    return userIO == null
+        || (userIO.out == DEFAULT_OUT_STREAM
+            && userIO.err == DEFAULT_ERR_STREAM
+            && userIO.in == DEFAULT_IN_STREAM);
+  }
+
   /** Utility method to get a UTF-8 encoded character output stream from a raw byte stream. */
   private static PrintWriter getPrintWriter(PrintStream printStream) {
     return new PrintWriter(printStream, true, StandardCharsets.UTF_8);
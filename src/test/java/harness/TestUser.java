@@ -153,6 +153,10 @@ public class TestUser {
 
     // do the login flow to populate the global context with the current user
     User.login();
+
+    // this runs outside of a command, so write the context to disk here instead of at the end of
+    // the command
+    Context.flushToDisk();
   }
 
   public void login() throws IOException {
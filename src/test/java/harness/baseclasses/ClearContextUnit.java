@@ -34,6 +34,7 @@ public class ClearContextUnit {
 
     // logout the current user
     Context.getUser().ifPresent(User::logout);
+    Context.flushToDisk();
 
     // set the server to the one specified by the test
     // (see the Gradle test task for how this env var gets set from a Gradle property)
@@ -2,6 +2,7 @@ package unit;
 
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
@@ -12,14 +13,18 @@ import bio.terra.cli.serialization.userfacing.UFConfig;
 import bio.terra.cli.serialization.userfacing.UFLoggingConfig;
 import bio.terra.cli.serialization.userfacing.UFServer;
 import bio.terra.cli.serialization.userfacing.UFWorkspace;
+import bio.terra.cli.serialization.userfacing.resource.UFGcsBucket;
 import bio.terra.cli.utils.Logger;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import harness.TestCommand;
 import harness.TestCommand.Result;
 import harness.baseclasses.SingleWorkspaceUnit;
 import harness.utils.WorkspaceUtils;
 import java.io.IOException;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
@@ -66,7 +71,7 @@ public class Config extends SingleWorkspaceUnit {
   }
 
   @Test
-  @DisplayName("resource limit config throws error if exceeded")
+  @DisplayName("resource limit config only limits how many resources are kept in memory")
   void resourceLimit() throws IOException {
     workspaceCreator.login();
 
@@ -90,12 +95,23 @@ public class Config extends SingleWorkspaceUnit {
     // set the resource limit to 1
     TestCommand.runCommandExpectSuccess("config", "set", "resource-limit", "--max=1");
 
-    // expect an error when listing the 2 resources created above
-    String stdErr = TestCommand.runCommandExpectExitCode(2, "resource", "list");
-    assertThat(
-        "error thrown when resource limit exceeded",
-        stdErr,
-        containsString("Total number of resources (2) exceeds the CLI limit (1)"));
+    // `terra resource list --type=GCS_BUCKET --format=json`
+    List<UFGcsBucket> listedResources =
+        TestCommand.runAndParseCommandExpectSuccess(
+            new TypeReference<>() {}, "resource", "list", "--type=GCS_BUCKET");
+    List<String> listedNames =
+        listedResources.stream().map(resource -> resource.name).collect(Collectors.toList());
+    assertThat("both resources are listed", listedNames, hasItems(name1, name2));
+
+    // `terra resource describe --name=$name --format=json` reads each resource back from the cache
+    UFGcsBucket describedResource1 =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsBucket.class, "resource", "describe", "--name=" + name1);
+    assertEquals(bucketName1, describedResource1.bucketName, "describe resource 1 bucket name");
+    UFGcsBucket describedResource2 =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsBucket.class, "resource", "describe", "--name=" + name2);
+    assertEquals(bucketName2, describedResource2.bucketName, "describe resource 2 bucket name");
   }
 
   @Test
@@ -242,6 +258,28 @@ public class Config extends SingleWorkspaceUnit {
     config = TestCommand.runAndParseCommandExpectSuccess(UFConfig.class, "config", "list");
     assertEquals(3, config.resourcesCacheSize, "list reflects set for resource-limit");
 
+    // `terra config set data-collection-ttl --minutes=5`
+    TestCommand.runCommandExpectSuccess("config", "set", "data-collection-ttl", "--minutes=5");
+    // `terra config get data-collection-ttl`
+    int dataCollectionTtl =
+        TestCommand.runAndParseCommandExpectSuccess(
+            Integer.class, "config", "get", "data-collection-ttl");
+    assertEquals(5, dataCollectionTtl, "get reflects set for data-collection-ttl");
+    // `terra config list`
+    config = TestCommand.runAndParseCommandExpectSuccess(UFConfig.class, "config", "list");
+    assertEquals(
+        5, config.dataCollectionCacheTtlMinutes, "list reflects set for data-collection-ttl");
+
+    // `terra config set docker-reuse --idle-minutes=10`
+    TestCommand.runCommandExpectSuccess("config", "set", "docker-reuse", "--idle-minutes=10");
+    // `terra config get docker-reuse`
+    int dockerReuse =
+        TestCommand.runAndParseCommandExpectSuccess(Integer.class, "config", "get", "docker-reuse");
+    assertEquals(10, dockerReuse, "get reflects set for docker-reuse");
+    // `terra config list`
+    config = TestCommand.runAndParseCommandExpectSuccess(UFConfig.class, "config", "list");
+    assertEquals(10, config.dockerReuseIdleMinutes, "list reflects set for docker-reuse");
+
     // `terra config set logging --console --level=ERROR`
     TestCommand.runCommandExpectSuccess("config", "set", "logging", "--console", "--level=ERROR");
     // `terra config set logging --file --level=TRACE`
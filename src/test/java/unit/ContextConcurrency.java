@@ -0,0 +1,182 @@
+package unit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.businessobject.ContextFile;
+import bio.terra.cli.serialization.persisted.PDContext;
+import bio.terra.cli.utils.FileUtils;
+import bio.terra.cli.utils.JacksonMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.util.concurrent.Uninterruptibles;
+import harness.TestCommand;
+import harness.baseclasses.ClearContextUnit;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for sharing the context file between many concurrent writers and readers. */
+@Tag("unit")
+public class ContextConcurrency extends ClearContextUnit {
+  private static final int NUM_WRITERS = 16;
+  private static final int NUM_WRITES_PER_WRITER = 10;
+  private static final int CACHE_SIZE_OFFSET = 1000;
+  // recent enough that the final command doesn't re-run the version check
+  private static final OffsetDateTime BASE_TIME =
+      OffsetDateTime.now(ZoneOffset.UTC)
+          .truncatedTo(ChronoUnit.SECONDS)
+          .minusSeconds(NUM_WRITERS * NUM_WRITES_PER_WRITER);
+
+  @Test
+  @DisplayName("concurrent writers of different sections don't lose each other's changes")
+  void concurrentWritersMerge() throws Exception {
+    // `terra config list` to make sure there's a context file to start from
+    TestCommand.runCommandExpectSuccess("config", "list");
+
+    ContextFile contextFile =
+        new ContextFile(Context.getContextFile(), Context.getContextDir().resolve("context.lock"));
+    PDContext initialContext = contextFile.read().orElseThrow();
+    ObjectMapper objectMapper = JacksonMapper.getMapper();
+
+    // each writer is like a separate command: it read the context at the start, and at the end it
+    // writes the one section it changed. even writers change the config, odd writers change the
+    // version check
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_WRITERS + 1);
+    AtomicBoolean writersDone = new AtomicBoolean(false);
+    Future<Integer> reader =
+        executor.submit(
+            () -> {
+              // readers never block and never see a partially written file
+              int numReads = 0;
+              do {
+                contextFile.read().orElseThrow();
+                numReads++;
+              } while (!writersDone.get());
+              return numReads;
+            });
+    List<Future<?>> writers = new ArrayList<>();
+    for (int writer = 0; writer < NUM_WRITERS; writer++) {
+      final int writerNum = writer;
+      writers.add(
+          executor.submit(
+              () -> {
+                for (int write = 0; write < NUM_WRITES_PER_WRITER; write++) {
+                  int value = writerNum * NUM_WRITES_PER_WRITER + write;
+                  ObjectNode changes = objectMapper.valueToTree(initialContext);
+                  Context.Section section;
+                  if (writerNum % 2 == 0) {
+                    ((ObjectNode) changes.get("config"))
+                        .put("resourcesCacheSize", CACHE_SIZE_OFFSET + value);
+                    section = Context.Section.CONFIG;
+                  } else {
+                    changes
+                        .putObject("versionCheck")
+                        .put("lastVersionCheckTime", BASE_TIME.plusSeconds(value).toString());
+                    section = Context.Section.VERSION_CHECK;
+                  }
+                  contextFile.update(
+                      objectMapper.treeToValue(changes, PDContext.class),
+                      EnumSet.of(section),
+                      initialContext.version);
+                }
+                return null;
+              }));
+    }
+    for (Future<?> writer : writers) {
+      writer.get(2, TimeUnit.MINUTES);
+    }
+    writersDone.set(true);
+    assertThat("reader read the file", reader.get(1, TimeUnit.MINUTES), greaterThanOrEqualTo(1));
+    executor.shutdown();
+
+    // every write incremented the version
+    PDContext finalContext = contextFile.read().orElseThrow();
+    assertEquals(
+        initialContext.version + NUM_WRITERS * NUM_WRITES_PER_WRITER,
+        finalContext.version,
+        "no writes were lost");
+
+    // both sections have a value from one of their writers, and the other sections are untouched
+    int cacheSizeValue = finalContext.config.resourcesCacheSize - CACHE_SIZE_OFFSET;
+    assertThat(cacheSizeValue, greaterThanOrEqualTo(0));
+    assertThat(cacheSizeValue, lessThan(NUM_WRITERS * NUM_WRITES_PER_WRITER));
+    assertEquals(
+        0, (cacheSizeValue / NUM_WRITES_PER_WRITER) % 2, "config was written by a config writer");
+    long versionCheckValue =
+        Duration.between(BASE_TIME, finalContext.versionCheck.lastVersionCheckTime).toSeconds();
+    assertEquals(
+        1,
+        (versionCheckValue / NUM_WRITES_PER_WRITER) % 2,
+        "version check was written by a version check writer");
+    assertEquals(
+        objectMapper.valueToTree(initialContext.server),
+        objectMapper.valueToTree(finalContext.server),
+        "server is unchanged");
+
+    // `terra config get resource-limit` reads the merged file
+    TestCommand.Result cmd = TestCommand.runCommand("config", "get", "resource-limit");
+    assertEquals(0, cmd.exitCode, "config get returned successfully");
+    assertTrue(
+        cmd.stdOut.contains(String.valueOf(finalContext.config.resourcesCacheSize)),
+        "config get shows the merged value");
+  }
+
+  @Test
+  @DisplayName("a lock held on one file doesn't hold up updates to the context file")
+  void locksArePerFile() throws Exception {
+    // `terra config list` to make sure there's a context file to start from
+    TestCommand.runCommandExpectSuccess("config", "list");
+
+    ContextFile contextFile =
+        new ContextFile(Context.getContextFile(), Context.getContextDir().resolve("context.lock"));
+    PDContext initialContext = contextFile.read().orElseThrow();
+
+    // hold the lock on another file, e.g. the resources index during a sync, until released
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    CountDownLatch otherLockTaken = new CountDownLatch(1);
+    CountDownLatch releaseOtherLock = new CountDownLatch(1);
+    Future<?> otherLockHolder =
+        executor.submit(
+            () ->
+                FileUtils.callWithFileLock(
+                    Context.getContextDir().resolve("other.lock"),
+                    () -> {
+                      otherLockTaken.countDown();
+                      Uninterruptibles.awaitUninterruptibly(releaseOtherLock);
+                      return null;
+                    }));
+    assertTrue(otherLockTaken.await(1, TimeUnit.MINUTES), "other lock was taken");
+
+    // the context file update doesn't wait for the other lock
+    Future<?> update =
+        executor.submit(
+            () ->
+                contextFile.update(
+                    initialContext, EnumSet.of(Context.Section.CONFIG), initialContext.version));
+    try {
+      update.get(1, TimeUnit.MINUTES);
+    } finally {
+      releaseOtherLock.countDown();
+    }
+    otherLockHolder.get(1, TimeUnit.MINUTES);
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,60 @@
+package unit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.daemon.DaemonInfo;
+import bio.terra.cli.utils.JacksonMapper;
+import harness.TestCommand;
+import harness.baseclasses.ClearContextUnit;
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the `terra daemon` commands. */
+@Tag("unit")
+public class Daemon extends ClearContextUnit {
+  @Test
+  @DisplayName("daemon status when no daemon was started")
+  void statusNotRunning() {
+    // `terra daemon status`
+    TestCommand.Result cmd = TestCommand.runCommand("daemon", "status");
+    assertEquals(0, cmd.exitCode, "daemon status returned successfully");
+    assertThat(cmd.stdOut, containsString("Daemon is not running."));
+  }
+
+  @Test
+  @DisplayName("daemon stop cleans up after a daemon that is no longer running")
+  void stopCleansUpStaleInfoFile() throws IOException {
+    // write an info file for a daemon that isn't listening, as if it had been killed
+    File daemonInfoFile = Context.getContextDir().resolve("daemon.json").toFile();
+    JacksonMapper.writeJavaObjectToFile(
+        daemonInfoFile,
+        new DaemonInfo.Builder()
+            .port(1)
+            .token("stale")
+            .pid(Long.MAX_VALUE)
+            .version(bio.terra.cli.utils.Version.getVersion())
+            .idleTimeoutMinutes(30)
+            .build());
+
+    // `terra daemon status`
+    TestCommand.Result cmd = TestCommand.runCommand("daemon", "status");
+    assertEquals(0, cmd.exitCode, "daemon status returned successfully");
+    assertThat(
+        "stale info file is not reported as running",
+        cmd.stdOut,
+        containsString("Daemon is not running."));
+
+    // `terra daemon stop`
+    cmd = TestCommand.runCommand("daemon", "stop");
+    assertEquals(0, cmd.exitCode, "daemon stop returned successfully");
+    assertThat(cmd.stdOut, containsString("Daemon is not running."));
+    assertFalse(daemonInfoFile.exists(), "stale info file was deleted");
+  }
+}
@@ -0,0 +1,192 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.app.CommandRunner;
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.DataCollection;
+import bio.terra.cli.exception.SystemException;
+import bio.terra.cli.serialization.persisted.resource.PDDataCollection;
+import bio.terra.cli.serialization.persisted.resource.PDGitRepo;
+import bio.terra.cli.utils.UserIO;
+import bio.terra.workspace.model.StewardshipType;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for building the environment variables for the resources in data collections, which are
+ * fetched concurrently. These use resources built in memory, instead of fetching data collections
+ * from Workspace Manager, so that the order the fetches finish in, and failed and slow fetches, can
+ * be controlled.
+ */
+@Tag("unit")
+public class DataCollectionEnvVars {
+  private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(30);
+
+  private ByteArrayOutputStream stdErr;
+
+  @BeforeEach
+  void captureStdErr() {
+    stdErr = new ByteArrayOutputStream();
+    UserIO.initialize(
+        new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+        new PrintStream(stdErr, true, StandardCharsets.UTF_8),
+        null);
+  }
+
+  @Test
+  @DisplayName("references are added in the order of the resources, whichever fetch finishes first")
+  void referencesInResourceOrder() {
+    // data collections "a" and "a_b" both have a resource whose env var is TERRA_a_b_c
+    DataCollection dataCollectionA = buildDataCollection("a");
+    DataCollection dataCollectionAB = buildDataCollection("a_b");
+    Map<DataCollection, List<Resource>> contents =
+        Map.of(
+            dataCollectionA, List.of(buildGitRepo("b_c", "from-a")),
+            dataCollectionAB, List.of(buildGitRepo("c", "from-a_b")));
+
+    // the fetch of whichever data collection is first in the list finishes last
+    Map<String, String> abLast =
+        CommandRunner.buildMapOfTerraReferences(
+            List.of(dataCollectionA, dataCollectionAB),
+            fetchInReverseOrder(dataCollectionA, contents),
+            FETCH_TIMEOUT);
+    assertEquals(
+        "from-a_b", abLast.get("TERRA_a_b_c"), "the later data collection in the list wins");
+
+    Map<String, String> aLast =
+        CommandRunner.buildMapOfTerraReferences(
+            List.of(dataCollectionAB, dataCollectionA),
+            fetchInReverseOrder(dataCollectionAB, contents),
+            FETCH_TIMEOUT);
+    assertEquals("from-a", aLast.get("TERRA_a_b_c"), "the later data collection in the list wins");
+
+    // a workspace resource after a data collection replaces a reference into it with the same name
+    Map<String, String> withWorkspaceResource =
+        CommandRunner.buildMapOfTerraReferences(
+            List.of(dataCollectionA, buildGitRepo("a_b_c", "from-workspace")),
+            contents::get,
+            FETCH_TIMEOUT);
+    assertEquals(
+        "from-workspace",
+        withWorkspaceResource.get("TERRA_a_b_c"),
+        "the later workspace resource wins");
+  }
+
+  @Test
+  @DisplayName("a data collection that can't be fetched is skipped with a warning")
+  void failedDataCollectionSkipped() {
+    DataCollection readable = buildDataCollection("readable");
+    DataCollection broken = buildDataCollection("broken");
+    Map<String, String> references =
+        CommandRunner.buildMapOfTerraReferences(
+            List.of(buildGitRepo("repo", "url"), broken, readable),
+            dataCollection -> {
+              if (dataCollection == broken) {
+                throw new SystemException("Error fetching the data collection workspace.");
+              }
+              return List.of(buildGitRepo("repo", "readable-url"));
+            },
+            FETCH_TIMEOUT);
+
+    assertEquals(
+        Map.of("TERRA_repo", "url", "TERRA_readable_repo", "readable-url"),
+        references,
+        "references into the other data collection are added");
+    String stdErrString = stdErr.toString(StandardCharsets.UTF_8);
+    assertTrue(
+        stdErrString.contains("Skipping data collection broken"), "warning names the collection");
+    assertFalse(
+        stdErrString.contains("Skipping data collection readable"), "no warning for the others");
+  }
+
+  @Test
+  @DisplayName("a data collection that isn't fetched before the timeout is skipped with a warning")
+  void timedOutDataCollectionSkipped() {
+    DataCollection fast = buildDataCollection("fast");
+    DataCollection slow = buildDataCollection("slow");
+    CountDownLatch releaseSlowFetch = new CountDownLatch(1);
+    long startNanos = System.nanoTime();
+    Map<String, String> references;
+    try {
+      references =
+          CommandRunner.buildMapOfTerraReferences(
+              List.of(slow, fast),
+              dataCollection -> {
+                if (dataCollection == slow) {
+                  // like a blocking HTTP call, this doesn't stop when the fetch is cancelled
+                  Uninterruptibles.awaitUninterruptibly(releaseSlowFetch);
+                }
+                return List.of(buildGitRepo("repo", dataCollection.getName() + "-url"));
+              },
+              Duration.ofMillis(500));
+    } finally {
+      releaseSlowFetch.countDown();
+    }
+
+    assertTrue(
+        Duration.ofNanos(System.nanoTime() - startNanos).compareTo(FETCH_TIMEOUT) < 0,
+        "the slow fetch didn't hold up the references");
+    assertEquals(
+        Map.of("TERRA_fast_repo", "fast-url"),
+        references,
+        "references into the other data collection are added");
+    assertTrue(
+        stdErr.toString(StandardCharsets.UTF_8).contains("Skipping data collection slow"),
+        "warning names the collection");
+  }
+
+  /**
+   * Build a fetch function that returns the contents of each data collection, where the fetch of
+   * the given data collection waits for all the other fetches to finish first.
+   */
+  private static Function<DataCollection, List<Resource>> fetchInReverseOrder(
+      DataCollection finishesLast, Map<DataCollection, List<Resource>> contents) {
+    CountDownLatch othersFinished = new CountDownLatch(contents.size() - 1);
+    return dataCollection -> {
+      if (dataCollection == finishesLast) {
+        Uninterruptibles.awaitUninterruptibly(othersFinished);
+      } else {
+        othersFinished.countDown();
+      }
+      return contents.get(dataCollection);
+    };
+  }
+
+  private static DataCollection buildDataCollection(String name) {
+    return (DataCollection)
+        new PDDataCollection.Builder()
+            .dataCollectionWorkspaceUuid(UUID.randomUUID())
+            .id(UUID.randomUUID())
+            .name(name)
+            .resourceType(Resource.Type.DATA_COLLECTION)
+            .stewardshipType(StewardshipType.REFERENCED)
+            .build()
+            .deserializeToInternal();
+  }
+
+  private static Resource buildGitRepo(String name, String gitRepoUrl) {
+    return new PDGitRepo.Builder()
+        .gitRepoUrl(gitRepoUrl)
+        .id(UUID.randomUUID())
+        .name(name)
+        .resourceType(Resource.Type.GIT_REPO)
+        .stewardshipType(StewardshipType.REFERENCED)
+        .build()
+        .deserializeToInternal();
+  }
+}
@@ -1,12 +1,17 @@
 package unit;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItems;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static unit.GcsBucketControlled.listBucketResourcesWithName;
 import static unit.GcsBucketControlled.listOneBucketResourceWithName;
 
+import bio.terra.cli.serialization.userfacing.UFResource;
 import bio.terra.cli.serialization.userfacing.resource.UFGcsBucket;
 import bio.terra.workspace.model.CloningInstructionsEnum;
+import bio.terra.workspace.model.StewardshipType;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.cloud.Identity;
 import com.google.cloud.storage.BucketInfo;
 import harness.TestCommand;
@@ -16,6 +21,7 @@ import harness.utils.Auth;
 import harness.utils.ExternalGCSBuckets;
 import java.io.IOException;
 import java.util.List;
+import java.util.stream.Collectors;
 import org.hamcrest.CoreMatchers;
 import org.json.JSONObject;
 import org.junit.jupiter.api.AfterAll;
@@ -147,6 +153,58 @@ public class GcsBucketReferenced extends SingleWorkspaceUnit {
     assertEquals(0, matchedResources.size(), "no resource found with this name");
   }
 
+  @Test
+  @DisplayName("list filters on stewardship and type, and sorts by name")
+  void listFiltersAndSorts() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // add the references in reverse order of their names
+    String nameA = "listFiltersAndSorts_a";
+    String nameB = "listFiltersAndSorts_b";
+    for (String name : List.of(nameB, nameA)) {
+      // `terra resource add-ref gcs-bucket --name=$name --bucket-name=$bucketName`
+      TestCommand.runCommandExpectSuccess(
+          "resource",
+          "add-ref",
+          "gcs-bucket",
+          "--name=" + name,
+          "--bucket-name=" + externalSharedBucket.getName());
+    }
+
+    // `terra resource list --type=GCS_BUCKET --stewardship=REFERENCED --format=json`
+    List<UFGcsBucket> referencedBuckets =
+        TestCommand.runAndParseCommandExpectSuccess(
+            new TypeReference<>() {},
+            "resource",
+            "list",
+            "--type=GCS_BUCKET",
+            "--stewardship=REFERENCED");
+    List<String> names =
+        referencedBuckets.stream().map(bucket -> bucket.name).collect(Collectors.toList());
+    assertThat("both references are listed", names, hasItems(nameA, nameB));
+    assertTrue(names.indexOf(nameA) < names.indexOf(nameB), "list is sorted by name");
+    assertTrue(
+        referencedBuckets.stream()
+            .allMatch(bucket -> bucket.stewardshipType == StewardshipType.REFERENCED),
+        "list only includes referenced resources");
+
+    // `terra resource list --stewardship=CONTROLLED --format=json`
+    List<UFResource> controlledResources =
+        TestCommand.runAndParseCommandExpectSuccess(
+            new TypeReference<>() {}, "resource", "list", "--stewardship=CONTROLLED");
+    assertTrue(
+        controlledResources.stream()
+            .noneMatch(resource -> resource.name.equals(nameA) || resource.name.equals(nameB)),
+        "list does not include the references when filtering on controlled resources");
+
+    // `terra resource delete --name=$name`
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + nameA, "--quiet");
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + nameB, "--quiet");
+  }
+
   @Test
   @DisplayName("resolve a referenced bucket")
   void resolve() throws IOException {
@@ -0,0 +1,212 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.businessobject.GcsObjectStats;
+import bio.terra.cli.serialization.userfacing.UFGcsObjectStats;
+import com.google.cloud.Identity;
+import com.google.cloud.storage.Blob;
+import com.google.cloud.storage.BucketInfo;
+import com.google.cloud.storage.Storage;
+import harness.TestCommand;
+import harness.baseclasses.SingleWorkspaceUnit;
+import harness.utils.Auth;
+import harness.utils.ExternalGCSBuckets;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for counting the objects in a GCS bucket with `terra resource describe --stats`. */
+@Tag("unit")
+public class GcsBucketStats extends SingleWorkspaceUnit {
+  // objects at different depths of the "/" hierarchy, so that the listing is split into several
+  // levels of shards, including ones deeper than the levels that are split further
+  private static final List<String> BLOB_NAMES =
+      List.of("top.txt", "a/one", "a/b/two", "a/b/c/three", "a/b/c/d/four", "z/five");
+  // size of each blob written by ExternalGCSBuckets.writeBlob
+  private static final long BLOB_SIZE = "test blob data".length();
+
+  // external bucket to use for creating GCS bucket references in the workspace
+  private BucketInfo externalBucket;
+
+  @BeforeAll
+  @Override
+  protected void setupOnce() throws Exception {
+    super.setupOnce();
+    externalBucket = ExternalGCSBuckets.createBucketWithUniformAccess();
+
+    // grant the user's proxy group access to the bucket so that it will pass WSM's access check
+    // when adding it as a referenced resource
+    ExternalGCSBuckets.grantWriteAccess(externalBucket, Identity.group(Auth.getProxyGroupEmail()));
+
+    for (String blobName : BLOB_NAMES) {
+      ExternalGCSBuckets.writeBlob(
+          workspaceCreator.getCredentialsWithCloudPlatformScope(),
+          externalBucket.getName(),
+          blobName);
+    }
+  }
+
+  @AfterAll
+  @Override
+  protected void cleanupOnce() throws Exception {
+    super.cleanupOnce();
+
+    // need to delete all the objects in the bucket before we can delete the bucket
+    try {
+      Storage storageClient =
+          ExternalGCSBuckets.getStorageClient(
+              workspaceCreator.getCredentialsWithCloudPlatformScope());
+      for (Blob blob : storageClient.list(externalBucket.getName()).iterateAll()) {
+        storageClient.delete(blob.getBlobId());
+      }
+    } catch (IOException ioEx) {
+      System.out.println("Error deleting objects in the external bucket.");
+      ioEx.printStackTrace();
+    }
+
+    ExternalGCSBuckets.deleteBucket(externalBucket);
+    externalBucket = null;
+  }
+
+  @Test
+  @DisplayName("--stats adds up the objects in every shard of the bucket and of a folder")
+  void statsSumAllShards() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource add-ref gcs-bucket --name=$name --bucket-name=$bucketName`
+    String name = "statsSumAllShards";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-bucket",
+        "--name=" + name,
+        "--bucket-name=" + externalBucket.getName());
+
+    // `terra resource describe --name=$name --stats --refresh --format=json`
+    UFGcsObjectStats bucketStats =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsObjectStats.class,
+            "resource",
+            "describe",
+            "--name=" + name,
+            "--stats",
+            "--refresh");
+    assertEquals(externalBucket.getName(), bucketStats.bucketName, "output matches bucket name");
+    assertEquals(BLOB_NAMES.size(), bucketStats.numObjects, "all objects are counted");
+    assertEquals(BLOB_NAMES.size() * BLOB_SIZE, bucketStats.totalBytes, "all sizes are summed");
+    assertTrue(bucketStats.complete, "listing is complete");
+    assertFalse(bucketStats.fromCache, "--refresh lists the objects");
+
+    // `terra resource add-ref gcs-object --name=$name --bucket-name=$bucketName
+    // --object-name=a/`
+    String folderName = "statsSumAllShardsFolder";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-object",
+        "--name=" + folderName,
+        "--bucket-name=" + externalBucket.getName(),
+        "--object-name=a/");
+
+    // `terra resource describe --name=$folderName --stats --format=json`
+    UFGcsObjectStats folderStats =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsObjectStats.class, "resource", "describe", "--name=" + folderName, "--stats");
+    assertEquals("a/", folderStats.prefix, "stats are for the folder");
+    assertEquals(4, folderStats.numObjects, "objects under the folder are counted");
+    assertEquals(4 * BLOB_SIZE, folderStats.totalBytes, "sizes under the folder are summed");
+  }
+
+  @Test
+  @DisplayName("--stats reuses cached counts until --refresh")
+  void statsCachedUntilRefresh() throws IOException, InterruptedException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource add-ref gcs-object --name=$name --bucket-name=$bucketName
+    // --object-name=z/`
+    String name = "statsCachedUntilRefresh";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-object",
+        "--name=" + name,
+        "--bucket-name=" + externalBucket.getName(),
+        "--object-name=z/");
+
+    // `terra resource describe --name=$name --stats --refresh --format=json`
+    UFGcsObjectStats listed =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsObjectStats.class,
+            "resource",
+            "describe",
+            "--name=" + name,
+            "--stats",
+            "--refresh");
+    assertEquals(1, listed.numObjects, "one object under the folder");
+
+    // add an object under the folder
+    ExternalGCSBuckets.writeBlob(
+        workspaceCreator.getCredentialsWithCloudPlatformScope(), externalBucket.getName(), "z/six");
+
+    // `terra resource describe --name=$name --stats --format=json`
+    UFGcsObjectStats cached =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsObjectStats.class, "resource", "describe", "--name=" + name, "--stats");
+    assertTrue(cached.fromCache, "stats are read from the cache");
+    assertEquals(1, cached.numObjects, "cached stats don't include the new object");
+    assertTrue(
+        listed.computedDate.isEqual(cached.computedDate), "cached stats keep the computed date");
+
+    // `terra resource describe --name=$name --stats --refresh --format=json`
+    UFGcsObjectStats refreshed =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsObjectStats.class,
+            "resource",
+            "describe",
+            "--name=" + name,
+            "--stats",
+            "--refresh");
+    assertFalse(refreshed.fromCache, "--refresh lists the objects");
+    assertEquals(2, refreshed.numObjects, "refreshed stats include the new object");
+
+    // `terra resource describe --name=$name --refresh`
+    TestCommand.runCommandExpectExitCode(1, "resource", "describe", "--name=" + name, "--refresh");
+  }
+
+  @Test
+  @DisplayName("a listing stopped at the maximum duration is marked incomplete and not cached")
+  void statsStoppedAtMaxDuration() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource describe` rejects a maximum duration that isn't positive, so list directly
+    // with a deadline that has already passed when the first page is requested
+    String prefix = "a/b/";
+    GcsObjectStats stopped =
+        GcsObjectStats.get(externalBucket.getName(), prefix, Duration.ZERO, false, true);
+    assertFalse(stopped.isComplete(), "listing stopped at the deadline is incomplete");
+    assertTrue(stopped.getNumObjects() < 3, "incomplete listing counts a lower bound");
+
+    // the incomplete result wasn't cached, so the next listing counts everything
+    GcsObjectStats full = GcsObjectStats.get(externalBucket.getName(), prefix, null, false, false);
+    assertFalse(full.isFromCache(), "incomplete stats are not cached");
+    assertTrue(full.isComplete(), "listing without a deadline is complete");
+    assertEquals(3, full.getNumObjects(), "listing without a deadline counts every object");
+  }
+}
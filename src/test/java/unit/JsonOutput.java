@@ -0,0 +1,111 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.command.shared.options.Format;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.UserIO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the JSON and NDJSON output helpers in {@link Format}, without running a command. */
+@Tag("unit")
+public class JsonOutput {
+  private ByteArrayOutputStream stdOut;
+
+  @BeforeEach
+  void captureStdOut() {
+    stdOut = new ByteArrayOutputStream();
+    UserIO.initialize(
+        new PrintStream(stdOut, true, StandardCharsets.UTF_8),
+        new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+        null);
+  }
+
+  @Test
+  @DisplayName("a JSON array that's written in full parses")
+  void jsonArrayComplete() throws JsonProcessingException {
+    Format.printJsonArray(List.of(Map.of("name", "a"), Map.of("name", "b")).iterator());
+
+    List<Map<String, String>> parsed =
+        JacksonMapper.getMapper()
+            .readValue(
+                stdOut.toString(StandardCharsets.UTF_8),
+                new TypeReference<List<Map<String, String>>>() {});
+    assertEquals(List.of(Map.of("name", "a"), Map.of("name", "b")), parsed);
+  }
+
+  @Test
+  @DisplayName("a JSON array that fails partway is left open, so it doesn't parse")
+  void jsonArrayFailedPartway() {
+    Iterator<Map<String, String>> failsAfterFirst =
+        new Iterator<>() {
+          private boolean returnedFirst;
+
+          @Override
+          public boolean hasNext() {
+            return true;
+          }
+
+          @Override
+          public Map<String, String> next() {
+            if (returnedFirst) {
+              throw new IllegalStateException("error fetching the next element");
+            }
+            returnedFirst = true;
+            return Map.of("name", "a");
+          }
+        };
+    assertThrows(IllegalStateException.class, () -> Format.printJsonArray(failsAfterFirst));
+
+    String output = stdOut.toString(StandardCharsets.UTF_8);
+    assertTrue(output.contains("\"a\""), "the first element was written");
+    assertThrows(
+        JsonProcessingException.class,
+        () -> JacksonMapper.getMapper().readTree(output),
+        "truncated array doesn't parse");
+  }
+
+  @Test
+  @DisplayName("NDJSON prints one compact JSON object per line for each list element")
+  void ndjsonList() throws JsonProcessingException {
+    Format.printNdjson(List.of(Map.of("name", "a"), Map.of("name", "b, \"c\"")));
+
+    String[] lines = stdOut.toString(StandardCharsets.UTF_8).split("\n", -1);
+    assertEquals(3, lines.length, "one line per element, each ending in a newline");
+    assertEquals("{\"name\":\"a\"}", lines[0], "elements are compact JSON");
+    assertEquals(
+        Map.of("name", "b, \"c\""),
+        JacksonMapper.getMapper().readValue(lines[1], new TypeReference<Map<String, String>>() {}),
+        "each line parses on its own");
+    assertEquals("", lines[2], "nothing after the last newline");
+  }
+
+  @Test
+  @DisplayName("NDJSON prints an object that isn't a list on one line")
+  void ndjsonSingleObject() {
+    Format.printNdjson(Map.of("name", "a"));
+
+    assertEquals("{\"name\":\"a\"}\n", stdOut.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("NDJSON prints nothing for an empty list")
+  void ndjsonEmptyList() {
+    Format.printNdjsonElements(List.of().iterator());
+
+    assertEquals("", stdOut.toString(StandardCharsets.UTF_8));
+  }
+}
@@ -2,10 +2,20 @@ package unit;
 
 import static harness.utils.ExternalBQDatasets.randomDatasetId;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import bio.terra.cli.app.utils.LocalProcessLauncher;
+import bio.terra.cli.app.utils.ToolResolver;
+import bio.terra.cli.businessobject.Context;
+import bio.terra.cli.serialization.persisted.PDResolvedTool;
+import bio.terra.cli.serialization.persisted.PDResolvedTools;
 import bio.terra.cli.serialization.userfacing.UFWorkspace;
 import bio.terra.cli.serialization.userfacing.resource.UFBqDataset;
+import bio.terra.cli.utils.InvocationEnvironment;
+import bio.terra.cli.utils.JacksonMapper;
+import bio.terra.cli.utils.UserIO;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.cloud.Identity;
 import com.google.cloud.storage.BucketInfo;
@@ -16,13 +26,19 @@ import harness.utils.Auth;
 import harness.utils.ExternalGCSBuckets;
 import harness.utils.TestUtils;
 import harness.utils.WorkspaceUtils;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.apache.commons.io.FileUtils;
 import org.hamcrest.CoreMatchers;
@@ -131,6 +147,178 @@ public class PassthroughApps extends SingleWorkspaceUnit {
     TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + name, "--quiet");
   }
 
+  @Test
+  @DisplayName("env vars are rebuilt when a workspace resource changes")
+  void resourceEnvVarsAfterChange() throws IOException {
+    workspaceCreator.login(/*writeGcloudAuthFiles=*/ true);
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra app execute echo \$TERRA_$name`, before the resource exists
+    String name = "resourceEnvVarsAfterChange";
+    TestCommand.Result cmd = TestCommand.runCommand("app", "execute", "echo", "$TERRA_" + name);
+    String bucketName = UUID.randomUUID().toString();
+    assertThat(
+        "TERRA_$resourceName not set before the resource is created",
+        cmd.stdOut,
+        CoreMatchers.not(CoreMatchers.containsString(bucketName)));
+
+    // `terra resource create gcs-bucket --name=$name --bucket-name=$bucketName`
+    TestCommand.runCommandExpectSuccess(
+        "resource", "create", "gcs-bucket", "--name=" + name, "--bucket-name=" + bucketName);
+
+    // `terra app execute echo \$TERRA_$name`
+    cmd = TestCommand.runCommand("app", "execute", "echo", "$TERRA_" + name);
+    assertThat(
+        "TERRA_$resourceName set after the resource is created",
+        cmd.stdOut,
+        CoreMatchers.containsString(ExternalGCSBuckets.getGsPath(bucketName)));
+
+    // `terra resource delete --name=$name`
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + name, "--quiet");
+
+    // `terra app execute echo \$TERRA_$name`
+    cmd = TestCommand.runCommand("app", "execute", "echo", "$TERRA_" + name);
+    assertThat(
+        "TERRA_$resourceName not set after the resource is deleted",
+        cmd.stdOut,
+        CoreMatchers.not(CoreMatchers.containsString(bucketName)));
+  }
+
+  @Test
+  @DisplayName("tool output keeps stdout and stderr separate")
+  void toolOutputStreams() throws IOException {
+    workspaceCreator.login(/*writeGcloudAuthFiles=*/ true);
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra app execute echo terra-stdout; echo terra-stderr >&2`
+    TestCommand.Result cmd =
+        TestCommand.runCommand(
+            "app", "execute", "echo", "terra-stdout;", "echo", "terra-stderr", ">&2");
+    assertThat(
+        "stdout is written to stdout", cmd.stdOut, CoreMatchers.containsString("terra-stdout"));
+    assertThat(
+        "stderr isn't written to stdout",
+        cmd.stdOut,
+        CoreMatchers.not(CoreMatchers.containsString("terra-stderr")));
+    assertThat(
+        "stderr is written to stderr", cmd.stdErr, CoreMatchers.containsString("terra-stderr"));
+  }
+
+  @Test
+  @DisplayName("local process input and output bytes are copied unchanged")
+  void localProcessBinaryStreams() {
+    // every byte value, which isn't valid UTF-8
+    byte[] binaryInput = new byte[256];
+    for (int i = 0; i < binaryInput.length; i++) {
+      binaryInput[i] = (byte) i;
+    }
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    ByteArrayOutputStream stdErr = new ByteArrayOutputStream();
+    UserIO.initialize(
+        new PrintStream(stdOut, true, StandardCharsets.UTF_8),
+        new PrintStream(stdErr, true, StandardCharsets.UTF_8),
+        new ByteArrayInputStream(binaryInput));
+
+    // `cat; echo terra-stderr >&2`, connected to the streams above
+    LocalProcessLauncher localProcessLauncher = new LocalProcessLauncher();
+    localProcessLauncher.launchProcessWithUserIO(
+        List.of("bash", "-c", "cat; echo terra-stderr >&2"), new HashMap<>(), true);
+    assertEquals(0, localProcessLauncher.waitForTerminate(), "process exited successfully");
+
+    assertArrayEquals(binaryInput, stdOut.toByteArray(), "stdin was copied to stdout unchanged");
+    assertEquals(
+        "terra-stderr\n", stdErr.toString(StandardCharsets.UTF_8), "stderr was copied to stderr");
+  }
+
+  @Test
+  @DisplayName(
+      "local process stdin is empty unless connected, or the daemon client's is a terminal")
+  void localProcessStdInNotConnected() {
+    ByteArrayOutputStream stdOut = new ByteArrayOutputStream();
+    UserIO.initialize(
+        new PrintStream(stdOut, true, StandardCharsets.UTF_8),
+        new PrintStream(new ByteArrayOutputStream(), true, StandardCharsets.UTF_8),
+        new ByteArrayInputStream("terra-stdin".getBytes(StandardCharsets.UTF_8)));
+
+    // e.g. one of several commands running at the same time
+    LocalProcessLauncher notConnected = new LocalProcessLauncher();
+    notConnected.launchProcessWithUserIO(List.of("cat"), new HashMap<>(), false);
+    assertEquals(0, notConnected.waitForTerminate(), "process exited successfully");
+    assertEquals(0, stdOut.size(), "stdin wasn't copied to the process");
+
+    // running in the daemon, for a client whose stdin is a terminal
+    InvocationEnvironment.initialize(
+        InvocationEnvironment.getWorkingDir(), System.getenv(), /*clientStdInPipeOrFile=*/ false);
+    try {
+      LocalProcessLauncher clientTerminal = new LocalProcessLauncher();
+      clientTerminal.launchProcessWithUserIO(List.of("cat"), new HashMap<>(), true);
+      assertEquals(0, clientTerminal.waitForTerminate(), "process exited successfully");
+    } finally {
+      InvocationEnvironment.reset();
+    }
+    assertEquals(0, stdOut.size(), "stdin wasn't copied to the process");
+  }
+
+  @Test
+  @DisplayName("tool executables are resolved once and then read from the cache")
+  void toolResolvedFromCache() throws IOException {
+    // `terra config list` to make sure there's a context directory
+    TestCommand.runCommandExpectSuccess("config", "list");
+    Path toolsFile = Context.getContextDir().resolve("tools.json");
+    Files.deleteIfExists(toolsFile);
+
+    // the first lookup runs `git --version` and writes the result to the cache
+    Path gitPath = ToolResolver.resolve("git", "--version").orElseThrow();
+    assertTrue(gitPath.isAbsolute(), "resolved path is absolute");
+    PDResolvedTools resolvedTools =
+        JacksonMapper.readFileIntoJavaObject(toolsFile.toFile(), PDResolvedTools.class);
+    assertEquals(gitPath.toString(), resolvedTools.tools.get("git").absolutePath);
+    assertThat(resolvedTools.tools.get("git").version, CoreMatchers.containsString("git"));
+
+    // mark the cached entry, so that we can tell whether the next lookup runs the probe again. a
+    // probe rewrites the entry with the real version
+    PDResolvedTool probed = resolvedTools.tools.get("git");
+    writeResolvedTool(
+        toolsFile,
+        new PDResolvedTool(
+            probed.pathEntry, probed.absolutePath, probed.lastModifiedMillis, "cached-marker"));
+
+    // the second lookup uses the cache without running the probe, and returns the same path
+    assertEquals(gitPath, ToolResolver.resolve("git", "--version").orElseThrow());
+    resolvedTools = JacksonMapper.readFileIntoJavaObject(toolsFile.toFile(), PDResolvedTools.class);
+    assertEquals(
+        "cached-marker", resolvedTools.tools.get("git").version, "second lookup skips the probe");
+
+    // if the executable's modified time changes, the lookup runs the probe again
+    writeResolvedTool(
+        toolsFile,
+        new PDResolvedTool(
+            probed.pathEntry, probed.absolutePath, probed.lastModifiedMillis - 1, "cached-marker"));
+    assertEquals(gitPath, ToolResolver.resolve("git", "--version").orElseThrow());
+    resolvedTools = JacksonMapper.readFileIntoJavaObject(toolsFile.toFile(), PDResolvedTools.class);
+    assertEquals(probed.version, resolvedTools.tools.get("git").version, "changed tool is probed");
+    assertEquals(probed.lastModifiedMillis, resolvedTools.tools.get("git").lastModifiedMillis);
+
+    // a tool that isn't on the PATH isn't cached
+    assertTrue(
+        ToolResolver.resolve("terra-no-such-tool", "--version").isEmpty(),
+        "missing tool is not resolved");
+    resolvedTools = JacksonMapper.readFileIntoJavaObject(toolsFile.toFile(), PDResolvedTools.class);
+    assertTrue(
+        !resolvedTools.tools.containsKey("terra-no-such-tool"), "missing tool is not cached");
+  }
+
+  /** Overwrite the tools cache file with a single entry for git. */
+  private static void writeResolvedTool(Path toolsFile, PDResolvedTool gitTool) throws IOException {
+    Files.writeString(
+        toolsFile,
+        JacksonMapper.getMapper().writeValueAsString(new PDResolvedTools(Map.of("git", gitTool))));
+  }
+
   @Test
   @DisplayName("gcloud is configured with the workspace project and user")
   void gcloudConfigured() throws IOException {
@@ -285,6 +473,66 @@ public class PassthroughApps extends SingleWorkspaceUnit {
     TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource2Name, "--quiet");
   }
 
+  @Test
+  @DisplayName("git clone --all --parallel")
+  void gitCloneAllParallel() throws IOException {
+    String resource1Name = TestUtils.appendRandomNumber("repo1");
+    String resource2Name = TestUtils.appendRandomNumber("repo2");
+    String resource3Name = TestUtils.appendRandomNumber("repo3");
+
+    workspaceCreator.login(/*writeGcloudAuthFiles=*/ true);
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "git-repo",
+        "--name=" + resource1Name,
+        "--repo-url=https://github.com/DataBiosphere/terra-example-notebooks.git");
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "git-repo",
+        "--name=" + resource2Name,
+        "--repo-url=https://github.com/DataBiosphere/terra.git");
+
+    // `terra git clone --all --parallel=2`
+    TestCommand.Result cmd = TestCommand.runCommand("git", "clone", "--all", "--parallel=2");
+    assertEquals(0, cmd.exitCode, "git clone returned successfully");
+    assertThat(
+        "progress line for each repo",
+        cmd.stdOut,
+        CoreMatchers.allOf(
+            CoreMatchers.containsString("Cloned https://github.com/DataBiosphere/terra.git"),
+            CoreMatchers.containsString(
+                "Cloned https://github.com/DataBiosphere/terra-example-notebooks.git")));
+    assertTrue(
+        Files.exists(Paths.get(System.getProperty("user.dir"), "terra-example-notebooks", ".git")));
+    assertTrue(Files.exists(Paths.get(System.getProperty("user.dir"), "terra", ".git")));
+
+    // cloning again fails, because the directories already exist
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "git-repo",
+        "--name=" + resource3Name,
+        "--repo-url=https://github.com/DataBiosphere/terra-cli.git");
+    cmd = TestCommand.runCommand("git", "clone", "--all", "--parallel=2");
+    assertEquals(1, cmd.exitCode, "git clone returned failure");
+    assertThat(
+        "summary lists the failed repos",
+        cmd.stdErr,
+        CoreMatchers.containsString("Failed to clone 2 of 3 git repos"));
+    assertTrue(Files.exists(Paths.get(System.getProperty("user.dir"), "terra-cli", ".git")));
+
+    FileUtils.deleteQuietly(new File(System.getProperty("user.dir") + "/terra-example-notebooks"));
+    FileUtils.deleteQuietly(new File(System.getProperty("user.dir") + "/terra"));
+    FileUtils.deleteQuietly(new File(System.getProperty("user.dir") + "/terra-cli"));
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource1Name, "--quiet");
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource2Name, "--quiet");
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + resource3Name, "--quiet");
+  }
+
   @Test
   @DisplayName("git clone resource")
   void gitCloneResource() throws IOException {
@@ -0,0 +1,198 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static unit.GcsBucketControlled.listOneBucketResourceWithName;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.businessobject.resource.GcsBucket;
+import bio.terra.cli.serialization.persisted.resource.PDGcsBucket;
+import bio.terra.cli.serialization.userfacing.resource.UFGcsBucket;
+import bio.terra.workspace.model.StewardshipType;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.cloud.Identity;
+import com.google.cloud.storage.BucketInfo;
+import com.google.common.util.concurrent.Uninterruptibles;
+import harness.TestCommand;
+import harness.baseclasses.SingleWorkspaceUnit;
+import harness.utils.Auth;
+import harness.utils.ExternalGCSBuckets;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for looking up the cloud properties of resources (e.g. a bucket's location) in `terra
+ * resource list` and `terra resource describe`, skipping the lookups with --no-enrich, and not
+ * waiting for lookups past the deadline.
+ */
+@Tag("unit")
+public class ResourceEnrichment extends SingleWorkspaceUnit {
+  // external bucket to use for creating GCS bucket references in the workspace
+  private BucketInfo externalBucket;
+
+  @BeforeAll
+  @Override
+  protected void setupOnce() throws Exception {
+    super.setupOnce();
+    externalBucket = ExternalGCSBuckets.createBucketWithUniformAccess();
+
+    // grant the user's proxy group access to the bucket so that it will pass WSM's access check
+    // when adding it as a referenced resource
+    ExternalGCSBuckets.grantWriteAccess(externalBucket, Identity.group(Auth.getProxyGroupEmail()));
+  }
+
+  @AfterAll
+  @Override
+  protected void cleanupOnce() throws Exception {
+    super.cleanupOnce();
+    ExternalGCSBuckets.deleteBucket(externalBucket);
+    externalBucket = null;
+  }
+
+  @Test
+  @DisplayName("describe looks up the bucket properties, unless --no-enrich")
+  void describeEnriched() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource add-ref gcs-bucket --name=$name --bucket-name=$bucketName`
+    String name = "describeEnriched";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-bucket",
+        "--name=" + name,
+        "--bucket-name=" + externalBucket.getName());
+
+    // `terra resource describe --name=$name --format=json`
+    UFGcsBucket describeResource =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsBucket.class, "resource", "describe", "--name=" + name);
+    assertEquals(
+        externalBucket.getLocation(),
+        describeResource.location,
+        "describe resource location matches bucket location");
+    assertEquals(0, describeResource.numObjects, "describe resource numObjects is zero");
+
+    // `terra resource describe --name=$name --no-enrich --format=json`
+    UFGcsBucket describeNoEnrich =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFGcsBucket.class, "resource", "describe", "--name=" + name, "--no-enrich");
+    assertEquals(
+        externalBucket.getName(),
+        describeNoEnrich.bucketName,
+        "describe --no-enrich output matches bucket name");
+    assertNull(describeNoEnrich.location, "describe --no-enrich location is unknown");
+    assertNull(describeNoEnrich.numObjects, "describe --no-enrich numObjects is unknown");
+
+    // `terra resource delete --name=$name`
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + name, "--quiet");
+  }
+
+  @Test
+  @DisplayName("list looks up the bucket properties, unless --no-enrich")
+  void listEnriched() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource add-ref gcs-bucket --name=$name --bucket-name=$bucketName`
+    String name = "listEnriched";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-bucket",
+        "--name=" + name,
+        "--bucket-name=" + externalBucket.getName());
+
+    // `terra resource list --type=GCS_BUCKET --format=json`
+    UFGcsBucket listedResource = listOneBucketResourceWithName(name);
+    assertEquals(
+        externalBucket.getLocation(),
+        listedResource.location,
+        "list location matches bucket location");
+
+    // `terra resource list --type=GCS_BUCKET --no-enrich --format=json`
+    List<UFGcsBucket> listedNoEnrich =
+        TestCommand.runAndParseCommandExpectSuccess(
+                new TypeReference<List<UFGcsBucket>>() {},
+                "resource",
+                "list",
+                "--type=GCS_BUCKET",
+                "--no-enrich")
+            .stream()
+            .filter(resource -> resource.name.equals(name))
+            .collect(Collectors.toList());
+    assertEquals(1, listedNoEnrich.size(), "list --no-enrich includes the bucket");
+    assertNull(listedNoEnrich.get(0).location, "list --no-enrich location is unknown");
+
+    // `terra resource delete --name=$name`
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + name, "--quiet");
+  }
+
+  @Test
+  @DisplayName("a lookup that doesn't finish before the deadline is shown as unknown")
+  void slowLookupShownAsUnknown() {
+    GcsBucket fastBucket = buildBucket("fast");
+    GcsBucket slowBucket = buildBucket("slow");
+    CountDownLatch releaseSlowLookup = new CountDownLatch(1);
+    long startNanos = System.nanoTime();
+    try {
+      // the fast lookup finishes right away, the slow one only after the test is over
+      bio.terra.cli.businessobject.ResourceEnrichment enrichment =
+          bio.terra.cli.businessobject.ResourceEnrichment.fetch(
+              List.of(fastBucket, slowBucket),
+              resource ->
+                  () -> {
+                    if (resource == slowBucket) {
+                      Uninterruptibles.awaitUninterruptibly(releaseSlowLookup);
+                    }
+                    return resource.getName() + "-metadata";
+                  },
+              Duration.ofMillis(500));
+
+      assertEquals(
+          Optional.of("fast-metadata"),
+          enrichment.get(fastBucket, String.class),
+          "the fast lookup is returned");
+      assertEquals(
+          Optional.empty(),
+          enrichment.get(slowBucket, String.class),
+          "the slow lookup is unknown after the deadline");
+      UFGcsBucket slowBucketOutput = slowBucket.serializeToCommand(enrichment);
+      assertEquals("slow", slowBucketOutput.bucketName, "output has the bucket name");
+      assertNull(slowBucketOutput.location, "output location is unknown");
+      assertNull(slowBucketOutput.numObjects, "output numObjects is unknown");
+    } finally {
+      releaseSlowLookup.countDown();
+    }
+    assertTrue(
+        Duration.ofNanos(System.nanoTime() - startNanos).compareTo(Duration.ofSeconds(30)) < 0,
+        "the slow lookup didn't hold up the output");
+  }
+
+  private static GcsBucket buildBucket(String name) {
+    return new PDGcsBucket.Builder()
+        .bucketName(name)
+        .id(UUID.randomUUID())
+        .name(name)
+        .resourceType(Resource.Type.GCS_BUCKET)
+        .stewardshipType(StewardshipType.REFERENCED)
+        .build()
+        .deserializeToInternal();
+  }
+}
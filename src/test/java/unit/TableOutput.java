@@ -0,0 +1,266 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.app.utils.tables.ColumnDefinition;
+import bio.terra.cli.app.utils.tables.DelimitedTableWriter.Delimiter;
+import bio.terra.cli.app.utils.tables.TablePrinter;
+import bio.terra.cli.app.utils.tables.TableWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for printing tables as text, with fixed or automatic column widths, and as comma- or
+ * tab-separated values, without running a command.
+ */
+@Tag("unit")
+public class TableOutput {
+  private static final TablePrinter<String[]> TABLE_PRINTER = TestColumns::values;
+
+  @Test
+  @DisplayName("cells are padded to the column width on the side of their alignment")
+  void cellsPadded() {
+    assertEquals("ab   ", formatCell(5, ColumnDefinition.Alignment.LEFT, "ab"));
+    assertEquals("   ab", formatCell(5, ColumnDefinition.Alignment.RIGHT, "ab"));
+    assertEquals("abcde", formatCell(5, ColumnDefinition.Alignment.LEFT, "abcde"));
+  }
+
+  @Test
+  @DisplayName("cells longer than the column are truncated with a mark")
+  void cellsTruncated() {
+    assertEquals("abcdefg...", formatCell(10, ColumnDefinition.Alignment.LEFT, "abcdefghijkl"));
+    assertEquals("abcdefg...", formatCell(10, ColumnDefinition.Alignment.RIGHT, "abcdefghijkl"));
+    // no room for the mark
+    assertEquals("ab", formatCell(2, ColumnDefinition.Alignment.LEFT, "abcdef"));
+  }
+
+  @Test
+  @DisplayName("empty cells show the placeholder")
+  void cellsPlaceholder() {
+    assertEquals("(unset)   ", formatCell(10, ColumnDefinition.Alignment.LEFT, null));
+    assertEquals("(unset)   ", formatCell(10, ColumnDefinition.Alignment.LEFT, ""));
+    assertEquals("(unset)", formatCell(7, ColumnDefinition.Alignment.LEFT, null));
+  }
+
+  @Test
+  @DisplayName("labels are cut to the column width without a mark, and left-aligned")
+  void labels() {
+    assertEquals(
+        "NAME", new TestColumn("NAME LONG", 4, ColumnDefinition.Alignment.RIGHT).formatLabel());
+    assertEquals("ID    ", new TestColumn("ID", 6, ColumnDefinition.Alignment.RIGHT).formatLabel());
+  }
+
+  @Test
+  @DisplayName("columns have their fixed widths, with values truncated to fit")
+  void fixedWidths() {
+    List<String> lines = new ArrayList<>();
+    int numRows =
+        TABLE_PRINTER
+            .writer()
+            .write(
+                List.of(new String[] {"a", "b"}, new String[] {"abcdefgh", null}).iterator(),
+                lines::add);
+
+    assertEquals(2, numRows, "number of rows doesn't count the header");
+    assertEquals(List.of("NAME   DESCRIPTIO", "a      b         ", "ab...  (unset)   "), lines);
+  }
+
+  @Test
+  @DisplayName("the highlight column stars the highlighted rows")
+  void highlight() {
+    List<String> lines = new ArrayList<>();
+    TABLE_PRINTER
+        .writer()
+        .highlight(row -> row[0].equals("b"))
+        .write(List.of(new String[] {"a", "x"}, new String[] {"b", "y"}).iterator(), lines::add);
+
+    assertEquals(
+        List.of("   NAME   DESCRIPTIO", "   a      x         ", " ✓ b      y         "), lines);
+  }
+
+  @Test
+  @DisplayName("auto width sizes the columns to the sampled rows, and truncates later rows")
+  void autoWidth() {
+    List<String> lines = new ArrayList<>();
+    TABLE_PRINTER
+        .writer()
+        .autoWidth(2)
+        .write(
+            List.of(
+                    new String[] {"abcdefgh", "x"},
+                    new String[] {"a", "a long description"},
+                    new String[] {"abcdefghijkl", "a longer description"})
+                .iterator(),
+            lines::add);
+
+    assertEquals(
+        List.of(
+            "NAME      DESCRIPTION       ",
+            "abcdefgh  x                 ",
+            "a         a long description",
+            "abcde...  a longer descri..."),
+        lines);
+  }
+
+  @Test
+  @DisplayName("auto width keeps the label width and fits the placeholder")
+  void autoWidthShortValues() {
+    List<String> lines = new ArrayList<>();
+    TABLE_PRINTER
+        .writer()
+        .autoWidth(TableWriter.DEFAULT_AUTO_WIDTH_SAMPLE_SIZE)
+        .write(List.<String[]>of(new String[] {"a", null}).iterator(), lines::add);
+
+    assertEquals(List.of("NAME  DESCRIPTION", "a     (unset)    "), lines);
+  }
+
+  @Test
+  @DisplayName("print builds the whole table, with an empty line for a table with no rows")
+  void print() {
+    assertEquals(
+        "NAME   DESCRIPTIO\na      b         ",
+        TABLE_PRINTER.print(List.<String[]>of(new String[] {"a", "b"})));
+    assertEquals("NAME   DESCRIPTIO\n", TABLE_PRINTER.print(List.of()));
+  }
+
+  @Test
+  @DisplayName("CSV has the column labels, then one line per row, with the values in full")
+  void csvRows() {
+    List<String> lines =
+        writeDelimited(
+            Delimiter.CSV,
+            List.of(new String[] {"a", "a longer value than the column"}, new String[] {"b", ""}));
+    assertEquals(List.of("NAME,DESCRIPTION", "a,a longer value than the column", "b,"), lines);
+  }
+
+  @Test
+  @DisplayName("CSV quotes values with commas, quotes or line breaks, and doubles the quotes")
+  void csvEscaping() {
+    List<String> lines =
+        writeDelimited(
+            Delimiter.CSV,
+            List.of(
+                new String[] {"a,b", "say \"hi\""},
+                new String[] {"line\nbreak", "carriage\rreturn"}));
+    assertEquals("\"a,b\",\"say \"\"hi\"\"\"", lines.get(1));
+    assertEquals("\"line\nbreak\",\"carriage\rreturn\"", lines.get(2));
+  }
+
+  @Test
+  @DisplayName("TSV escapes tabs, line breaks and backslashes, so each row stays on one line")
+  void tsvEscaping() {
+    List<String> lines =
+        writeDelimited(
+            Delimiter.TSV,
+            List.of(new String[] {"a\tb", "line\nbreak\r"}, new String[] {"back\\slash", "a,b"}));
+    assertEquals("NAME\tDESCRIPTION", lines.get(0));
+    assertEquals("a\\tb\tline\\nbreak\\r", lines.get(1));
+    assertEquals("back\\\\slash\ta,b", lines.get(2));
+  }
+
+  @Test
+  @DisplayName("delimited null values are written as empty fields")
+  void delimitedNullValues() {
+    List<String> lines =
+        writeDelimited(Delimiter.CSV, List.<String[]>of(new String[] {null, null}));
+    assertEquals(List.of("NAME,DESCRIPTION", ","), lines);
+  }
+
+  @Test
+  @DisplayName("an empty delimited table is just the column labels")
+  void delimitedEmptyTable() {
+    assertEquals(List.of("NAME,DESCRIPTION"), writeDelimited(Delimiter.CSV, List.of()));
+  }
+
+  /** Helper method to format a single cell in a column of the given width and alignment. */
+  private static String formatCell(
+      int width, ColumnDefinition.Alignment alignment, String rawText) {
+    return new TestColumn("LABEL", width, alignment).formatCell(rawText);
+  }
+
+  /** Helper method to write a table as delimited values, and return its lines. */
+  private static List<String> writeDelimited(Delimiter delimiter, List<String[]> rows) {
+    List<String> lines = new ArrayList<>();
+    TABLE_PRINTER.delimitedWriter(delimiter).write(rows.iterator(), lines::add);
+    return lines;
+  }
+
+  /** Columns of a table whose rows are arrays of values. */
+  private enum TestColumns implements ColumnDefinition<String[]> {
+    NAME("NAME", row -> row[0], 5, Alignment.LEFT),
+    DESCRIPTION("DESCRIPTION", row -> row[1], 10, Alignment.LEFT);
+
+    private final String columnLabel;
+    private final Function<String[], String> valueExtractor;
+    private final int width;
+    private final Alignment alignment;
+
+    TestColumns(
+        String columnLabel,
+        Function<String[], String> valueExtractor,
+        int width,
+        Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.valueExtractor = valueExtractor;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<String[], String> getValueExtractor() {
+      return valueExtractor;
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+
+  /** A single column whose rows are the cell values, for testing the cell formatting. */
+  private static class TestColumn implements ColumnDefinition<String> {
+    private final String columnLabel;
+    private final int width;
+    private final Alignment alignment;
+
+    TestColumn(String columnLabel, int width, Alignment alignment) {
+      this.columnLabel = columnLabel;
+      this.width = width;
+      this.alignment = alignment;
+    }
+
+    @Override
+    public String getLabel() {
+      return columnLabel;
+    }
+
+    @Override
+    public Function<String, String> getValueExtractor() {
+      return Function.identity();
+    }
+
+    @Override
+    public int getWidth() {
+      return width;
+    }
+
+    @Override
+    public Alignment getAlignment() {
+      return alignment;
+    }
+  }
+}
@@ -0,0 +1,63 @@
+package unit;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import bio.terra.cli.businessobject.Context;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import harness.TestCommand;
+import harness.baseclasses.ClearContextUnit;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the global `--timings` option. */
+@Tag("unit")
+public class Timings extends ClearContextUnit {
+  @Test
+  @DisplayName("--timings prints the phases of the command to stderr")
+  void printsReport() {
+    // `terra version --timings`
+    TestCommand.Result cmd = TestCommand.runCommand("version", "--timings");
+    assertEquals(0, cmd.exitCode, "version returned successfully");
+    assertThat("phases table is printed", cmd.stdErr, containsString("PHASE"));
+    assertThat("execute phase is timed", cmd.stdErr, containsString("execute"));
+    assertThat("total time is printed", cmd.stdErr, containsString("Total:"));
+    assertThat("report isn't printed to stdout", cmd.stdOut, not(containsString("PHASE")));
+
+    // `terra version`
+    cmd = TestCommand.runCommand("version");
+    assertEquals(0, cmd.exitCode, "version returned successfully");
+    assertThat("report isn't printed without --timings", cmd.stdErr, not(containsString("PHASE")));
+  }
+
+  @Test
+  @DisplayName("every command appends a line to the timings file")
+  void appendsToTimingsFile() throws IOException {
+    // the logs directory isn't cleared between tests, so count the lines added by this test
+    Path timingsFile =
+        Context.getContextDir().resolve(Context.LOGS_DIRNAME).resolve("timings.jsonl");
+    int numLinesBefore = Files.exists(timingsFile) ? Files.readAllLines(timingsFile).size() : 0;
+
+    // `terra version`
+    TestCommand.runCommand("version");
+    // `terra config list`
+    TestCommand.runCommand("config", "list");
+
+    List<String> lines = Files.readAllLines(timingsFile);
+    assertEquals(numLinesBefore + 2, lines.size(), "one line per command");
+
+    JsonNode lastCommand = new ObjectMapper().readTree(lines.get(lines.size() - 1));
+    assertEquals("terra config list", lastCommand.get("command").asText(), "command name");
+    assertEquals(0, lastCommand.get("exitCode").asInt(), "exit code");
+    assertThat(
+        "phases are recorded", lastCommand.get("phases").toString(), containsString("execute"));
+  }
+}
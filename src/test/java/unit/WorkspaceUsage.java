@@ -0,0 +1,128 @@
+package unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import bio.terra.cli.businessobject.Resource;
+import bio.terra.cli.serialization.userfacing.UFResourceUsage;
+import bio.terra.cli.serialization.userfacing.UFWorkspaceUsage;
+import com.google.cloud.Identity;
+import com.google.cloud.storage.BucketInfo;
+import harness.TestCommand;
+import harness.baseclasses.SingleWorkspaceUnit;
+import harness.utils.Auth;
+import harness.utils.ExternalGCSBuckets;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/** Tests for the `terra workspace usage` command. */
+@Tag("unit")
+public class WorkspaceUsage extends SingleWorkspaceUnit {
+  // external bucket to use for creating GCS bucket references in the workspace
+  private BucketInfo externalBucket;
+
+  @BeforeAll
+  @Override
+  protected void setupOnce() throws Exception {
+    super.setupOnce();
+    externalBucket = ExternalGCSBuckets.createBucketWithUniformAccess();
+
+    // grant the user's proxy group access to the bucket so that it will pass WSM's access check
+    // when adding it as a referenced resource
+    ExternalGCSBuckets.grantWriteAccess(externalBucket, Identity.group(Auth.getProxyGroupEmail()));
+  }
+
+  @AfterAll
+  @Override
+  protected void cleanupOnce() throws Exception {
+    super.cleanupOnce();
+    ExternalGCSBuckets.deleteBucket(externalBucket);
+    externalBucket = null;
+  }
+
+  @Test
+  @DisplayName("usage includes a referenced bucket, --since-last reuses it, --refresh rescans it")
+  void bucketUsage() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra resource add-ref gcs-bucket --name=$name --bucket-name=$bucketName`
+    String name = "bucketUsage";
+    TestCommand.runCommandExpectSuccess(
+        "resource",
+        "add-ref",
+        "gcs-bucket",
+        "--name=" + name,
+        "--bucket-name=" + externalBucket.getName());
+
+    // `terra workspace usage --format=json`
+    UFWorkspaceUsage usage =
+        TestCommand.runAndParseCommandExpectSuccess(UFWorkspaceUsage.class, "workspace", "usage");
+    UFResourceUsage bucketUsage = getResourceUsage(usage, name);
+    assertEquals(Resource.Type.GCS_BUCKET, bucketUsage.resourceType, "usage resource type");
+    assertEquals(0L, bucketUsage.numBytes, "usage numBytes is zero");
+    assertEquals(0L, bucketUsage.numItems, "usage numItems is zero");
+    assertFalse(bucketUsage.fromLastSnapshot, "usage scanned the bucket");
+
+    // `terra workspace usage --since-last --format=json`
+    UFWorkspaceUsage usageSinceLast =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFWorkspaceUsage.class, "workspace", "usage", "--since-last");
+    UFResourceUsage bucketUsageSinceLast = getResourceUsage(usageSinceLast, name);
+    assertTrue(bucketUsageSinceLast.fromLastSnapshot, "usage --since-last reused the bucket");
+    assertTrue(
+        bucketUsage.scannedDate.isEqual(bucketUsageSinceLast.scannedDate),
+        "usage --since-last kept the scanned date");
+
+    // `terra workspace usage --since-last --refresh --format=json`
+    UFWorkspaceUsage usageRefreshed =
+        TestCommand.runAndParseCommandExpectSuccess(
+            UFWorkspaceUsage.class, "workspace", "usage", "--since-last", "--refresh");
+    UFResourceUsage bucketUsageRefreshed = getResourceUsage(usageRefreshed, name);
+    assertFalse(bucketUsageRefreshed.fromLastSnapshot, "usage --refresh scanned the bucket again");
+    assertTrue(
+        bucketUsageRefreshed.scannedDate.isAfter(bucketUsage.scannedDate),
+        "usage --refresh updated the scanned date");
+
+    // `terra resource delete --name=$name`
+    TestCommand.runCommandExpectSuccess("resource", "delete", "--name=" + name, "--quiet");
+  }
+
+  @Test
+  @DisplayName("usage prints just its table as CSV, and commands without a table reject CSV")
+  void csvFormat() throws IOException {
+    workspaceCreator.login();
+
+    // `terra workspace set --id=$id`
+    TestCommand.runCommandExpectSuccess("workspace", "set", "--id=" + getUserFacingId());
+
+    // `terra workspace describe --format=csv`
+    TestCommand.runCommandExpectExitCode(1, "workspace", "describe", "--format=csv");
+
+    // `terra workspace usage --format=csv`
+    String[] csvLines =
+        TestCommand.runAndGetResultExpectSuccess("workspace", "usage", "--format=csv")
+            .stdOut
+            .split("\n");
+    assertTrue(csvLines[0].startsWith("NAME,"), "usage --format=csv prints just the table");
+  }
+
+  /** Helper method to get the usage of one resource from `terra workspace usage` output. */
+  private static UFResourceUsage getResourceUsage(UFWorkspaceUsage usage, String name) {
+    List<UFResourceUsage> matched =
+        usage.resources.stream()
+            .filter(resourceUsage -> name.equals(resourceUsage.resourceName))
+            .collect(Collectors.toList());
+    assertEquals(1, matched.size(), "usage includes the resource once");
+    return matched.get(0);
+  }
+}